@@ -8,12 +8,14 @@ import org.springframework.boot.web.servlet.ServletComponentScan;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ServletComponentScan // 添加此注解以确保WebFilter生效
 @EnableMongoAuditing // 启用MongoDB审计功能（自动设置创建时间、修改时间等）
 @Slf4j
 @EnableAsync
+@EnableScheduling // 启用定时任务（仪表盘每日快照、关键词定期刷新等）
 public class PelegantApplication {
 
     public static void main(String[] args) {
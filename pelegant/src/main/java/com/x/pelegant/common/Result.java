@@ -1,5 +1,6 @@
 package com.x.pelegant.common;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 /**
@@ -13,6 +14,12 @@ public class Result<T> {
     private T data;
     private Long total;
 
+    /**
+     * 键集分页的下一页游标（仅游标分页接口返回）
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
     public static <T> Result<T> success(T data) {
         Result<T> result = new Result<>();
         result.setSuccess(true);
@@ -2,7 +2,10 @@ package com.x.pelegant.config;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -17,6 +20,9 @@ public class AsyncConfig implements AsyncConfigurer {
 
     private ThreadPoolTaskExecutor executor;
 
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
     @Override
     public Executor getAsyncExecutor() {
         executor = new ThreadPoolTaskExecutor();
@@ -25,6 +31,7 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("AsyncThread-");
         executor.initialize();
+        ExecutorConfig.bindMetrics(executor, "asyncExecutor", meterRegistry.getIfAvailable());
         return executor;
     }
 
@@ -0,0 +1,157 @@
+package com.x.pelegant.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 共享线程池配置
+ * 业务代码统一注入这里的线程池，不再自行 Executors.new*；
+ * 每个线程池注册 executor.queued / executor.active / executor.pool.size 等指标（tag name=线程池名）
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    public static final String WORKER_EXECUTOR = "workerExecutor";
+    public static final String EMAIL_EXECUTOR = "emailExecutor";
+    public static final String INGEST_EXECUTOR = "ingestExecutor";
+    public static final String PASSWORD_EXECUTOR = "passwordExecutor";
+    public static final String EXPORT_EXECUTOR = "exportExecutor";
+    public static final String MIGRATION_EXECUTOR = "migrationExecutor";
+    public static final String IMPORT_EXECUTOR = "importExecutor";
+
+    /**
+     * 通用工作线程池：企业列表组装、职位分类、关键词加载等短任务
+     */
+    @Bean(name = WORKER_EXECUTOR)
+    public ThreadPoolTaskExecutor workerExecutor(ObjectProvider<MeterRegistry> meterRegistry) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = newExecutor("worker-", processors, processors * 2, 500);
+        bindMetrics(executor, WORKER_EXECUTOR, meterRegistry.getIfAvailable());
+        return executor;
+    }
+
+    /**
+     * 邮件发送线程池（SMTP 为阻塞 IO，线程数较多）
+     */
+    @Bean(name = EMAIL_EXECUTOR)
+    public ThreadPoolTaskExecutor emailExecutor(ObjectProvider<MeterRegistry> meterRegistry) {
+        ThreadPoolTaskExecutor executor = newExecutor("email-sender-", 10, 50, 1000);
+        bindMetrics(executor, EMAIL_EXECUTOR, meterRegistry.getIfAvailable());
+        return executor;
+    }
+
+    /**
+     * 流式导入处理线程池：每个导入流占用一个线程，不排队，满了直接拒绝（调用方返回 503），
+     * 不能使用 CallerRunsPolicy，否则解析线程会自己执行消费任务而死锁
+     */
+    @Bean(name = INGEST_EXECUTOR)
+    public ThreadPoolTaskExecutor ingestExecutor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                 @Value("${pelegant.ingest.max-concurrent-streams:4}") int maxStreams) {
+        ThreadPoolTaskExecutor executor = newExecutor("ingest-", maxStreams, maxStreams, 0,
+                new ThreadPoolExecutor.AbortPolicy());
+        bindMetrics(executor, INGEST_EXECUTOR, meterRegistry.getIfAvailable());
+        return executor;
+    }
+
+    /**
+     * 密码哈希线程池：BCrypt 为 CPU 密集型，线程数默认等于 CPU 核数，队列有界，
+     * 满了直接拒绝（登录返回 503），避免登录高峰占满请求线程和 CPU
+     */
+    @Bean(name = PASSWORD_EXECUTOR)
+    public ThreadPoolTaskExecutor passwordExecutor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                   @Value("${pelegant.password.threads:0}") int threads,
+                                                   @Value("${pelegant.password.queue-capacity:100}") int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = newExecutor("password-", size, size, queueCapacity,
+                new ThreadPoolExecutor.AbortPolicy());
+        bindMetrics(executor, PASSWORD_EXECUTOR, meterRegistry.getIfAvailable());
+        return executor;
+    }
+
+    /**
+     * 流式导出线程池：StreamingResponseBody 在这里写响应（长时间 IO），与业务线程池隔离
+     */
+    @Bean(name = EXPORT_EXECUTOR)
+    public ThreadPoolTaskExecutor exportExecutor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                 @Value("${pelegant.export.max-concurrent:4}") int maxConcurrent) {
+        ThreadPoolTaskExecutor executor = newExecutor("export-", maxConcurrent, maxConcurrent, 20);
+        bindMetrics(executor, EXPORT_EXECUTOR, meterRegistry.getIfAvailable());
+        return executor;
+    }
+
+    /**
+     * 爬虫数据迁移线程池：每批记录按公司分区后在这里并行去重、分类、写库；
+     * 只由迁移任务提交分区（分区任务不再提交），队列满时由迁移任务线程自己处理分区
+     */
+    @Bean(name = MIGRATION_EXECUTOR)
+    public ThreadPoolTaskExecutor migrationExecutor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                    @Value("${pelegant.migration.threads:0}") int threads) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = newExecutor("migration-", size, size, 100);
+        bindMetrics(executor, MIGRATION_EXECUTOR, meterRegistry.getIfAvailable());
+        return executor;
+    }
+
+    /**
+     * 教师 Excel 导入学生线程池：与爬虫导入流隔离，线程数少、队列有界，满了直接拒绝（上传返回 503），
+     * 导入在后台执行，不能由请求线程代为执行
+     */
+    @Bean(name = IMPORT_EXECUTOR)
+    public ThreadPoolTaskExecutor importExecutor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                 @Value("${pelegant.student-import.threads:2}") int threads,
+                                                 @Value("${pelegant.student-import.queue-capacity:4}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = newExecutor("student-import-", threads, threads, queueCapacity,
+                new ThreadPoolExecutor.AbortPolicy());
+        bindMetrics(executor, IMPORT_EXECUTOR, meterRegistry.getIfAvailable());
+        return executor;
+    }
+
+    /**
+     * 创建有界线程池，队列满时由调用线程执行，关闭时等待已提交任务完成
+     */
+    static ThreadPoolTaskExecutor newExecutor(String threadNamePrefix, int coreSize, int maxSize, int queueCapacity) {
+        return newExecutor(threadNamePrefix, coreSize, maxSize, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * 创建有界线程池，指定拒绝策略，关闭时等待已提交任务完成
+     */
+    static ThreadPoolTaskExecutor newExecutor(String threadNamePrefix, int coreSize, int maxSize, int queueCapacity,
+                                              RejectedExecutionHandler rejectedHandler) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(rejectedHandler);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 注册线程池指标（队列深度、活跃线程数等）
+     */
+    static void bindMetrics(ThreadPoolTaskExecutor executor, String name, MeterRegistry registry) {
+        if (registry == null) {
+            logger.warn("未找到 MeterRegistry，线程池 {} 不注册指标", name);
+            return;
+        }
+        new ExecutorServiceMetrics(executor.getThreadPoolExecutor(), name, Tags.empty()).bindTo(registry);
+    }
+}
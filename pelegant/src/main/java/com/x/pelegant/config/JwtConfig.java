@@ -43,6 +43,11 @@ public class JwtConfig {
      */
     private String tokenPrefix = "Bearer ";
 
+    /**
+     * 已验签Token缓存的最大条数，0 表示不缓存
+     */
+    private Integer cacheSize = 10000;
+
     /**
      * 用户角色枚举
      */
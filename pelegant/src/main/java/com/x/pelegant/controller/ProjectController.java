@@ -16,7 +16,9 @@ import com.x.pelegant.repository.StudentRepository;
 import com.x.pelegant.service.*;
 import com.x.pelegant.util.Deduplicate;
 import com.x.pelegant.util.JwtUtil;
-import com.x.pelegant.util.export;
+import com.x.pelegant.util.exporter.ExportFormat;
+import com.x.pelegant.util.exporter.ExportStreams;
+import com.x.pelegant.util.exporter.ExportTasks;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -39,9 +41,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import java.io.File;
 import java.io.FileInputStream;
@@ -91,7 +96,9 @@ public class ProjectController {
     @Autowired
     private ExcelImportService excelImportService ;
     @Autowired
-    private export export;
+    private DataExportService dataExportService;
+    @Autowired
+    private ExportTasks exportTasks;
 
 
 
@@ -154,10 +161,12 @@ public class ProjectController {
             @Parameter(description = "搜索关键词（企业名称、行业、地址）") @RequestParam(required = false) String search,
             @Parameter(description = "行业筛选") @RequestParam(required = false) String industry,
             @Parameter(description = "企业类型筛选") @RequestParam(required = false) String companyType,
-            @Parameter(description = "状态筛选") @RequestParam(required = false) String status) {
-        log.info("项目管理员查看所有企业请求: page={}, size={}, search={}", page, size, search);
+            @Parameter(description = "状态筛选") @RequestParam(required = false) String status,
+            @Parameter(description = "分页游标（键集分页，首页传空串，之后传返回的 nextCursor；传入时忽略 page）") @RequestParam(required = false) String cursor,
+            @Parameter(description = "是否返回总数（缓存的估计值）") @RequestParam(defaultValue = "true") boolean withTotal) {
+        log.info("项目管理员查看所有企业请求: page={}, size={}, search={}, cursor={}", page, size, search, cursor);
         Result<Map<String, Object>> result = projectService.getAllCompaniesForProject(page,
-                size, search, industry, companyType, status);
+                size, search, industry, companyType, status, cursor, withTotal);
         return ResponseEntity.ok(result);
     }
 
@@ -222,10 +231,12 @@ public class ProjectController {
             @Parameter(description = "搜索关键词（职位名称、企业名称、地点）") @RequestParam(required = false) String search,
             @Parameter(description = "职位类型筛选") @RequestParam(required = false) String jobType,
             @Parameter(description = "企业ID筛选") @RequestParam(required = false) String companyId,
-            @Parameter(description = "状态筛选") @RequestParam(required = false) String status) {
-        log.info("项目管理员查看所有职位请求: page={}, size={}, search={}", page, size, search);
+            @Parameter(description = "状态筛选") @RequestParam(required = false) String status,
+            @Parameter(description = "分页游标（键集分页，首页传空串，之后传返回的 nextCursor；传入时忽略 page）") @RequestParam(required = false) String cursor,
+            @Parameter(description = "是否返回总数（缓存的估计值）") @RequestParam(defaultValue = "true") boolean withTotal) {
+        log.info("项目管理员查看所有职位请求: page={}, size={}, search={}, cursor={}", page, size, search, cursor);
         Result<Map<String, Object>> result = projectService.getAllJobsForProject(page, size,
-                search, jobType, companyId, status);
+                search, jobType, companyId, status, cursor, withTotal);
         return result;
     }
 
@@ -386,11 +397,13 @@ public class ProjectController {
             @Parameter(description = "搜索关键词（姓名、学校、专业）") @RequestParam(required = false) String search,
             @Parameter(description = "学校ID筛选") @RequestParam(required = false) String schoolId,
             @Parameter(description = "专业筛选") @RequestParam(required = false) String major,
-            @Parameter(description = "状态筛选") @RequestParam(required = false) String status) {
-        log.info("项目管理员查询所有学生信息请求: page={}, size={}, search={}", page, size, search);
+            @Parameter(description = "状态筛选") @RequestParam(required = false) String status,
+            @Parameter(description = "分页游标（键集分页，首页传空串，之后传返回的 nextCursor；传入时忽略 page）") @RequestParam(required = false) String cursor,
+            @Parameter(description = "是否返回总数（缓存的估计值）") @RequestParam(defaultValue = "true") boolean withTotal) {
+        log.info("项目管理员查询所有学生信息请求: page={}, size={}, search={}, cursor={}", page, size, search, cursor);
         Result<java.util.List<com.x.pelegant.dto.StudentWithSchoolResponse>> result = projectService
                 .getAllStudentsForProject(page, size, search, schoolId,
-                        major, status);
+                        major, status, cursor, withTotal);
         return ResponseEntity.ok(result);
     }
 
@@ -703,6 +716,22 @@ public class ProjectController {
         return jobService.deduplicateJobs();
     }
 
+    /**
+     * 删除描述近似重复的职位接口
+     */
+    @PostMapping("/jobs/near-duplicates/cleanup")
+    @Operation(summary = "清理近似重复职位", description = "删除 job / passjob 中同公司、同职位名称、同类型、同发布时间和地点下描述近似重复的职位")
+    @SecurityRequirement(name = "ProjectAuth")
+    public ResponseEntity<Result<String>> cleanupNearDuplicateJobs() {
+        log.info("项目管理员清理近似重复职位请求");
+        try {
+            return ResponseEntity.ok(Result.success(deduplicate.cleanupNearDuplicates()));
+        } catch (Exception e) {
+            log.error("近似重复清理失败: {}", e.getMessage(), e);
+            return ResponseEntity.ok(Result.fail("近似重复清理失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 返回所有job信息
      **/
@@ -727,7 +756,7 @@ public class ProjectController {
     @GetMapping("/job-csv-export")
     @Operation(summary = "导出职位信息", description = "导出当前自然月的职位信息为CSV文件")
     public ResponseEntity<Resource> downloadCsv() throws IOException {
-        File csvFile =export.exportJobCsvThisMonth();
+        File csvFile = dataExportService.writeJobSpyCsv();
         InputStreamResource resource = new InputStreamResource(new FileInputStream(csvFile));
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + csvFile.getName())
@@ -735,6 +764,27 @@ public class ProjectController {
                 .body(resource);
     }
 
+    @GetMapping("/job-export")
+    @Operation(summary = "流式导出职位信息", description = "导出香港实习/校招职位，直接写入响应：format 可选 csv / xlsx / ndjson，gzip=true 时压缩，thisMonth=true 只导出本月创建的职位")
+    public WebAsyncTask<Void> exportJobs(
+            @Parameter(description = "导出格式：csv / xlsx / ndjson") @RequestParam(defaultValue = "csv") String format,
+            @Parameter(description = "是否 gzip 压缩") @RequestParam(defaultValue = "false") boolean gzip,
+            @Parameter(description = "是否只导出本月") @RequestParam(defaultValue = "false") boolean thisMonth,
+            HttpServletResponse response) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return null;
+        }
+        LocalDateTime from = thisMonth ? LocalDate.now().withDayOfMonth(1).atStartOfDay() : null;
+        StreamingResponseBody body = out ->
+                dataExportService.exportHongKongGraduateJobs(from, null, exportFormat, gzip, out);
+        return exportTasks.stream(response, ExportStreams.fileName("jobs", exportFormat, gzip),
+                ExportStreams.contentType(exportFormat, gzip), body);
+    }
+
     @GetMapping("/getalldata")
     @Operation(summary = "获取所有数据", description = "获取所有数据")
     @SecurityRequirement(name = "ProjectAuth")
@@ -783,9 +833,11 @@ public class ProjectController {
     public Map<String, Object> getSchoolActiveUsers(
             @RequestParam(value = "schoolName", required = false) String schoolName,
      @RequestParam(defaultValue = "1") int page,
-    @RequestParam(defaultValue = "5") int size) {
+    @RequestParam(defaultValue = "5") int size,
+    @RequestParam(required = false) String cursor,
+    @RequestParam(defaultValue = "true") boolean withTotal) {
         log.info("获取学校活跃用户数");
-        return projectService.getSchoolMonthlyActiveUsers(schoolName, page, size);
+        return projectService.getSchoolMonthlyActiveUsers(schoolName, page, size, cursor, withTotal);
     }
 
 
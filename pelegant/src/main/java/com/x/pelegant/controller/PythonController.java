@@ -22,11 +22,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -59,8 +61,6 @@ private MongoTemplate mongoTemplate;
     @Value("${pelegant.employment.keywords.config}")
     private String keywordsConfigPath;
 
-    private static final String HONG_KONG_REGEX = "^(HK|香港|Hong\\s?Kong|HongKong|HKSAR|Hong\\s?Kong\\s?SAR|HK\\s?SAR|香港特别行政区|香港岛|Hong\\s?Kong,\\s?Hong\\s?Kong\\s?SAR|[A-Za-z\\s&]+,\\s?(HKI|KOW|NT),\\s?HK|[A-Za-z\\s&]+,\\s?Hong\\s?Kong\\s?SAR|Remote,\\s?HK)$";
-
     @Autowired
     public PythonController(
             ObjectMapper objectMapper,
@@ -152,6 +152,30 @@ private MongoTemplate mongoTemplate;
 
 
 
+    @PostMapping(value = "/store-stream", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "流式导入爬虫数据", description = "以 NDJSON 或 JSON 数组流式上传职位数据，边解析边分批迁移，不限制记录数；请求在导入完成后返回统计结果")
+    public ResponseEntity<Map<String, Object>> storeStream(HttpServletRequest request) {
+        String taskId = UUID.randomUUID().toString();
+        try {
+            return ResponseEntity.ok(crawlerDataService.ingestStream(request.getInputStream(), taskId));
+        } catch (TaskRejectedException e) {
+            logger.warn("流式导入并发数已达上限，拒绝任务 {}", taskId);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Collections.singletonMap("error", "导入任务过多，请稍后重试"));
+        } catch (JsonProcessingException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("taskId", taskId);
+            body.put("error", "无效的 JSON 输入: " + e.getOriginalMessage());
+            return ResponseEntity.badRequest().body(body);
+        } catch (Exception e) {
+            logger.error("流式导入任务 {} 失败", taskId, e);
+            Map<String, Object> body = new HashMap<>();
+            body.put("taskId", taskId);
+            body.put("error", "导入失败: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(body);
+        }
+    }
+
     @GetMapping("/task/{taskId}")
     @Operation(summary = "获取任务结果", description = "获取指定任务的详细处理结果，包括每条数据的去向")
     public ResponseEntity<Map<String, Object>> getTaskResult(
@@ -272,9 +296,6 @@ public ResponseEntity<Map<String, Object>> getAllFailedRecords() {
 @Operation(summary = "重新处理所有失败记录", description = "重新处理Redis中所有任务的无效数据和错误记录")
 public ResponseEntity<Map<String, Object>> reprocessAllFailedRecords() {
     try {
-        // 获取公司名称到ID的映射
-        Map<String, String> companyNameToIdMap = getCompanyNameToIdMap();
-
         // 获取所有任务键
         Set<String> taskKeys = redisTemplate.keys("task:*");
         if (taskKeys == null || taskKeys.isEmpty()) {
@@ -325,7 +346,7 @@ public ResponseEntity<Map<String, Object>> reprocessAllFailedRecords() {
         }
 
         // 重新处理所有失败记录
-        Map<String, Object> reprocessResult = newDataMigrationService.reprocessFailedRecords(allFailedRecords, companyNameToIdMap);
+        Map<String, Object> reprocessResult = newDataMigrationService.reprocessFailedRecords(allFailedRecords);
 
         return ResponseEntity.ok(reprocessResult);
     } catch (Exception e) {
@@ -371,21 +392,6 @@ private Map<String, Object> recordMigrationDetailToMap(NewDataMigrationService.R
     return map;
 }
 
-/**
- * 获取公司名称到ID的映射
- * 这里需要根据你的实际实现来获取公司映射数据
- */
-private Map<String, String> getCompanyNameToIdMap() {
-    // 实现获取公司映射的逻辑
-    // 这可能需要注入相应的Repository或Service
-    // 示例实现：
-    List<com.x.pelegant.entity.Company> companies = mongoTemplate.findAll(com.x.pelegant.entity.Company.class);
-    Map<String, String> companyNameToIdMap = new HashMap<>();
-    for (com.x.pelegant.entity.Company company : companies) {
-        companyNameToIdMap.put(company.getCompanyName(), company.getCompanyId());
-    }
-    return companyNameToIdMap;
-}
 // 添加到你的Controller中
 // 添加到你的Controller中
 @PostMapping("/test/populate-sample-data")
@@ -8,14 +8,19 @@ import com.x.pelegant.dto.DashboardDataDto;
 import com.x.pelegant.dto.TaskInfo;
 import com.x.pelegant.entity.*;
 import com.x.pelegant.repository.*;
+import com.x.pelegant.service.ActivityRollupService;
+import com.x.pelegant.service.ApplicationStatsService;
 import com.x.pelegant.service.CrawlerDataService;
+import com.x.pelegant.service.DashboardCounterService;
 import com.x.pelegant.service.NewDataMigrationService;
 import com.x.pelegant.service.ProjectService;
 import com.x.pelegant.service.StudentService;
+import com.x.pelegant.service.company.CompanyNameResolver;
 import com.x.pelegant.util.Deduplicate;
 import com.x.pelegant.util.EmploymentClassifier;
 import com.x.pelegant.util.MongoExporter;
 import com.x.pelegant.util.Remedialfunction;
+import com.x.pelegant.util.exporter.ExportTasks;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,22 +28,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.File;
-import java.io.FileInputStream;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -58,6 +60,9 @@ public class RemedyController {
     @Autowired
     private MongoExporter mongoExporter;
 
+    @Autowired
+    private ExportTasks exportTasks;
+
     @Autowired
     private MongoTemplate mongoTemplate;
     @Autowired
@@ -83,6 +88,14 @@ public class RemedyController {
     private RedisTemplate<String, String> redisTemplate;
     @Autowired
     private StudentRepository studentRepository;
+    @Autowired
+    private DashboardCounterService dashboardCounterService;
+    @Autowired
+    private ApplicationStatsService applicationStatsService;
+    @Autowired
+    private ActivityRollupService activityRollupService;
+    @Autowired
+    private CompanyNameResolver companyNameResolver;
 
     @Value("${pelegant.upload.path}")
     private String documentLocation;
@@ -90,8 +103,6 @@ public class RemedyController {
     @Value("${pelegant.employment.keywords.config}")
     private String keywordsConfigPath;
 
-    private static final String HONG_KONG_REGEX = "^(HK|香港|Hong\\s?Kong|HongKong|HKSAR|Hong\\s?Kong\\s?SAR|HK\\s?SAR|香港特别行政区|香港岛|Hong\\s?Kong,\\s?Hong\\s?Kong\\s?SAR|[A-Za-z\\s&]+,\\s?(HKI|KOW|NT),\\s?HK|[A-Za-z\\s&]+,\\s?Hong\\s?Kong\\s?SAR|Remote,\\s?HK)$";
-
     @Autowired
     public RemedyController(
             MongoExporter mongoExporter,
@@ -127,23 +138,20 @@ public class RemedyController {
     }
 
     @GetMapping("/data")
-    @Operation(summary = "导出数据库数据", description = "导出数据")
-    public ResponseEntity<Resource> downloadJs(@Parameter(description = "管理员口令") String Key) throws IOException {
-        if (!Key.equals("pelegant")) {
-            return ResponseEntity.status(403).body(null);
+    @Operation(summary = "导出数据库数据", description = "流式导出数据库结构与数据，gzip=true 时压缩")
+    public WebAsyncTask<Void> downloadJs(@Parameter(description = "管理员口令") String Key,
+                                         @Parameter(description = "是否 gzip 压缩") @RequestParam(defaultValue = "false") boolean gzip,
+                                         HttpServletResponse response) {
+        if (!"pelegant".equals(Key)) {
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            return null;
         }
 
-        // 调用 MongoExporter 导出数据
-        File jsFile = mongoExporter.exportMongoDBStructureAndData("mongodb://localhost:27017", "Pelegant", "/home/ubuntu/project/JobSpy/output.js");
+        // 按集合游标逐批写入响应，不在内存或磁盘中生成完整导出文件
+        StreamingResponseBody body = out -> mongoExporter.exportMongoDBStructureAndData(mongoTemplate.getDb(), out, gzip);
 
-        // 创建 InputStreamResource 用于读取文件内容
-        InputStreamResource resource = new InputStreamResource(new FileInputStream(jsFile));
-
-        // 返回文件的响应体
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + jsFile.getName())
-                .contentType(MediaType.parseMediaType("application/javascript"))
-                .body(resource);
+        return exportTasks.stream(response, "output.js" + (gzip ? ".gz" : ""),
+                gzip ? "application/gzip" : "application/javascript", body);
     }
 
     @GetMapping("/Update-enterprise-status")
@@ -162,7 +170,7 @@ public class RemedyController {
         // 查询符合条件的职位（全职校园岗位和实习岗位）
         Query jobQuery = new Query();
         jobQuery.addCriteria(Criteria.where("jobType").in("full-time-campus", "intern"));
-        jobQuery.addCriteria(Criteria.where("workLocation").regex(HONG_KONG_REGEX, "i"));
+        jobQuery.addCriteria(Criteria.where("isHongKong").is(true));
 
         // 查询符合条件的职位
         List<Job> jobs = mongoTemplate.find(jobQuery, Job.class);
@@ -223,6 +231,7 @@ public class RemedyController {
             t.setLogoImage("");
         }
         companyRepository.saveAll(companys);
+        companyNameResolver.registerAll(companys);
         return "企业头像恢复空白成功，共更新 " + companys.size() + " 条记录";
     }
 
@@ -316,4 +325,48 @@ public class RemedyController {
         return Result.success(remedialfunction.fixRecommendedWorkJobIdsByTitleAndCompany());
     }
 
-}
\ No newline at end of file
+    @PostMapping("/backfill-job-location")
+    @Operation(summary = "回填职位地区标记", description = "根据 workLocation 重新计算职位的 regionCode 和 isHongKong")
+    public Result<String> backfillJobLocation(@Parameter(description = "是否重新计算全部职位") @RequestParam(defaultValue = "false") boolean all) {
+        try {
+            return Result.success(remedialfunction.backfillJobLocation(all));
+        } catch (Exception e) {
+            logger.error("回填职位地区标记失败", e);
+            return Result.fail("回填失败: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/rebuild-dashboard-counters")
+    @Operation(summary = "重建仪表盘计数", description = "按源数据重新统计学生、企业、学校和职位总数")
+    public Result<Map<String, Long>> rebuildDashboardCounters() {
+        try {
+            return Result.success(dashboardCounterService.rebuild());
+        } catch (Exception e) {
+            logger.error("重建仪表盘计数失败", e);
+            return Result.fail("重建失败: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/rebuild-application-stats")
+    @Operation(summary = "重建申请统计", description = "按学生申请记录重算职位申请人数和 company_application_stats")
+    public Result<String> rebuildApplicationStats() {
+        try {
+            return Result.success(applicationStatsService.rebuild());
+        } catch (Exception e) {
+            logger.error("重建申请统计失败", e);
+            return Result.fail("重建失败: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/rebuild-activity-rollup")
+    @Operation(summary = "重建学生活跃汇总", description = "按 student_activity 原始记录重建日活 / 月活 HyperLogLog 汇总")
+    public Result<String> rebuildActivityRollup() {
+        try {
+            return Result.success(activityRollupService.rebuild());
+        } catch (Exception e) {
+            logger.error("重建学生活跃汇总失败", e);
+            return Result.fail("重建失败: " + e.getMessage());
+        }
+    }
+
+}
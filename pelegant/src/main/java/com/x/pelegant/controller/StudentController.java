@@ -280,13 +280,15 @@ public class StudentController {
      * 搜索职位接口
      */
     @GetMapping("/jobs/search")
-    @Operation(summary = "搜索职位", description = "根据关键词和就业类型搜索职位")
+    @Operation(summary = "搜索职位", description = "根据关键词和就业类型全文搜索职位，按相关度排序，使用 nextCursor 翻页")
     public ResponseEntity<Result<JobSearchResponse>> searchJobs(
             @Parameter(description = "搜索关键词") @RequestParam(required = false) String keyword,
-            @Parameter(description = "就业类型") @RequestParam(required = false) String employmentType) {
+            @Parameter(description = "就业类型") @RequestParam(required = false) String employmentType,
+            @Parameter(description = "分页游标（上一页返回的 nextCursor）") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页数量，默认20，最大100；cursor 和 size 都不传时返回全部结果") @RequestParam(required = false) Integer size) {
 
-        log.info("搜索职位请求: 关键词={}, 就业类型={}", keyword, employmentType);
-        Result<JobSearchResponse> result = studentService.searchJobs(keyword, employmentType);
+        log.info("搜索职位请求: 关键词={}, 就业类型={}, 游标={}", keyword, employmentType, cursor);
+        Result<JobSearchResponse> result = studentService.searchJobs(keyword, employmentType, cursor, size);
         return ResponseEntity.ok(result);
     }
 
@@ -9,7 +9,7 @@ import com.x.pelegant.dto.StudentApplicationStatsResponse;
 import com.x.pelegant.dto.CompanyApplicationStatsResponse;
 import com.x.pelegant.dto.UpdateTeacherProfileRequest;
 import com.x.pelegant.dto.ChangePasswordRequest;
-import com.x.pelegant.dto.StudentBatchImportResponse;
+import com.x.pelegant.dto.StudentImportProgress;
 import com.x.pelegant.dto.RoleCreateRequest;
 import com.x.pelegant.dto.RoleUpdateRequest;
 import com.x.pelegant.dto.CreateTeacherRequest;
@@ -19,6 +19,7 @@ import com.x.pelegant.entity.Teacher;
 import com.x.pelegant.entity.TRole;
 import com.x.pelegant.entity.Company;
 import com.x.pelegant.repository.TeacherRepository;
+import com.x.pelegant.service.StudentImportService;
 import com.x.pelegant.service.TeacherService;
 import com.x.pelegant.util.PasswordUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -52,6 +53,9 @@ public class TeacherController {
     @Autowired
     private TeacherService teacherService;
 
+    @Autowired
+    private StudentImportService studentImportService;
+
 
     @Autowired
     private TeacherRepository teacherRepository;
@@ -340,9 +344,9 @@ public class TeacherController {
      * 教师批量导入学生Excel接口
      */
     @PostMapping("/students/import-excel")
-    @Operation(summary = "批量导入学生Excel", description = "教师通过上传Excel文件批量导入学生信息。Excel格式：fullname, studentId, email, major, grade")
+    @Operation(summary = "批量导入学生Excel", description = "教师通过上传Excel文件批量导入学生信息，立即返回导入任务ID，通过 /students/import-excel/{jobId} 查询进度。Excel格式：fullname, studentId, email, major, grade, studentType")
     @SecurityRequirement(name = "TeacherAuth")
-    public ResponseEntity<Result<StudentBatchImportResponse>> importStudentsExcel(
+    public ResponseEntity<Result<StudentImportProgress>> importStudentsExcel(
             @Parameter(description = "Excel文件（.xlsx或.xls格式）", required = true) @RequestParam("file") MultipartFile file,
             HttpServletRequest httpRequest) {
 
@@ -365,7 +369,26 @@ public class TeacherController {
             return ResponseEntity.ok(Result.fail("Excel文件大小不能超过5MB"));
         }
 
-        Result<StudentBatchImportResponse> result = teacherService.importStudentsFromExcel(teacherId, file);
+        Result<StudentImportProgress> result = studentImportService.submit(teacherId, file);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 查询学生批量导入进度
+     */
+    @GetMapping("/students/import-excel/{jobId}")
+    @Operation(summary = "查询学生导入进度", description = "根据导入任务ID查询状态、已处理行数及错误详情")
+    @SecurityRequirement(name = "TeacherAuth")
+    public ResponseEntity<Result<StudentImportProgress>> getStudentImportProgress(
+            @PathVariable String jobId, HttpServletRequest httpRequest) {
+
+        String teacherId = (String) httpRequest.getAttribute("userId");
+        if (teacherId == null) {
+            log.error("无法获取教师ID，JWT验证可能失败");
+            return ResponseEntity.ok(Result.fail("Authentication failed. Please log in again"));
+        }
+
+        Result<StudentImportProgress> result = studentImportService.getProgress(teacherId, jobId);
         return ResponseEntity.ok(result);
     }
 
@@ -5,7 +5,9 @@ import lombok.Data;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 职位搜索响应DTO
@@ -24,4 +26,19 @@ public class JobSearchResponse {
      * 总数量
      */
     private long total;
+
+    /**
+     * 下一页游标，没有更多结果时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 高亮摘要：职位ID -> 摘要（命中词用 &lt;em&gt; 标记）
+     */
+    private Map<String, String> highlights = new HashMap<>();
+
+    public JobSearchResponse(List<Job> list, long total) {
+        this.list = list;
+        this.total = total;
+    }
 }
@@ -0,0 +1,101 @@
+package com.x.pelegant.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 学生批量导入任务进度DTO
+ */
+@Data
+@NoArgsConstructor
+public class StudentImportProgress {
+
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_PARSING = "parsing";
+    public static final String STATUS_IMPORTING = "importing";
+    public static final String STATUS_COMPLETED = "completed";
+    public static final String STATUS_FAILED = "failed";
+
+    /**
+     * 导入任务ID
+     */
+    private String jobId;
+
+    /**
+     * 提交导入的教师ID
+     */
+    private String teacherId;
+
+    /**
+     * 上传的文件名
+     */
+    private String fileName;
+
+    /**
+     * 任务状态：pending / parsing / importing / completed / failed
+     */
+    private String status;
+
+    /**
+     * 总处理行数
+     */
+    private int totalRows;
+
+    /**
+     * 已处理行数
+     */
+    private int processedRows;
+
+    /**
+     * 成功导入数量
+     */
+    private int successCount;
+
+    /**
+     * 失败数量
+     */
+    private int failureCount;
+
+    /**
+     * 错误详情列表
+     */
+    private List<StudentBatchImportResponse.ImportError> errors = new ArrayList<>();
+
+    /**
+     * 结果说明
+     */
+    private String message;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    /**
+     * 添加错误信息
+     */
+    public void addError(int rowNumber, String fullName, String studentId, String errorMessage) {
+        this.errors.add(new StudentBatchImportResponse.ImportError(rowNumber, fullName, studentId, errorMessage));
+        this.failureCount++;
+        this.processedRows++;
+    }
+
+    /**
+     * 增加成功计数
+     */
+    public void addSuccess(int count) {
+        this.successCount += count;
+        this.processedRows += count;
+    }
+
+    /**
+     * 获取导入摘要信息
+     */
+    public String getSummary() {
+        return String.format("总计处理 %d 行，成功导入 %d 个学生，失败 %d 个",
+                totalRows, successCount, failureCount);
+    }
+}
@@ -0,0 +1,64 @@
+package com.x.pelegant.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * 企业申请数统计（按企业、学校、职位类型物化，由申请/取消申请增量维护）
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Document(collection = "company_application_stats")
+@CompoundIndexes({
+        @CompoundIndex(name = "company_type_idx", def = "{'companyId': 1, 'jobType': 1}"),
+        @CompoundIndex(name = "school_company_idx", def = "{'schoolId': 1, 'companyId': 1}")
+})
+public class CompanyApplicationStat {
+
+    /**
+     * 主键：companyId|schoolId|jobType
+     */
+    @Id
+    private String id;
+
+    /**
+     * 企业ID
+     */
+    @Field("companyId")
+    private String companyId;
+
+    /**
+     * 申请学生所属学校ID
+     */
+    @Field("schoolId")
+    private String schoolId;
+
+    /**
+     * 职位类型
+     */
+    @Field("jobType")
+    private String jobType;
+
+    /**
+     * 申请数
+     */
+    @Field("count")
+    private Long count;
+
+    /**
+     * 更新时间
+     */
+    @Field("updatedAt")
+    private LocalDateTime updatedAt;
+
+    public static String buildId(String companyId, String schoolId, String jobType) {
+        return companyId + "|" + schoolId + "|" + jobType;
+    }
+}
@@ -3,6 +3,7 @@ package com.x.pelegant.entity;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -11,7 +12,8 @@ import java.util.Map;
 
 /**
  * 爬虫数据实体类
- * 用于存储爬虫传过来的通用数据
+ * 用于存储爬虫传过来的通用数据；集合只追加不清空，同一职位（sourceUrl + 发布日期）按 contentHash 原地更新，
+ * 按 batchId 区分每次抓取，importTime 超过保留期后由 TTL 索引自动删除
  */
 @Data
 @EqualsAndHashCode(callSuper = false)
@@ -68,8 +70,9 @@ public class CrawlerData {
     private LocalDateTime dataCreateTime;
 
     /**
-     * 数据导入时间（接口接收时间）
+     * 数据导入时间（接口接收时间），最近一次抓取到后保留 90 天
      */
+    @Indexed(name = "import_time_ttl_idx", expireAfter = "90d")
     @Field("importTime")
     private LocalDateTime importTime;
 
@@ -82,9 +85,17 @@ public class CrawlerData {
     /**
      * 数据版本/批次号
      */
+    @Indexed(name = "batch_id_idx")
     @Field("batchId")
     private String batchId;
 
+    /**
+     * 内容哈希：sourceUrl + 发布日期的 SHA-256，批量写入时作为 upsert 键（没有 sourceUrl 的记录为空，直接追加）
+     */
+    @Indexed(name = "content_hash_idx", unique = true, sparse = true)
+    @Field("contentHash")
+    private String contentHash;
+
     /**
      * 额外的元数据信息
      */
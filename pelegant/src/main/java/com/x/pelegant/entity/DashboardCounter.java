@@ -0,0 +1,36 @@
+package com.x.pelegant.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * 仪表盘计数器（每个计数一条文档，通过 $inc 原子更新）
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Document(collection = "dashboard_counter")
+public class DashboardCounter {
+
+    /**
+     * 计数器名称，如 students / companies / schools / jobs
+     */
+    @Id
+    private String id;
+
+    /**
+     * 当前计数
+     */
+    @Field("value")
+    private Long value;
+
+    /**
+     * 更新时间
+     */
+    @Field("updatedAt")
+    private LocalDateTime updatedAt;
+}
@@ -5,7 +5,9 @@ import lombok.EqualsAndHashCode;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -22,6 +24,9 @@ import java.util.List;
 @Data
 @EqualsAndHashCode(callSuper = false)
 @Document(collection = "job")
+@CompoundIndex(name = "hk_type_status_idx", def = "{'isHongKong': 1, 'jobType': 1, 'status': 1}")
+@CompoundIndex(name = "created_id_idx", def = "{'createdAt': -1, '_id': -1}")
+@CompoundIndex(name = "company_title_bands_idx", def = "{'companyName': 1, 'jobTitle': 1, 'simHashBands': 1}")
 public class Job {
 
     /**
@@ -43,6 +48,7 @@ public class Job {
      * 职位名称
      */
     @NotBlank(message = "职位名称不能为空")
+    @TextIndexed(weight = 10)
     @Field("jobTitle")
     private String jobTitle;
 
@@ -51,6 +57,7 @@ public class Job {
      */
     @NotBlank(message = "职位描述不能为空")
     @Size(max = 2000, message = "职位描述不能超过2000字符")
+    @TextIndexed
     @Field("jobDescription")
     private String jobDescription;
 
@@ -75,6 +82,18 @@ public class Job {
     @Field("workLocation")
     private String workLocation;
 
+    /**
+     * 标准化地区编码（入库时由 workLocation 计算，见 LocationNormalizer）
+     */
+    @Field("regionCode")
+    private String regionCode;
+
+    /**
+     * 是否香港职位（入库时计算，替代 workLocation 正则查询）
+     */
+    @Field("isHongKong")
+    private Boolean isHongKong;
+
     /**
      * 最低薪资
      */
@@ -110,6 +129,7 @@ public class Job {
     /**
      * 技能要求列表
      */
+    @TextIndexed(weight = 3)
     @Field("skillsRequired")
     private List<String> skillsRequired;
 
@@ -124,12 +144,14 @@ public class Job {
      * 所属企业ID
      */
     @NotBlank(message = "所属企业不能为空")
+    @Indexed
     @Field("companyId")
     private String companyId;
 
     /**
      * 所属企业名称（冗余字段，便于查询）
      */
+    @TextIndexed(weight = 5)
     @Field("companyName")
     private String companyName;
 
@@ -146,6 +168,12 @@ public class Job {
     @Field("recruitmentCount")
     private Integer recruitmentCount = 1;
 
+    /**
+     * 申请人数（由申请/取消申请增量维护，见 ApplicationStatsService）
+     */
+    @Field("applicationCount")
+    private Integer applicationCount;
+
     /**
      * 职位状态：open开放, closed关闭, suspended暂停
      */
@@ -177,4 +205,16 @@ public class Job {
     @Indexed(unique = true)
     private String uniqueKey;
 
+    /**
+     * 职位描述的 SimHash 指纹，用于近似重复检测
+     */
+    @Field("descriptionSimHash")
+    private Long descriptionSimHash;
+
+    /**
+     * 指纹分段键（SimHash.bands），按探测键查找近似重复的已入库职位
+     */
+    @Field("simHashBands")
+    private List<Long> simHashBands;
+
 }
\ No newline at end of file
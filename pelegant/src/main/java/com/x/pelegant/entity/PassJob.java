@@ -3,6 +3,7 @@ package com.x.pelegant.entity;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -14,6 +15,7 @@ import java.util.List;
  */
 @Data
 @Document(collection = "passjob")
+@CompoundIndex(name = "company_title_bands_idx", def = "{'companyName': 1, 'jobTitle': 1, 'simHashBands': 1}")
 public class PassJob {
 
     @Id
@@ -50,4 +52,8 @@ public class PassJob {
     private String source = "crawler";
 
     private String jobUrl;
+
+    // 描述的 SimHash 指纹及其分段键，用于近似重复检测
+    private Long descriptionSimHash;
+    private List<Long> simHashBands;
 }
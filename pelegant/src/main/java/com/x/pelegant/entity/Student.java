@@ -4,6 +4,7 @@ package com.x.pelegant.entity;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -21,6 +22,7 @@ import java.util.ArrayList;
 @Data
 @EqualsAndHashCode(callSuper = true)
 @Document(collection = "student")
+@CompoundIndex(name = "create_time_id_idx", def = "{'create_time': -1, '_id': -1}")
 public class Student extends BaseEntity {
 
 
@@ -2,6 +2,7 @@ package com.x.pelegant.entity;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -12,6 +13,10 @@ public class StudentActivity {
     private String id;
     private String studentId;
     private String activityType;
+    /**
+     * 原始记录保留 400 天后自动删除，日活 / 月活读取 ActivityRollupService 的汇总
+     */
+    @Indexed(name = "created_at_ttl_idx", expireAfter = "400d")
     private LocalDateTime createdAt;
 
     // getters & setters
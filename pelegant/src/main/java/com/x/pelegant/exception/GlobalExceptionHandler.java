@@ -85,6 +85,17 @@ public class GlobalExceptionHandler {
                 .body(Result.fail("认证失败: " + e.getMessage()));
     }
 
+    /**
+     * 处理服务过载异常（如登录高峰时密码校验线程池已满）
+     */
+    @ExceptionHandler(ServiceOverloadException.class)
+    public ResponseEntity<Result<String>> handleServiceOverloadException(ServiceOverloadException e) {
+        log.warn("服务过载: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(Result.fail(e.getMessage()));
+    }
+
     /**
      * 处理通用异常
      */
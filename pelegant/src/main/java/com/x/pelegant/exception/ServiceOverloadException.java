@@ -0,0 +1,12 @@
+package com.x.pelegant.exception;
+
+/**
+ * 服务过载异常
+ * 有界线程池已满或等待超时时快速失败，由全局异常处理器返回 503
+ */
+public class ServiceOverloadException extends RuntimeException {
+
+    public ServiceOverloadException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,7 @@ package com.x.pelegant.interceptor;
 
 import com.x.pelegant.config.JwtConfig;
 import com.x.pelegant.exception.JwtException;
+import com.x.pelegant.util.JwtPrincipal;
 import com.x.pelegant.util.JwtUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +11,8 @@ import org.springframework.web.servlet.HandlerInterceptor;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * JWT拦截器
@@ -19,6 +22,31 @@ import javax.servlet.http.HttpServletResponse;
 @Slf4j
 public class JwtInterceptor implements HandlerInterceptor {
 
+    /**
+     * 公共路径（包含即放行）
+     */
+    private static final List<String> PUBLIC_PATHS = Arrays.asList(
+            "/swagger-ui",
+            "/v3/api-docs",
+            "/doc.html",
+            "/webjars",
+            "/favicon.ico",
+            "/error");
+
+    /**
+     * 路径前缀对应的角色
+     */
+    private static final RouteRoleTrie ROUTE_ROLES = new RouteRoleTrie()
+            // 学生相关路径
+            .add("/api/students", JwtConfig.UserRole.STUDENT.getValue())
+            .add("/api/pelegant/job-seeker", JwtConfig.UserRole.STUDENT.getValue())
+            .add("/api/pelegant/jd", JwtConfig.UserRole.STUDENT.getValue())
+            .add("/api/pelegant/recommended-work", JwtConfig.UserRole.STUDENT.getValue())
+            // 教师相关路径
+            .add("/api/teachers", JwtConfig.UserRole.TEACHER.getValue())
+            // 项目管理员相关路径
+            .add("/api/projects", JwtConfig.UserRole.PROJECT.getValue());
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -73,23 +101,22 @@ public class JwtInterceptor implements HandlerInterceptor {
             throw new JwtException.InvalidTokenException("Token格式无效");
         }
 
-        // 验证Token有效性
-        if (!jwtUtil.validateToken(token)) {
+        // 解析并验证Token（只验签一次）
+        JwtPrincipal principal = jwtUtil.parsePrincipal(token);
+        if (principal == null) {
             log.warn("Token验证失败，请求头: {}, 请求路径: {}", headerName, requestURI);
             throw new JwtException.InvalidTokenException("Token无效或已过期");
         }
 
         // 验证Token角色是否匹配
-        if (!jwtUtil.validateTokenRole(token, expectedRole)) {
-            String actualRole = jwtUtil.getRoleFromToken(token);
-            log.warn("角色不匹配，期望: {}, 实际: {}, 请求路径: {}", expectedRole, actualRole, requestURI);
+        if (!principal.hasRole(expectedRole)) {
+            log.warn("角色不匹配，期望: {}, 实际: {}, 请求路径: {}", expectedRole, principal.getRole(), requestURI);
             throw new JwtException.RoleMismatchException("权限不足，无法访问该资源");
         }
 
         // 将用户信息添加到请求属性中，供Controller使用
-        String userId = jwtUtil.getUserIdFromToken(token);
-        String username = jwtUtil.getUsernameFromToken(token);
-        request.setAttribute("userId", userId);
+        String username = principal.getUsername();
+        request.setAttribute("userId", principal.getUserId());
         request.setAttribute("username", username);
         request.setAttribute("role", expectedRole);
 
@@ -108,16 +135,7 @@ public class JwtInterceptor implements HandlerInterceptor {
      * 判断是否为公共路径
      */
     private boolean isPublicPath(String requestURI) {
-        String[] publicPaths = {
-                "/swagger-ui",
-                "/v3/api-docs",
-                "/doc.html",
-                "/webjars",
-                "/favicon.ico",
-                "/error"
-        };
-
-        for (String path : publicPaths) {
+        for (String path : PUBLIC_PATHS) {
             if (requestURI.contains(path)) {
                 return true;
             }
@@ -129,22 +147,7 @@ public class JwtInterceptor implements HandlerInterceptor {
      * 根据请求路径确定期望的角色
      */
     private String determineExpectedRole(String requestURI) {
-        // 学生相关路径
-        if (requestURI.startsWith("/api/students") ||
-                requestURI.startsWith("/api/pelegant/job-seeker") ||
-                requestURI.startsWith("/api/pelegant/jd") ||
-                requestURI.startsWith("/api/pelegant/recommended-work")) {
-            return JwtConfig.UserRole.STUDENT.getValue();
-        }
-        // 教师相关路径
-        else if (requestURI.startsWith("/api/teachers")) {
-            return JwtConfig.UserRole.TEACHER.getValue();
-        }
-        // 项目管理员相关路径
-        else if (requestURI.startsWith("/api/projects")) {
-            return JwtConfig.UserRole.PROJECT.getValue();
-        }
-        return null;
+        return ROUTE_ROLES.resolve(requestURI);
     }
 
     /**
@@ -0,0 +1,48 @@
+package com.x.pelegant.interceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 路径前缀 -> 角色 的前缀树
+ * 启动时构建，请求时沿路径逐字符查找最长匹配的前缀，与逐个 startsWith 判断结果一致
+ */
+class RouteRoleTrie {
+
+    private final Node root = new Node();
+
+    /**
+     * 注册路径前缀对应的角色
+     */
+    RouteRoleTrie add(String prefix, String role) {
+        Node node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+        }
+        node.role = role;
+        return this;
+    }
+
+    /**
+     * 查找路径对应的角色，没有匹配的前缀时返回 null
+     */
+    String resolve(String path) {
+        Node node = root;
+        String role = null;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.children.get(path.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.role != null) {
+                role = node.role;
+            }
+        }
+        return role;
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private String role;
+    }
+}
@@ -0,0 +1,402 @@
+package com.x.pelegant.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.x.pelegant.entity.StudentActivity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 学生活跃记录的异步批量写入（write-behind）
+ * 业务线程只把事件放入有界内存队列即返回；后台线程按条数或时间间隔批量 insertMany 到 student_activity，
+ * 并同步写入日活 / 月活汇总。队列满或写库失败时按配置落盘（稍后空闲时回放）或丢弃。
+ * 回放按批记录进度，中途失败不会重复写入已回放的批次；无法解析的行移入 activity-spill.dead。
+ * 指标：activity.recorder.queue.depth / activity.recorder.flush / activity.recorder.dropped / activity.recorder.spilled
+ */
+@Service
+@Slf4j
+public class ActivityRecorder {
+
+    public static final String TYPE_LOGIN = "login";
+    public static final String TYPE_BOOKMARK = "bookmark";
+    public static final String TYPE_APPLY = "apply";
+    public static final String TYPE_RESUME_UPLOAD = "resume_upload";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ActivityRollupService activityRollupService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${pelegant.activity.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${pelegant.activity.batch-size:500}")
+    private int batchSize;
+
+    @Value("${pelegant.activity.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    /**
+     * 过载处理：spill 落盘、drop 丢弃
+     */
+    @Value("${pelegant.activity.overflow:spill}")
+    private String overflow;
+
+    /**
+     * 回放失败后的最长退避时间，退避从 flush-interval-ms 开始逐次翻倍
+     */
+    @Value("${pelegant.activity.replay-max-backoff-ms:300000}")
+    private long replayMaxBackoffMs;
+
+    @Value("${pelegant.upload.path}")
+    private String documentLocation;
+
+    private BlockingQueue<Event> queue;
+    private Path spillFile;
+    private Path replayFile;
+    private Path replayProgressFile;
+    private Path deadLetterFile;
+    private Thread flusher;
+    private volatile boolean running;
+
+    /** 回放退避状态，只在写入线程中读写 */
+    private long replayBackoffMs;
+    private long nextReplayAt;
+
+    private Timer flushTimer;
+    private Counter droppedCounter;
+    private Counter spilledCounter;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        spillFile = Paths.get(documentLocation, "activity-spill.ndjson");
+        replayFile = Paths.get(documentLocation, "activity-spill.replay");
+        replayProgressFile = Paths.get(documentLocation, "activity-spill.replay.offset");
+        deadLetterFile = Paths.get(documentLocation, "activity-spill.dead");
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            Gauge.builder("activity.recorder.queue.depth", queue, Queue::size)
+                    .description("待写入的活跃记录数").register(registry);
+            flushTimer = Timer.builder("activity.recorder.flush").description("批量写入耗时").register(registry);
+            droppedCounter = Counter.builder("activity.recorder.dropped").description("丢弃的活跃记录数").register(registry);
+            spilledCounter = Counter.builder("activity.recorder.spilled").description("落盘的活跃记录数").register(registry);
+        }
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "activity-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 关闭时停止接收并写完队列中的记录
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * 记录一次学生活跃，不阻塞调用线程
+     *
+     * @param studentId    学号
+     * @param schoolId     学校ID（用于按学校汇总），可为空
+     * @param activityType 活跃类型，见 TYPE_* 常量
+     */
+    public void record(String studentId, String schoolId, String activityType) {
+        if (studentId == null) {
+            return;
+        }
+        Event event = new Event(studentId, schoolId, activityType, LocalDateTime.now());
+        if (!running || !queue.offer(event)) {
+            overflow(Collections.singletonList(event), "队列已满");
+        }
+    }
+
+    /**
+     * 当前队列中的记录数
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void runFlusher() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Event first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    replaySpill();
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    Event next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                running = false;
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("活跃记录写入线程异常", e);
+            } finally {
+                batch.clear();
+            }
+        }
+        // 被中断退出时把剩余记录落盘
+        List<Event> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            overflow(rest, "关闭时未写入");
+        }
+    }
+
+    /**
+     * 批量写入原始记录和汇总，写库失败时转入过载处理
+     */
+    private void flush(List<Event> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            write(batch);
+        } catch (Exception e) {
+            log.warn("批量写入活跃记录失败: {} 条, error={}", batch.size(), e.getMessage());
+            overflow(batch, "写入失败");
+        } finally {
+            if (flushTimer != null) {
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void write(List<Event> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<StudentActivity> activities = new ArrayList<>(batch.size());
+        Map<String, String> schoolByStudent = new HashMap<>();
+        for (Event event : batch) {
+            StudentActivity activity = new StudentActivity();
+            activity.setStudentId(event.studentId);
+            activity.setActivityType(event.activityType);
+            activity.setCreatedAt(event.createdAt);
+            activities.add(activity);
+            if (event.schoolId != null) {
+                schoolByStudent.put(event.studentId, event.schoolId);
+            }
+        }
+        mongoTemplate.insertAll(activities);
+        try {
+            activityRollupService.recordActivities(activities, schoolByStudent);
+        } catch (Exception e) {
+            // 原始记录已写入，汇总可通过重建补齐，不重复写库
+            log.warn("写入活跃汇总失败: {} 条, error={}", activities.size(), e.getMessage());
+        }
+    }
+
+    private void overflow(List<Event> events, String reason) {
+        if ("spill".equalsIgnoreCase(overflow) && spill(events)) {
+            if (spilledCounter != null) {
+                spilledCounter.increment(events.size());
+            }
+            return;
+        }
+        log.warn("丢弃活跃记录 {} 条: {}", events.size(), reason);
+        if (droppedCounter != null) {
+            droppedCounter.increment(events.size());
+        }
+    }
+
+    /**
+     * 追加写入落盘文件（每行一条 JSON）
+     */
+    private synchronized boolean spill(List<Event> events) {
+        try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Event event : events) {
+                Map<String, String> line = new LinkedHashMap<>();
+                line.put("studentId", event.studentId);
+                line.put("schoolId", event.schoolId);
+                line.put("activityType", event.activityType);
+                line.put("createdAt", event.createdAt.toString());
+                writer.write(objectMapper.writeValueAsString(line));
+                writer.newLine();
+            }
+            return true;
+        } catch (IOException e) {
+            log.error("活跃记录落盘失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 空闲时回放落盘的记录
+     * 每写完一批把已处理的行数写入进度文件，失败后从进度处继续；写库仍失败时保留文件并按指数退避延后重试
+     */
+    private void replaySpill() {
+        if (System.currentTimeMillis() < nextReplayAt) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                if (!Files.exists(replayFile)) {
+                    if (!Files.exists(spillFile)) {
+                        return;
+                    }
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+
+            long done = readReplayProgress();
+            long lineNo = 0;
+            int replayed = 0;
+            List<Event> batch = new ArrayList<>(batchSize);
+            List<String> invalid = new ArrayList<>();
+            try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNo++;
+                    if (lineNo <= done || line.trim().isEmpty()) {
+                        continue;
+                    }
+                    Event event = parseSpillLine(line);
+                    if (event == null) {
+                        invalid.add(line);
+                        continue;
+                    }
+                    batch.add(event);
+                    if (batch.size() >= batchSize) {
+                        write(batch);
+                        saveReplayProgress(lineNo);
+                        deadLetter(invalid);
+                        replayed += batch.size();
+                        batch.clear();
+                    }
+                }
+            }
+            write(batch);
+            deadLetter(invalid);
+            replayed += batch.size();
+            Files.delete(replayFile);
+            Files.deleteIfExists(replayProgressFile);
+            replayBackoffMs = 0;
+            nextReplayAt = 0;
+            log.info("已回放落盘的活跃记录 {} 条", replayed);
+        } catch (Exception e) {
+            replayBackoffMs = replayBackoffMs == 0 ? flushIntervalMs : Math.min(replayBackoffMs * 2, replayMaxBackoffMs);
+            nextReplayAt = System.currentTimeMillis() + replayBackoffMs;
+            log.warn("回放落盘的活跃记录失败，{} ms 后重试: {}", replayBackoffMs, e.getMessage());
+        }
+    }
+
+    /**
+     * 解析落盘的一行，格式错误或缺少学号 / 时间时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    private Event parseSpillLine(String line) {
+        try {
+            Map<String, String> map = objectMapper.readValue(line, Map.class);
+            String studentId = map.get("studentId");
+            String createdAt = map.get("createdAt");
+            if (studentId == null || createdAt == null) {
+                return null;
+            }
+            return new Event(studentId, map.get("schoolId"), map.get("activityType"), LocalDateTime.parse(createdAt));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 无法解析的行追加到死信文件，不再参与回放
+     */
+    private void deadLetter(List<String> lines) throws IOException {
+        if (lines.isEmpty()) {
+            return;
+        }
+        log.warn("落盘文件中有 {} 行无法解析，已移入 {}", lines.size(), deadLetterFile);
+        Files.write(deadLetterFile, lines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        lines.clear();
+    }
+
+    /**
+     * 已回放的行数，进度文件不存在时为 0
+     */
+    private long readReplayProgress() throws IOException {
+        if (!Files.exists(replayProgressFile)) {
+            return 0;
+        }
+        String content = new String(Files.readAllBytes(replayProgressFile), StandardCharsets.UTF_8).trim();
+        return content.isEmpty() ? 0 : Long.parseLong(content);
+    }
+
+    /**
+     * 先写临时文件再原子替换，避免进度文件写到一半
+     */
+    private void saveReplayProgress(long lineNo) throws IOException {
+        Path tmp = replayProgressFile.resolveSibling(replayProgressFile.getFileName() + ".tmp");
+        Files.write(tmp, String.valueOf(lineNo).getBytes(StandardCharsets.UTF_8));
+        Files.move(tmp, replayProgressFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static class Event {
+        private final String studentId;
+        private final String schoolId;
+        private final String activityType;
+        private final LocalDateTime createdAt;
+
+        private Event(String studentId, String schoolId, String activityType, LocalDateTime createdAt) {
+            this.studentId = studentId;
+            this.schoolId = schoolId;
+            this.activityType = activityType;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.x.pelegant.service;
+
+import com.x.pelegant.entity.Student;
+import com.x.pelegant.entity.StudentActivity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 学生活跃度汇总
+ * 学生活跃记录（由 ActivityRecorder 批量写入）同时写入按天、按月、按学校×月的 Redis HyperLogLog（PFADD），
+ * 日活 / 月活查询只需对少量预聚合的键执行 PFCOUNT（去重学生数，误差约 0.81%），不再扫描 student_activity 原始记录；
+ * 原始记录保留 400 天（见 StudentActivity 上的 TTL 索引），汇总丢失时可据此重建
+ */
+@Service
+@Slf4j
+public class ActivityRollupService {
+
+    private static final String DAILY_PREFIX = "activity:dau:";
+    private static final String MONTHLY_PREFIX = "activity:mau:";
+    private static final String SCHOOL_MONTHLY_PREFIX = "activity:school:";
+    /** 已完成初始汇总的标记 */
+    private static final String READY_KEY = "activity:rollup:ready";
+
+    private static final long DAILY_TTL_SECONDS = TimeUnit.DAYS.toSeconds(60);
+    private static final long MONTHLY_TTL_SECONDS = TimeUnit.DAYS.toSeconds(400);
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    /**
+     * 把一批活跃记录写入汇总（一个 pipeline）
+     *
+     * @param activities      活跃记录
+     * @param schoolByStudent 学号 -> 学校ID，缺失时不计入学校汇总
+     * @return 写入的记录数
+     */
+    public int recordActivities(List<StudentActivity> activities, Map<String, String> schoolByStudent) {
+        List<Activity> rollup = new ArrayList<>(activities.size());
+        for (StudentActivity activity : activities) {
+            if (activity.getStudentId() != null && activity.getCreatedAt() != null) {
+                rollup.add(new Activity(activity.getStudentId(),
+                        schoolByStudent.get(activity.getStudentId()), activity.getCreatedAt()));
+            }
+        }
+        addAll(rollup);
+        return rollup.size();
+    }
+
+    /**
+     * 各天的日活（去重学生数）
+     */
+    public List<Long> countDaily(List<LocalDate> days) {
+        List<String> keys = new ArrayList<>(days.size());
+        for (LocalDate day : days) {
+            keys.add(DAILY_PREFIX + day);
+        }
+        return pfCount(keys);
+    }
+
+    /**
+     * 各月的月活（去重学生数）
+     */
+    public List<Long> countMonthly(List<YearMonth> months) {
+        List<String> keys = new ArrayList<>(months.size());
+        for (YearMonth month : months) {
+            keys.add(MONTHLY_PREFIX + month);
+        }
+        return pfCount(keys);
+    }
+
+    /**
+     * 各学校各月的活跃学生数
+     *
+     * @return schoolId -> (月份 -> 活跃数)
+     */
+    public Map<String, Map<YearMonth, Long>> countSchoolMonthly(Collection<String> schoolIds, List<YearMonth> months) {
+        List<String> ids = new ArrayList<>(schoolIds);
+        List<String> keys = new ArrayList<>(ids.size() * months.size());
+        for (String schoolId : ids) {
+            for (YearMonth month : months) {
+                keys.add(schoolMonthlyKey(schoolId, month));
+            }
+        }
+        List<Long> counts = pfCount(keys);
+
+        Map<String, Map<YearMonth, Long>> result = new HashMap<>();
+        int i = 0;
+        for (String schoolId : ids) {
+            Map<YearMonth, Long> byMonth = new LinkedHashMap<>();
+            for (YearMonth month : months) {
+                byMonth.put(month, counts.get(i++));
+            }
+            result.put(schoolId, byMonth);
+        }
+        return result;
+    }
+
+    /**
+     * 启动时若汇总尚未建立则按原始记录重建
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartupIfMissing() {
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(READY_KEY))) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("启动时重建学生活跃汇总失败", e);
+        }
+    }
+
+    /**
+     * 根据 student_activity 原始记录重建汇总（HyperLogLog 可重复写入，不会重复计数）
+     */
+    public synchronized String rebuild() {
+        long start = System.currentTimeMillis();
+        Query query = new Query(Criteria.where("createdAt").gte(LocalDateTime.now().minusDays(400)));
+        query.fields().include("studentId").include("createdAt");
+
+        long total = 0;
+        List<StudentActivity> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+        try (CloseableIterator<StudentActivity> it = mongoTemplate.stream(query, StudentActivity.class)) {
+            while (it.hasNext()) {
+                batch.add(it.next());
+                if (batch.size() >= REBUILD_BATCH_SIZE) {
+                    total += rebuildBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        total += rebuildBatch(batch);
+        redisTemplate.opsForValue().set(READY_KEY, LocalDateTime.now().toString());
+
+        String message = String.format("学生活跃汇总重建完成：活跃记录 %d 条，耗时 %d ms",
+                total, System.currentTimeMillis() - start);
+        log.info(message);
+        return message;
+    }
+
+    private int rebuildBatch(List<StudentActivity> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Set<String> studentIds = new HashSet<>();
+        for (StudentActivity activity : batch) {
+            if (activity.getStudentId() != null) {
+                studentIds.add(activity.getStudentId());
+            }
+        }
+        Query studentQuery = new Query(Criteria.where("studentId").in(studentIds));
+        studentQuery.fields().include("studentId").include("schoolId");
+        Map<String, String> schoolByStudent = new HashMap<>();
+        for (Student student : mongoTemplate.find(studentQuery, Student.class)) {
+            if (student.getSchoolId() != null) {
+                schoolByStudent.put(student.getStudentId(), student.getSchoolId());
+            }
+        }
+        return recordActivities(batch, schoolByStudent);
+    }
+
+    /**
+     * 一个 pipeline 内写入所有活跃记录并刷新过期时间
+     */
+    private void addAll(List<Activity> activities) {
+        if (activities.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            Set<String> touched = new HashSet<>();
+            for (Activity activity : activities) {
+                byte[] member = bytes(activity.studentId);
+                LocalDate day = activity.time.toLocalDate();
+                YearMonth month = YearMonth.from(day);
+
+                String dailyKey = DAILY_PREFIX + day;
+                connection.hyperLogLogCommands().pfAdd(bytes(dailyKey), member);
+                if (touched.add(dailyKey)) {
+                    connection.keyCommands().expire(bytes(dailyKey), DAILY_TTL_SECONDS);
+                }
+
+                String monthlyKey = MONTHLY_PREFIX + month;
+                connection.hyperLogLogCommands().pfAdd(bytes(monthlyKey), member);
+                if (touched.add(monthlyKey)) {
+                    connection.keyCommands().expire(bytes(monthlyKey), MONTHLY_TTL_SECONDS);
+                }
+
+                if (activity.schoolId != null) {
+                    String schoolKey = schoolMonthlyKey(activity.schoolId, month);
+                    connection.hyperLogLogCommands().pfAdd(bytes(schoolKey), member);
+                    if (touched.add(schoolKey)) {
+                        connection.keyCommands().expire(bytes(schoolKey), MONTHLY_TTL_SECONDS);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 一个 pipeline 内对每个键执行 PFCOUNT
+     */
+    private List<Long> pfCount(List<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.hyperLogLogCommands().pfCount(bytes(key));
+            }
+            return null;
+        });
+        List<Long> counts = new ArrayList<>(results.size());
+        for (Object result : results) {
+            counts.add(result instanceof Number ? ((Number) result).longValue() : 0L);
+        }
+        return counts;
+    }
+
+    private static String schoolMonthlyKey(String schoolId, YearMonth month) {
+        return SCHOOL_MONTHLY_PREFIX + schoolId + ":" + month;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class Activity {
+        private final String studentId;
+        private final String schoolId;
+        private final LocalDateTime time;
+
+        private Activity(String studentId, String schoolId, LocalDateTime time) {
+            this.studentId = studentId;
+            this.schoolId = schoolId;
+            this.time = time != null ? time : LocalDateTime.now();
+        }
+    }
+}
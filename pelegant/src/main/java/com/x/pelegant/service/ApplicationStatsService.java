@@ -0,0 +1,202 @@
+package com.x.pelegant.service;
+
+import com.x.pelegant.entity.CompanyApplicationStat;
+import com.x.pelegant.entity.Job;
+import com.x.pelegant.entity.Student;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * 职位申请数统计服务
+ * 维护 Job.applicationCount 和 company_application_stats（企业 × 学校 × 职位类型），
+ * 申请/取消申请时增量更新，rebuild 按学生申请记录全量重算
+ */
+@Service
+@Slf4j
+public class ApplicationStatsService {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * 记录一次申请（delta=1）或取消申请（delta=-1），统计失败不影响申请流程
+     */
+    public void recordApplication(Student student, Job job, int delta) {
+        if (job == null) {
+            return;
+        }
+        try {
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(job.getId())),
+                    new Update().inc("applicationCount", delta),
+                    Job.class);
+
+            if (job.getCompanyId() != null) {
+                String schoolId = student != null ? student.getSchoolId() : null;
+                mongoTemplate.upsert(
+                        new Query(Criteria.where("_id").is(CompanyApplicationStat.buildId(job.getCompanyId(), schoolId, job.getJobType()))),
+                        new Update().inc("count", (long) delta)
+                                .set("companyId", job.getCompanyId())
+                                .set("schoolId", schoolId)
+                                .set("jobType", job.getJobType())
+                                .set("updatedAt", LocalDateTime.now()),
+                        CompanyApplicationStat.class);
+            }
+        } catch (Exception e) {
+            log.warn("更新申请统计失败: jobId={}, delta={}, error={}", job.getId(), delta, e.getMessage());
+        }
+    }
+
+    /**
+     * 按企业汇总各职位类型的申请数
+     *
+     * @return Map<companyId, Map<jobType, count>>
+     */
+    public Map<String, Map<String, Long>> getCompanyCounts(Collection<String> companyIds) {
+        Map<String, Map<String, Long>> result = new HashMap<>();
+        if (companyIds == null || companyIds.isEmpty()) {
+            return result;
+        }
+        Aggregation agg = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("companyId").in(companyIds)),
+                Aggregation.group("companyId", "jobType").sum("count").as("count")
+        );
+        for (Document doc : mongoTemplate.aggregate(agg, CompanyApplicationStat.class, Document.class).getMappedResults()) {
+            Document idDoc = (Document) doc.get("_id");
+            Number count = (Number) doc.get("count");
+            result.computeIfAbsent(idDoc.getString("companyId"), k -> new HashMap<>())
+                    .put(idDoc.getString("jobType"), count != null ? count.longValue() : 0L);
+        }
+        return result;
+    }
+
+    /**
+     * 查询某学校学生的申请统计（申请数大于 0 的记录）
+     */
+    public List<CompanyApplicationStat> getSchoolStats(String schoolId) {
+        Query query = new Query(Criteria.where("schoolId").is(schoolId).and("count").gt(0));
+        return mongoTemplate.find(query, CompanyApplicationStat.class);
+    }
+
+    /**
+     * 启动时若统计集合不存在则全量构建
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartupIfMissing() {
+        try {
+            if (!mongoTemplate.collectionExists(CompanyApplicationStat.class)) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("启动时构建申请统计失败", e);
+        }
+    }
+
+    /**
+     * 根据学生的 appliedJobs 全量重算申请统计，用于修正偏差
+     */
+    public synchronized String rebuild() {
+        long start = System.currentTimeMillis();
+
+        // 1. 按 (申请职位, 学校) 汇总申请数
+        Aggregation agg = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("appliedJobs.0").exists(true)),
+                Aggregation.project("appliedJobs", "schoolId"),
+                Aggregation.unwind("appliedJobs"),
+                Aggregation.group("appliedJobs", "schoolId").count().as("count")
+        );
+        List<Document> applied = mongoTemplate.aggregate(agg, Student.class, Document.class).getMappedResults();
+
+        Set<String> appliedIds = new HashSet<>();
+        for (Document doc : applied) {
+            appliedIds.add(((Document) doc.get("_id")).getString("appliedJobs"));
+        }
+
+        // 2. 批量解析职位（appliedJobs 存的是职位主键，兼容历史数据中的 jobId）
+        Map<String, Job> jobByAppliedId = new HashMap<>();
+        List<String> ids = new ArrayList<>(appliedIds);
+        for (int i = 0; i < ids.size(); i += REBUILD_BATCH_SIZE) {
+            List<String> batch = ids.subList(i, Math.min(i + REBUILD_BATCH_SIZE, ids.size()));
+            Set<String> batchSet = new HashSet<>(batch);
+            Query jobQuery = new Query(new Criteria().orOperator(
+                    Criteria.where("_id").in(batch), Criteria.where("jobId").in(batch)));
+            jobQuery.fields().include("jobId").include("companyId").include("jobType");
+            for (Job job : mongoTemplate.find(jobQuery, Job.class)) {
+                if (job.getJobId() != null && batchSet.contains(job.getJobId())) {
+                    jobByAppliedId.putIfAbsent(job.getJobId(), job);
+                }
+                jobByAppliedId.put(job.getId(), job);
+            }
+        }
+
+        // 3. 计算每个职位和每个 (企业, 学校, 类型) 的申请数
+        Map<String, Long> jobCounts = new HashMap<>();
+        Map<String, CompanyApplicationStat> stats = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Document doc : applied) {
+            Document idDoc = (Document) doc.get("_id");
+            Job job = jobByAppliedId.get(idDoc.getString("appliedJobs"));
+            if (job == null) {
+                continue;
+            }
+            long count = ((Number) doc.get("count")).longValue();
+            jobCounts.merge(job.getId(), count, Long::sum);
+
+            if (job.getCompanyId() == null) {
+                continue;
+            }
+            String schoolId = idDoc.getString("schoolId");
+            String statId = CompanyApplicationStat.buildId(job.getCompanyId(), schoolId, job.getJobType());
+            CompanyApplicationStat stat = stats.computeIfAbsent(statId, k -> {
+                CompanyApplicationStat s = new CompanyApplicationStat();
+                s.setId(k);
+                s.setCompanyId(job.getCompanyId());
+                s.setSchoolId(schoolId);
+                s.setJobType(job.getJobType());
+                s.setCount(0L);
+                s.setUpdatedAt(now);
+                return s;
+            });
+            stat.setCount(stat.getCount() + count);
+        }
+
+        // 4. 写回 Job.applicationCount
+        mongoTemplate.updateMulti(new Query(Criteria.where("applicationCount").gt(0)),
+                new Update().set("applicationCount", 0), Job.class);
+        if (!jobCounts.isEmpty()) {
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Job.class);
+            jobCounts.forEach((jobId, count) -> bulkOps.updateOne(
+                    new Query(Criteria.where("_id").is(jobId)),
+                    new Update().set("applicationCount", count.intValue())));
+            bulkOps.execute();
+        }
+
+        // 5. 重建 company_application_stats
+        mongoTemplate.remove(new Query(), CompanyApplicationStat.class);
+        if (!stats.isEmpty()) {
+            mongoTemplate.insertAll(stats.values());
+        }
+
+        String message = String.format("申请统计重建完成：职位 %d 个，企业统计 %d 条，耗时 %d ms",
+                jobCounts.size(), stats.size(), System.currentTimeMillis() - start);
+        log.info(message);
+        return message;
+    }
+}
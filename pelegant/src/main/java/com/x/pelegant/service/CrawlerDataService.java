@@ -1,24 +1,45 @@
 package com.x.pelegant.service;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.x.pelegant.entity.Company;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.x.pelegant.config.ExecutorConfig;
 import com.x.pelegant.entity.CrawlerData;
-import com.x.pelegant.repository.CompanyRepository;
 import com.x.pelegant.repository.CrawlerDataRepository;
 import com.x.pelegant.vo.TaskStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 @Service
 public class CrawlerDataService {
@@ -29,21 +50,41 @@ public class CrawlerDataService {
 
     private final CrawlerDataRepository crawlerDataRepository;
     private final NewDataMigrationService newDataMigrationService;
-    private final CompanyRepository companyRepository;
     private final ObjectMapper objectMapper;
 
     private final RedisTemplate<String, String> redisTemplate;
 
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    /** MongoDB 唯一索引冲突错误码 */
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    /** 流式导入结束标记 */
+    private static final List<Map<String, Object>> END_OF_STREAM = Collections.emptyList();
+
+    /** 流式导入任务结果中最多保留的未成功记录明细 */
+    private static final int MAX_STREAM_RECORD_DETAILS = 1000;
+
+    @Autowired
+    @Qualifier(ExecutorConfig.INGEST_EXECUTOR)
+    private ThreadPoolTaskExecutor ingestExecutor;
+
+    /** 流式导入每批记录数 */
+    @Value("${pelegant.ingest.batch-size:1000}")
+    private int ingestBatchSize;
+
+    /** 解析与处理之间最多缓冲的批次数，满了解析线程阻塞（不再读取请求体） */
+    @Value("${pelegant.ingest.queue-capacity:2}")
+    private int ingestQueueCapacity;
+
     @Autowired
     public CrawlerDataService(
             CrawlerDataRepository crawlerDataRepository,
             NewDataMigrationService newDataMigrationService,
-            CompanyRepository companyRepository,
             ObjectMapper objectMapper,
             RedisTemplate<String, String> redisTemplate) {
         this.crawlerDataRepository = crawlerDataRepository;
         this.newDataMigrationService = newDataMigrationService;
-        this.companyRepository = companyRepository;
         this.objectMapper = objectMapper;
         this.redisTemplate = redisTemplate;
     }
@@ -53,16 +94,7 @@ public class CrawlerDataService {
             return "没有待存储的爬虫数据！";
         }
         try {
-            // 清空现有的爬虫数据
-            crawlerDataRepository.deleteAll();
-
-            // 遍历原始爬虫数据并进行字段映射
-            List<CrawlerData> crawlerDataList = rawCrawlerData.stream()
-                    .map(this::mapFields)
-                    .collect(Collectors.toList());
-
-            // 批量保存
-            crawlerDataRepository.saveAll(crawlerDataList);
+            appendCrawlerData(rawCrawlerData, generateBatchId("job_postings", "Pelegant_Crawler"));
             return "爬虫数据成功存储！";
         } catch (Exception e) {
             logger.error("存储爬虫数据失败", e);
@@ -70,7 +102,145 @@ public class CrawlerDataService {
         }
     }
 
-    private CrawlerData mapFields(Map<String, Object> rawData) {
+    /**
+     * 追加保存一批原始爬虫数据：字段映射后交给 upsertCrawlerData；
+     * 不清空集合，写入量只与本批大小有关
+     */
+    private void appendCrawlerData(List<Map<String, Object>> rawCrawlerData, String batchId) {
+        List<CrawlerData> records = new ArrayList<>(rawCrawlerData.size());
+        for (Map<String, Object> raw : rawCrawlerData) {
+            records.add(mapFields(raw, batchId));
+        }
+        Map<Integer, String> failures = upsertCrawlerData(records, null, batchId);
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException(String.format("爬虫数据写入失败 %d 条: %s",
+                    failures.size(), failures.values().iterator().next()));
+        }
+    }
+
+    /**
+     * 无序批量写入一批已映射的爬虫数据：按 contentHash（或指定的 rawData 唯一字段）upsert 已抓取过的职位，
+     * 其余直接插入；同一键在本批内重复时只写最后一条
+     *
+     * @param uniqueField rawData 中的唯一字段，非空且记录含该字段时按它 upsert，否则按 contentHash
+     * @return 写入失败的记录下标 -> 原因，全部成功时为空
+     */
+    public Map<Integer, String> upsertCrawlerData(List<CrawlerData> records, String uniqueField, String batchId) {
+        Map<String, Integer> byKey = new LinkedHashMap<>();
+        List<Integer> withoutKey = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            String key = upsertKey(records.get(i), uniqueField);
+            if (key != null) {
+                byKey.put(key, i);
+            } else {
+                withoutKey.add(i);
+            }
+        }
+        if (byKey.isEmpty() && withoutKey.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        // 按加入顺序记录每个写操作对应的记录下标，失败时据此定位
+        List<Integer> operations = new ArrayList<>(byKey.size() + withoutKey.size());
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CrawlerData.class);
+        for (int i : byKey.values()) {
+            CrawlerData data = records.get(i);
+            Object uniqueValue = uniqueValue(data, uniqueField);
+            Update update = toUpsert(data);
+            if (uniqueValue != null && data.getContentHash() != null) {
+                update.set("contentHash", data.getContentHash());
+            }
+            bulkOps.upsert(new Query(uniqueValue != null
+                    ? Criteria.where("rawData." + uniqueField).is(uniqueValue)
+                    : Criteria.where("contentHash").is(data.getContentHash())), update);
+            operations.add(i);
+        }
+        for (int i : withoutKey) {
+            bulkOps.insert(records.get(i));
+            operations.add(i);
+        }
+        try {
+            BulkWriteResult result = bulkOps.execute();
+            logger.info("爬虫数据写入完成: batchId={}, 新增 {} 条, 更新 {} 条", batchId,
+                    result.getUpserts().size() + result.getInsertedCount(), result.getMatchedCount());
+            return Collections.emptyMap();
+        } catch (BulkOperationException e) {
+            // 并发任务同时新增同一职位时只有一方成功，另一方视为已存在
+            Map<Integer, String> failures = new TreeMap<>();
+            long duplicates = 0;
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() == DUPLICATE_KEY_ERROR) {
+                    duplicates++;
+                } else {
+                    failures.put(operations.get(error.getIndex()), error.getMessage());
+                }
+            }
+            if (duplicates > 0) {
+                logger.warn("爬虫数据写入: batchId={}, {} 条已由其他任务写入", batchId, duplicates);
+            }
+            return failures;
+        }
+    }
+
+    private static Object uniqueValue(CrawlerData data, String uniqueField) {
+        if (uniqueField == null || uniqueField.isEmpty() || data.getRawData() == null) {
+            return null;
+        }
+        return data.getRawData().get(uniqueField);
+    }
+
+    private static String upsertKey(CrawlerData data, String uniqueField) {
+        Object uniqueValue = uniqueValue(data, uniqueField);
+        return uniqueValue != null ? "rawData." + uniqueField + "=" + uniqueValue : data.getContentHash();
+    }
+
+    /**
+     * upsert 内容：除首次采集时间外全部覆盖为本次抓取的值
+     */
+    private Update toUpsert(CrawlerData data) {
+        Update update = new Update()
+                .set("dataType", data.getDataType())
+                .set("sourceUrl", data.getSourceUrl())
+                .set("crawlerName", data.getCrawlerName())
+                .set("rawData", data.getRawData())
+                .set("status", data.getStatus())
+                .set("processMessage", data.getProcessMessage())
+                .set("importTime", data.getImportTime())
+                .set("processTime", data.getProcessTime())
+                .set("batchId", data.getBatchId())
+                .set("logoImage", data.getLogoImage())
+                .setOnInsert("dataCreateTime", data.getDataCreateTime());
+        if (data.getMetadata() != null) {
+            update.set("metadata", data.getMetadata());
+        }
+        return update;
+    }
+
+    /**
+     * 内容哈希：SHA-256(sourceUrl|发布日期)，没有 sourceUrl 时返回 null；ProjectService 的爬虫数据导入共用
+     */
+    static String contentHash(String sourceUrl, Map<String, Object> rawData) {
+        if (sourceUrl == null || sourceUrl.trim().isEmpty()) {
+            return null;
+        }
+        Object posted = rawData.get("date_posted");
+        if (posted == null || posted.toString().isEmpty()) {
+            posted = rawData.get("_date_posted");
+        }
+        String content = sourceUrl.trim() + "|" + (posted != null ? posted.toString().trim() : "");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CrawlerData mapFields(Map<String, Object> rawData, String batchId) {
         CrawlerData data = new CrawlerData();
         if (rawData.containsKey("job_url")) {
             data.setSourceUrl((String) rawData.get("job_url"));
@@ -87,7 +257,8 @@ public class CrawlerDataService {
         data.setDataCreateTime(LocalDateTime.now());
         data.setImportTime(LocalDateTime.now());
         data.setProcessTime(LocalDateTime.now());
-        data.setBatchId(generateBatchId("job_postings", "Pelegant_Crawler"));
+        data.setBatchId(batchId);
+        data.setContentHash(contentHash(data.getSourceUrl(), sanitizedRawData));
         if (rawData.containsKey("company_url")) {
             data.setLogoImage((String) rawData.get("company_url"));
         }
@@ -138,30 +309,12 @@ public class CrawlerDataService {
         }
 
         try {
-            List<Company> companies = companyRepository.findAll();
-            Map<String, String> companyNameToIdMap = new HashMap<>();
-            for (Company company : companies) {
-                companyNameToIdMap.put(company.getCompanyName(), company.getCompanyId());
-            }
-
             String crawlerDataResult = storeCrawlerData(rawData);
             response.put("crawlerDataResult", crawlerDataResult);
 
-            String jsonInput;
-            try {
-                jsonInput = objectMapper.writeValueAsString(rawData);
-            } catch (JsonProcessingException e) {
-                logger.error("任务 {} JSON 序列化失败", taskId, e);
-                response.put("taskId", taskId);
-                response.put("error", "JSON 序列化失败: " + e.getMessage());
-                response.put("errors", 1);
-                response.put("errorDetails", new ArrayList<String>(Arrays.asList("JSON 序列化失败: " + e.getMessage())));
-                saveTaskResult(taskId, response, "failed");
-                return;
-            }
-
+            // 控制器已解析好的记录直接迁移，不再序列化成 JSON 再解析
             int batchSize = 1000;
-            Map<String, Object> migrationResult = newDataMigrationService.migrateFromJsonInBatches(jsonInput, companyNameToIdMap, batchSize);
+            Map<String, Object> migrationResult = newDataMigrationService.migrateInBatches(rawData, batchSize);
 
             response.put("taskId", taskId);
             response.put("migrationResult", migrationResult.get("summary"));
@@ -185,6 +338,159 @@ public class CrawlerDataService {
     }
 
 
+    /**
+     * 流式导入爬虫数据（NDJSON 或 JSON 数组，支持嵌套一层数组）
+     * 请求线程用 Jackson 流式解析按批切分，经有界队列交给处理线程执行 去重 → 分类 → 批量写入；
+     * 队列满时解析线程阻塞、停止读取请求体，内存中最多保留 (队列容量 + 2) 批记录。
+     * 结果同时写入 task:{taskId}，可通过 /api/python/task/{taskId} 查询
+     *
+     * @throws org.springframework.core.task.TaskRejectedException 并发导入流已达上限
+     * @throws JsonProcessingException                            JSON 格式错误（已处理的批次保留）
+     */
+    public Map<String, Object> ingestStream(InputStream inputStream, String taskId) throws IOException {
+        long startTime = System.currentTimeMillis();
+        logger.info("流式导入任务 {} 开始", taskId);
+
+        NewDataMigrationService.MigrationContext context = newDataMigrationService.newContext();
+        BlockingQueue<List<Map<String, Object>>> queue = new ArrayBlockingQueue<>(Math.max(1, ingestQueueCapacity));
+        StreamStats stats = new StreamStats();
+        String batchId = generateBatchId("job_postings", "Pelegant_Crawler");
+        Future<?> consumer = ingestExecutor.submit(() -> consumeBatches(queue, context, batchId, stats));
+
+        Exception failure = null;
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            List<Map<String, Object>> batch = new ArrayList<>(ingestBatchSize);
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_OBJECT) {
+                    batch.add(objectMapper.readValue(parser, RECORD_TYPE));
+                    stats.received++;
+                    if (batch.size() >= ingestBatchSize) {
+                        enqueue(queue, batch, consumer);
+                        batch = new ArrayList<>(ingestBatchSize);
+                    }
+                } else if (token != JsonToken.START_ARRAY && token != JsonToken.END_ARRAY) {
+                    throw new JsonParseException(parser, "期望 JSON 对象，实际为 " + token);
+                }
+            }
+            if (!batch.isEmpty()) {
+                enqueue(queue, batch, consumer);
+            }
+        } catch (Exception e) {
+            failure = e;
+        } finally {
+            // 无论解析是否成功都通知处理线程结束，并等待已入队的批次处理完
+            try {
+                enqueue(queue, END_OF_STREAM, consumer);
+                consumer.get();
+            } catch (Exception e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            newDataMigrationService.completeMigration(context);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("taskId", taskId);
+        response.put("migrationResult", "成功迁移 Job：" + stats.jobs + " 条，未匹配公司 PassJob：" + stats.passJobs
+                + " 条，重复记录：" + stats.duplicates + " 条");
+        response.put("totalRecords", String.valueOf(stats.received));
+        response.put("jobsMigrated", stats.jobs);
+        response.put("passJobsMigrated", stats.passJobs);
+        response.put("duplicatesFound", stats.duplicates);
+        response.put("duration", (System.currentTimeMillis() - startTime) + " ms");
+        response.put("batchDetails", stats.batchDetails);
+        response.put("recordDetails", stats.recordDetails);
+
+        if (failure != null) {
+            Throwable cause = failure instanceof ExecutionException && failure.getCause() != null ? failure.getCause() : failure;
+            logger.error("流式导入任务 {} 失败，已接收 {} 条", taskId, stats.received, cause);
+            response.put("error", "处理失败: " + cause.getMessage());
+            saveTaskResult(taskId, response, "failed");
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IllegalStateException("流式导入失败: " + cause.getMessage(), cause);
+        }
+
+        logger.info("流式导入任务 {} 完成: 接收 {} 条，Job {} 条，PassJob {} 条，重复 {} 条", taskId,
+                stats.received, stats.jobs, stats.passJobs, stats.duplicates);
+        saveTaskResult(taskId, response, "completed");
+        return response;
+    }
+
+    /**
+     * 放入队列，队列满时阻塞；处理线程异常退出时立即失败，避免永久阻塞
+     */
+    private void enqueue(BlockingQueue<List<Map<String, Object>>> queue, List<Map<String, Object>> batch,
+                         Future<?> consumer) throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, 1, TimeUnit.SECONDS)) {
+            if (consumer.isDone()) {
+                consumer.get();
+                throw new IllegalStateException("导入处理线程已退出");
+            }
+        }
+    }
+
+    /**
+     * 处理线程：逐批保存原始数据并迁移，直到收到结束标记
+     */
+    private void consumeBatches(BlockingQueue<List<Map<String, Object>>> queue,
+                                NewDataMigrationService.MigrationContext context, String batchId, StreamStats stats) {
+        try {
+            int batchNo = 0;
+            List<Map<String, Object>> batch;
+            while ((batch = queue.take()) != END_OF_STREAM) {
+                batchNo++;
+                appendCrawlerData(batch, batchId);
+                Map<String, Object> batchResult = newDataMigrationService.migrateRawBatch(batch, context);
+
+                int jobs = (Integer) batchResult.getOrDefault("jobs", 0);
+                int passJobs = (Integer) batchResult.getOrDefault("passJobs", 0);
+                int duplicates = (Integer) batchResult.getOrDefault("duplicates", 0);
+                stats.jobs += jobs;
+                stats.passJobs += passJobs;
+                stats.duplicates += duplicates;
+
+                Map<String, Object> batchDetail = new HashMap<>();
+                batchDetail.put("batch", batchNo);
+                batchDetail.put("jobsMigrated", jobs);
+                batchDetail.put("passJobsMigrated", passJobs);
+                batchDetail.put("duplicates", duplicates);
+                batchDetail.put("dedupHitRate", batchResult.getOrDefault("dedupHitRate", 0.0));
+                batchDetail.put("redisMillis", batchResult.getOrDefault("redisMillis", 0L));
+                stats.batchDetails.add(batchDetail);
+
+                // 只保留有限条未成功记录，避免超大导入撑爆任务结果
+                List<NewDataMigrationService.RecordMigrationDetail> failed = newDataMigrationService.filterNonSuccessfulJobRecords(
+                        (List<NewDataMigrationService.RecordMigrationDetail>) batchResult.getOrDefault("recordDetails", Collections.emptyList()));
+                for (NewDataMigrationService.RecordMigrationDetail detail : failed) {
+                    if (stats.recordDetails.size() >= MAX_STREAM_RECORD_DETAILS) {
+                        break;
+                    }
+                    stats.recordDetails.add(detail);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("导入处理线程被中断", e);
+        }
+    }
+
+    /**
+     * 流式导入统计（received 由解析线程写，其余由处理线程写，结果在 consumer.get() 之后读取）
+     */
+    private static class StreamStats {
+        private volatile long received;
+        private int jobs;
+        private int passJobs;
+        private int duplicates;
+        private final List<Map<String, Object>> batchDetails = new ArrayList<>();
+        private final List<NewDataMigrationService.RecordMigrationDetail> recordDetails = new ArrayList<>();
+    }
+
+
     // 修改 saveTaskResult 方法
     private void saveTaskResult(String taskId, Map<String, Object> response, String status) {
         int maxRetries = 3;
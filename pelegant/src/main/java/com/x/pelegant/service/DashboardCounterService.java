@@ -0,0 +1,204 @@
+package com.x.pelegant.service;
+
+import com.x.pelegant.entity.DashboardCounter;
+import com.x.pelegant.entity.DashboardData;
+import com.x.pelegant.entity.Job;
+import com.x.pelegant.repository.CompanyRepository;
+import com.x.pelegant.repository.DashboardDataRepository;
+import com.x.pelegant.repository.SchoolRepository;
+import com.x.pelegant.repository.StudentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 仪表盘计数服务
+ * 学生、企业、学校、职位总数通过 $inc 增量维护，每日定时校准并写入 DashboardData 快照
+ */
+@Service
+@Slf4j
+public class DashboardCounterService {
+
+    public static final String STUDENTS = "students";
+    public static final String COMPANIES = "companies";
+    public static final String SCHOOLS = "schools";
+    /** 香港地区全职校招/实习职位 */
+    public static final String JOBS = "jobs";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    @Autowired
+    private DashboardDataRepository dashboardDataRepository;
+
+    /**
+     * 原子增减计数，计数失败不影响业务流程（每日校准会修正）
+     */
+    public void increment(String counter, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        try {
+            mongoTemplate.upsert(
+                    new Query(Criteria.where("_id").is(counter)),
+                    new Update().inc("value", delta).set("updatedAt", LocalDateTime.now()),
+                    DashboardCounter.class);
+        } catch (Exception e) {
+            log.warn("更新仪表盘计数失败: counter={}, delta={}, error={}", counter, delta, e.getMessage());
+        }
+    }
+
+    /**
+     * 是否计入仪表盘职位数（香港地区全职校招/实习）
+     */
+    public boolean isDashboardJob(Job job) {
+        return job != null
+                && Boolean.TRUE.equals(job.getIsHongKong())
+                && ("full-time-campus".equals(job.getJobType()) || "intern".equals(job.getJobType()));
+    }
+
+    public void jobAdded(Job job) {
+        if (isDashboardJob(job)) {
+            increment(JOBS, 1);
+        }
+    }
+
+    public void jobsAdded(Collection<Job> jobs) {
+        increment(JOBS, jobs.stream().filter(this::isDashboardJob).count());
+    }
+
+    public void jobRemoved(Job job) {
+        if (isDashboardJob(job)) {
+            increment(JOBS, -1);
+        }
+    }
+
+    /**
+     * 职位更新后根据更新前是否计入调整计数
+     */
+    public void jobUpdated(boolean countedBefore, Job job) {
+        boolean countedAfter = isDashboardJob(job);
+        if (countedBefore != countedAfter) {
+            increment(JOBS, countedAfter ? 1 : -1);
+        }
+    }
+
+    /**
+     * 读取全部计数，缺失时先重建
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> counters = new HashMap<>();
+        for (DashboardCounter counter : mongoTemplate.findAll(DashboardCounter.class)) {
+            counters.put(counter.getId(), counter.getValue() != null ? counter.getValue() : 0L);
+        }
+        if (!counters.keySet().containsAll(Arrays.asList(STUDENTS, COMPANIES, SCHOOLS, JOBS))) {
+            return rebuild();
+        }
+        return counters;
+    }
+
+    /**
+     * 按源数据重新统计并覆盖计数器
+     */
+    public Map<String, Long> rebuild() {
+        Query jobQuery = new Query(Criteria.where("isHongKong").is(true)
+                .and("jobType").in("full-time-campus", "intern"));
+
+        Map<String, Long> counters = new HashMap<>();
+        counters.put(STUDENTS, studentRepository.count());
+        counters.put(COMPANIES, companyRepository.count());
+        counters.put(SCHOOLS, schoolRepository.count());
+        counters.put(JOBS, mongoTemplate.count(jobQuery, Job.class));
+
+        LocalDateTime now = LocalDateTime.now();
+        counters.forEach((name, value) -> mongoTemplate.upsert(
+                new Query(Criteria.where("_id").is(name)),
+                new Update().set("value", value).set("updatedAt", now),
+                DashboardCounter.class));
+
+        log.info("仪表盘计数已重建: {}", counters);
+        return counters;
+    }
+
+    /**
+     * 每日快照：校准计数后写入当天（UTC+8）的 DashboardData
+     */
+    @Scheduled(cron = "${pelegant.dashboard.snapshot-cron:0 5 0 * * ?}", zone = "Asia/Shanghai")
+    public void snapshotDaily() {
+        try {
+            writeSnapshot(rebuild());
+        } catch (Exception e) {
+            log.error("写入仪表盘每日快照失败", e);
+        }
+    }
+
+    /**
+     * 启动时补写当天快照
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void snapshotOnStartup() {
+        try {
+            if (dashboardDataRepository.findByCreatedAt(today()) == null) {
+                writeSnapshot(rebuild());
+            }
+        } catch (Exception e) {
+            log.error("启动时写入仪表盘快照失败", e);
+        }
+    }
+
+    /**
+     * 查询指定日期的快照
+     */
+    public DashboardData getSnapshot(LocalDate date) {
+        return dashboardDataRepository.findByCreatedAt(date);
+    }
+
+    /**
+     * 当前日期（UTC+8）
+     */
+    public LocalDate today() {
+        return ZonedDateTime.now(ZoneOffset.ofHours(8)).toLocalDate();
+    }
+
+    private void writeSnapshot(Map<String, Long> counters) {
+        LocalDate date = today();
+        DashboardData snapshot = dashboardDataRepository.findByCreatedAt(date);
+        if (snapshot == null) {
+            snapshot = new DashboardData();
+            snapshot.setCreatedAt(date);
+        }
+        snapshot.setTotalStudents(counters.get(STUDENTS).intValue());
+        snapshot.setTotalCompanies(counters.get(COMPANIES).intValue());
+        snapshot.setTotalSchools(counters.get(SCHOOLS).intValue());
+        snapshot.setTotalJobs(counters.get(JOBS).intValue());
+        dashboardDataRepository.save(snapshot);
+        log.info("仪表盘快照已写入: {}", date);
+    }
+}
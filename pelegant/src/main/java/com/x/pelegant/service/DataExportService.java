@@ -0,0 +1,148 @@
+package com.x.pelegant.service;
+
+import com.mongodb.client.MongoCursor;
+import com.x.pelegant.util.exporter.ExportFormat;
+import com.x.pelegant.util.exporter.TabularWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 职位数据流式导出
+ * 通过聚合游标按批（pelegant.export.batch-size）读取职位，逐行写出 CSV / XLSX / NDJSON 到 HTTP 响应或文件，
+ * 不在内存中汇总结果，内存占用与职位数无关
+ */
+@Service
+@Slf4j
+public class DataExportService {
+
+    /**
+     * 职位导出列
+     */
+    public static final List<String> JOB_COLUMNS = Collections.unmodifiableList(Arrays.asList(
+            "id", "title", "company", "location", "description", "company_description", "skills", "job_type"));
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * 游标每批读取的文档数
+     */
+    @Value("${pelegant.export.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * JobSpy 推荐服务读取 jobs.csv 的目录
+     */
+    @Value("${pelegant.export.jobspy-dir:/home/ubuntu/project/JobSpy}")
+    private String jobSpyDir;
+
+    /**
+     * 导出香港实习 / 校招职位
+     *
+     * @param from 创建时间下限（含），为空不限
+     * @param to   创建时间上限（含），为空不限
+     * @param gzip 是否 gzip 压缩
+     * @return 导出的职位数
+     */
+    public long exportHongKongGraduateJobs(LocalDateTime from, LocalDateTime to, ExportFormat format,
+                                           boolean gzip, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        try (TabularWriter writer = TabularWriter.open(format, out, JOB_COLUMNS, gzip);
+             MongoCursor<Document> cursor = mongoTemplate.getCollection("job")
+                     .aggregate(hongKongGraduateJobsPipeline(from, to))
+                     .allowDiskUse(true)
+                     .batchSize(batchSize)
+                     .iterator()) {
+            while (cursor.hasNext()) {
+                writer.writeRow(toJobRow(cursor.next()));
+            }
+            log.info("职位导出完成: format={}, gzip={}, 职位数={}, 耗时 {} ms",
+                    format, gzip, writer.getRowCount(), System.currentTimeMillis() - start);
+            return writer.getRowCount();
+        }
+    }
+
+    /**
+     * 把全部香港实习 / 校招职位写入 JobSpy 目录下的 jobs.csv（先写临时文件再替换，读取方不会读到半个文件）
+     */
+    public File writeJobSpyCsv() throws IOException {
+        File directory = new File(jobSpyDir);
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        File csvFile = new File(directory, "jobs.csv");
+        File tempFile = new File(directory, "jobs.csv.tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+            exportHongKongGraduateJobs(null, null, ExportFormat.CSV, false, out);
+        }
+        Files.move(tempFile.toPath(), csvFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return csvFile;
+    }
+
+    private List<Document> hongKongGraduateJobsPipeline(LocalDateTime from, LocalDateTime to) {
+        // 香港岗位通过 isHongKong 索引字段过滤
+        Document match = new Document("isHongKong", true)
+                .append("jobType", new Document("$in", Arrays.asList("intern", "full-time-campus")));
+        if (from != null || to != null) {
+            Document range = new Document();
+            if (from != null) {
+                range.append("$gte", toDate(from));
+            }
+            if (to != null) {
+                range.append("$lte", toDate(to));
+            }
+            match.append("createdAt", range);
+        }
+        return Arrays.asList(
+                new Document("$match", match),
+                new Document("$lookup", new Document("from", "company")
+                        .append("localField", "companyId")
+                        .append("foreignField", "companyId")
+                        .append("as", "companyDetails")),
+                new Document("$project", new Document("title", "$jobTitle")
+                        .append("company", "$companyName")
+                        .append("location", "$workLocation")
+                        .append("description", "$jobDescription")
+                        .append("company_description",
+                                new Document("$arrayElemAt", Arrays.asList("$companyDetails.companyDescription", 0)))
+                        .append("skills", "$skillsRequired")
+                        .append("job_type", "$jobType")));
+    }
+
+    private List<Object> toJobRow(Document doc) {
+        Object id = doc.get("_id");
+        Object skills = doc.get("skills");
+        return Arrays.asList(
+                id instanceof ObjectId ? ((ObjectId) id).toHexString() : Objects.toString(id, null),
+                doc.get("title"),
+                doc.get("company"),
+                doc.get("location"),
+                doc.get("description"),
+                doc.get("company_description"),
+                skills instanceof List
+                        ? ((List<?>) skills).stream().map(Object::toString).collect(Collectors.joining("; "))
+                        : skills,
+                doc.get("job_type"));
+    }
+
+    private static Date toDate(LocalDateTime time) {
+        return Date.from(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
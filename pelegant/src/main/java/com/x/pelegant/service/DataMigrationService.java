@@ -1,5 +1,6 @@
 package com.x.pelegant.service;
 
+import com.x.pelegant.config.ExecutorConfig;
 import com.x.pelegant.entity.Company;
 import com.x.pelegant.entity.CrawlerData;
 import com.x.pelegant.entity.Job;
@@ -8,15 +9,20 @@ import com.x.pelegant.repository.CompanyRepository;
 import com.x.pelegant.repository.CrawlerDataRepository;
 import com.x.pelegant.repository.JobRepository;
 import com.x.pelegant.repository.PassJobRepository;
+import com.x.pelegant.service.company.CompanyNameResolver;
 import com.x.pelegant.service.industry.IndustryClassifier;
 import com.x.pelegant.util.EmploymentClassifier;
+import com.x.pelegant.util.LocationNormalizer;
+import com.x.pelegant.util.ResultCache;
 import org.apache.commons.text.similarity.CosineSimilarity;
 import org.apache.commons.text.similarity.JaroWinklerSimilarity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.io.BufferedWriter;
@@ -26,10 +32,7 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -48,11 +51,17 @@ public class DataMigrationService {
     @Autowired
     private IndustryClassifier industryClassifier;
     @Autowired
+    private CompanyNameResolver companyNameResolver;
+    @Autowired
     private EmploymentClassifier employmentClassifier;
-
-    private final ExecutorService executor = Executors.newFixedThreadPool(
-            Math.max(4, Runtime.getRuntime().availableProcessors())
-    );
+    @Autowired
+    private ResultCache resultCache;
+    @Autowired
+    private DashboardCounterService dashboardCounterService;
+    /** 共享工作线程池：新公司的批量行业分类 */
+    @Autowired
+    @Qualifier(ExecutorConfig.WORKER_EXECUTOR)
+    private ThreadPoolTaskExecutor workerExecutor;
 
     private final JaroWinklerSimilarity similarity = new JaroWinklerSimilarity();
     private final CosineSimilarity cosineSimilarity = new CosineSimilarity();
@@ -116,50 +125,51 @@ public class DataMigrationService {
         AtomicInteger newJobs = new AtomicInteger(0);
         AtomicInteger passJobs = new AtomicInteger(0);
         CopyOnWriteArrayList<String> duplicateLogs = new CopyOnWriteArrayList<>();
-        ConcurrentHashMap<String, Company> companyCache = new ConcurrentHashMap<>();
+        // 公司名 → 匹配结果，同一批内每个公司名只解析一次
+        Map<String, CompanyNameResolver.Match> companyMatches = new HashMap<>();
+        // 本批新建公司的规范化名称 → 匹配结果，保存成功后才加入公司名索引
+        Map<String, CompanyNameResolver.Match> newCompanyMatches = new HashMap<>();
+
+        // 处理公司：通过公司名索引匹配已有公司，未命中则创建，新公司统一批量分类行业后再保存
+        List<Company> newCompanies = new ArrayList<>();
+        for (CrawlerData data : dataList) {
+            Object rawCompany = data.getRawData().get("company");
+            String companyName = rawCompany != null ? rawCompany.toString().trim() : "";
+            if (companyName.isEmpty() || companyMatches.containsKey(companyName)) {
+                continue;
+            }
 
-        // 初始化公司缓存
-        companyRepository.findAll().forEach(c -> {
-            String normName = normalizeCompanyName(c.getCompanyName());
-            companyCache.put(normName, c);
-        });
+            String normalizedName = CompanyNameResolver.normalize(companyName);
+            CompanyNameResolver.Match match = companyNameResolver.resolve(companyName);
+            if (match == null && !normalizedName.isEmpty()) {
+                // 本批已新建的公司尚未保存、不在索引中，规范化名称相同的直接归并
+                match = newCompanyMatches.get(normalizedName);
+            }
+            if (match == null) {
+                Company newCompany = createCompany(data.getRawData());
+                newCompanies.add(newCompany);
+                logger.info("创建新公司: {}", newCompany.getCompanyName());
+                match = new CompanyNameResolver.Match(newCompany.getCompanyId(), newCompany.getCompanyName(),
+                        CompanyNameResolver.MatchType.EXACT, 1.0);
+                if (!normalizedName.isEmpty()) {
+                    newCompanyMatches.put(normalizedName, match);
+                }
+            } else if (match.getType() == CompanyNameResolver.MatchType.FUZZY) {
+                logger.info("模糊合并公司: {} -> {} (相似度 {})", companyName, match.getCompanyName(), match.getConfidence());
+            }
+            companyMatches.put(companyName, match);
+        }
 
-        // 处理公司
-        dataList.stream()
-                .map(d -> d.getRawData().get("company"))
-                .filter(Objects::nonNull)
-                .map(Object::toString)
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .distinct()
-                .forEach(companyName -> {
-                    String normalized = normalizeCompanyName(companyName);
-
-                    companyCache.computeIfAbsent(normalized, k -> {
-                        // 模糊匹配已有公司
-                        Company existing = companyCache.values().stream()
-                                .filter(c -> similarity.apply(c.getCompanyNameLower(), normalized) >= COMPANY_SIMILARITY_THRESHOLD)
-                                .findFirst()
-                                .orElse(null);
-
-                        if (existing != null) {
-                            logger.info("模糊合并公司: {} -> {}", companyName, existing.getCompanyName());
-                            return existing;
-                        }
-
-                        // 新建公司
-                        Map<String, Object> rawData = dataList.stream()
-                                .filter(d -> companyName.equalsIgnoreCase((String) d.getRawData().get("company")))
-                                .map(CrawlerData::getRawData)
-                                .findFirst()
-                                .orElse(Collections.emptyMap());
-
-                        Company newCompany = createCompany(rawData);
-                        companyRepository.save(newCompany);
-                        logger.info("创建新公司: {}", newCompany.getCompanyName());
-                        return newCompany;
-                    });
-                });
+        if (!newCompanies.isEmpty()) {
+            List<IndustryClassifier.IndustryResult> industries = industryClassifier.classifyAll(newCompanies, workerExecutor);
+            for (int i = 0; i < newCompanies.size(); i++) {
+                applyIndustry(newCompanies.get(i), industries.get(i));
+            }
+            companyRepository.saveAll(newCompanies);
+            companyNameResolver.registerAll(newCompanies);
+            dashboardCounterService.increment(DashboardCounterService.COMPANIES, newCompanies.size());
+            resultCache.evictByPrefix(ResultCache.COMPANY_PREFIX);
+        }
 
         // 处理职位
         dataList.forEach(data -> {
@@ -172,8 +182,7 @@ public class DataMigrationService {
                 return;
             }
 
-            String normCompany = normalizeCompanyName(companyName);
-            Company company = companyCache.get(normCompany);
+            CompanyNameResolver.Match company = companyMatches.get(companyName.trim());
 
             if (company == null) {
                 // 公司不存在，写入 passjob
@@ -189,7 +198,7 @@ public class DataMigrationService {
             String jobDesc = normalizeText((String) rawData.get("description"));
 
             boolean isDuplicate = existingJobs.stream().anyMatch(j ->
-                    isDuplicateJob(j, rawData, data, company));
+                    isDuplicateJob(j, rawData, data));
 
             if (isDuplicate) {
                 duplicateLogs.add("重复职位: " + jobTitle + " @ " + company.getCompanyName());
@@ -199,6 +208,7 @@ public class DataMigrationService {
 
             Job job = mapToJob(data, company.getCompanyId());
             jobRepository.save(job);
+            dashboardCounterService.jobAdded(job);
             newJobs.incrementAndGet();
             logger.info("创建新职位: {} @ {}", job.getJobTitle(), company.getCompanyName());
         });
@@ -206,12 +216,15 @@ public class DataMigrationService {
         // 写重复日志
         writeDuplicateLog(duplicateLogs);
 
+        // 职位数据已变更，使职位统计缓存失效
+        resultCache.evictByPrefix(ResultCache.JOB_PREFIX);
+
         return "成功创建职位：" + newJobs.get() + " 条，无公司职位：" + passJobs.get() + " 条";
     }
 
     // -------------------- 工具方法 --------------------
 
-    private boolean isDuplicateJob(Job existingJob, Map<String, Object> rawData, CrawlerData data, Company company) {
+    private boolean isDuplicateJob(Job existingJob, Map<String, Object> rawData, CrawlerData data) {
         String newJobTitle = (String) rawData.getOrDefault("title", "");
         String newDescription = (String) rawData.getOrDefault("description", "");
         String newCompanyName = (String) rawData.getOrDefault("company", "");
@@ -257,16 +270,11 @@ public class DataMigrationService {
         String companyName = rawData.get("company").toString().trim();
         String description = (String) rawData.getOrDefault("description", "");
 
-        IndustryClassifier.IndustryResult industry = industryClassifier.classify(company);
-
         company.setCompanyId("COM-" + UUID.randomUUID());
         company.setCompanyName(companyName);
         company.setCompanyNameLower(normalizeCompanyName(companyName));
         company.setCompanyType("未知");
         company.setCompanySize("未知");
-        company.setSector(industry.getSector() != null ? industry.getSector() : "未知");
-        company.setIndustryCategory(industry.getIndustry() != null ? industry.getIndustry() : "未知");
-        company.setSubIndustry(industry.getSubIndustry() != null ? industry.getSubIndustry() : "未知");
         company.setIndustry("未知");
         company.setCompanyAddress((String) rawData.getOrDefault("location", "未知地址"));
         company.setCompanyWebsite("");
@@ -280,6 +288,12 @@ public class DataMigrationService {
         return company;
     }
 
+    private void applyIndustry(Company company, IndustryClassifier.IndustryResult industry) {
+        company.setSector(industry.getSector() != null ? industry.getSector() : "未知");
+        company.setIndustryCategory(industry.getIndustry() != null ? industry.getIndustry() : "未知");
+        company.setSubIndustry(industry.getSubIndustry() != null ? industry.getSubIndustry() : "未知");
+    }
+
     private Job mapToJob(CrawlerData data, String companyId) {
         Map<String, Object> rawData = data.getRawData();
         Job job = new Job();
@@ -291,6 +305,7 @@ public class DataMigrationService {
         job.setJobRequirements((String) rawData.getOrDefault("experience_range", ""));
         job.setJobType(classifyJobType(rawData));
         job.setWorkLocation((String) rawData.getOrDefault("location", "Unknown Location"));
+        LocationNormalizer.apply(job);
         job.setMinSalary(toBigDecimal(rawData.get("salary_min")));
         job.setMaxSalary(toBigDecimal(rawData.get("salary_max")));
         job.setSalaryUnit((String) rawData.getOrDefault("currency", "month"));
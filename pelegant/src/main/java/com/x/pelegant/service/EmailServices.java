@@ -1,16 +1,17 @@
 package com.x.pelegant.service;
 
+import com.x.pelegant.config.ExecutorConfig;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
-import javax.annotation.PreDestroy;
 import javax.mail.internet.MimeMessage;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @Slf4j
@@ -22,28 +23,10 @@ public class EmailServices {
     @Value("${spring.mail.username:noreply@pelegant.com}")
     private String fromEmail;
 
-    private final ExecutorService executorService;
-
-public EmailServices() {
-    // 使用自定义线程池配置
-    this.executorService = new ThreadPoolExecutor(
-        10, // 核心线程数
-        50, // 最大线程数
-        60L, TimeUnit.SECONDS, // 空闲线程存活时间
-        new LinkedBlockingQueue<>(1000), // 有界队列
-        new ThreadFactory() {
-            private final AtomicInteger threadNumber = new AtomicInteger(1);
-            @Override
-            public Thread newThread(Runnable r) {
-                Thread t = new Thread(r, "email-sender-" + threadNumber.getAndIncrement());
-                t.setDaemon(false);
-                return t;
-            }
-        },
-        new ThreadPoolExecutor.CallerRunsPolicy() // 拒绝策略：由调用线程执行
-    );
-}
-
+    /** 共享邮件发送线程池（见 ExecutorConfig） */
+    @Autowired
+    @Qualifier(ExecutorConfig.EMAIL_EXECUTOR)
+    private ThreadPoolTaskExecutor executorService;
 
     public enum EmailType {
         STUDENT_INITIAL_PASSWORD,
@@ -454,29 +437,4 @@ public boolean handleEmailResult(Future<Boolean> emailFuture, String email) {
         return false;
     }
 }
-
-    @PreDestroy
-    public void shutdown() {
-        if (executorService != null) {
-            log.info("正在关闭邮件发送线程池...");
-            executorService.shutdown();
-            try {
-                // 等待最多60秒让现有任务完成
-                if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                    log.warn("邮件发送线程池未能在60秒内关闭，强制关闭...");
-                    executorService.shutdownNow();
-                    // 再等待60秒让任务响应中断
-                    if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                        log.error("邮件发送线程池未能关闭");
-                    }
-                }
-            } catch (InterruptedException e) {
-                log.error("关闭邮件发送线程池时被中断", e);
-                executorService.shutdownNow();
-                Thread.currentThread().interrupt();
-            }
-            log.info("邮件发送线程池已关闭");
-        }
-    }
 }
-
@@ -0,0 +1,270 @@
+package com.x.pelegant.service;
+
+import com.mongodb.client.MongoCollection;
+import com.x.pelegant.dto.JobSearchResponse;
+import com.x.pelegant.entity.Job;
+import com.x.pelegant.util.KeysetCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * 职位全文搜索服务
+ * 基于 job 集合的加权文本索引（jobTitle > companyName > skillsRequired > jobDescription，见 Job 上的 @TextIndexed），
+ * 关键词只作为 $text 检索词，不会被编译为正则；结果按相关度排序，使用游标分页并生成高亮摘要。
+ * 文本索引不对中日韩文字分词，含这类文字的关键词改为转义后的子串匹配（按创建时间倒序）。
+ * 未传 cursor 和 size 时返回全部结果（兼容未分页的调用方）
+ */
+@Service
+@Slf4j
+public class JobSearchService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final int MAX_KEYWORD_LENGTH = 100;
+    private static final int SNIPPET_BEFORE = 60;
+    private static final int SNIPPET_LENGTH = 200;
+
+    private static final String SCOPE_TEXT = "job-search-text";
+    private static final String SCOPE_SUBSTRING = "job-search-substring";
+    private static final String SCOPE_LATEST = "job-search-latest";
+
+    /** 子串匹配的字段，与文本索引字段一致 */
+    private static final List<String> SUBSTRING_FIELDS = Arrays.asList("jobTitle", "companyName", "skillsRequired", "jobDescription");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * 搜索开放中的香港职位
+     *
+     * @param keyword        关键词，为空时按创建时间倒序浏览
+     * @param employmentType 就业类型：0 全部、1 全职校招、2 实习
+     * @param cursor         上一页返回的 nextCursor，首页传 null
+     * @param size           每页数量；cursor 和 size 都未传时不分页
+     * @throws IllegalArgumentException 游标无效
+     */
+    public JobSearchResponse search(String keyword, String employmentType, String cursor, Integer size) {
+        boolean hasCursor = cursor != null && !cursor.isEmpty();
+        boolean paged = hasCursor || size != null;
+        int limit = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        String text = StringUtils.hasText(keyword) ? keyword.trim() : null;
+        if (text != null && text.length() > MAX_KEYWORD_LENGTH) {
+            text = text.substring(0, MAX_KEYWORD_LENGTH);
+        }
+        boolean substring = text != null && containsCjk(text);
+        boolean scored = text != null && !substring;
+        List<String> jobTypes = translateEmploymentType(employmentType);
+
+        // 游标绑定关键词和就业类型，不能用于其他查询
+        String scope = (scored ? SCOPE_TEXT : substring ? SCOPE_SUBSTRING : SCOPE_LATEST)
+                + "-" + Integer.toHexString(Objects.hash(text, jobTypes));
+        KeysetCursor pageCursor = hasCursor ? KeysetCursor.decode(cursor, scope) : null;
+
+        Document filter = new Document("status", "opening").append("isHongKong", true);
+        if (jobTypes != null) {
+            filter.append("jobType", new Document("$in", jobTypes));
+        }
+        if (scored) {
+            filter.append("$text", new Document("$search", text));
+        } else if (substring) {
+            Document pattern = new Document("$regex", Pattern.quote(text)).append("$options", "i");
+            List<Document> fields = new ArrayList<>(SUBSTRING_FIELDS.size());
+            for (String field : SUBSTRING_FIELDS) {
+                fields.add(new Document(field, pattern));
+            }
+            filter.append("$or", fields);
+        }
+
+        MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Job.class));
+
+        // 总数只在首页统计一次，随游标传递
+        long total = pageCursor != null && pageCursor.getTotal() != null
+                ? pageCursor.getTotal() : collection.countDocuments(filter);
+
+        List<Document> docs = new ArrayList<>(paged ? limit + 1 : 16);
+        if (scored) {
+            List<Document> pipeline = new ArrayList<>();
+            pipeline.add(new Document("$match", filter));
+            pipeline.add(new Document("$addFields", new Document("_score", new Document("$meta", "textScore"))));
+            if (pageCursor != null) {
+                pipeline.add(new Document("$match", new Document("$or", Arrays.asList(
+                        new Document("_score", new Document("$lt", pageCursor.getSortValue())),
+                        new Document("_score", pageCursor.getSortValue()).append("_id", new Document("$gt", pageCursor.getId()))))));
+            }
+            pipeline.add(new Document("$sort", new Document("_score", -1).append("_id", 1)));
+            if (paged) {
+                pipeline.add(new Document("$limit", limit + 1));
+            }
+            collection.aggregate(pipeline).into(docs);
+        } else {
+            Document query = pageCursor != null
+                    ? new Document("$and", Arrays.asList(filter, pageCursor.afterDescending("createdAt").getCriteriaObject()))
+                    : filter;
+            collection.find(query)
+                    .sort(new Document("createdAt", -1).append("_id", -1))
+                    .limit(paged ? limit + 1 : 0)
+                    .into(docs);
+        }
+
+        String nextCursor = null;
+        if (paged && docs.size() > limit) {
+            docs = docs.subList(0, limit);
+            Document last = docs.get(limit - 1);
+            nextCursor = new KeysetCursor(scope, scored ? last.get("_score") : last.get("createdAt"),
+                    last.get("_id"), total).encode();
+        }
+
+        List<Job> jobs = new ArrayList<>(docs.size());
+        Map<String, String> highlights = new HashMap<>();
+        List<String> terms = text != null ? extractTerms(text) : Collections.emptyList();
+        for (Document doc : docs) {
+            Job job = mongoTemplate.getConverter().read(Job.class, doc);
+            jobs.add(job);
+            if (!terms.isEmpty()) {
+                String snippet = buildSnippet(job.getJobDescription(), terms);
+                if (snippet != null) {
+                    highlights.put(job.getId(), snippet);
+                }
+            }
+        }
+
+        JobSearchResponse response = new JobSearchResponse(jobs, total);
+        response.setNextCursor(nextCursor);
+        response.setHighlights(highlights);
+        return response;
+    }
+
+    /**
+     * 是否包含中日韩文字（文本索引不对其分词）
+     */
+    static boolean containsCjk(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            Character.UnicodeScript script = Character.UnicodeScript.of(c);
+            if (Character.isIdeographic(c) || script == Character.UnicodeScript.HIRAGANA
+                    || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 就业类型编码转换为 jobType 列表，null 表示不限
+     */
+    private List<String> translateEmploymentType(String employmentType) {
+        if (!StringUtils.hasText(employmentType) || "All".equals(employmentType)) {
+            return null;
+        }
+        switch (employmentType) {
+            case "1":
+                return Collections.singletonList("full-time-campus");
+            case "2":
+                return Collections.singletonList("intern");
+            default:
+                // "0" 及其他值：全职校招和实习
+                return Arrays.asList("full-time-campus", "intern");
+        }
+    }
+
+    /**
+     * 拆分关键词用于高亮（与 $text 分词保持一致：按非字母数字字符切分，忽略 -排除词）
+     */
+    private List<String> extractTerms(String keyword) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String part : keyword.split("\\s+")) {
+            if (part.startsWith("-")) {
+                continue;
+            }
+            for (String term : part.split("[^\\p{L}\\p{N}]+")) {
+                if (!term.isEmpty()) {
+                    terms.add(term);
+                }
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * 截取命中词附近的描述作为摘要，HTML 转义后用 <em> 标记命中词
+     */
+    private String buildSnippet(String text, List<String> terms) {
+        if (!StringUtils.hasText(text)) {
+            return null;
+        }
+        int first = -1;
+        for (int i = 0; i < text.length() && first < 0; i++) {
+            if (matchTermAt(text, i, terms) > 0) {
+                first = i;
+            }
+        }
+        int start = first < 0 ? 0 : Math.max(0, first - SNIPPET_BEFORE);
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+
+        StringBuilder sb = new StringBuilder();
+        if (start > 0) {
+            sb.append("...");
+        }
+        int i = start;
+        while (i < end) {
+            int len = first < 0 ? 0 : matchTermAt(text, i, terms);
+            if (len > 0) {
+                int matchEnd = Math.min(i + len, end);
+                sb.append("<em>");
+                appendEscaped(sb, text, i, matchEnd);
+                sb.append("</em>");
+                i = matchEnd;
+            } else {
+                appendEscaped(sb, text, i, i + 1);
+                i++;
+            }
+        }
+        if (end < text.length()) {
+            sb.append("...");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 返回在 pos 处命中的最长检索词长度，未命中返回 0
+     */
+    private int matchTermAt(String text, int pos, List<String> terms) {
+        int best = 0;
+        for (String term : terms) {
+            if (term.length() > best && text.regionMatches(true, pos, term, 0, term.length())) {
+                best = term.length();
+            }
+        }
+        return best;
+    }
+
+    private void appendEscaped(StringBuilder sb, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    sb.append("&lt;");
+                    break;
+                case '>':
+                    sb.append("&gt;");
+                    break;
+                case '&':
+                    sb.append("&amp;");
+                    break;
+                case '"':
+                    sb.append("&quot;");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+}
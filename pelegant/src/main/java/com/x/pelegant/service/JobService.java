@@ -19,6 +19,9 @@ public class JobService {
     @Autowired
     private JobRepository jobRepository;
 
+    @Autowired
+    private DashboardCounterService dashboardCounterService;
+
     /**
      * 岗位去重：根据职位标题和公司名称分组，保留最新创建时间的岗位，删除其他重复岗位
      */
@@ -56,6 +59,7 @@ public class JobService {
                         Job jobToDelete = jobs.get(i);
                         log.info("删除岗位ID：{}, 职位：{}, 公司：{}", jobToDelete.getId(), jobToDelete.getJobTitle(), jobToDelete.getCompanyName());
                         jobRepository.deleteById(jobToDelete.getId());
+                        dashboardCounterService.jobRemoved(jobToDelete);
                         deleteCount++;
                     }
                 }
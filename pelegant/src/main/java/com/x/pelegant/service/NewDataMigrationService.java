@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mongodb.MongoWriteException;
 import com.mongodb.client.result.UpdateResult;
+import com.x.pelegant.config.ExecutorConfig;
 import com.x.pelegant.dto.TaskInfo;
 import com.x.pelegant.entity.CrawlerData;
 import com.x.pelegant.entity.Job;
@@ -14,17 +15,25 @@ import com.x.pelegant.repository.JobRepository;
 import com.x.pelegant.repository.PassJobRepository;
 import com.x.pelegant.repository.StudentRepository;
 import com.x.pelegant.repository.RecommendedWorkRepository;
+import com.x.pelegant.service.company.CompanyNameResolver;
+import com.x.pelegant.util.DescriptionSimilarity;
 import com.x.pelegant.util.EmploymentClassifier;
+import com.x.pelegant.util.LocationNormalizer;
+import com.x.pelegant.util.RedisDedupStore;
+import com.x.pelegant.util.ResultCache;
+import com.x.pelegant.util.SimHash;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.io.BufferedWriter;
@@ -35,9 +44,16 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * 爬虫职位迁移：去重 → 分类 → 批量写入 Job / PassJob
+ * 每次迁移任务的状态（公司匹配索引、重复日志）放在 MigrationContext 中，服务本身无可变状态，多个任务可同时执行；
+ * 每批记录按公司分区，在迁移线程池中并行处理，同一去重键（含公司名）总落在同一分区，分区内仍按顺序去重
+ */
 @Service
 public class NewDataMigrationService {
 
@@ -70,78 +86,118 @@ public class NewDataMigrationService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ResultCache resultCache;
+
+    @Autowired
+    private RedisDedupStore redisDedupStore;
+
+    @Autowired
+    private DashboardCounterService dashboardCounterService;
+
     @Value("${pelegant.upload.path}")
     private String documentLocation;
 
     @Value("${pelegant.log}")
     private String PathName;
 
-    private final List<String> duplicateLogs = Collections.synchronizedList(new ArrayList<>());
+    private static final String STATUS_MIGRATED_JOB = "migrated_job";
+    private static final String STATUS_MIGRATED_PASSJOB = "migrated_passjob";
+    private static final String STATUS_DEDUP_REDIS = "dedup_redis";
+    private static final String STATUS_INVALID = "invalid";
+    private static final String STATUS_ERROR = "error";
+
+    /** 迁移线程池：按公司分区并行处理一批记录 */
+    @Autowired
+    @Qualifier(ExecutorConfig.MIGRATION_EXECUTOR)
+    private ThreadPoolTaskExecutor migrationExecutor;
+
+    /** 按指纹分段键查库时最多比较的已入库职位数 */
+    private static final int SIGNATURE_CANDIDATES = 20;
+
+    /** 每个分区至少的记录数，批次较小时不拆分 */
+    private static final int MIN_PARTITION_SIZE = 50;
+
+    /** 多个任务同时追加重复日志时按任务整段写入 */
+    private static final Object DUPLICATE_LOG_LOCK = new Object();
 
-    // 用于存储去重键的映射
-    private final Map<String, String> jobDedupKeys = new HashMap<>();
-    private final Map<String, String> passJobDedupKeys = new HashMap<>();
+    /** 共享公司名索引：公司ID匹配 */
+    @Autowired
+    private CompanyNameResolver companyNameResolver;
+
+    /**
+     * 创建一次迁移任务的上下文
+     */
+    public MigrationContext newContext() {
+        return new MigrationContext();
+    }
+
+    /**
+     * JSON 字符串迁移入口，支持多种JSON格式；解析后交给 migrateInBatches，已解析的数据请直接调用 migrateInBatches
+     */
+    public Map<String, Object> migrateFromJsonInBatches(String jsonInput, int batchSize) {
+        return migrateInBatches(parseJsonInput(jsonInput), batchSize);
+    }
 
-    /** 批次迁移入口，支持多种JSON格式 */
-    public Map<String, Object> migrateFromJsonInBatches(String jsonInput, Map<String, String> companyNameToIdMap, int batchSize) {
-        List<Map<String, Object>> rawJobList = parseJsonInput(jsonInput);
+    /**
+     * 已解析记录的批次迁移入口
+     */
+    public Map<String, Object> migrateInBatches(List<Map<String, Object>> records, int batchSize) {
+        return migrateInBatches(records.iterator(), batchSize);
+    }
+
+    /**
+     * 批次迁移入口：从迭代器按 batchSize 取记录逐批迁移，内存中只保留当前批次的原始记录
+     *
+     * @return summary / jobsMigrated / passJobsMigrated / duplicatesFound / details / recordDetails / nonSuccessfulJobRecords
+     */
+    public Map<String, Object> migrateInBatches(Iterator<Map<String, Object>> records, int batchSize) {
+        MigrationContext context = newContext();
         Map<String, Object> result = new HashMap<>();
         List<RecordMigrationDetail> allRecordDetails = new ArrayList<>(); // Collect all record details
 
-        if (rawJobList.isEmpty()) {
-            result.put("summary", "无有效职位数据");
-            result.put("jobsMigrated", 0);
-            result.put("passJobsMigrated", 0);
-            result.put("duplicatesFound", 0);
-            result.put("details", Collections.emptyList());
-            result.put("recordDetails", Collections.emptyList());
-            result.put("nonSuccessfulJobRecords", Collections.emptyList()); // 添加这一行
-            return result;
-        }
-
         int totalJobsInserted = 0;
         int totalPassJobs = 0;
         int totalDuplicates = 0; // Track total duplicates
-        int total = rawJobList.size();
-        int pages = (total + batchSize - 1) / batchSize;
+        int batchNo = 0;
 
         List<Map<String, Object>> batchDetails = new ArrayList<>();
 
-        for (int i = 0; i < pages; i++) {
-            int fromIndex = i * batchSize;
-            int toIndex = Math.min(fromIndex + batchSize, total);
-            List<Map<String, Object>> batchList = new ArrayList<>(rawJobList.subList(fromIndex, toIndex));
-
-            List<CrawlerData> wrappedBatch = batchList.stream().map(data -> {
-                CrawlerData cd = new CrawlerData();
-                cd.setId(new ObjectId().toString());
-                cd.setRawData(data);
-                String datePosted = (String) data.get("date_posted");
-                if (datePosted == null || datePosted.isEmpty()) {
-                    datePosted = (String) data.get("_date_posted");
-                }
-                cd.setDataCreateTime(parseDateTime(datePosted));
-                cd.setImportTime(LocalDateTime.now());
-                cd.setStatus("opening");
-                cd.setSourceUrl((String) data.getOrDefault("job_url", ""));
-                return cd;
-            }).filter(cd -> cd.getDataCreateTime() != null).collect(Collectors.toList());
-
-            Map<String, Object> batchResult = processBatchAndReturnStats(wrappedBatch, companyNameToIdMap);
+        while (records.hasNext()) {
+            List<Map<String, Object>> batchList = new ArrayList<>(batchSize);
+            while (records.hasNext() && batchList.size() < batchSize) {
+                batchList.add(records.next());
+            }
+            batchNo++;
+
+            Map<String, Object> batchResult = migrateRawBatch(batchList, context);
             totalJobsInserted += (Integer) batchResult.getOrDefault("jobs", 0);
             totalPassJobs += (Integer) batchResult.getOrDefault("passJobs", 0);
             totalDuplicates += (Integer) batchResult.getOrDefault("duplicates", 0);
             allRecordDetails.addAll((List<RecordMigrationDetail>) batchResult.getOrDefault("recordDetails", Collections.emptyList()));
 
             Map<String, Object> batchDetail = new HashMap<>();
-            batchDetail.put("batch", i + 1);
+            batchDetail.put("batch", batchNo);
             batchDetail.put("jobsMigrated", batchResult.getOrDefault("jobs", 0));
             batchDetail.put("passJobsMigrated", batchResult.getOrDefault("passJobs", 0));
             batchDetail.put("duplicates", batchResult.getOrDefault("duplicates", 0));
+            batchDetail.put("dedupHitRate", batchResult.getOrDefault("dedupHitRate", 0.0));
+            batchDetail.put("redisMillis", batchResult.getOrDefault("redisMillis", 0L));
             batchDetails.add(batchDetail);
         }
 
-        writeDuplicateLog();
+        if (batchNo == 0) {
+            result.put("summary", "无有效职位数据");
+            result.put("jobsMigrated", 0);
+            result.put("passJobsMigrated", 0);
+            result.put("duplicatesFound", 0);
+            result.put("details", Collections.emptyList());
+            result.put("recordDetails", Collections.emptyList());
+            result.put("nonSuccessfulJobRecords", Collections.emptyList()); // 添加这一行
+            return result;
+        }
+
+        completeMigration(context);
 
         // 筛选出未成功写入 job 的记录
         List<RecordMigrationDetail> nonSuccessfulJobRecords = filterNonSuccessfulJobRecords(allRecordDetails);
@@ -157,6 +213,40 @@ public class NewDataMigrationService {
         return result;
     }
 
+    /**
+     * 迁移一批原始职位数据（去重、分类、批量写入 Job / PassJob）
+     *
+     * @return jobs / passJobs / duplicates / recordDetails
+     */
+    public Map<String, Object> migrateRawBatch(List<Map<String, Object>> batchList, MigrationContext context) {
+        List<CrawlerData> wrappedBatch = batchList.stream().map(data -> {
+            CrawlerData cd = new CrawlerData();
+            cd.setId(new ObjectId().toString());
+            cd.setRawData(data);
+            String datePosted = (String) data.get("date_posted");
+            if (datePosted == null || datePosted.isEmpty()) {
+                datePosted = (String) data.get("_date_posted");
+            }
+            cd.setDataCreateTime(parseDateTime(datePosted));
+            cd.setImportTime(LocalDateTime.now());
+            cd.setStatus("opening");
+            cd.setSourceUrl((String) data.getOrDefault("job_url", ""));
+            return cd;
+        }).filter(cd -> cd.getDataCreateTime() != null).collect(Collectors.toList());
+
+        return processBatchAndReturnStats(wrappedBatch, context);
+    }
+
+    /**
+     * 一次迁移结束：写该任务的重复日志并使职位统计缓存失效
+     */
+    public void completeMigration(MigrationContext context) {
+        writeDuplicateLog(context);
+
+        // 职位数据已变更，使职位统计缓存失效
+        resultCache.evictByPrefix(ResultCache.JOB_PREFIX);
+    }
+
     /** 解析多种JSON格式 */
     private List<Map<String, Object>> parseJsonInput(String jsonInput) {
         List<Map<String, Object>> rawJobList = new ArrayList<>();
@@ -201,88 +291,174 @@ public class NewDataMigrationService {
         return rawJobList;
     }
 
-    /** 处理单批次 */
-    private Map<String, Object> processBatchAndReturnStats(List<CrawlerData> batchData, Map<String, String> companyNameToIdMap) {
-        String batchKey = "crawler:batch:" + UUID.randomUUID().toString();
-        List<RecordMigrationDetail> recordDetails = new ArrayList<>();
-        int duplicateCount = 0;
-
+    /**
+     * 处理单批次：按公司分区并行处理，汇总各分区结果。
+     * 分区失败时该分区每条记录都以 error 状态出现在 recordDetails 中；分区之前出错时整批记录标为 error
+     */
+    private Map<String, Object> processBatchAndReturnStats(List<CrawlerData> batchData, MigrationContext context) {
+        List<PartitionResult> results;
         try {
-            // 暂存批次到Redis Hash
-            for (int i = 0; i < batchData.size(); i++) {
-                CrawlerData cd = batchData.get(i);
-                String dataJson = objectMapper.writeValueAsString(cd);
-                redisTemplate.opsForHash().put(batchKey, String.valueOf(i), dataJson);
+            List<List<CrawlerData>> partitions = partitionByCompany(batchData);
+            results = new ArrayList<>(partitions.size());
+            if (partitions.size() == 1) {
+                results.add(processPartition(partitions.get(0), context));
+            } else {
+                List<CompletableFuture<PartitionResult>> futures = new ArrayList<>(partitions.size());
+                for (List<CrawlerData> partition : partitions) {
+                    futures.add(CompletableFuture.supplyAsync(() -> processPartition(partition, context), migrationExecutor));
+                }
+                for (CompletableFuture<PartitionResult> future : futures) {
+                    results.add(future.join());
+                }
             }
+        } catch (Exception e) {
+            logger.error("批次处理异常: {}", e.getMessage(), e);
+            results = Collections.singletonList(PartitionResult.failed(batchData, "Batch failed: " + e.getMessage()));
+        }
 
-            List<Job> jobsToInsert = new ArrayList<>();
-            List<PassJob> passJobsToInsert = new ArrayList<>();
+        try {
+            updateCompanyUrls(batchData, context);
+        } catch (Exception e) {
+            logger.error("更新公司URL异常: {}", e.getMessage(), e);
+        }
 
-            List<String> keys = redisTemplate.opsForHash().keys(batchKey)
-                    .stream()
-                    .map(Object::toString)
-                    .collect(Collectors.toList());
+        int jobs = 0, passJobs = 0, duplicates = 0, checked = 0, hits = 0;
+        long redisMillis = 0;
+        List<RecordMigrationDetail> recordDetails = new ArrayList<>(batchData.size());
+        for (PartitionResult r : results) {
+            jobs += r.jobs;
+            passJobs += r.passJobs;
+            duplicates += r.duplicates;
+            checked += r.checked;
+            hits += r.hits;
+            redisMillis += r.redisMillis;
+            recordDetails.addAll(r.recordDetails);
+        }
 
-            for (String idx : keys) {
-                String dataJson = (String) redisTemplate.opsForHash().get(batchKey, idx);
-                if (dataJson == null) continue;
+        Map<String, Object> resultMap = new HashMap<>();
+        resultMap.put("jobs", jobs);
+        resultMap.put("passJobs", passJobs);
+        resultMap.put("duplicates", duplicates);
+        resultMap.put("dedupHitRate", checked == 0 ? 0.0 : (double) hits / checked);
+        resultMap.put("redisMillis", redisMillis);
+        resultMap.put("recordDetails", recordDetails);
+        return resultMap;
+    }
 
-                CrawlerData data = objectMapper.readValue(dataJson, CrawlerData.class);
-                Object result = processOneData(data, companyNameToIdMap);
+    /**
+     * 按规范化公司名把一批记录分到若干分区（分区数不超过迁移线程数），
+     * 去重键包含公司名，同一键的记录总在同一分区内按原顺序处理
+     */
+    private List<List<CrawlerData>> partitionByCompany(List<CrawlerData> batchData) {
+        int count = Math.min(migrationExecutor.getCorePoolSize(),
+                (batchData.size() + MIN_PARTITION_SIZE - 1) / MIN_PARTITION_SIZE);
+        if (count <= 1) {
+            return Collections.singletonList(batchData);
+        }
+        List<List<CrawlerData>> partitions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (CrawlerData data : batchData) {
+            String company = Optional.ofNullable(data.getRawData().get("company")).map(Object::toString).orElse("");
+            partitions.get(Math.floorMod(normalizeString(company).hashCode(), count)).add(data);
+        }
+        partitions.removeIf(List::isEmpty);
+        return partitions;
+    }
 
-                String jobTitle = Optional.ofNullable(data.getRawData().get("title")).map(Object::toString).map(String::trim).orElse("");
-                String companyName = Optional.ofNullable(data.getRawData().get("company")).map(Object::toString).map(String::trim).orElse("");
-                String jobUrl = data.getSourceUrl();
+    /**
+     * 处理一个分区：预取去重状态、逐条处理、批量写入。
+     * 中途失败时释放本分区占用但未入库的去重键（否则重新处理时会被判为重复），分区内每条记录标为 error
+     */
+    private PartitionResult processPartition(List<CrawlerData> partition, MigrationContext context) {
+        PartitionResult result = new PartitionResult();
+        RedisDedupStore.Batch dedup = null;
+        try {
+            List<Job> jobsToInsert = new ArrayList<>();
+            List<PassJob> passJobsToInsert = new ArrayList<>();
+            Map<String, String> dedupKeys = new HashMap<>();
 
-                if (result == null) {
-                    // Deduplicated or invalid
-                    String message = duplicateLogs.isEmpty() ? "Invalid or deduplicated data" : duplicateLogs.get(duplicateLogs.size() - 1);
-                    recordDetails.add(new RecordMigrationDetail(
-                            data.getId(), jobTitle, companyName, jobUrl,
-                            message.contains("重复") ? "dedup_redis" : "invalid", message));
-                    if (message.contains("重复")) duplicateCount++;
-                    redisTemplate.opsForHash().delete(batchKey, idx);
-                    continue;
-                }
+            // 整个分区的去重键一次 pipeline 预取，逐条处理时不再访问 Redis
+            dedup = prefetchDedup(partition);
+
+            for (CrawlerData data : partition) {
+                RecordOutcome outcome = processOneData(data, context, dedup);
+                result.recordDetails.add(recordDetail(data, outcome.status, outcome.message));
 
-                if (result instanceof Job) {
-                    Job job = (Job) result;
+                if (outcome.entity instanceof Job) {
+                    Job job = (Job) outcome.entity;
                     jobsToInsert.add(job);
-                    String dedupKey = buildDedupKey(job.getJobTitle(), job.getCompanyName(), job.getCreatedAt(), job.getJobUrl());
-                    jobDedupKeys.put(job.getId(), dedupKey);
-                    recordDetails.add(new RecordMigrationDetail(
-                            data.getId(), jobTitle, companyName, jobUrl, "migrated_job", "Migrated to Job collection"));
-                } else if (result instanceof PassJob) {
-                    PassJob passJob = (PassJob) result;
+                    dedupKeys.put(job.getId(), dedupKeyOf(job));
+                } else if (outcome.entity instanceof PassJob) {
+                    PassJob passJob = (PassJob) outcome.entity;
                     passJobsToInsert.add(passJob);
-                    String dedupKey = buildDedupKey(passJob.getJobTitle(), passJob.getCompanyName(), passJob.getCreatedAt(), passJob.getJobUrl());
-                    passJobDedupKeys.put(passJob.getId(), dedupKey);
-                    recordDetails.add(new RecordMigrationDetail(
-                            data.getId(), jobTitle, companyName, jobUrl, "migrated_passjob", "Migrated to PassJob collection"));
+                    dedupKeys.put(passJob.getId(), dedupKeyOf(passJob));
+                } else if (STATUS_DEDUP_REDIS.equals(outcome.status)) {
+                    result.duplicates++;
                 }
             }
 
-            // Save jobs and pass jobs, tracking DB-level duplicates
-            int jobsInserted = saveJobsBatchWithDetails(jobsToInsert, recordDetails);
-            int passJobsInserted = savePassJobsBatchWithDetails(passJobsToInsert, recordDetails);
+            // 写入保存前先落地本分区描述指纹，保证后续批次能读到
+            dedup.flush();
 
-            updateCompanyUrls(batchData, companyNameToIdMap);
+            // Save jobs and pass jobs, tracking DB-level duplicates
+            result.jobs = saveJobsBatchWithDetails(jobsToInsert, dedupKeys, result.recordDetails, dedup, context);
+            result.passJobs = savePassJobsBatchWithDetails(passJobsToInsert, dedupKeys, result.recordDetails, dedup, context);
+            dedup.finish();
 
-            Map<String, Object> resultMap = new HashMap<>();
-            resultMap.put("jobs", jobsInserted);
-            resultMap.put("passJobs", passJobsInserted);
-            resultMap.put("duplicates", duplicateCount);
-            resultMap.put("recordDetails", recordDetails);
-            return resultMap;
+            result.checked = dedup.getChecked();
+            result.hits = dedup.getHits();
+            result.redisMillis = dedup.getRedisMillis();
         } catch (Exception e) {
-            logger.error("批次处理异常: {}", e.getMessage(), e);
-            return Collections.emptyMap();
-        } finally {
-            redisTemplate.delete(batchKey);
+            logger.error("分区处理异常: {} 条记录, {}", partition.size(), e.getMessage(), e);
+            if (dedup != null) {
+                try {
+                    dedup.release();
+                } catch (Exception releaseError) {
+                    logger.error("释放去重键失败: {}", releaseError.getMessage(), releaseError);
+                }
+            }
+            PartitionResult failed = PartitionResult.failed(partition, "Partition failed: " + e.getMessage());
+            // 已写入的职位仍计入迁移数
+            failed.jobs = result.jobs;
+            failed.passJobs = result.passJobs;
+            return failed;
+        }
+        return result;
+    }
+
+    private static RecordMigrationDetail recordDetail(CrawlerData data, String status, String message) {
+        String jobTitle = Optional.ofNullable(data.getRawData().get("title")).map(Object::toString).map(String::trim).orElse("");
+        String companyName = Optional.ofNullable(data.getRawData().get("company")).map(Object::toString).map(String::trim).orElse("");
+        return new RecordMigrationDetail(data.getId(), jobTitle, companyName, data.getSourceUrl(), status, message);
+    }
+
+    /** 预取一批数据的去重状态 */
+    private RedisDedupStore.Batch prefetchDedup(List<CrawlerData> batchData) {
+        List<String> dedupKeys = new ArrayList<>(batchData.size());
+        for (CrawlerData data : batchData) {
+            String dedupKey = dedupKeyOf(data);
+            if (dedupKey != null) {
+                dedupKeys.add(dedupKey);
+            }
         }
+        return redisDedupStore.prefetch(dedupKeys);
     }
-    /** 处理单条数据 */
-    private Object processOneData(CrawlerData data, Map<String, String> companyNameToIdMap) {
+
+    /** 计算单条数据的去重键，标题或公司为空时返回 null */
+    private String dedupKeyOf(CrawlerData data) {
+        Map<String, Object> rawData = data.getRawData();
+        String jobTitle = Optional.ofNullable(rawData.get("title")).map(Object::toString).map(String::trim).orElse("");
+        String companyName = Optional.ofNullable(rawData.get("company")).map(Object::toString).map(String::trim).orElse("");
+        if (companyName.isEmpty() || jobTitle.isEmpty()) {
+            return null;
+        }
+        return buildDedupKey(jobTitle, companyName, data.getDataCreateTime(), data.getSourceUrl());
+    }
+
+    /** 处理单条数据，去重状态来自本分区预取结果，直接返回该记录的处理结果 */
+    private RecordOutcome processOneData(CrawlerData data, MigrationContext context, RedisDedupStore.Batch dedup) {
         Map<String, Object> rawData = data.getRawData();
         String jobTitle = Optional.ofNullable(rawData.get("title")).map(Object::toString).map(String::trim).orElse("");
         String companyName = Optional.ofNullable(rawData.get("company")).map(Object::toString).map(String::trim).orElse("");
@@ -292,48 +468,47 @@ public class NewDataMigrationService {
 
         if (companyName.isEmpty() || jobTitle.isEmpty()) {
             String message = String.format("忽略无效数据: %s, 公司: %s, URL: %s, 日期: %s", jobTitle, companyName, sourceUrl, createTime);
-            duplicateLogs.add(message);
-            return null;
+            context.duplicateLogs.add(message);
+            return RecordOutcome.skipped(STATUS_INVALID, message);
         }
 
         String dedupKey = buildDedupKey(jobTitle, companyName, createTime, sourceUrl);
-        String dedupRedisKey = "dedup:job:" + dedupKey;
 
-        // Redis检查重复
-        if (description.isEmpty()) {
-            Boolean isNew = redisTemplate.opsForValue().setIfAbsent(dedupRedisKey, "1", 30, TimeUnit.DAYS);
-            if (Boolean.FALSE.equals(isNew)) {
+        // Redis检查重复（同分区内先出现的记录视为已存在）
+        boolean isNew = dedup.claim(dedupKey);
+        Long signature = SimHash.of(description);
+        if (signature == null) {
+            if (!isNew) {
                 String message = String.format("重复职位 (无描述): %s, 公司: %s, URL: %s, 日期: %s", jobTitle, companyName, sourceUrl, createTime);
-                duplicateLogs.add(message);
-                return null;
+                context.duplicateLogs.add(message);
+                dedup.recordHit();
+                return RecordOutcome.skipped(STATUS_DEDUP_REDIS, message);
             }
         } else {
-            Boolean isNew = redisTemplate.opsForValue().setIfAbsent(dedupRedisKey, "1", 30, TimeUnit.DAYS);
-            if (Boolean.FALSE.equals(isNew)) {
-                String existingDesc = (String) redisTemplate.opsForHash().get("dedup:descriptions", dedupKey);
-                if (existingDesc == null) {
-                    existingDesc = getExistingDescriptionFromDb(jobTitle, companyName, createTime, sourceUrl);
-                    if (existingDesc != null && !existingDesc.isEmpty()) {
-                        redisTemplate.opsForHash().put("dedup:descriptions", dedupKey, existingDesc);
-                        redisTemplate.expire("dedup:descriptions", 30, TimeUnit.DAYS);
-                    }
+            if (!isNew) {
+                // 只比较描述指纹：先取 Redis 中的指纹，未命中再按探测键在库中查找，不读取描述全文；
+                // 估算的余弦相似度达到原阈值（≥0.8，短描述 ≥0.9）视为重复
+                Long existing = dedup.signature(dedupKey);
+                if (existing == null) {
+                    existing = findStoredSignature(jobTitle, companyName, signature);
+                    dedup.putSignature(dedupKey, existing);
                 }
-                if (existingDesc == null || existingDesc.isEmpty()) {
-                    return mapJobOrPassJob(data, companyNameToIdMap, description);
+                if (existing == null) {
+                    return mapJobOrPassJob(data, context);
                 }
-                double similarity = calculateSimilarity(description, existingDesc);
-                double threshold = description.length() < 200 ? 0.9 : 0.8;
-                if (similarity >= threshold) {
-                    String message = String.format("重复职位 (相似度 %.2f): %s, 公司: %s, URL: %s, 日期: %s", similarity, jobTitle, companyName, sourceUrl, createTime);
-                    duplicateLogs.add(message);
-                    return null;
+                if (SimHash.isNearDuplicate(signature, existing, DescriptionSimilarity.threshold(description))) {
+                    int distance = SimHash.distance(signature, existing);
+                    String message = String.format("重复职位 (指纹距离 %d，估计相似度 %.2f): %s, 公司: %s, URL: %s, 日期: %s",
+                            distance, SimHash.estimateCosine(distance), jobTitle, companyName, sourceUrl, createTime);
+                    context.duplicateLogs.add(message);
+                    dedup.recordHit();
+                    return RecordOutcome.skipped(STATUS_DEDUP_REDIS, message);
                 }
             }
-            redisTemplate.opsForHash().put("dedup:descriptions", dedupKey, description);
-            redisTemplate.expire("dedup:descriptions", 30, TimeUnit.DAYS);
+            dedup.putSignature(dedupKey, signature);
         }
 
-        return mapJobOrPassJob(data, companyNameToIdMap, description);
+        return mapJobOrPassJob(data, context);
     }
 /**
  * 筛选出未成功写入 job 的记录详情
@@ -351,13 +526,13 @@ public List<RecordMigrationDetail> filterNonSuccessfulJobRecords(List<RecordMigr
             .collect(Collectors.toList());
 }
 
-    private Object mapJobOrPassJob(CrawlerData data, Map<String, String> companyNameToIdMap, String description) {
+    private RecordOutcome mapJobOrPassJob(CrawlerData data, MigrationContext context) {
         String companyName = data.getRawData().get("company").toString().trim();
-        String companyId = matchCompanyId(companyName, companyNameToIdMap);
+        String companyId = matchCompanyId(companyName);
         if (companyId != null) {
-            return mapToJob(data, companyId);
+            return RecordOutcome.migrated(STATUS_MIGRATED_JOB, "Migrated to Job collection", mapToJob(data, companyId));
         } else {
-            return mapToPassJob(data);
+            return RecordOutcome.migrated(STATUS_MIGRATED_PASSJOB, "Migrated to PassJob collection", mapToPassJob(data));
         }
     }
 
@@ -370,6 +545,15 @@ public List<RecordMigrationDetail> filterNonSuccessfulJobRecords(List<RecordMigr
         return normTitle + "|||" + normCompany + "|||" + dateStr + "|||" + urlPart;
     }
 
+    /** 待入库职位的去重键，入库成功后据此写回去重标记 */
+    private String dedupKeyOf(Job job) {
+        return buildDedupKey(job.getJobTitle(), job.getCompanyName(), job.getCreatedAt(), job.getJobUrl());
+    }
+
+    private String dedupKeyOf(PassJob passJob) {
+        return buildDedupKey(passJob.getJobTitle(), passJob.getCompanyName(), passJob.getCreatedAt(), passJob.getJobUrl());
+    }
+
     /** 规范化字符串 */
     private String normalizeString(String input) {
         if (input == null) return "";
@@ -389,157 +573,57 @@ public List<RecordMigrationDetail> filterNonSuccessfulJobRecords(List<RecordMigr
         }
     }
 
-    /** 计算相似度 (Cosine Similarity for better accuracy) */
-    private double calculateSimilarity(String desc1, String desc2) {
-        if (desc1 == null || desc2 == null || desc1.isEmpty() || desc2.isEmpty()) return 0.0;
-        Map<String, Integer> vec1 = buildTfVector(desc1);
-        Map<String, Integer> vec2 = buildTfVector(desc2);
-        return cosineSimilarity(vec1, vec2);
-    }
-
-    private Map<String, Integer> buildTfVector(String text) {
-        return Arrays.stream(normalizeString(text).split("\\s+"))
-                .collect(Collectors.toMap(word -> word, word -> 1, Integer::sum));
-    }
-
-    private double cosineSimilarity(Map<String, Integer> vec1, Map<String, Integer> vec2) {
-        Set<String> keys = new HashSet<>(vec1.keySet());
-        keys.addAll(vec2.keySet());
-
-        double dotProduct = 0.0;
-        double norm1 = 0.0;
-        double norm2 = 0.0;
-
-        for (String key : keys) {
-            int v1 = vec1.getOrDefault(key, 0);
-            int v2 = vec2.getOrDefault(key, 0);
-            dotProduct += v1 * v2;
-            norm1 += v1 * v1;
-            norm2 += v2 * v2;
+    /**
+     * 按指纹探测键查找同标题、同公司已入库职位的描述指纹（job 优先，其次 passjob），返回距离最近的一个；
+     * 距离在 SimHash.PROBE_DISTANCE 内的指纹一定能找到
+     */
+    private Long findStoredSignature(String jobTitle, String companyName, long signature) {
+        Query query = new Query(Criteria.where("companyName").is(companyName)
+                .and("jobTitle").is(jobTitle)
+                .and("simHashBands").in(SimHash.probes(signature)));
+        query.fields().include("descriptionSimHash");
+        query.limit(SIGNATURE_CANDIDATES);
+
+        Long nearest = nearestSignature(mongoTemplate.find(query, Job.class).stream()
+                .map(Job::getDescriptionSimHash), signature);
+        if (nearest != null) {
+            return nearest;
         }
-
-        if (norm1 == 0 || norm2 == 0) return 0.0;
-        return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
+        return nearestSignature(mongoTemplate.find(query, PassJob.class, "passjob").stream()
+                .map(PassJob::getDescriptionSimHash), signature);
     }
 
-    /** 从DB获取现有描述 - 修改后的版本，不依赖dedupKey字段 */
-    private String getExistingDescriptionFromDb(String jobTitle, String companyName, LocalDateTime createdAt, String jobUrl) {
-        // 通过标题和公司名查询
-        Query query = new Query(Criteria.where("jobTitle").is(jobTitle).and("companyName").is(companyName));
-        Job existingJob = mongoTemplate.findOne(query, Job.class);
-        if (existingJob != null) return existingJob.getJobDescription();
-
-        PassJob existingPassJob = mongoTemplate.findOne(query, PassJob.class, "passjob");
-        return existingPassJob != null ? existingPassJob.getJobDescription() : null;
+    private static Long nearestSignature(Stream<Long> signatures, long signature) {
+        return signatures.filter(Objects::nonNull)
+                .min(Comparator.comparingInt(candidate -> SimHash.distance(candidate, signature)))
+                .orElse(null);
     }
 
-    /** 匹配公司ID */
-    private String matchCompanyId(String companyName, Map<String, String> companyNameToIdMap) {
-        if (companyName == null || companyName.isEmpty()) return null;
-        String exact = companyNameToIdMap.get(companyName);
-        if (exact != null) return exact;
-        String lower = normalizeString(companyName);
-        for (Map.Entry<String, String> entry : companyNameToIdMap.entrySet()) {
-            if (normalizeString(entry.getKey()).startsWith(lower)) return entry.getValue();
-        }
-        return null;
-    }
-
-    /** 批量保存Job */
-    private void saveJobsBatch(List<Job> jobs) {
-        if (jobs.isEmpty()) return;
-        try {
-            jobRepository.saveAll(jobs);
-
-            // 保存去重信息到Redis
-            for (Job job : jobs) {
-                String dedupKey = jobDedupKeys.get(job.getId());
-                if (dedupKey != null) {
-                    redisTemplate.opsForValue().set("dedup:job:" + dedupKey, "1", 30, TimeUnit.DAYS);
-                    redisTemplate.opsForHash().put("dedup:descriptions", dedupKey, job.getJobDescription());
-                    redisTemplate.expire("dedup:descriptions", 30, TimeUnit.DAYS);
-                }
-            }
-        } catch (MongoWriteException e) {
-            logger.warn("批量Job插入重复，尝试单条插入");
-            for (Job job : jobs) {
-                try {
-                    jobRepository.save(job);
-
-                    // 保存去重信息到Redis
-                    String dedupKey = jobDedupKeys.get(job.getId());
-                    if (dedupKey != null) {
-                        redisTemplate.opsForValue().set("dedup:job:" + dedupKey, "1", 30, TimeUnit.DAYS);
-                        redisTemplate.opsForHash().put("dedup:descriptions", dedupKey, job.getJobDescription());
-                        redisTemplate.expire("dedup:descriptions", 30, TimeUnit.DAYS);
-                    }
-                } catch (MongoWriteException e1) {
-                    duplicateLogs.add("重复Job: " + job.getJobTitle() + " - " + job.getCompanyName() + ", URL: " + job.getJobUrl());
-                } catch (Exception e1) {
-                    logger.error("保存Job失败: {}", e1.getMessage(), e1);
-                }
-            }
-        } catch (Exception e) {
-            logger.error("批量保存Job失败: {}", e.getMessage(), e);
-        } finally {
-            jobDedupKeys.clear();
-        }
+    /** 描述指纹，原始数据没有描述时返回 null */
+    private static Long descriptionSignature(Map<String, Object> raw) {
+        return SimHash.of(Optional.ofNullable(raw.get("job_description")).map(Object::toString).orElse(null));
     }
 
-    /** 批量保存PassJob */
-    private void savePassJobsBatch(List<PassJob> passJobs) {
-        if (passJobs.isEmpty()) return;
-        try {
-            mongoTemplate.insert(passJobs, "passjob");
-
-            // 保存去重信息到Redis
-            for (PassJob job : passJobs) {
-                String dedupKey = passJobDedupKeys.get(job.getId());
-                if (dedupKey != null) {
-                    redisTemplate.opsForValue().set("dedup:job:" + dedupKey, "1", 30, TimeUnit.DAYS);
-                    redisTemplate.opsForHash().put("dedup:descriptions", dedupKey, job.getJobDescription());
-                    redisTemplate.expire("dedup:descriptions", 30, TimeUnit.DAYS);
-                }
-            }
-        } catch (MongoWriteException e) {
-            logger.warn("批量PassJob插入重复，尝试单条插入");
-            for (PassJob job : passJobs) {
-                try {
-                    mongoTemplate.insert(job, "passjob");
-
-                    // 保存去重信息到Redis
-                    String dedupKey = passJobDedupKeys.get(job.getId());
-                    if (dedupKey != null) {
-                        redisTemplate.opsForValue().set("dedup:job:" + dedupKey, "1", 30, TimeUnit.DAYS);
-                        redisTemplate.opsForHash().put("dedup:descriptions", dedupKey, job.getJobDescription());
-                        redisTemplate.expire("dedup:descriptions", 30, TimeUnit.DAYS);
-                    }
-                } catch (MongoWriteException e1) {
-                    duplicateLogs.add("重复PassJob: " + job.getJobTitle() + " - " + job.getCompanyName() + ", URL: " + job.getJobUrl());
-                } catch (Exception e1) {
-                    logger.error("保存PassJob失败: {}", e1.getMessage(), e1);
-                }
-            }
-        } catch (Exception e) {
-            logger.error("批量保存PassJob失败: {}", e.getMessage(), e);
-        } finally {
-            passJobDedupKeys.clear();
-        }
+    /** 匹配公司ID：原始名称、规范化名称或已有公司名前缀 */
+    private String matchCompanyId(String companyName) {
+        CompanyNameResolver.Match match = companyNameResolver.resolvePrefix(companyName);
+        return match != null ? match.getCompanyId() : null;
     }
 
-    private int saveJobsBatchWithDetails(List<Job> jobs, List<RecordMigrationDetail> recordDetails) {
+    private int saveJobsBatchWithDetails(List<Job> jobs, Map<String, String> dedupKeys, List<RecordMigrationDetail> recordDetails,
+                                         RedisDedupStore.Batch dedup, MigrationContext context) {
         if (jobs.isEmpty()) return 0;
         int inserted = 0;
+        Map<String, Long> saved = new LinkedHashMap<>();
         try {
             jobRepository.saveAll(jobs);
             inserted = jobs.size();
+            dashboardCounterService.jobsAdded(jobs);
 
             for (Job job : jobs) {
-                String dedupKey = jobDedupKeys.get(job.getId());
+                String dedupKey = dedupKeys.get(job.getId());
                 if (dedupKey != null) {
-                    redisTemplate.opsForValue().set("dedup:job:" + dedupKey, "1", 30, TimeUnit.DAYS);
-                    redisTemplate.opsForHash().put("dedup:descriptions", dedupKey, job.getJobDescription());
-                    redisTemplate.expire("dedup:descriptions", 30, TimeUnit.DAYS);
+                    saved.put(dedupKey, job.getDescriptionSimHash());
                 }
             }
         } catch (MongoWriteException e) {
@@ -548,15 +632,14 @@ public List<RecordMigrationDetail> filterNonSuccessfulJobRecords(List<RecordMigr
                 try {
                     jobRepository.save(job);
                     inserted++;
+                    dashboardCounterService.jobAdded(job);
 
-                    String dedupKey = jobDedupKeys.get(job.getId());
+                    String dedupKey = dedupKeys.get(job.getId());
                     if (dedupKey != null) {
-                        redisTemplate.opsForValue().set("dedup:job:" + dedupKey, "1", 30, TimeUnit.DAYS);
-                        redisTemplate.opsForHash().put("dedup:descriptions", dedupKey, job.getJobDescription());
-                        redisTemplate.expire("dedup:descriptions", 30, TimeUnit.DAYS);
+                        saved.put(dedupKey, job.getDescriptionSimHash());
                     }
                 } catch (MongoWriteException e1) {
-                    duplicateLogs.add("重复Job: " + job.getJobTitle() + " - " + job.getCompanyName() + ", URL: " + job.getJobUrl());
+                    context.duplicateLogs.add("重复Job: " + job.getJobTitle() + " - " + job.getCompanyName() + ", URL: " + job.getJobUrl());
                     recordDetails.add(new RecordMigrationDetail(
                             job.getId(), job.getJobTitle(), job.getCompanyName(), job.getJobUrl(),
                             "dedup_db", "Duplicate in Job collection: " + job.getJobTitle() + " - " + job.getCompanyName()));
@@ -574,25 +657,25 @@ public List<RecordMigrationDetail> filterNonSuccessfulJobRecords(List<RecordMigr
                         job.getId(), job.getJobTitle(), job.getCompanyName(), job.getJobUrl(),
                         "error", "Batch save failed: " + e.getMessage()));
             }
-        } finally {
-            jobDedupKeys.clear();
         }
+        // 已入库职位的去重标记一次 pipeline 写回
+        dedup.markSaved(saved);
         return inserted;
     }
 
-    private int savePassJobsBatchWithDetails(List<PassJob> passJobs, List<RecordMigrationDetail> recordDetails) {
+    private int savePassJobsBatchWithDetails(List<PassJob> passJobs, Map<String, String> dedupKeys, List<RecordMigrationDetail> recordDetails,
+                                             RedisDedupStore.Batch dedup, MigrationContext context) {
         if (passJobs.isEmpty()) return 0;
         int inserted = 0;
+        Map<String, Long> saved = new LinkedHashMap<>();
         try {
             mongoTemplate.insert(passJobs, "passjob");
             inserted = passJobs.size();
 
             for (PassJob job : passJobs) {
-                String dedupKey = passJobDedupKeys.get(job.getId());
+                String dedupKey = dedupKeys.get(job.getId());
                 if (dedupKey != null) {
-                    redisTemplate.opsForValue().set("dedup:job:" + dedupKey, "1", 30, TimeUnit.DAYS);
-                    redisTemplate.opsForHash().put("dedup:descriptions", dedupKey, job.getJobDescription());
-                    redisTemplate.expire("dedup:descriptions", 30, TimeUnit.DAYS);
+                    saved.put(dedupKey, job.getDescriptionSimHash());
                 }
             }
         } catch (MongoWriteException e) {
@@ -602,14 +685,12 @@ public List<RecordMigrationDetail> filterNonSuccessfulJobRecords(List<RecordMigr
                     mongoTemplate.insert(job, "passjob");
                     inserted++;
 
-                    String dedupKey = passJobDedupKeys.get(job.getId());
+                    String dedupKey = dedupKeys.get(job.getId());
                     if (dedupKey != null) {
-                        redisTemplate.opsForValue().set("dedup:job:" + dedupKey, "1", 30, TimeUnit.DAYS);
-                        redisTemplate.opsForHash().put("dedup:descriptions", dedupKey, job.getJobDescription());
-                        redisTemplate.expire("dedup:descriptions", 30, TimeUnit.DAYS);
+                        saved.put(dedupKey, job.getDescriptionSimHash());
                     }
                 } catch (MongoWriteException e1) {
-                    duplicateLogs.add("重复PassJob: " + job.getJobTitle() + " - " + job.getCompanyName() + ", URL: " + job.getJobUrl());
+                    context.duplicateLogs.add("重复PassJob: " + job.getJobTitle() + " - " + job.getCompanyName() + ", URL: " + job.getJobUrl());
                     recordDetails.add(new RecordMigrationDetail(
                             job.getId(), job.getJobTitle(), job.getCompanyName(), job.getJobUrl(),
                             "dedup_db", "Duplicate in PassJob collection: " + job.getJobTitle() + " - " + job.getCompanyName()));
@@ -627,9 +708,9 @@ public List<RecordMigrationDetail> filterNonSuccessfulJobRecords(List<RecordMigr
                         job.getId(), job.getJobTitle(), job.getCompanyName(), job.getJobUrl(),
                         "error", "Batch save failed: " + e.getMessage()));
             }
-        } finally {
-            passJobDedupKeys.clear();
         }
+        // 已入库职位的去重标记一次 pipeline 写回
+        dedup.markSaved(saved);
         return inserted;
     }
 
@@ -637,28 +718,34 @@ public List<RecordMigrationDetail> filterNonSuccessfulJobRecords(List<RecordMigr
 
 
     /** 写重复日志 */
-    private void writeDuplicateLog() {
-        if (duplicateLogs.isEmpty()) return;
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(documentLocation + PathName, true))) {
-            for (String log : duplicateLogs) {
-                writer.write(LocalDateTime.now() + " - " + log); // 添加时间戳
-                writer.newLine();
+    private void writeDuplicateLog(MigrationContext context) {
+        List<String> logs;
+        synchronized (context.duplicateLogs) {
+            if (context.duplicateLogs.isEmpty()) return;
+            logs = new ArrayList<>(context.duplicateLogs);
+            context.duplicateLogs.clear();
+        }
+        synchronized (DUPLICATE_LOG_LOCK) {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(documentLocation + PathName, true))) {
+                for (String log : logs) {
+                    writer.write(LocalDateTime.now() + " - " + log); // 添加时间戳
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                logger.error("写重复日志失败: {}", e.getMessage(), e);
             }
-            duplicateLogs.clear();
-        } catch (IOException e) {
-            logger.error("写重复日志失败: {}", e.getMessage(), e);
         }
     }
 
     /** 更新公司URL */
-    private void updateCompanyUrls(List<CrawlerData> batchData, Map<String, String> companyNameToIdMap) {
+    private void updateCompanyUrls(List<CrawlerData> batchData, MigrationContext context) {
         Map<String, String> companyIdToUrlMap = new HashMap<>();
 
         for (CrawlerData data : batchData) {
             Map<String, Object> raw = data.getRawData();
             String company = Optional.ofNullable(raw.get("company")).map(Object::toString).map(String::trim).orElse("");
             if (company.isEmpty()) continue;
-            String matchedId = matchCompanyId(company, companyNameToIdMap);
+            String matchedId = matchCompanyId(company);
             if (matchedId != null) {
                 String url = Optional.ofNullable(raw.get("company_url")).map(Object::toString).map(String::trim).orElse("");
                 if (!url.isEmpty()) {
@@ -700,9 +787,13 @@ public List<RecordMigrationDetail> filterNonSuccessfulJobRecords(List<RecordMigr
         job.setJobTitle((String) raw.getOrDefault("title", "Unknown Title"));
         job.setCompanyName((String) raw.getOrDefault("company", "Unknown Company"));
         job.setJobDescription((String) raw.getOrDefault("job_description", "No description"));
+        Long signature = descriptionSignature(raw);
+        job.setDescriptionSimHash(signature);
+        job.setSimHashBands(signature != null ? SimHash.bands(signature) : null);
         job.setJobRequirements((String) raw.getOrDefault("experience_range", ""));
         job.setJobType(classifyJobType(raw));
         job.setWorkLocation((String) raw.getOrDefault("location", "Unknown Location"));
+        LocationNormalizer.apply(job);
         job.setMinSalary(toBigDecimal(raw.get("salary_min")));
         job.setMaxSalary(toBigDecimal(raw.get("salary_max")));
         job.setSalaryUnit((String) raw.getOrDefault("currency", "month"));
@@ -734,6 +825,9 @@ public List<RecordMigrationDetail> filterNonSuccessfulJobRecords(List<RecordMigr
         job.setJobTitle((String) raw.getOrDefault("title", "Unknown Title"));
         job.setCompanyName((String) raw.getOrDefault("company", "Unknown Company"));
         job.setJobDescription((String) raw.getOrDefault("job_description", "No description"));
+        Long signature = descriptionSignature(raw);
+        job.setDescriptionSimHash(signature);
+        job.setSimHashBands(signature != null ? SimHash.bands(signature) : null);
         job.setJobRequirements((String) raw.getOrDefault("experience_range", ""));
         job.setJobType(classifyJobType(raw));
         job.setWorkLocation((String) raw.getOrDefault("location", "Unknown Location"));
@@ -806,16 +900,9 @@ public List<RecordMigrationDetail> filterNonSuccessfulJobRecords(List<RecordMigr
     /**
  * 重新处理失败的记录（无效数据和错误记录）
  * @param failedRecords 失败的记录列表
- * @param companyNameToIdMap 公司名称到ID的映射
  * @return 处理结果
  */
-/**
- * 重新处理失败的记录（无效数据和错误记录）
- * @param failedRecords 失败的记录列表
- * @param companyNameToIdMap 公司名称到ID的映射
- * @return 处理结果
- */
-public Map<String, Object> reprocessFailedRecords(List<RecordMigrationDetail> failedRecords, Map<String, String> companyNameToIdMap) {
+public Map<String, Object> reprocessFailedRecords(List<RecordMigrationDetail> failedRecords) {
     Map<String, Object> result = new HashMap<>();
 
     if (failedRecords == null || failedRecords.isEmpty()) {
@@ -827,6 +914,8 @@ public Map<String, Object> reprocessFailedRecords(List<RecordMigrationDetail> fa
     }
 
     try {
+        MigrationContext context = newContext();
+
         // 按recordId分组，避免重复处理
         Map<String, RecordMigrationDetail> uniqueFailedRecords = failedRecords.stream()
                 .filter(Objects::nonNull)
@@ -869,10 +958,12 @@ public Map<String, Object> reprocessFailedRecords(List<RecordMigrationDetail> fa
         List<RecordMigrationDetail> reprocessDetails = new ArrayList<>();
         List<Job> jobsToInsert = new ArrayList<>();
         List<PassJob> passJobsToInsert = new ArrayList<>();
+        Map<String, String> dedupKeys = new HashMap<>();
 
+        RedisDedupStore.Batch dedup = prefetchDedup(crawlerDataList);
         for (CrawlerData data : crawlerDataList) {
             try {
-                Object processDataResult = processOneData(data, companyNameToIdMap);
+                Object processDataResult = processOneData(data, context, dedup).entity;
 
                 String jobTitle = Optional.ofNullable(data.getRawData().get("title"))
                         .map(Object::toString).map(String::trim).orElse("");
@@ -887,12 +978,14 @@ public Map<String, Object> reprocessFailedRecords(List<RecordMigrationDetail> fa
                 } else if (processDataResult instanceof Job) {
                     Job job = (Job) processDataResult;
                     jobsToInsert.add(job);
+                    dedupKeys.put(job.getId(), dedupKeyOf(job));
                     reprocessDetails.add(new RecordMigrationDetail(
                             data.getId(), jobTitle, companyName, jobUrl,
                             "migrated_job", "重新处理成功，迁移到Job集合"));
                 } else if (processDataResult instanceof PassJob) {
                     PassJob passJob = (PassJob) processDataResult;
                     passJobsToInsert.add(passJob);
+                    dedupKeys.put(passJob.getId(), dedupKeyOf(passJob));
                     reprocessDetails.add(new RecordMigrationDetail(
                             data.getId(), jobTitle, companyName, jobUrl,
                             "migrated_passjob", "重新处理成功，迁移到PassJob集合"));
@@ -911,8 +1004,11 @@ public Map<String, Object> reprocessFailedRecords(List<RecordMigrationDetail> fa
         }
 
         // 保存处理成功的记录
-        int jobsInserted = saveJobsBatchWithDetails(jobsToInsert, reprocessDetails);
-        int passJobsInserted = savePassJobsBatchWithDetails(passJobsToInsert, reprocessDetails);
+        dedup.flush();
+        int jobsInserted = saveJobsBatchWithDetails(jobsToInsert, dedupKeys, reprocessDetails, dedup, context);
+        int passJobsInserted = savePassJobsBatchWithDetails(passJobsToInsert, dedupKeys, reprocessDetails, dedup, context);
+        dedup.finish();
+        completeMigration(context);
 
         result.put("message", "重新处理完成");
         result.put("reprocessedCount", crawlerDataList.size());
@@ -1038,6 +1134,58 @@ public List<RecordMigrationDetail> filterInvalidAndErrorRecords(List<RecordMigra
     }
 
 
+    /**
+     * 一次迁移任务的上下文，由 newContext 创建，随任务传递到每个批次和分区
+     */
+    public static class MigrationContext {
+        /** 本任务的重复 / 无效记录日志，completeMigration 时写入文件 */
+        private final List<String> duplicateLogs = Collections.synchronizedList(new ArrayList<>());
+
+        private MigrationContext() {
+        }
+    }
+
+    /** 单条记录的处理结果：状态、说明，迁移成功时附带待写入的 Job / PassJob */
+    private static class RecordOutcome {
+        private final String status;
+        private final String message;
+        private final Object entity;
+
+        private RecordOutcome(String status, String message, Object entity) {
+            this.status = status;
+            this.message = message;
+            this.entity = entity;
+        }
+
+        static RecordOutcome migrated(String status, String message, Object entity) {
+            return new RecordOutcome(status, message, entity);
+        }
+
+        static RecordOutcome skipped(String status, String message) {
+            return new RecordOutcome(status, message, null);
+        }
+    }
+
+    /** 一个分区的处理统计 */
+    private static class PartitionResult {
+        private int jobs;
+        private int passJobs;
+        private int duplicates;
+        private int checked;
+        private int hits;
+        private long redisMillis;
+        private final List<RecordMigrationDetail> recordDetails = new ArrayList<>();
+
+        /** 处理失败：每条记录都以 error 状态返回，可经 reprocessFailedRecords 重新处理 */
+        static PartitionResult failed(List<CrawlerData> records, String message) {
+            PartitionResult result = new PartitionResult();
+            for (CrawlerData data : records) {
+                result.recordDetails.add(recordDetail(data, STATUS_ERROR, message));
+            }
+            return result;
+        }
+    }
+
 public static class RecordMigrationDetail {
     private String recordId;
     private String jobTitle;
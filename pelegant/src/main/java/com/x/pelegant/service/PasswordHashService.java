@@ -0,0 +1,198 @@
+package com.x.pelegant.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.x.pelegant.config.ExecutorConfig;
+import com.x.pelegant.exception.ServiceOverloadException;
+import com.x.pelegant.util.PasswordUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 登录密码校验
+ * BCrypt 校验在有界的 passwordExecutor 中执行：线程池和队列都满、或等待超过 max-wait-ms 时直接抛出
+ * ServiceOverloadException（503），登录高峰不会无限占用请求线程；
+ * 校验成功且已存哈希的成本因子与配置不一致时，异步按新成本重新哈希并写回
+ */
+@Service
+@Slf4j
+public class PasswordHashService {
+
+    private static final String OVERLOAD_MESSAGE = "登录请求过多，请稍后重试";
+
+    @Autowired
+    @Qualifier(ExecutorConfig.PASSWORD_EXECUTOR)
+    private ThreadPoolTaskExecutor passwordExecutor;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * BCrypt 成本因子（新密码及登录时重新哈希使用）
+     */
+    @Value("${pelegant.password.bcrypt-cost:10}")
+    private int bcryptCost;
+
+    /**
+     * 等待校验结果的最长时间（毫秒）
+     */
+    @Value("${pelegant.password.max-wait-ms:3000}")
+    private long maxWaitMs;
+
+    private Counter rejectedCounter;
+    private Counter rehashedCounter;
+
+    @PostConstruct
+    public void init() {
+        PasswordUtil.setLogRounds(bcryptCost);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            rejectedCounter = Counter.builder("password.verify.rejected").description("因过载拒绝的密码校验").register(registry);
+            rehashedCounter = Counter.builder("password.rehashed").description("按新成本因子重新哈希的密码").register(registry);
+        }
+    }
+
+    /**
+     * 校验密码
+     *
+     * @return 密码是否正确（哈希格式无效时返回 false）
+     * @throws ServiceOverloadException 校验线程池已满或等待超时
+     */
+    public boolean verify(String password, String storedHash) {
+        if (password == null || storedHash == null || storedHash.isEmpty()) {
+            return false;
+        }
+        Future<Boolean> future;
+        try {
+            future = passwordExecutor.submit(() -> PasswordUtil.checkPassword(password, storedHash));
+        } catch (TaskRejectedException e) {
+            throw overload("密码校验线程池已满");
+        }
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw overload("密码校验等待超时");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw overload("密码校验被中断");
+        } catch (ExecutionException e) {
+            log.warn("密码哈希格式无效: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 校验密码，成功后按需重新哈希（不阻塞登录）
+     *
+     * @param entityClass 保存密码的实体（password 字段）
+     * @param id          实体主键
+     */
+    public boolean verifyAndUpgrade(String password, String storedHash, Class<?> entityClass, String id) {
+        boolean valid = verify(password, storedHash);
+        if (valid && id != null && PasswordUtil.needsRehash(storedHash)) {
+            rehashAsync(password, storedHash, entityClass, id);
+        }
+        return valid;
+    }
+
+    /**
+     * 批量哈希新密码（批量导入使用）
+     * 按片并行，最多占用密码线程池一半的线程，给登录校验留出余量；线程池已满时在调用线程中执行
+     *
+     * @return 与输入顺序一致的哈希列表
+     */
+    public List<String> encryptAll(List<String> passwords) {
+        if (passwords.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String[] hashes = new String[passwords.size()];
+        int parallelism = Math.max(1, Math.min(passwordExecutor.getMaxPoolSize() / 2, passwords.size()));
+        int sliceSize = (passwords.size() + parallelism - 1) / parallelism;
+
+        List<Future<?>> futures = new ArrayList<>(parallelism);
+        for (int from = 0; from < passwords.size(); from += sliceSize) {
+            int start = from;
+            int end = Math.min(from + sliceSize, passwords.size());
+            Runnable slice = () -> {
+                for (int i = start; i < end; i++) {
+                    hashes[i] = PasswordUtil.encryptPassword(passwords.get(i));
+                }
+            };
+            try {
+                futures.add(passwordExecutor.submit(slice));
+            } catch (TaskRejectedException e) {
+                slice.run();
+            }
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("密码哈希被中断", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("密码哈希失败: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return Arrays.asList(hashes);
+    }
+
+    private void rehashAsync(String password, String oldHash, Class<?> entityClass, String id) {
+        try {
+            passwordExecutor.execute(() -> {
+                try {
+                    String newHash = PasswordUtil.encryptPassword(password);
+                    // 只在密码未被修改时写回
+                    UpdateResult result = mongoTemplate.updateFirst(
+                            new Query(Criteria.where("_id").is(id).and("password").is(oldHash)),
+                            new Update().set("password", newHash),
+                            entityClass);
+                    if (result.getModifiedCount() > 0) {
+                        if (rehashedCounter != null) {
+                            rehashedCounter.increment();
+                        }
+                        log.info("密码已按成本因子 {} 重新哈希: {} {}", bcryptCost, entityClass.getSimpleName(), id);
+                    }
+                } catch (Exception e) {
+                    log.warn("重新哈希密码失败: {} {}, error={}", entityClass.getSimpleName(), id, e.getMessage());
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // 繁忙时跳过，下次登录再试
+            log.debug("密码校验线程池繁忙，跳过重新哈希: {} {}", entityClass.getSimpleName(), id);
+        }
+    }
+
+    private ServiceOverloadException overload(String reason) {
+        if (rejectedCounter != null) {
+            rejectedCounter.increment();
+        }
+        log.warn("{}，拒绝登录请求", reason);
+        return new ServiceOverloadException(OVERLOAD_MESSAGE);
+    }
+}
@@ -4,26 +4,33 @@ import com.x.pelegant.common.Result;
 import com.x.pelegant.dto.*;
 import com.x.pelegant.dto.StudentStatisticsResponse;
 import com.x.pelegant.entity.*;
+import com.x.pelegant.exception.ServiceOverloadException;
 import com.x.pelegant.repository.*;
+import com.x.pelegant.service.company.CompanyNameResolver;
 import com.x.pelegant.util.JwtUtil;
+import com.x.pelegant.util.KeysetCursor;
+import com.x.pelegant.util.LocationNormalizer;
+import com.x.pelegant.config.ExecutorConfig;
 import com.x.pelegant.config.JwtConfig;
 import com.x.pelegant.util.PasswordUtil;
-import com.x.pelegant.vo.ContinentCount;
+import com.x.pelegant.util.ResultCache;
+import com.x.pelegant.util.excel.ExcelRow;
+import com.x.pelegant.util.excel.ExcelRowReader;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.bson.Document;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
-import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.BasicQuery;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
@@ -36,7 +43,6 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -45,16 +51,11 @@ import java.util.stream.Collectors;
 @Service
 @Slf4j
 public class ProjectService {
-    // 定义正则表达式常量
-    private static final String HONG_KONG_REGEX = "^(HK|香港|Hong\\s?Kong|HongKong|HKSAR|Hong\\s?Kong\\s?SAR|HK\\s?SAR|香港特别行政区|香港岛|Hong\\s?Kong,\\s?Hong\\s?Kong\\s?SAR|[A-Za-z\\s&]+,\\s?HK|[A-Za-z\\s&]+,\\s?Hong\\s?Kong\\s?SAR|Remote,\\s?HK|[A-Za-z\\s&]+,\\s?Hong\\s?Kong)$";
-
     private static final String RESET_KEY_PREFIX = "teacher_reset_token:";
 @Autowired
 private StringRedisTemplate redisTemplate;
     @Autowired
     private ProjectRepository projectRepository;
-    @Autowired
-    private StudentActivityRepository studentActivityRepository;
 
     @Autowired
     private CompanyRepository companyRepository;
@@ -101,6 +102,51 @@ private StringRedisTemplate redisTemplate;
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private ResultCache resultCache;
+
+    @Autowired
+    private StudentAnalyticsService studentAnalyticsService;
+
+    @Autowired
+    private ActivityRollupService activityRollupService;
+
+    @Autowired
+    private PasswordHashService passwordHashService;
+
+    @Autowired
+    private DashboardCounterService dashboardCounterService;
+
+    @Autowired
+    private CompanyNameResolver companyNameResolver;
+
+    @Autowired
+    private CrawlerDataService crawlerDataService;
+
+    @Autowired
+    @Qualifier(ExecutorConfig.WORKER_EXECUTOR)
+    private ThreadPoolTaskExecutor workerExecutor;
+
+    @Autowired
+    private ApplicationStatsService applicationStatsService;
+
+    /**
+     * 职位概览缓存时间（秒）
+     */
+    @Value("${pelegant.cache.job-overview-ttl-seconds:60}")
+    private long jobOverviewCacheTtlSeconds;
+
+    /**
+     * 列表总数缓存时间（秒）
+     */
+    @Value("${pelegant.cache.list-count-ttl-seconds:30}")
+    private long listCountCacheTtlSeconds;
+
+    private static final String CURSOR_COMPANIES = "companies";
+    private static final String CURSOR_JOBS = "jobs";
+    private static final String CURSOR_STUDENTS = "students";
+    private static final String CURSOR_SCHOOL_ACTIVE_USERS = "school-active-users";
+
     /**
      * 项目管理员登录验证
      */
@@ -110,7 +156,8 @@ private StringRedisTemplate redisTemplate;
 
             // 根据邮箱和密码查找项目管理员
             Optional<Project> projectOpt = projectRepository.findByEmail(email);
-            Boolean isPasswordValid = PasswordUtil.checkPassword(password, projectOpt.get().getPassword());
+            boolean isPasswordValid = projectOpt.isPresent() && passwordHashService.verifyAndUpgrade(
+                    password, projectOpt.get().getPassword(), Project.class, projectOpt.get().getId());
 
             if (isPasswordValid) {
                 Project project = projectOpt.get();
@@ -150,6 +197,8 @@ private StringRedisTemplate redisTemplate;
                 log.warn("项目管理员登录失败: {} - 邮箱或密码错误", email);
                 return Result.fail("邮箱或密码错误");
             }
+        } catch (ServiceOverloadException e) {
+            throw e;
         } catch (Exception e) {
             log.error("项目管理员登录过程中发生错误", e);
             return Result.fail("登录失败: " + e.getMessage());
@@ -188,6 +237,9 @@ private StringRedisTemplate redisTemplate;
             company.setStatus(request.getStatus());
 
             Company savedCompany = companyRepository.save(company);
+            companyNameResolver.register(savedCompany);
+            dashboardCounterService.increment(DashboardCounterService.COMPANIES, 1);
+            resultCache.evictByPrefix(ResultCache.COMPANY_PREFIX);
             log.info("企业添加成功: {} - {}", savedCompany.getCompanyName(), savedCompany.getCompanyId());
             return Result.success(savedCompany, "企业添加成功");
 
@@ -221,7 +273,12 @@ private StringRedisTemplate redisTemplate;
             // 设置企业名称（冗余字段，便于查询）
             job.setCompanyName(companyOpt.get().getCompanyName());
 
+            // 计算地区编码和香港标记
+            LocationNormalizer.apply(job);
+
             Job savedJob = jobRepository.save(job);
+            resultCache.evictByPrefix(ResultCache.JOB_PREFIX);
+            dashboardCounterService.jobAdded(savedJob);
             log.info("职位添加成功: {} - {}", savedJob.getJobTitle(), savedJob.getJobId());
             return Result.success(savedJob, "职位添加成功");
 
@@ -286,6 +343,8 @@ private StringRedisTemplate redisTemplate;
 
             // 保存学校信息
             School savedSchool = schoolRepository.save(school);
+            dashboardCounterService.increment(DashboardCounterService.SCHOOLS, 1);
+            resultCache.evictByPrefix(ResultCache.SCHOOL_PREFIX);
 
             // 创建管理员教师记录
             Teacher adminTeacher = createAdminTeacher(request.getAdminEmail(), savedSchool);
@@ -507,6 +566,7 @@ private StringRedisTemplate redisTemplate;
             }
 
             School savedSchool = schoolRepository.save(school);
+            resultCache.evictByPrefix(ResultCache.SCHOOL_PREFIX);
             log.info("学校更新成功: {}", savedSchool.getUniversityName());
             return Result.success(savedSchool, "学校更新成功");
 
@@ -566,6 +626,10 @@ private StringRedisTemplate redisTemplate;
 
             // 3. 删除学校
             schoolRepository.deleteById(id);
+            dashboardCounterService.increment(DashboardCounterService.STUDENTS, -deletedStudents);
+            dashboardCounterService.increment(DashboardCounterService.SCHOOLS, -1);
+            resultCache.evictByPrefix(ResultCache.SCHOOL_PREFIX);
+            resultCache.evictByPrefix(ResultCache.STUDENT_PREFIX);
 
             String message = String.format("学校删除成功，同时删除了 %d 名学生和 %d 名教师", deletedStudents, deletedTeachers);
             log.info("学校删除成功: {} - {}", schoolName, message);
@@ -658,9 +722,22 @@ private StringRedisTemplate redisTemplate;
     public Result<Map<String, Object>> getAllCompaniesForProject(int page, int size,
                                                                  String search,
                                                                  String industry, String companyType, String status) {
+        return getAllCompaniesForProject(page, size, search, industry, companyType, status, null, true);
+    }
+
+    /**
+     * 项目管理员查询企业列表
+     *
+     * @param cursor    不为 null 时使用键集分页（按 updatedAt、_id 倒序），首页传空串，忽略 page
+     * @param withTotal 是否返回总数（短期缓存的估计值）
+     */
+    public Result<Map<String, Object>> getAllCompaniesForProject(int page, int size,
+                                                                 String search,
+                                                                 String industry, String companyType, String status,
+                                                                 String cursor, boolean withTotal) {
         try {
-            log.info("项目管理员查询所有企业信息: page={}, size={}, search={}, industry={}, companyType={}, status={}",
-                    page, size, search, industry, companyType, status);
+            log.info("项目管理员查询所有企业信息: page={}, size={}, search={}, industry={}, companyType={}, status={}, cursor={}",
+                    page, size, search, industry, companyType, status, cursor);
 
             // ------------------------
             // 1. 查询公司列表
@@ -685,19 +762,31 @@ private StringRedisTemplate redisTemplate;
             }
 
             // ------------------------
-            // 1.1 获取总条数
+            // 1.1 获取总条数（短期缓存）
             // ------------------------
-            long total = mongoTemplate.count(companyQuery, Company.class);
+            Long total = cursor == null || withTotal
+                    ? cachedCount(ResultCache.COMPANY_PREFIX, companyQuery, Company.class) : null;
 
             // 分页 & 排序
-            companyQuery.skip((long) page * size).limit(size);
-            companyQuery.with(Sort.by(Sort.Direction.DESC, "updatedAt"));
-
-            List<Company> companies = mongoTemplate.find(companyQuery, Company.class);
+            String nextCursor = null;
+            List<Company> companies;
+            if (cursor != null) {
+                companies = findPageAfter(companyQuery, Company.class, "updatedAt", cursor, CURSOR_COMPANIES, size);
+                if (companies.size() > size) {
+                    companies = companies.subList(0, size);
+                    Company last = companies.get(size - 1);
+                    nextCursor = new KeysetCursor(CURSOR_COMPANIES, last.getUpdatedAt(), last.getId(), null).encode();
+                }
+            } else {
+                companyQuery.skip((long) page * size).limit(size);
+                companyQuery.with(Sort.by(Sort.Direction.DESC, "updatedAt"));
+                companies = mongoTemplate.find(companyQuery, Company.class);
+            }
             if (companies.isEmpty()) {
                 Map<String,Object> emptyResult = new HashMap<>();
                 emptyResult.put("list", Collections.emptyList());
                 emptyResult.put("total", total);
+                emptyResult.put("nextCursor", null);
                 return Result.success(emptyResult, "查询成功");
             }
 
@@ -714,37 +803,18 @@ private StringRedisTemplate redisTemplate;
                     .collect(Collectors.groupingBy(Job::getCompanyId));
 
             // ------------------------
-            // 3. 聚合查询学生申请岗位数量
+            // 3. 读取物化的申请数统计（company_application_stats）
             // ------------------------
-            Aggregation agg = Aggregation.newAggregation(
-                    Aggregation.match(Criteria.where("appliedJobs").exists(true)),
-                    Aggregation.unwind("appliedJobs"),
-                    Aggregation.lookup("job", "appliedJobs", "jobId", "jobInfo"),
-                    Aggregation.unwind("jobInfo"),
-                    Aggregation.match(Criteria.where("jobInfo.companyId").in(companyIds)),
-                    Aggregation.group("jobInfo.companyId", "jobInfo.jobType").count().as("appliedCount")
-            );
-            AggregationResults<Document> appliedResults = mongoTemplate.aggregate(agg, "student", Document.class);
-
             // Map<companyId, Map<jobType, appliedCount>>
-            Map<String, Map<String, Long>> appliedMap = new HashMap<>();
-            for (Document doc : appliedResults.getMappedResults()) {
-                Document idDoc = (Document) doc.get("_id");
-                String companyId = idDoc.getString("companyId");
-                String jobType = idDoc.getString("jobType");
-                Number count = (Number) doc.get("appliedCount");
-                appliedMap.computeIfAbsent(companyId, k -> new HashMap<>())
-                        .put(jobType, count != null ? count.longValue() : 0L);
-            }
+            Map<String, Map<String, Long>> appliedMap = applicationStatsService.getCompanyCounts(companyIds);
 
             // ------------------------
-            // 4. 多线程组装公司信息
+            // 4. 多线程组装公司信息（共享工作线程池）
             // ------------------------
-            ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
             List<Future<Map<String, Object>>> futures = new ArrayList<>();
 
             for (Company company : companies) {
-                futures.add(executor.submit(() -> {
+                futures.add(workerExecutor.submit(() -> {
                     Map<String, Object> map = transformCompanyForFrontend(company);
 
                     List<Job> companyJobs = jobsByCompany.getOrDefault(company.getCompanyId(), Collections.emptyList());
@@ -769,7 +839,6 @@ private StringRedisTemplate redisTemplate;
             for (Future<Map<String, Object>> f : futures) {
                 transformedCompanies.add(f.get());
             }
-            executor.shutdown();
 
             log.info("查询到 {} 个企业，总条数 {}", transformedCompanies.size(), total);
 
@@ -779,6 +848,7 @@ private StringRedisTemplate redisTemplate;
             Map<String, Object> resultData = new HashMap<>();
             resultData.put("list", transformedCompanies);
             resultData.put("total", total);
+            resultData.put("nextCursor", nextCursor);
 
             return Result.success(resultData, "查询成功");
 
@@ -955,13 +1025,13 @@ private StringRedisTemplate redisTemplate;
         // 统计校招岗位申请人数
         long campusApplicants = companyJobs.stream()
                 .filter(job -> "full-time-campus".equals(job.getJobType()))
-                .mapToLong(job -> calculateJobApplicants(job.getId()))
+                .mapToLong(this::applicationCountOf)
                 .sum();
 
         // 统计实习岗位申请人数
         long internApplicants = companyJobs.stream()
                 .filter(job -> "intern".equals(job.getJobType()))
-                .mapToLong(job -> calculateJobApplicants(job.getId()))
+                .mapToLong(this::applicationCountOf)
                 .sum();
 
         transformed.put("campusPositions", (int) campusPositions);
@@ -1045,6 +1115,18 @@ private StringRedisTemplate redisTemplate;
     }
     public Result<Map<String, Object>> getAllJobsForProject(int page, int size, String search,
                                                             String jobType, String companyId, String status) {
+        return getAllJobsForProject(page, size, search, jobType, companyId, status, null, true);
+    }
+
+    /**
+     * 项目管理员查询职位列表
+     *
+     * @param cursor    不为 null 时使用键集分页（按 createdAt、_id 倒序），首页传空串，忽略 page
+     * @param withTotal 是否返回总数（短期缓存的估计值，职位写入后失效）
+     */
+    public Result<Map<String, Object>> getAllJobsForProject(int page, int size, String search,
+                                                            String jobType, String companyId, String status,
+                                                            String cursor, boolean withTotal) {
         Map<String, Object> response = new HashMap<>();
         try {
             // 1️⃣ 创建查询条件
@@ -1054,7 +1136,7 @@ private StringRedisTemplate redisTemplate;
             query.addCriteria(Criteria.where("jobType").in("full-time-campus", "intern"));
 
             // 添加地区条件
-            query.addCriteria(Criteria.where("workLocation").regex(HONG_KONG_REGEX, "i"));
+            query.addCriteria(Criteria.where("isHongKong").is(true));
 
             // 如果有搜索条件，添加职位名称模糊查询
             if (search != null && !search.isEmpty()) {
@@ -1088,14 +1170,27 @@ private StringRedisTemplate redisTemplate;
             }
 
 
-            // 获取符合条件的职位总数（用于分页计算）
-            long total = mongoTemplate.count(query, Job.class);  // 使用 count 方法获取总数
+            // 获取符合条件的职位总数（用于分页计算，短期缓存）
+            Long total = cursor == null || withTotal
+                    ? cachedCount(ResultCache.JOB_PREFIX, query, Job.class) : null;
 
-            // 设置分页条件，跳过前面的数据
-            query.skip((page - 1) * size).limit(size);
+            String nextCursor = null;
+            List<Job> jobs;
+            if (cursor != null) {
+                jobs = findPageAfter(query, Job.class, "createdAt", cursor, CURSOR_JOBS, size);
+                if (jobs.size() > size) {
+                    jobs = jobs.subList(0, size);
+                    Job last = jobs.get(size - 1);
+                    // 游标需在下面改写 id 之前生成
+                    nextCursor = new KeysetCursor(CURSOR_JOBS, last.getCreatedAt(), last.getId(), null).encode();
+                }
+            } else {
+                // 设置分页条件，跳过前面的数据
+                query.skip((page - 1) * size).limit(size);
 
-            // 执行查询，获取职位列表
-            List<Job> jobs = mongoTemplate.find(query, Job.class);
+                // 执行查询，获取职位列表
+                jobs = mongoTemplate.find(query, Job.class);
+            }
 
             // 预加载所有相关公司数据，避免 N 次查询，提升效率
             Set<String> companyIds = jobs.stream()
@@ -1135,6 +1230,7 @@ private StringRedisTemplate redisTemplate;
             Map<String, Object> resultData = new HashMap<>();
             resultData.put("total", total);  // 返回总数（符合条件的职位总数）
             resultData.put("jobs", transformedJobs);  // 返回职位列表
+            resultData.put("nextCursor", nextCursor);  // 下一页游标（仅游标分页）
 
             response.put("success", true);
             response.put("data", resultData);  // 返回数据
@@ -1148,6 +1244,35 @@ private StringRedisTemplate redisTemplate;
     }
 
 
+    /**
+     * 列表总数（短期缓存的估计值），按缓存键前缀在数据变更时失效
+     */
+    private long cachedCount(String cacheKeyPrefix, Query query, Class<?> entityClass) {
+        String key = cacheKeyPrefix + "count:" + query.getQueryObject().toJson();
+        return resultCache.get(key, listCountCacheTtlSeconds * 1000L, () -> mongoTemplate.count(query, entityClass));
+    }
+
+    /**
+     * 键集分页查询，按 (sortField, _id) 倒序，sortField 为 null 时只按 _id 倒序；
+     * 多取一条用于判断是否有下一页
+     *
+     * @param cursor 上一页的游标，空串表示第一页
+     */
+    private <T> List<T> findPageAfter(Query query, Class<T> entityClass, String sortField,
+                                      String cursor, String scope, int size) {
+        Document filter = query.getQueryObject();
+        if (!cursor.isEmpty()) {
+            Criteria after = KeysetCursor.decode(cursor, scope).afterDescending(sortField);
+            filter = new Document("$and", Arrays.asList(filter, after.getCriteriaObject()));
+        }
+        Query pageQuery = new BasicQuery(filter, query.getFieldsObject());
+        pageQuery.with(sortField != null
+                ? Sort.by(Sort.Direction.DESC, sortField, "_id")
+                : Sort.by(Sort.Direction.DESC, "_id"));
+        pageQuery.limit(size + 1);
+        return mongoTemplate.find(pageQuery, entityClass);
+    }
+
     /**
      * 将后端职位数据转换为前端期望的格式
      */
@@ -1175,8 +1300,8 @@ private StringRedisTemplate redisTemplate;
         transformed.put("postDate", job.getCreatedAt() != null ? job.getCreatedAt().toString().substring(0, 10) : "");
         transformed.put("createdAt", job.getCreatedAt());
 
-        // 申请人数（需要从学生表统计）
-        transformed.put("applicants", calculateJobApplicants(job.getJobId())); // 使用自定义jobId统计申请人数
+        // 申请人数（由申请/取消申请增量维护）
+        transformed.put("applicants", applicationCountOf(job));
 
         // 薪资信息
         String salary = formatSalary(job.getMinSalary(), job.getMaxSalary(), job.getSalaryUnit());
@@ -1240,17 +1365,10 @@ private StringRedisTemplate redisTemplate;
     }
 
     /**
-     * 计算职位申请人数
+     * 读取职位申请人数（由 ApplicationStatsService 维护）
      */
-    private int calculateJobApplicants(String jobId) {
-        try {
-            Query query = new Query(Criteria.where("appliedJobs").in(jobId));
-            long count = mongoTemplate.count(query, Student.class);
-            return (int) count;
-        } catch (Exception e) {
-            log.warn("计算职位申请人数失败: {}", e.getMessage());
-            return 0;
-        }
+    private int applicationCountOf(Job job) {
+        return job.getApplicationCount() != null ? job.getApplicationCount() : 0;
     }
 
     /**
@@ -1318,6 +1436,7 @@ private StringRedisTemplate redisTemplate;
             }
 
             Job job = jobOpt.get();
+            boolean countedBefore = dashboardCounterService.isDashboardJob(job);
 
             // 更新职位信息
             job.setJobTitle(jobRequest.getJobTitle());
@@ -1326,6 +1445,7 @@ private StringRedisTemplate redisTemplate;
             job.setBenefits(jobRequest.getBenefits());
             job.setJobType(jobRequest.getJobType());
             job.setWorkLocation(jobRequest.getWorkLocation());
+            LocationNormalizer.apply(job);
             job.setMinSalary(jobRequest.getMinSalary());
             job.setMaxSalary(jobRequest.getMaxSalary());
             job.setSalaryUnit(jobRequest.getSalaryUnit());
@@ -1345,6 +1465,8 @@ private StringRedisTemplate redisTemplate;
 
             // 保存更新
             jobRepository.save(job);
+            resultCache.evictByPrefix(ResultCache.JOB_PREFIX);
+            dashboardCounterService.jobUpdated(countedBefore, job);
 
             log.info("职位更新成功: {}", job.getJobTitle());
             return Result.success("职位更新成功");
@@ -1481,6 +1603,19 @@ private StringRedisTemplate redisTemplate;
     public Result<List<StudentWithSchoolResponse>> getAllStudentsForProject(int page, int size, String search,
                                                                             String schoolId,
                                                                             String major, String status) {
+        return getAllStudentsForProject(page, size, search, schoolId, major, status, null, true);
+    }
+
+    /**
+     * 项目管理员查询学生列表
+     *
+     * @param cursor    不为 null 时使用键集分页（按 createTime、_id 倒序），首页传空串，忽略 page
+     * @param withTotal 是否返回总数（短期缓存的估计值）
+     */
+    public Result<List<StudentWithSchoolResponse>> getAllStudentsForProject(int page, int size, String search,
+                                                                            String schoolId,
+                                                                            String major, String status,
+                                                                            String cursor, boolean withTotal) {
         try {
             log.info("项目管理员查询所有学生信息: page={}, size={}, search={}, schoolId={}, major={}, status={}",
                     page, size, search, schoolId, major, status);
@@ -1511,58 +1646,59 @@ private StringRedisTemplate redisTemplate;
                 query.addCriteria(Criteria.where("status").is(status));
             }
 
-            // 分页设置
-            query.skip((long) page * size).limit(size);
+            // 获取总数（用于前端分页显示，短期缓存）
+            Long totalCount = cursor == null || withTotal
+                    ? cachedCount(ResultCache.STUDENT_PREFIX, query, Student.class) : null;
 
-            // 按创建时间倒序排列
-            query.with(Sort.by(Sort.Direction.DESC, "createdAt"));
+            String nextCursor = null;
+            List<Student> students;
+            if (cursor != null) {
+                students = findPageAfter(query, Student.class, "createTime", cursor, CURSOR_STUDENTS, size);
+                if (students.size() > size) {
+                    students = students.subList(0, size);
+                    Student last = students.get(size - 1);
+                    nextCursor = new KeysetCursor(CURSOR_STUDENTS, last.getCreateTime(), last.getId(), null).encode();
+                }
+            } else {
+                // 分页设置
+                query.skip((long) page * size).limit(size);
 
-            List<Student> students = mongoTemplate.find(query, Student.class);
+                // 按创建时间倒序排列
+                query.with(Sort.by(Sort.Direction.DESC, "createdAt"));
+
+                students = mongoTemplate.find(query, Student.class);
+            }
+
+            // 批量查询学校名称
+            Set<String> schoolIds = students.stream()
+                    .map(Student::getSchoolId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            Map<String, String> schoolNameMap = new HashMap<>();
+            if (!schoolIds.isEmpty()) {
+                Query schoolQuery = new Query(Criteria.where("schoolId").in(schoolIds));
+                schoolQuery.fields().include("schoolId").include("universityName");
+                for (School school : mongoTemplate.find(schoolQuery, School.class)) {
+                    schoolNameMap.put(school.getSchoolId(), school.getUniversityName());
+                }
+            }
 
             // 移除密码信息并添加学校名称
             List<StudentWithSchoolResponse> studentsWithSchool = students.stream()
                     .map(student -> {
                         student.setPassword(null);
-                        String schoolName = "未知学校";
-
-                        // 根据schoolId查询学校名称
-                        if (student.getSchoolId() != null) {
-                            Optional<School> schoolOpt = schoolRepository.findBySchoolId(student.getSchoolId());
-                            if (schoolOpt.isPresent()) {
-                                schoolName = schoolOpt.get().getUniversityName();
-                            }
-                        }
+                        String schoolName = schoolNameMap.getOrDefault(student.getSchoolId(), "未知学校");
 
                         return StudentWithSchoolResponse.fromStudent(student, schoolName);
                     })
                     .collect(Collectors.toList());
 
-            // 获取总数（用于前端分页显示）
-            Query countQuery = new Query();
-            if (search != null && !search.trim().isEmpty()) {
-                Criteria searchCriteria = new Criteria().orOperator(
-                        Criteria.where("fullName").regex(search, "i"),
-                        Criteria.where("major").regex(search, "i"));
-                countQuery.addCriteria(searchCriteria);
-            }
-            if (schoolId != null && !schoolId.trim().isEmpty()) {
-                countQuery.addCriteria(Criteria.where("schoolId").is(schoolId));
-            }
-            if (major != null && !major.trim().isEmpty()) {
-                countQuery.addCriteria(Criteria.where("major").regex(major, "i"));
-            }
-            if (status != null && !status.trim().isEmpty()) {
-                countQuery.addCriteria(Criteria.where("status").is(status));
-            }
-
-
-            long totalCount = mongoTemplate.count(countQuery, Student.class);
-
             log.info("查询到 {} 个学生，总数: {}", students.size(), totalCount);
 
             // 将总数信息添加到Result中
             Result<List<StudentWithSchoolResponse>> result = Result.success(studentsWithSchool, "查询成功");
             result.setTotal(totalCount);
+            result.setNextCursor(nextCursor);
             return result;
 
         } catch (Exception e) {
@@ -2298,51 +2434,38 @@ private StringRedisTemplate redisTemplate;
             log.info("开始处理学校Excel导入: fileName={}", file.getOriginalFilename());
 
             // 验证文件类型
-            if (!isExcelFile(file)) {
+            if (!ExcelRowReader.isExcelFile(file.getOriginalFilename())) {
                 return Result.fail("请上传Excel文件（.xlsx或.xls格式）");
             }
 
             List<String> errorMessages = new ArrayList<>();
             List<String> successSchoolIds = new ArrayList<>();
-            int totalCount = 0;
-            int successCount = 0;
-
-            try (Workbook workbook = createWorkbook(file)) {
-                Sheet sheet = workbook.getSheetAt(0);
-
-                // 跳过标题行，从第二行开始处理
-                for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                    Row row = sheet.getRow(i);
-                    if (row == null)
-                        continue;
-
-                    totalCount++;
-
-                    try {
-                        // 解析Excel行数据
-                        SchoolCreateRequest schoolData = parseSchoolFromRow(row, i + 1);
-                        if (schoolData == null) {
-                            totalCount--; // 空行不计入总数
-                            continue; // 跳过空行
-                        }
-
-                        // 创建学校
-                        Result<School> createResult = addSchool(schoolData);
-                        if (createResult.isSuccess()) {
-                            successCount++;
-                            successSchoolIds.add(createResult.getData().getId());
-                            log.info("成功导入学校: {} (第{}行)", schoolData.getUniversityName(), i + 1);
-                        } else {
-                            errorMessages.add(String.format("第%d行: %s", i + 1, createResult.getMessage()));
-                        }
+            int[] counts = new int[2]; // 总数、成功数
 
-                    } catch (Exception e) {
-                        log.error("处理第{}行数据时出错", i + 1, e);
-                        errorMessages.add(String.format("第%d行: 数据格式错误 - %s", i + 1, e.getMessage()));
+            // 只读第一个工作表，跳过标题行
+            ExcelRowReader.read(file, ExcelRowReader.Options.firstSheet(), this::parseSchoolFromRow, (row, schoolData) -> {
+                counts[0]++;
+                try {
+                    // 创建学校
+                    Result<School> createResult = addSchool(schoolData);
+                    if (createResult.isSuccess()) {
+                        counts[1]++;
+                        successSchoolIds.add(createResult.getData().getId());
+                        log.info("成功导入学校: {} (第{}行)", schoolData.getUniversityName(), row.getRowNumber());
+                    } else {
+                        errorMessages.add(String.format("第%d行: %s", row.getRowNumber(), createResult.getMessage()));
                     }
+                } catch (Exception e) {
+                    log.error("处理第{}行数据时出错", row.getRowNumber(), e);
+                    errorMessages.add(String.format("第%d行: 数据格式错误 - %s", row.getRowNumber(), e.getMessage()));
                 }
-            }
+            }, error -> {
+                counts[0]++;
+                errorMessages.add(String.format("第%d行: 数据格式错误 - %s", error.getRowNumber(), error.getMessage()));
+            });
 
+            int totalCount = counts[0];
+            int successCount = counts[1];
             int failCount = totalCount - successCount;
 
             SchoolBatchImportResponse response = new SchoolBatchImportResponse(
@@ -2362,129 +2485,41 @@ private StringRedisTemplate redisTemplate;
         }
     }
 
-    /**
-     * 验证是否为Excel文件
-     */
-    private boolean isExcelFile(MultipartFile file) {
-        String filename = file.getOriginalFilename();
-        return filename != null && (filename.endsWith(".xlsx") || filename.endsWith(".xls"));
-    }
-
-    /**
-     * 创建Workbook对象
-     */
-    private Workbook createWorkbook(MultipartFile file) throws IOException {
-        String filename = file.getOriginalFilename();
-        if (filename != null && filename.endsWith(".xlsx")) {
-            return new XSSFWorkbook(file.getInputStream());
-        } else {
-            return new HSSFWorkbook(file.getInputStream());
-        }
-    }
-
     /**
      * 从Excel行解析学校数据
      */
-    private SchoolCreateRequest parseSchoolFromRow(Row row, int rowNum) {
-        try {
-            // 检查是否为空行
-            if (isEmptyRow(row)) {
-                return null;
-            }
+    private SchoolCreateRequest parseSchoolFromRow(ExcelRow row) {
+        SchoolCreateRequest school = new SchoolCreateRequest();
 
-            SchoolCreateRequest school = new SchoolCreateRequest();
+        // A列: universityName (必填)
+        school.setUniversityName(row.getRequired(0, "学校名称不能为空"));
 
-            // A列: universityName (必填)
-            Cell nameCell = row.getCell(0);
-            if (nameCell == null || getCellValueAsString(nameCell).trim().isEmpty()) {
-                throw new RuntimeException("学校名称不能为空");
-            }
-            school.setUniversityName(getCellValueAsString(nameCell).trim());
+        // B列: universityType (提供默认值)
+        school.setUniversityType(row.getString(1, "综合类大学"));
 
-            // B列: universityType (提供默认值)
-            Cell typeCell = row.getCell(1);
-            String universityType = getCellValueAsString(typeCell).trim();
-            school.setUniversityType(universityType.isEmpty() ? "综合类大学" : universityType);
+        // C列: universityAddress (提供默认值)
+        school.setUniversityAddress(row.getString(2, "地址待完善"));
 
-            // C列: universityAddress (提供默认值)
-            Cell addressCell = row.getCell(2);
-            String universityAddress = getCellValueAsString(addressCell).trim();
-            school.setUniversityAddress(universityAddress.isEmpty() ? "地址待完善" : universityAddress);
+        // D列: adminEmail (必填)
+        school.setAdminEmail(row.getRequired(3, "管理员邮箱不能为空"));
 
-            // D列: adminEmail (必填)
-            Cell emailCell = row.getCell(3);
-            if (emailCell == null || getCellValueAsString(emailCell).trim().isEmpty()) {
-                throw new RuntimeException("管理员邮箱不能为空");
-            }
-            school.setAdminEmail(getCellValueAsString(emailCell).trim());
-
-            // E列: universityWebsite (提供默认值)
-            Cell websiteCell = row.getCell(4);
-            String universityWebsite = getCellValueAsString(websiteCell).trim();
-            if (universityWebsite.isEmpty()) {
-                school.setUniversityWebsite("http://www.example.com");
-            } else if (!universityWebsite.startsWith("http://") && !universityWebsite.startsWith("https://")) {
-                school.setUniversityWebsite("http://" + universityWebsite);
-            } else {
-                school.setUniversityWebsite(universityWebsite);
-            }
-
-            // F列: status (默认为active)
-            Cell statusCell = row.getCell(5);
-            String status = getCellValueAsString(statusCell).trim();
-            school.setStatus(status.isEmpty() ? "active" : status);
-
-            // G列: universityDescription (提供默认值)
-            Cell descCell = row.getCell(6);
-            String universityDescription = getCellValueAsString(descCell).trim();
-            school.setUniversityDescription(universityDescription.isEmpty() ? "学校简介待完善" : universityDescription);
-
-            return school;
-
-        } catch (Exception e) {
-            throw new RuntimeException("数据解析失败: " + e.getMessage());
+        // E列: universityWebsite (提供默认值)
+        String universityWebsite = row.getString(4);
+        if (universityWebsite == null) {
+            school.setUniversityWebsite("http://www.example.com");
+        } else if (!universityWebsite.startsWith("http://") && !universityWebsite.startsWith("https://")) {
+            school.setUniversityWebsite("http://" + universityWebsite);
+        } else {
+            school.setUniversityWebsite(universityWebsite);
         }
-    }
-
-    /**
-     * 检查是否为空行
-     */
-    private boolean isEmptyRow(Row row) {
-        if (row == null)
-            return true;
 
-        for (int i = 0; i < 7; i++) { // 检查前7列
-            Cell cell = row.getCell(i);
-            if (cell != null && !getCellValueAsString(cell).trim().isEmpty()) {
-                return false;
-            }
-        }
-        return true;
-    }
+        // F列: status (默认为active)
+        school.setStatus(row.getString(5, "active"));
 
-    /**
-     * 获取单元格值作为字符串
-     */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null)
-            return "";
+        // G列: universityDescription (提供默认值)
+        school.setUniversityDescription(row.getString(6, "学校简介待完善"));
 
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    return String.valueOf((long) cell.getNumericCellValue());
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return "";
-        }
+        return school;
     }
 
     // ==================== 爬虫数据导入方法 ====================
@@ -2493,10 +2528,7 @@ private StringRedisTemplate redisTemplate;
 //     * 导入爬虫数据
 //     */
 public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequest request) {
-    // 删除所有爬虫数据
-    mongoTemplate.remove(new Query(), CrawlerData.class);
-    log.info("已删除 crawler_data 表中的所有数据");
-
+    // crawler_data 只追加，本次导入按 batchId 区分，过期数据由 importTime 的 TTL 索引清理
     try {
         log.info("开始导入爬虫数据: dataType={}, crawlerName={}, batchId={}",
                 request.getDataType(), request.getCrawlerName(), request.getBatchId());
@@ -2505,7 +2537,6 @@ public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequ
                 .orElse(generateBatchId(request.getDataType(), request.getCrawlerName()));
 
         LocalDateTime importTime = LocalDateTime.now();
-        List<String> importedIds = new ArrayList<>();
         List<CrawlerDataImportResponse.FailedDataInfo> failedData = new ArrayList<>();
 
         // 统一单条和批量数据
@@ -2517,43 +2548,37 @@ public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequ
             return Result.fail("没有提供要导入的数据");
         }
 
-        // 保存数据
-        for (int i = 0; i < allData.size(); i++) {
-            Map<String, Object> data = allData.get(i);
-            try {
-                String id = saveCrawlerData(request, data, batchId, importTime);
-                importedIds.add(id);
-            } catch (Exception e) {
-                log.error("保存第{}条爬虫数据失败", i + 1, e);
-                CrawlerDataImportResponse.FailedDataInfo failedInfo = new CrawlerDataImportResponse.FailedDataInfo();
-                failedInfo.setIndex(i);
-                failedInfo.setReason(e.getMessage());
-                failedInfo.setData(data);
-                failedData.add(failedInfo);
-            }
-        }
-
-        // 构建公司映射
-        List<Company> allCompanies = mongoTemplate.findAll(Company.class);
-        Map<String, String> companyNameToIdMap = new HashMap<>();
-        for (Company c : allCompanies) {
-            if (c.getCompanyName() != null) companyNameToIdMap.put(c.getCompanyName().toLowerCase(), c.getCompanyId());
-            if (c.getCompanyNameLower() != null) companyNameToIdMap.put(c.getCompanyNameLower().toLowerCase(), c.getCompanyId());
-        }
+        // 保存数据：与爬虫入库相同的无序批量 upsert，按 contentHash 更新已导入过的职位，overwrite 时按 uniqueField
+        List<CrawlerData> records = new ArrayList<>(allData.size());
+        for (Map<String, Object> data : allData) {
+            records.add(toCrawlerData(request, data, batchId, importTime));
+        }
+        String uniqueField = Boolean.TRUE.equals(request.getOverwrite()) ? request.getUniqueField() : null;
+        Map<Integer, String> failures = crawlerDataService.upsertCrawlerData(records, uniqueField, batchId);
+        failures.forEach((i, reason) -> {
+            log.error("保存第{}条爬虫数据失败: {}", i + 1, reason);
+            CrawlerDataImportResponse.FailedDataInfo failedInfo = new CrawlerDataImportResponse.FailedDataInfo();
+            failedInfo.setIndex(i);
+            failedInfo.setReason(reason);
+            failedInfo.setData(allData.get(i));
+            failedData.add(failedInfo);
+        });
 
         // 执行数据迁移和去重
         List<CrawlerData> savedData = mongoTemplate.find(new Query(Criteria.where("batchId").is(batchId)), CrawlerData.class);
+        List<String> importedIds = savedData.stream().map(CrawlerData::getId).collect(Collectors.toList());
         String migrationResult = dataMigrationService.migrateDataOptimized(savedData);
 
         // 创建响应
+        int importedCount = allData.size() - failedData.size();
         CrawlerDataImportResponse response = CrawlerDataImportResponse.success(
-                String.format("成功导入 %d/%d 条数据", importedIds.size(), allData.size()),
-                importedIds.size(), allData.size(), batchId, importedIds);
+                String.format("成功导入 %d/%d 条数据", importedCount, allData.size()),
+                importedCount, allData.size(), batchId, importedIds);
         response.setFailedData(failedData);
         response.setMessage(response.getMessage() + "; 迁移结果: " + migrationResult);
 
         log.info("爬虫数据导入完成: 成功={}, 失败={}, 总数={}, 批次ID={}",
-                importedIds.size(), failedData.size(), allData.size(), batchId);
+                importedCount, failedData.size(), allData.size(), batchId);
 
         return Result.success(response, "数据导入完成");
 
@@ -2572,42 +2597,27 @@ public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequ
         return String.format("%s_%s_%s_%s", dataType, crawlerName, timestamp, uuid);
     }
     /**
-     * 保存单条爬虫数据
-     */
-    private String saveCrawlerData(CrawlerDataImportRequest request, Map<String, Object> data,
-                                   String batchId, LocalDateTime importTime) {
-
-        // 去重逻辑
-        if (request.getOverwrite() && request.getUniqueField() != null && !request.getUniqueField().isEmpty()) {
-            Object uniqueValue = data.get(request.getUniqueField());
-            if (uniqueValue != null) {
-                Optional<CrawlerData> existingData = crawlerDataRepository.findByRawDataField(
-                        request.getUniqueField(), uniqueValue);
-                if (existingData.isPresent()) {
-                    CrawlerData existing = existingData.get();
-                    existing.setRawData(data);
-                    existing.setProcessTime(importTime);
-                    existing.setStatus("opening");
-                    existing.setProcessMessage("数据已更新");
-                    if (request.getMetadata() != null) existing.setMetadata(request.getMetadata());
-                    return crawlerDataRepository.save(existing).getId();
-                }
-            }
-        }
+     * 导入请求中的一条数据转为爬虫数据，sourceUrl 优先取记录自身的 job_url
+     */
+    private CrawlerData toCrawlerData(CrawlerDataImportRequest request, Map<String, Object> data,
+                                      String batchId, LocalDateTime importTime) {
+        Object jobUrl = data.get("job_url");
+        boolean hasJobUrl = jobUrl != null && !jobUrl.toString().trim().isEmpty();
 
-        // 新建记录
         CrawlerData crawlerData = new CrawlerData();
         crawlerData.setDataType(request.getDataType());
         crawlerData.setCrawlerName(request.getCrawlerName());
-        crawlerData.setSourceUrl(request.getSourceUrl());
+        crawlerData.setSourceUrl(hasJobUrl ? jobUrl.toString() : request.getSourceUrl());
         crawlerData.setBatchId(batchId);
         crawlerData.setRawData(data);
         crawlerData.setStatus("opening");
         crawlerData.setDataCreateTime(request.getDataCreateTime());
         crawlerData.setImportTime(importTime);
+        crawlerData.setProcessTime(importTime);
         crawlerData.setMetadata(request.getMetadata());
-
-        return crawlerDataRepository.save(crawlerData).getId();
+        // 请求级 sourceUrl 对整批相同、不能区分职位，只有记录自带 job_url 时计算 contentHash
+        crawlerData.setContentHash(hasJobUrl ? CrawlerDataService.contentHash(jobUrl.toString(), data) : null);
+        return crawlerData;
     }
 
 
@@ -2718,125 +2728,42 @@ public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequ
     public List<Job> getAllJobandCompany() {
         return jobRepository.findAll();
     }
+    /**
+     * 仪表盘总览：读取增量维护的计数器，并与 7 天前的每日快照比较，不再写库
+     */
     public Result<DashboardDataDto> getAllData() {
-        DashboardDataDto dashboardDataDto = new DashboardDataDto();
-        dashboardDataDto.setTotalStudents((int) studentRepository.count());
-        dashboardDataDto.setTotalCompanies((int) companyRepository.count());
-        dashboardDataDto.setTotalSchools((int) schoolRepository.count());
-
-        Query query = new Query();
-
-        // 添加 jobType 限制条件，匹配 full-time-campus 和 intern
-        query.addCriteria(Criteria.where("jobType").in("full-time-campus", "intern"));
-
-        // 添加地区条件
-        query.addCriteria(Criteria.where("workLocation").regex(HONG_KONG_REGEX, "i"));
-
-        // 执行查询
-        List<Job> jobs = mongoTemplate.find(query, Job.class);
-        long total = mongoTemplate.count(query, Job.class);
-
-        // 预加载所有相关公司数据，避免 N 次查询，提升效率
-        Set<String> companyIds = jobs.stream()
-                .map(Job::getCompanyId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-
-        Query companyQuery = Query.query(Criteria.where("companyId").in(companyIds));
-        List<Company> companyList = mongoTemplate.find(companyQuery, Company.class);
-
-        // 建立 companyId -> logoImage 和 companyUrl 映射
-        Map<String, String> companyLogoMap = new HashMap<>();
-        Map<String, String> companyUrlMap = new HashMap<>();
-        for (Company company : companyList) {
-            companyLogoMap.put(company.getCompanyId(), company.getLogoImage());
-            companyUrlMap.put(company.getCompanyId(), company.getCompanyUrl());
-        }
-
-        // 设置 job 的 id、logoImage 和 companyUrl
-        for (Job job : jobs) {
-            job.setId(job.getJobId()); // 修改 id 为 jobId
-            String logoImage = companyLogoMap.get(job.getCompanyId());
-            String companyUrl = companyUrlMap.get(job.getCompanyId());
-            job.setLogoImage(logoImage); // 设置 logoImage
-            job.setCompanyUrl(companyUrl); // 设置 companyUrl
-        }
-
-        dashboardDataDto.setTotalJobs((int) total);
-
-        // 获取今天的日期
-       LocalDate today = LocalDate.now();
-        // 获取 UTC+8 时区的当前时间
-        ZonedDateTime todayUtc8 = ZonedDateTime.now(ZoneOffset.ofHours(8));
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        LocalDate localDate = todayUtc8.toLocalDate();
-
-        // 查询是否已有当天的记录
-        DashboardData existingData = dashboardDataRepository.findByCreatedAt(localDate);
-
-        if (existingData != null) {
-            // 如果存在，直接更新数据
-            existingData.setTotalStudents((int) studentRepository.count());
-            existingData.setTotalCompanies((int) companyRepository.count());
-            existingData.setTotalSchools((int) schoolRepository.count());
-            existingData.setTotalJobs((int) total);
-            existingData.setCreatedAt(localDate); // 更新当天的日期
-            System.out.println("当天日期"+todayUtc8);
-
-            // 保存更新后的数据
-            dashboardDataRepository.save(existingData);
-
-            // 计算增量：7天前的数据
-            LocalDate sevenDaysAgo = LocalDate.from(localDate.minusDays(7));
-            System.out.println("7天前的日期：" + sevenDaysAgo);
-            DashboardData sevenDaysAgoData = dashboardDataRepository.findByCreatedAt(sevenDaysAgo);
-            System.out.println("7天前的数据：" + sevenDaysAgoData);
-
-            if (sevenDaysAgoData != null) {
-                // 如果存在7天前的记录，计算增量
-                long previousTotalStudents = sevenDaysAgoData.getTotalStudents();
-                long previousTotalJobs = sevenDaysAgoData.getTotalJobs();
-                long previousTotalCompanies = sevenDaysAgoData.getTotalCompanies();
-                long previousTotalSchools = sevenDaysAgoData.getTotalSchools();
-
-                // 更新增量数据
-                dashboardDataDto.setTotalStudentsincrease((int) (dashboardDataDto.getTotalStudents() - previousTotalStudents));
-                dashboardDataDto.setTotalJobsincrease((int) (dashboardDataDto.getTotalJobs() - previousTotalJobs));
-                dashboardDataDto.setTotalCompaniesincrease((int) (dashboardDataDto.getTotalCompanies() - previousTotalCompanies));
-                dashboardDataDto.setTotalSchoolsincrease((int) (dashboardDataDto.getTotalSchools() - previousTotalSchools));
-
-                // 计算百分比
-                dashboardDataDto.setTotalStudentsincreasePercent(String.valueOf(calculatePercentage(previousTotalStudents, dashboardDataDto.getTotalStudentsincrease()))+"%");
-                dashboardDataDto.setTotalJobsincreasePercent(String.valueOf(calculatePercentage(previousTotalJobs, dashboardDataDto.getTotalJobsincrease()))+"%");
-                dashboardDataDto.setTotalCompaniesincreasePercent(String.valueOf(calculatePercentage(previousTotalCompanies, dashboardDataDto.getTotalCompaniesincrease()))+"%");
-                dashboardDataDto.setTotalSchoolsincreasePercent(String.valueOf(calculatePercentage(previousTotalSchools, dashboardDataDto.getTotalSchoolsincrease()))+"%");
-            } else {
-                // 如果没有7天前的记录，增量为0
-                dashboardDataDto.setTotalStudentsincrease(0);
-                dashboardDataDto.setTotalJobsincrease(0);
-                dashboardDataDto.setTotalCompaniesincrease(0);
-                dashboardDataDto.setTotalSchoolsincrease(0);
-
-                dashboardDataDto.setTotalStudentsincreasePercent(String.valueOf(0.0));
-                dashboardDataDto.setTotalJobsincreasePercent(String.valueOf(0.0));
-                dashboardDataDto.setTotalCompaniesincreasePercent(String.valueOf(0.0));
-                dashboardDataDto.setTotalSchoolsincreasePercent(String.valueOf(0.0));
-            }
+        Map<String, Long> counters = dashboardCounterService.getCounters();
 
+        DashboardDataDto dashboardDataDto = new DashboardDataDto();
+        dashboardDataDto.setTotalStudents(counters.get(DashboardCounterService.STUDENTS).intValue());
+        dashboardDataDto.setTotalCompanies(counters.get(DashboardCounterService.COMPANIES).intValue());
+        dashboardDataDto.setTotalSchools(counters.get(DashboardCounterService.SCHOOLS).intValue());
+        dashboardDataDto.setTotalJobs(counters.get(DashboardCounterService.JOBS).intValue());
+
+        // 计算增量：7天前的快照
+        LocalDate sevenDaysAgo = dashboardCounterService.today().minusDays(7);
+        DashboardData sevenDaysAgoData = dashboardCounterService.getSnapshot(sevenDaysAgo);
+
+        if (sevenDaysAgoData != null) {
+            // 如果存在7天前的记录，计算增量
+            long previousTotalStudents = sevenDaysAgoData.getTotalStudents();
+            long previousTotalJobs = sevenDaysAgoData.getTotalJobs();
+            long previousTotalCompanies = sevenDaysAgoData.getTotalCompanies();
+            long previousTotalSchools = sevenDaysAgoData.getTotalSchools();
+
+            // 更新增量数据
+            dashboardDataDto.setTotalStudentsincrease((int) (dashboardDataDto.getTotalStudents() - previousTotalStudents));
+            dashboardDataDto.setTotalJobsincrease((int) (dashboardDataDto.getTotalJobs() - previousTotalJobs));
+            dashboardDataDto.setTotalCompaniesincrease((int) (dashboardDataDto.getTotalCompanies() - previousTotalCompanies));
+            dashboardDataDto.setTotalSchoolsincrease((int) (dashboardDataDto.getTotalSchools() - previousTotalSchools));
+
+            // 计算百分比
+            dashboardDataDto.setTotalStudentsincreasePercent(String.valueOf(calculatePercentage(previousTotalStudents, dashboardDataDto.getTotalStudentsincrease()))+"%");
+            dashboardDataDto.setTotalJobsincreasePercent(String.valueOf(calculatePercentage(previousTotalJobs, dashboardDataDto.getTotalJobsincrease()))+"%");
+            dashboardDataDto.setTotalCompaniesincreasePercent(String.valueOf(calculatePercentage(previousTotalCompanies, dashboardDataDto.getTotalCompaniesincrease()))+"%");
+            dashboardDataDto.setTotalSchoolsincreasePercent(String.valueOf(calculatePercentage(previousTotalSchools, dashboardDataDto.getTotalSchoolsincrease()))+"%");
         } else {
-            // 如果今天没有记录，则创建新数据
-            DashboardData dashboardData = new DashboardData();
-            dashboardData.setTotalStudents((int) studentRepository.count());
-            dashboardData.setTotalCompanies((int) companyRepository.count());
-            dashboardData.setTotalSchools((int) schoolRepository.count());
-            dashboardData.setTotalJobs((int) total);
-//            dashboardData.setCreatedAt(today);
-            dashboardData.setCreatedAt(localDate); // 保存为 UTC+8 时间
-
-            // 保存到数据库
-            dashboardDataRepository.save(dashboardData);
-
-            // 增量和百分比为0，因为是第一次创建
+            // 如果没有7天前的记录，增量为0
             dashboardDataDto.setTotalStudentsincrease(0);
             dashboardDataDto.setTotalJobsincrease(0);
             dashboardDataDto.setTotalCompaniesincrease(0);
@@ -2879,6 +2806,8 @@ public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequ
             existingCompany.setUpdatedAt(LocalDateTime.now());
         }
         companyRepository.save(existingCompany);
+        companyNameResolver.register(existingCompany);
+        resultCache.evictByPrefix(ResultCache.COMPANY_PREFIX);
         return Result.success(existingCompany);
     }
 
@@ -2892,38 +2821,26 @@ public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequ
 
             SchoolStatisticsResponse response = new SchoolStatisticsResponse();
 
+            // 学校总数、国家 / 洲分布、今年每月新增由一次聚合得到
+            int currentYear = Year.now().getValue();
+            StudentAnalyticsService.SchoolSnapshot snapshot = studentAnalyticsService.getSchoolSnapshot(currentYear);
+
             // 1. 获取学校总数
-            long totalSchools = schoolRepository.count();
+            long totalSchools = snapshot.getTotalSchools();
             response.setTotalSchools(totalSchools);
 
             // 2. 获取今年新增学校数量
-            int currentYear = Year.now().getValue();
-            long newSchoolsThisYear = Optional.ofNullable(schoolRepository.countByCreatedAtYear(currentYear)).orElse(0L);
-            response.setNewSchoolsThisYear(newSchoolsThisYear);
-
-            // 3. 获取所有学校信息
-            List<School> schools = schoolRepository.findAll();
+            response.setNewSchoolsThisYear(snapshot.getYearlyNew());
 
-            // 4. 计算每月新增学校数量
+            // 3. 计算每月新增学校数量
             Map<Integer, Long> monthlyNewSchools = new HashMap<>();
             for (int m = 1; m <= 12; m++) {
-                monthlyNewSchools.put(m, 0L);
-            }
-            for (School s : schools) {
-                if (s.getCreatedAt() != null && s.getCreatedAt().getYear() == currentYear) {
-                    int month = s.getCreatedAt().getMonthValue();
-                    monthlyNewSchools.put(month, monthlyNewSchools.get(month) + 1);
-                }
+                monthlyNewSchools.put(m, snapshot.getMonthlyNew(m));
             }
             response.setMonthlyNewSchools(monthlyNewSchools);
 
-            // 5. 国家统计
-            Map<String, Long> schoolsByCountry = new HashMap<>();
-            for (School s : schools) {
-                if (s.getCountry() != null) {
-                    schoolsByCountry.put(s.getCountry(), schoolsByCountry.getOrDefault(s.getCountry(), 0L) + 1);
-                }
-            }
+            // 4. 国家统计
+            Map<String, Long> schoolsByCountry = new HashMap<>(snapshot.getCountryCounts());
             response.setSchoolsByCountry(schoolsByCountry);
 
             // 找到学校最多的国家
@@ -2940,14 +2857,8 @@ public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequ
                 }
             }
 
-            // 6. 洲统计
-            List<ContinentCount> continentCounts = schoolRepository.countByContinent();
-            Map<String, Long> continentMap = new HashMap<>();
-            for (ContinentCount cc : continentCounts) {
-                if (cc.getCount() > 0) {
-                    continentMap.put(cc.getId(), cc.getCount());
-                }
-            }
+            // 5. 洲统计
+            Map<String, Long> continentMap = snapshot.getContinentCounts();
 
             // 只允许显示指定洲，并按顺序
             List<String> allowedOrder = Arrays.asList(
@@ -2996,50 +2907,24 @@ public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequ
 
             StudentStatisticsResponse response = new StudentStatisticsResponse();
 
+            // 总数、性别、地区、今年新增由一次聚合得到（与分布、每月新增接口共用缓存）
+            int currentYear = Year.now().getValue();
+            StudentAnalyticsService.StudentSnapshot snapshot = studentAnalyticsService.getStudentSnapshot(currentYear);
+
             // 1. 总学生数
-            long totalStudents = Optional.ofNullable(studentRepository.count()).orElse(0L);
-            response.setTotalStudents(totalStudents);
+            response.setTotalStudents(snapshot.getTotalStudents());
 
             // 2. 今年新增学生
-            int currentYear = Year.now().getValue();
-            Long totalNewStudentsObj = studentRepository.countByCreatedAtYear(currentYear);
-            long totalNewStudents = (totalNewStudentsObj != null) ? totalNewStudentsObj : 0L;
-            response.setTotalNewStudents(totalNewStudents);
+            response.setTotalNewStudents(snapshot.getYearlyNew());
 
             // 3. 性别统计
-            long maleCount = Optional.ofNullable(studentRepository.countByGender("Male")).orElse(0L);
-            long femaleCount = Optional.ofNullable(studentRepository.countByGender("Female")).orElse(0L);
             Map<String, Long> studentsByGender = new HashMap<>();
-            studentsByGender.put("male", maleCount);
-            studentsByGender.put("female", femaleCount);
+            studentsByGender.put("male", snapshot.getGenderCount("Male"));
+            studentsByGender.put("female", snapshot.getGenderCount("Female"));
             response.setStudentsByGender(studentsByGender);
 
-            // 4. 按地区统计（按学校国家）——优化批量查询
-            List<Student> allStudents = Optional.ofNullable(studentRepository.findAll())
-                    .orElse(Collections.emptyList());
-
-            // 收集所有 schoolId
-            Set<String> schoolIds = allStudents.stream()
-                    .map(Student::getSchoolId)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toSet());
-
-            // 批量查询学校信息
-            Map<String, School> schoolMap = schoolRepository.findAllBySchoolIdIn(new ArrayList<>(schoolIds))
-                    .stream()
-                    .collect(Collectors.toMap(School::getSchoolId, Function.identity()));
-
-            // 统计每个国家学生数
-            Map<String, Long> originCountMap = allStudents.stream()
-                    .map(s -> {
-                        if (s.getSchoolId() != null) {
-                            School school = schoolMap.get(s.getSchoolId());
-                            return (school != null && school.getCountry() != null) ? school.getCountry() : "未知";
-                        } else {
-                            return "未知";
-                        }
-                    })
-                    .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+            // 4. 按地区统计（按学校国家）
+            Map<String, Long> originCountMap = snapshot.getOriginCounts();
 
             // 构建 OriginDTO
             List<OriginDTO> studentsByOrigin = originCountMap.entrySet().stream()
@@ -3060,30 +2945,33 @@ public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequ
 
             response.setStudentsByOrigin(studentsByOrigin);
 
-            // 5. 日活统计（过去一周）
+            // 5. 日活统计（过去一周，读取按天汇总）
             LocalDate today = LocalDate.now();
-            List<DailyActiveDTO> dailyActiveUsersWeek = new ArrayList<>();
+            List<LocalDate> days = new ArrayList<>();
             for (int i = 6; i >= 0; i--) {
-                LocalDate day = today.minusDays(i);
-                Long count = studentActivityRepository.countDistinctStudentByCreatedAtBetween(
-                        day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+                days.add(today.minusDays(i));
+            }
+            List<Long> dailyCounts = activityRollupService.countDaily(days);
+            List<DailyActiveDTO> dailyActiveUsersWeek = new ArrayList<>();
+            for (int i = 0; i < days.size(); i++) {
                 dailyActiveUsersWeek.add(new DailyActiveDTO(
-                        day.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.CHINA),
-                        (count != null) ? count : 0L
+                        days.get(i).getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.CHINA),
+                        dailyCounts.get(i)
                 ));
             }
             response.setDailyActiveUsersWeek(dailyActiveUsersWeek);
 
-            // 6. 月活统计（最近6个月）
-            List<MonthlyActiveDTO> monthlyActiveUsers6Months = new ArrayList<>();
+            // 6. 月活统计（最近6个月，读取按月汇总）
+            List<YearMonth> months = new ArrayList<>();
             for (int i = 5; i >= 0; i--) {
-                YearMonth month = YearMonth.now().minusMonths(i);
-                LocalDateTime start = month.atDay(1).atStartOfDay();
-                LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
-                Long count = studentActivityRepository.countDistinctStudentByCreatedAtBetween(start, end);
+                months.add(YearMonth.now().minusMonths(i));
+            }
+            List<Long> monthlyCounts = activityRollupService.countMonthly(months);
+            List<MonthlyActiveDTO> monthlyActiveUsers6Months = new ArrayList<>();
+            for (int i = 0; i < months.size(); i++) {
                 monthlyActiveUsers6Months.add(new MonthlyActiveDTO(
-                        month.getMonth().getDisplayName(TextStyle.FULL, Locale.CHINA),
-                        (count != null) ? count : 0L
+                        months.get(i).getMonth().getDisplayName(TextStyle.FULL, Locale.CHINA),
+                        monthlyCounts.get(i)
                 ));
             }
             response.setMonthlyActiveUsers6Months(monthlyActiveUsers6Months);
@@ -3098,69 +2986,20 @@ public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequ
 
     public Result<Map<String, Object>> getUniversityDistribution() {
         try {
-            // 1️⃣ 获取所有学生
-            List<Student> allStudents = studentRepository.findAll();
-            final long totalStudents = (allStudents != null) ? allStudents.size() : 0L;
+            // 1️⃣ 按学校聚合后的统计结果
+            StudentAnalyticsService.StudentSnapshot snapshot =
+                    studentAnalyticsService.getStudentSnapshot(Year.now().getValue());
+            final long totalStudents = snapshot.getTotalStudents();
 
-            if (allStudents == null || allStudents.isEmpty()) {
+            if (totalStudents == 0) {
                 Map<String, Object> emptyResult = new HashMap<>();
                 emptyResult.put("universityDistribution", Collections.emptyList());
                 emptyResult.put("totalStudents", 0);
                 return Result.success(emptyResult, "学生分布数据为空");
             }
 
-            // 2️⃣ 收集所有 schoolId 并批量查询学校信息
-            Set<String> schoolIds = allStudents.stream()
-                    .map(Student::getSchoolId)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toSet());
-
-            List<School> schools = schoolRepository.findAllBySchoolIdIn(new ArrayList<>(schoolIds));
-            final Map<String, School> schoolMap = schools.stream()
-                    .collect(Collectors.toMap(School::getSchoolId, Function.identity()));
-
-            // 3️⃣ 按大洲分组
-            Map<String, List<Student>> studentsByContinent = allStudents.stream()
-                    .filter(s -> s.getSchoolId() != null && schoolMap.containsKey(s.getSchoolId()))
-                    .collect(Collectors.groupingBy(new Function<Student, String>() {
-                        @Override
-                        public String apply(Student s) {
-                            School school = schoolMap.get(s.getSchoolId());
-                            return (school != null && school.getContinent() != null) ? school.getContinent() : "未知";
-                        }
-                    }));
-
-            // 4️⃣ 构建前端数据结构
-            List<Map<String, Object>> universityDistribution = new ArrayList<>();
-            for (Map.Entry<String, List<Student>> entry : studentsByContinent.entrySet()) {
-                String continent = entry.getKey();
-                List<Student> students = entry.getValue();
-
-                // 学校数量
-                Set<String> schoolsInContinent = students.stream()
-                        .map(Student::getSchoolId)
-                        .collect(Collectors.toSet());
-
-                // 国家数量
-                Set<String> countriesInContinent = students.stream()
-                        .map(Student::getSchoolId)
-                        .map(new Function<String, String>() {
-                            @Override
-                            public String apply(String schoolId) {
-                                School school = schoolMap.get(schoolId);
-                                return (school != null && school.getCountry() != null) ? school.getCountry() : "未知";
-                            }
-                        })
-                        .collect(Collectors.toSet());
-
-                Map<String, Object> continentData = new HashMap<>();
-                continentData.put("continent", continent);
-                continentData.put("countries", countriesInContinent.size());
-                continentData.put("schools", schoolsInContinent.size());
-                continentData.put("students", students.size());
-
-                universityDistribution.add(continentData);
-            }
+            // 2️⃣ 按大洲统计国家数、学校数、学生数
+            List<Map<String, Object>> universityDistribution = new ArrayList<>(snapshot.getContinentDistribution());
 
             // 5️⃣ 返回结果
             Map<String, Object> result = new HashMap<>();
@@ -3195,21 +3034,9 @@ public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequ
             }
 
             // 3️⃣ 查询每月新增学生数
-            List<Student> allStudents = studentRepository.findAll();
-            if (allStudents != null) {
-                Map<Integer, Long> monthCountMap = allStudents.stream()
-                        .filter(s -> s.getCreateTime() != null)
-                        .filter(s -> s.getCreateTime().getYear() == year)
-                        .collect(Collectors.groupingBy(
-                                s -> s.getCreateTime().getMonthValue(), // 1~12
-                                Collectors.counting()
-                        ));
-
-                // 填充数据到 studentsMonthlyData
-                for (int i = 1; i <= 12; i++) {
-                    long count = monthCountMap.getOrDefault(i, 0L);
-                    studentsMonthlyData.get(i - 1).put("value", count);
-                }
+            StudentAnalyticsService.StudentSnapshot snapshot = studentAnalyticsService.getStudentSnapshot(year);
+            for (int i = 1; i <= 12; i++) {
+                studentsMonthlyData.get(i - 1).put("value", snapshot.getMonthlyNew(i));
             }
 
             // 4️⃣ 计算全年新增总数
@@ -3236,6 +3063,17 @@ public Result<CrawlerDataImportResponse> importCrawlerData(CrawlerDataImportRequ
     }
 
 public Map<String, Object> getSchoolMonthlyActiveUsers(String searchUniversityName, int page, int size) {
+    return getSchoolMonthlyActiveUsers(searchUniversityName, page, size, null, true);
+}
+
+    /**
+     * 学校近六个月活跃用户（分页）
+     *
+     * @param cursor    不为 null 时使用键集分页（按 _id 倒序），首页传空串，忽略 page
+     * @param withTotal 是否返回学校总数（短期缓存的估计值）
+     */
+public Map<String, Object> getSchoolMonthlyActiveUsers(String searchUniversityName, int page, int size,
+                                                       String cursor, boolean withTotal) {
     LocalDateTime now = LocalDateTime.now();
     LocalDateTime startTime = now.minusMonths(6).withDayOfMonth(1);
     LocalDateTime endTime = now;
@@ -3251,30 +3089,18 @@ public Map<String, Object> getSchoolMonthlyActiveUsers(String searchUniversityNa
     }
 
     try {
-        // 1️⃣ 获取学校列表（可搜索大学名）
-        List<Document> allSchools = mongoTemplate.findAll(Document.class, "school");
-
-        // 加强NPE防护：检查allSchools是否为null
-        if (allSchools == null) {
-            allSchools = new ArrayList<>();
-        }
-
+        // 1️⃣ 查询学校（大学名按字面量忽略大小写模糊匹配），只取 universityName，在数据库中分页
+        Query schoolQuery = new Query();
         if (searchUniversityName != null && !searchUniversityName.isEmpty()) {
-            String keyword = searchUniversityName.toLowerCase();
-            allSchools = allSchools.stream()
-                    .filter(s -> {
-                        // 加强NPE防护：检查Document和字段值
-                        if (s == null) return false;
-                        Object universityNameObj = s.get("universityName");
-                        if (universityNameObj == null) return false;
-                        return universityNameObj.toString().toLowerCase().contains(keyword);
-                    })
-                    .collect(Collectors.toList());
+            schoolQuery.addCriteria(Criteria.where("universityName")
+                    .regex(java.util.regex.Pattern.quote(searchUniversityName), "i"));
         }
+        schoolQuery.fields().include("universityName").include("schoolId");
 
-        int totalRecords = allSchools.size(); // 总记录数
+        Long totalRecords = cursor == null || withTotal
+                ? cachedCount(ResultCache.SCHOOL_PREFIX, schoolQuery, School.class) : null;
 
-        if (totalRecords == 0) {
+        if (totalRecords != null && totalRecords == 0) {
             Map<String, Object> emptyResponse = new HashMap<>();
             emptyResponse.put("success", true);
             emptyResponse.put("message", "没有符合条件的学校");
@@ -3289,81 +3115,55 @@ public Map<String, Object> getSchoolMonthlyActiveUsers(String searchUniversityNa
             return emptyResponse;
         }
 
-        // 2️⃣ 分页截取学校
-        int fromIndex = Math.min((page - 1) * size, totalRecords);
-        int toIndex = Math.min(fromIndex + size, totalRecords);
-
-        // 加强NPE防护：检查索引有效性
-        if (fromIndex >= totalRecords || fromIndex < 0) {
-            fromIndex = 0;
-        }
-        if (toIndex > totalRecords || toIndex <= 0) {
-            toIndex = totalRecords;
-        }
-
-        List<Document> pagedSchools = allSchools.subList(fromIndex, toIndex);
-
-        List<String> schoolNames = pagedSchools.stream()
-                .filter(Objects::nonNull) // 加强NPE防护
-                .map(s -> {
-                    Object universityNameObj = s.get("universityName");
-                    return universityNameObj != null ? universityNameObj.toString() : null;
-                })
-                .filter(Objects::nonNull) // 过滤掉null值
-                .collect(Collectors.toList());
-
-        // 3️⃣ 聚合查询学生活动，按学校和月份分组
-        Aggregation aggregation = Aggregation.newAggregation(
-                Aggregation.match(Criteria.where("createdAt").gte(startTime).lte(endTime)),
-                Aggregation.lookup("student", "studentId", "studentId", "studentInfo"),
-                Aggregation.unwind("studentInfo", true),
-                Aggregation.lookup("school", "studentInfo.schoolid", "schoolId", "schoolInfo"),
-                Aggregation.unwind("schoolInfo", true),
-                Aggregation.match(Criteria.where("schoolInfo.universityName").in(schoolNames)),
-                Aggregation.project()
-                        .andExpression("schoolInfo.universityName").as("school")
-                        .andExpression("dateToString('%Y-%m', createdAt)").as("month")
-                        .andExclude("_id"),
-                Aggregation.group("school", "month").count().as("activeCount")
-        );
-
-        AggregationResults<Document> results = mongoTemplate.aggregate(aggregation, "student_activity", Document.class);
+        // 2️⃣ 分页查询学校
+        String nextCursor = null;
+        List<School> pagedSchools;
+        if (cursor != null) {
+            pagedSchools = findPageAfter(schoolQuery, School.class, null, cursor, CURSOR_SCHOOL_ACTIVE_USERS, size);
+            if (pagedSchools.size() > size) {
+                pagedSchools = pagedSchools.subList(0, size);
+                nextCursor = new KeysetCursor(CURSOR_SCHOOL_ACTIVE_USERS, null,
+                        pagedSchools.get(size - 1).getId(), null).encode();
+            }
+        } else {
+            // 页码越界时返回第一页（与原内存分页行为一致）
+            long skip = (long) Math.max(page - 1, 0) * size;
+            if (totalRecords != null && skip >= totalRecords) {
+                skip = 0;
+            }
+            schoolQuery.skip(skip).limit(size);
+            pagedSchools = mongoTemplate.find(schoolQuery, School.class);
+        }
 
-        // 加强NPE防护：检查聚合结果
-        List<Document> docs = results != null ? results.getMappedResults() : Collections.emptyList();
-        if (docs == null) {
-            docs = Collections.emptyList();
+        // 3️⃣ 读取各学校各月的活跃学生汇总（一次 pipeline），不再扫描原始活动记录
+        List<YearMonth> months = new ArrayList<>();
+        for (String month : monthList) {
+            months.add(YearMonth.parse(month));
         }
+        Set<String> schoolIds = pagedSchools.stream()
+                .map(School::getSchoolId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Map<YearMonth, Long>> schoolMonthCounts = activityRollupService.countSchoolMonthly(schoolIds, months);
 
-        // 4️⃣ 构造学校-月份 Map
+        // 4️⃣ 构造学校-月份 Map（同名学校合并）
         Map<String, Map<String, Integer>> schoolMonthMap = new LinkedHashMap<>();
-        for (String schoolName : schoolNames) {
-            if (schoolName != null) { // 加强NPE防护
-                Map<String, Integer> monthCount = new LinkedHashMap<>();
+        for (School school : pagedSchools) {
+            String schoolName = school.getUniversityName();
+            if (schoolName == null) {
+                continue;
+            }
+            Map<String, Integer> monthCount = schoolMonthMap.computeIfAbsent(schoolName, k -> {
+                Map<String, Integer> init = new LinkedHashMap<>();
                 for (String month : monthList) {
-                    monthCount.put(month, 0);
+                    init.put(month, 0);
                 }
-                schoolMonthMap.put(schoolName, monthCount);
-            }
-        }
-
-        for (Document doc : docs) {
-            // 加强NPE防护：检查Document是否为null
-            if (doc == null) continue;
-
-            Document idDoc = (Document) doc.get("_id");
-            // 加强NPE防护：检查idDoc是否为null
-            if (idDoc == null) continue;
-
-            String school = idDoc.getString("school");
-            String month = idDoc.getString("month");
-            Integer count = doc.getInteger("activeCount", 0);
-
-            // 加强NPE防护：检查关键字段是否为null
-            if (school != null && schoolMonthMap.containsKey(school) && month != null) {
-                Map<String, Integer> monthMap = schoolMonthMap.get(school);
-                if (monthMap != null) {
-                    monthMap.put(month, count != null ? count : 0);
+                return init;
+            });
+            Map<YearMonth, Long> counts = school.getSchoolId() != null ? schoolMonthCounts.get(school.getSchoolId()) : null;
+            if (counts != null) {
+                for (YearMonth month : months) {
+                    monthCount.merge(month.toString(), counts.getOrDefault(month, 0L).intValue(), Integer::sum);
                 }
             }
         }
@@ -3416,6 +3216,7 @@ public Map<String, Object> getSchoolMonthlyActiveUsers(String searchUniversityNa
         data.put("totalRecords", totalRecords);
         data.put("page", page);
         data.put("size", size);
+        data.put("nextCursor", nextCursor);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -3437,119 +3238,130 @@ public Map<String, Object> getSchoolMonthlyActiveUsers(String searchUniversityNa
 }
 
 
+    /**
+     * 职位概览（类型、行业、地点分布）
+     * 单次 $facet 聚合完成统计，结果短期缓存，职位导入后失效
+     */
     public Map<String, Object> getJobOverview() {
         Map<String, Object> response = new HashMap<>();
         try {
-
-
-            // 2️⃣ 全职 / 实习职位数量
-            long totalFullTimePositions = mongoTemplate.count(new Query(Criteria.where("jobType").is("full-time-campus")), "job");
-            long totalInternshipPositions = mongoTemplate.count(new Query(Criteria.where("jobType").is("intern")), "job");
-            // 1️⃣ 职位总数
-            long totalPositions = totalFullTimePositions + totalInternshipPositions;
-            // 3️⃣ 职位类型分布
-            List<Map<String, Object>> positionTypeData = new ArrayList<>();
-            Map<String, Object> fullTimeMap = new HashMap<>();
-            fullTimeMap.put("type", "full-time-campus");
-            fullTimeMap.put("count", totalFullTimePositions);
-            positionTypeData.add(fullTimeMap);
-
-            Map<String, Object> internshipMap = new HashMap<>();
-            internshipMap.put("type", "intern");
-            internshipMap.put("count", totalInternshipPositions);
-            positionTypeData.add(internshipMap);
-
-            // 4️⃣ 公司类型分布（先按职位类型筛选，再查公司 industry）
-            List<Document> fullTimeJobs = mongoTemplate.find(new Query(Criteria.where("jobType").is("full-time-campus")), Document.class, "job");
-            List<Document> internshipJobs = mongoTemplate.find(new Query(Criteria.where("jobType").is("intern")), Document.class, "job");
-
-            Map<String, Integer> companyTypeCount = new HashMap<>();
-            // helper 方法：统计职位对应公司类型
-            for (Document job : fullTimeJobs) {
-                String companyId = job.getString("companyId");
-                Document company = mongoTemplate.findOne(new Query(Criteria.where("companyId").is(companyId)), Document.class, "company");
-                if (company != null) {
-                    String industry = company.getString("industry");
-                    if (industry != null) {
-                        companyTypeCount.put(industry, companyTypeCount.getOrDefault(industry, 0) + 1);
-                    }
-                }
-            }
-            for (Document job : internshipJobs) {
-                String companyId = job.getString("companyId");
-                Document company = mongoTemplate.findOne(new Query(Criteria.where("companyId").is(companyId)), Document.class, "company");
-                if (company != null) {
-                    String industry = company.getString("industry");
-                    if (industry != null) {
-                        companyTypeCount.put(industry, companyTypeCount.getOrDefault(industry, 0) + 1);
-                    }
-                }
-            }
-
-            List<Map<String, Object>> companyTypePositions = new ArrayList<>();
-            for (Map.Entry<String, Integer> entry : companyTypeCount.entrySet()) {
-                Map<String, Object> map = new HashMap<>();
-                map.put("companyType", entry.getKey());
-                map.put("count", entry.getValue());
-                companyTypePositions.add(map);
-            }
-            // 5️⃣ 位置分布
-            // 位置分布（先按职位类型筛选，再统计）
-            List<Document> allJobs = new ArrayList<>();
-            allJobs.addAll(fullTimeJobs);
-            allJobs.addAll(internshipJobs);
-            Map<String, Integer> locationCount = new HashMap<>();
-            for (Document job : allJobs) {
-                String locations = job.getString("workLocation");
-                if (locations != null && !locations.trim().isEmpty()) {
-                    // 按逗号、斜杠或分号拆分
-                    String[] parts = locations.split("[,/;]");
-                    for (String loc : parts) {
-                        String trimmed = loc.trim();
-                        if (!trimmed.isEmpty()) {
-                            locationCount.put(trimmed, locationCount.getOrDefault(trimmed, 0) + 1);
-                        }
-                    }
-                }
-            }
-            // 转换为返回的 List<Map> 形式
-            List<Map<String, Object>> locationData = locationCount.entrySet().stream()
-                    .map(e -> {
-                        Map<String, Object> map = new HashMap<>();
-                        map.put("workLocation", e.getKey());
-                        map.put("count", e.getValue());
-                        return map;
-                    })
-                    // 按 count 倒序排序
-                    .sorted((a, b) -> ((Integer)b.get("count")).compareTo((Integer)a.get("count")))
-                    .collect(Collectors.toList());
-
-
-            // 构造返回数据
-            Map<String, Object> data = new HashMap<>();
-            data.put("totalPositions", totalPositions);
-            data.put("totalFullTimePositions", totalFullTimePositions);
-            data.put("totalInternshipPositions", totalInternshipPositions);
-            data.put("positionTypeData", positionTypeData);
-            data.put("companyTypePositions", companyTypePositions);
-            data.put("locationData", locationData);
+            Map<String, Object> data = resultCache.get(ResultCache.JOB_OVERVIEW,
+                    jobOverviewCacheTtlSeconds * 1000L, this::aggregateJobOverview);
 
             response.put("success", true);
             response.put("message", "职位概览数据获取成功");
             response.put("data", data);
-            response.put("total", totalPositions);
+            response.put("total", data.get("totalPositions"));
 
         } catch (Exception e) {
+            log.error("获取职位概览失败", e);
             response.put("success", false);
             response.put("message", "查询失败: " + e.getMessage());
             response.put("data", new HashMap<>());
             response.put("total", 0);
-            e.printStackTrace();
         }
 
         return response;
     }
 
+    /**
+     * 职位概览聚合：按职位类型筛选后，在 $facet 中分别统计类型、公司行业（$lookup company）和地点分布
+     */
+    private Map<String, Object> aggregateJobOverview() {
+        // 地点按逗号、斜杠或分号拆分：先统一替换为逗号再 $split
+        Document normalizedLocation = new Document("$replaceAll", new Document()
+                .append("input", new Document("$replaceAll", new Document()
+                        .append("input", "$workLocation")
+                        .append("find", "/")
+                        .append("replacement", ",")))
+                .append("find", ";")
+                .append("replacement", ","));
+
+        List<Document> pipeline = Arrays.asList(
+                new Document("$match", new Document("jobType",
+                        new Document("$in", Arrays.asList("full-time-campus", "intern")))),
+                new Document("$facet", new Document()
+                        .append("types", Collections.singletonList(
+                                new Document("$group", new Document("_id", "$jobType")
+                                        .append("count", new Document("$sum", 1)))))
+                        .append("industries", Arrays.asList(
+                                new Document("$project", new Document("companyId", 1)),
+                                new Document("$lookup", new Document()
+                                        .append("from", "company")
+                                        .append("localField", "companyId")
+                                        .append("foreignField", "companyId")
+                                        .append("as", "company")),
+                                new Document("$project", new Document("industry",
+                                        new Document("$arrayElemAt", Arrays.asList("$company.industry", 0)))),
+                                new Document("$match", new Document("industry", new Document("$ne", null))),
+                                new Document("$group", new Document("_id", "$industry")
+                                        .append("count", new Document("$sum", 1)))))
+                        .append("locations", Arrays.asList(
+                                new Document("$match", new Document("workLocation", new Document("$type", "string"))),
+                                new Document("$project", new Document("location",
+                                        new Document("$split", Arrays.asList(normalizedLocation, ",")))),
+                                new Document("$unwind", "$location"),
+                                new Document("$project", new Document("location",
+                                        new Document("$trim", new Document("input", "$location")))),
+                                new Document("$match", new Document("location", new Document("$ne", ""))),
+                                new Document("$group", new Document("_id", "$location")
+                                        .append("count", new Document("$sum", 1))),
+                                new Document("$sort", new Document("count", -1)))))
+        );
+
+        Document facet = mongoTemplate.getCollection("job").aggregate(pipeline).first();
+        if (facet == null) {
+            facet = new Document();
+        }
+
+        // 职位类型分布
+        Map<String, Long> typeCount = new HashMap<>();
+        for (Document d : facet.getList("types", Document.class, Collections.emptyList())) {
+            typeCount.put(d.getString("_id"), ((Number) d.get("count")).longValue());
+        }
+        long totalFullTimePositions = typeCount.getOrDefault("full-time-campus", 0L);
+        long totalInternshipPositions = typeCount.getOrDefault("intern", 0L);
+        long totalPositions = totalFullTimePositions + totalInternshipPositions;
+
+        List<Map<String, Object>> positionTypeData = new ArrayList<>();
+        Map<String, Object> fullTimeMap = new HashMap<>();
+        fullTimeMap.put("type", "full-time-campus");
+        fullTimeMap.put("count", totalFullTimePositions);
+        positionTypeData.add(fullTimeMap);
+
+        Map<String, Object> internshipMap = new HashMap<>();
+        internshipMap.put("type", "intern");
+        internshipMap.put("count", totalInternshipPositions);
+        positionTypeData.add(internshipMap);
+
+        // 公司类型分布
+        List<Map<String, Object>> companyTypePositions = new ArrayList<>();
+        for (Document d : facet.getList("industries", Document.class, Collections.emptyList())) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("companyType", d.get("_id"));
+            map.put("count", ((Number) d.get("count")).intValue());
+            companyTypePositions.add(map);
+        }
+
+        // 位置分布（已按 count 倒序）
+        List<Map<String, Object>> locationData = new ArrayList<>();
+        for (Document d : facet.getList("locations", Document.class, Collections.emptyList())) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("workLocation", d.get("_id"));
+            map.put("count", ((Number) d.get("count")).intValue());
+            locationData.add(map);
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("totalPositions", totalPositions);
+        data.put("totalFullTimePositions", totalFullTimePositions);
+        data.put("totalInternshipPositions", totalInternshipPositions);
+        data.put("positionTypeData", positionTypeData);
+        data.put("companyTypePositions", companyTypePositions);
+        data.put("locationData", locationData);
+        return data;
+    }
+
 
 
 }
@@ -10,6 +10,7 @@ import com.x.pelegant.repository.JobRepository;
 import com.x.pelegant.repository.CompanyRepository;
 import com.x.pelegant.repository.StudentRepository;
 import com.x.pelegant.dto.RecommendedJobResponse;
+import com.x.pelegant.util.LocationNormalizer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -17,7 +18,6 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -39,8 +39,6 @@ public class RecommendedWorkService {
     @Autowired
     private StudentRepository studentRepository;
 
-    private static final String HONG_KONG_REGEX = "^(HK|香港|Hong\\s?Kong|HongKong|HKSAR|Hong\\s?Kong\\s?SAR|HK\\s?SAR|香港特别行政区|香港岛|Hong\\s?Kong,\\s?Hong\\s?Kong\\s?SAR|[A-Za-z\\s&]+,\\s?HK|[A-Za-z\\s&]+,\\s?Hong\\s?Kong\\s?SAR|Remote,\\s?HK|[A-Za-z\\s&]+,\\s?Hong\\s?Kong)$";
-    private static final Pattern HONG_KONG_PATTERN = Pattern.compile(HONG_KONG_REGEX, Pattern.CASE_INSENSITIVE);
 
     /**
      * 获取学生的推荐工作列表
@@ -191,9 +189,8 @@ public class RecommendedWorkService {
                         }
                     }
 
-                    // 香港地区正则过滤
-                    String location = job.getWorkLocation();
-                    if (location == null || !HONG_KONG_PATTERN.matcher(location.trim()).matches()) {
+                    // 香港地区过滤
+                    if (!LocationNormalizer.isHongKong(job.getWorkLocation())) {
                         log.debug("跳过不符合香港地区要求的 Job: {}", job.getId());
                         continue;
                     }
@@ -0,0 +1,323 @@
+package com.x.pelegant.service;
+
+import com.x.pelegant.entity.School;
+import com.x.pelegant.entity.Student;
+import com.x.pelegant.util.ResultCache;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * 学生 / 学校统计分析
+ * 统计在数据库中用 $facet 一次聚合完成（只投影需要的字段，学校信息通过 $lookup 关联），
+ * 内存占用与学生数无关；结果按年份短期缓存，仪表盘的多个统计接口共用同一份结果
+ */
+@Service
+@Slf4j
+public class StudentAnalyticsService {
+
+    /** 未知国家 / 洲 */
+    public static final String UNKNOWN = "未知";
+
+    private static final String STUDENT_ANALYTICS_KEY = ResultCache.STUDENT_PREFIX + "analytics:";
+    private static final String SCHOOL_ANALYTICS_KEY = ResultCache.SCHOOL_PREFIX + "analytics:";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ResultCache resultCache;
+
+    /**
+     * 统计结果缓存时间（秒）
+     */
+    @Value("${pelegant.cache.analytics-ttl-seconds:60}")
+    private long analyticsCacheTtlSeconds;
+
+    /**
+     * 学生统计快照（缓存）
+     *
+     * @param year 统计每月新增的年份
+     */
+    public StudentSnapshot getStudentSnapshot(int year) {
+        return resultCache.get(STUDENT_ANALYTICS_KEY + year, analyticsCacheTtlSeconds * 1000L,
+                () -> loadStudentSnapshot(year));
+    }
+
+    /**
+     * 学校统计快照（缓存）
+     *
+     * @param year 统计每月新增的年份
+     */
+    public SchoolSnapshot getSchoolSnapshot(int year) {
+        return resultCache.get(SCHOOL_ANALYTICS_KEY + year, analyticsCacheTtlSeconds * 1000L,
+                () -> loadSchoolSnapshot(year));
+    }
+
+    private StudentSnapshot loadStudentSnapshot(int year) {
+        long start = System.currentTimeMillis();
+
+        Document facet = new Document()
+                .append("total", Collections.singletonList(new Document("$count", "n")))
+                .append("gender", Collections.singletonList(
+                        new Document("$group", new Document("_id", "$gender").append("count", new Document("$sum", 1)))))
+                .append("bySchool", Arrays.asList(
+                        new Document("$group", new Document("_id", "$schoolid").append("count", new Document("$sum", 1))),
+                        new Document("$lookup", new Document("from", mongoTemplate.getCollectionName(School.class))
+                                .append("localField", "_id")
+                                .append("foreignField", "schoolId")
+                                .append("as", "school")),
+                        new Document("$project", new Document("count", 1)
+                                .append("found", new Document("$gt", Arrays.asList(new Document("$size", "$school"), 0)))
+                                .append("country", new Document("$arrayElemAt", Arrays.asList("$school.country", 0)))
+                                .append("continent", new Document("$arrayElemAt", Arrays.asList("$school.continent", 0))))))
+                .append("monthly", monthlyBuckets("create_time", year));
+
+        List<Document> pipeline = Arrays.asList(
+                new Document("$project", new Document("schoolid", 1).append("gender", 1).append("create_time", 1)),
+                new Document("$facet", facet));
+        Document result = aggregateOne(Student.class, pipeline);
+
+        Map<String, Long> genderCounts = new HashMap<>();
+        for (Document doc : facetList(result, "gender")) {
+            Object gender = doc.get("_id");
+            if (gender != null) {
+                genderCounts.put(gender.toString(), toLong(doc.get("count")));
+            }
+        }
+
+        // 按学校汇总后的行数与学校数同级，在内存中再按国家 / 洲合并
+        Map<String, Long> originCounts = new HashMap<>();
+        Map<String, ContinentStat> continents = new LinkedHashMap<>();
+        for (Document doc : facetList(result, "bySchool")) {
+            Object schoolId = doc.get("_id");
+            long count = toLong(doc.get("count"));
+            boolean found = schoolId != null && Boolean.TRUE.equals(doc.getBoolean("found"));
+            String country = found && doc.getString("country") != null ? doc.getString("country") : UNKNOWN;
+            originCounts.merge(country, count, Long::sum);
+
+            if (found) {
+                String continent = doc.getString("continent") != null ? doc.getString("continent") : UNKNOWN;
+                ContinentStat stat = continents.computeIfAbsent(continent, ContinentStat::new);
+                stat.schools.add(schoolId.toString());
+                stat.countries.add(country);
+                stat.students += count;
+            }
+        }
+
+        List<Map<String, Object>> continentRows = new ArrayList<>();
+        for (ContinentStat stat : continents.values()) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("continent", stat.continent);
+            row.put("countries", stat.countries.size());
+            row.put("schools", stat.schools.size());
+            row.put("students", stat.students);
+            continentRows.add(row);
+        }
+
+        StudentSnapshot snapshot = new StudentSnapshot(
+                facetTotal(result),
+                Collections.unmodifiableMap(genderCounts),
+                Collections.unmodifiableMap(originCounts),
+                Collections.unmodifiableList(continentRows),
+                monthlyCounts(facetList(result, "monthly"), year));
+        log.info("学生统计聚合完成: year={}, 学生数={}, 耗时 {} ms",
+                year, snapshot.getTotalStudents(), System.currentTimeMillis() - start);
+        return snapshot;
+    }
+
+    private SchoolSnapshot loadSchoolSnapshot(int year) {
+        Document facet = new Document()
+                .append("total", Collections.singletonList(new Document("$count", "n")))
+                .append("byCountry", Arrays.asList(
+                        new Document("$match", new Document("country", new Document("$ne", null))),
+                        new Document("$group", new Document("_id", "$country").append("count", new Document("$sum", 1)))))
+                .append("byContinent", Collections.singletonList(
+                        new Document("$group", new Document("_id", "$continent").append("count", new Document("$sum", 1)))))
+                .append("monthly", monthlyBuckets("createdAt", year));
+
+        List<Document> pipeline = Arrays.asList(
+                new Document("$project", new Document("country", 1).append("continent", 1).append("createdAt", 1)),
+                new Document("$facet", facet));
+        Document result = aggregateOne(School.class, pipeline);
+
+        return new SchoolSnapshot(
+                facetTotal(result),
+                Collections.unmodifiableMap(groupCounts(facetList(result, "byCountry"))),
+                Collections.unmodifiableMap(groupCounts(facetList(result, "byContinent"))),
+                monthlyCounts(facetList(result, "monthly"), year));
+    }
+
+    /**
+     * 按本地时区的月份边界分桶统计指定年份每月的新增数
+     */
+    private List<Document> monthlyBuckets(String dateField, int year) {
+        List<Date> boundaries = new ArrayList<>(13);
+        for (int m = 1; m <= 13; m++) {
+            LocalDate day = m <= 12 ? LocalDate.of(year, m, 1) : LocalDate.of(year + 1, 1, 1);
+            boundaries.add(Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        }
+        return Arrays.asList(
+                new Document("$match", new Document(dateField,
+                        new Document("$gte", boundaries.get(0)).append("$lt", boundaries.get(12)))),
+                new Document("$bucket", new Document("groupBy", "$" + dateField)
+                        .append("boundaries", boundaries)
+                        .append("output", new Document("count", new Document("$sum", 1)))));
+    }
+
+    /**
+     * 分桶结果转为 1~12 月的数组（下标 0 为一月）
+     */
+    private long[] monthlyCounts(List<Document> buckets, int year) {
+        long[] counts = new long[12];
+        for (Document doc : buckets) {
+            Date lower = doc.getDate("_id");
+            int month = lower.toInstant().atZone(ZoneId.systemDefault()).getMonthValue();
+            counts[month - 1] = toLong(doc.get("count"));
+        }
+        return counts;
+    }
+
+    private Document aggregateOne(Class<?> entityClass, List<Document> pipeline) {
+        Document result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(entityClass))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .first();
+        return result != null ? result : new Document();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Document> facetList(Document result, String name) {
+        Object list = result.get(name);
+        return list instanceof List ? (List<Document>) list : Collections.emptyList();
+    }
+
+    private long facetTotal(Document result) {
+        List<Document> total = facetList(result, "total");
+        return total.isEmpty() ? 0L : toLong(total.get(0).get("n"));
+    }
+
+    private Map<String, Long> groupCounts(List<Document> groups) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Document doc : groups) {
+            Object key = doc.get("_id");
+            if (key != null) {
+                counts.put(key.toString(), toLong(doc.get("count")));
+            }
+        }
+        return counts;
+    }
+
+    private long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private static class ContinentStat {
+        private final String continent;
+        private final Set<String> schools = new HashSet<>();
+        private final Set<String> countries = new HashSet<>();
+        private long students;
+
+        private ContinentStat(String continent) {
+            this.continent = continent;
+        }
+    }
+
+    /**
+     * 学生统计结果（只读，缓存共享）
+     */
+    public static class StudentSnapshot {
+        private final long totalStudents;
+        private final Map<String, Long> genderCounts;
+        private final Map<String, Long> originCounts;
+        private final List<Map<String, Object>> continentDistribution;
+        private final long[] monthlyNew;
+
+        StudentSnapshot(long totalStudents, Map<String, Long> genderCounts, Map<String, Long> originCounts,
+                        List<Map<String, Object>> continentDistribution, long[] monthlyNew) {
+            this.totalStudents = totalStudents;
+            this.genderCounts = genderCounts;
+            this.originCounts = originCounts;
+            this.continentDistribution = continentDistribution;
+            this.monthlyNew = monthlyNew;
+        }
+
+        public long getTotalStudents() {
+            return totalStudents;
+        }
+
+        public long getGenderCount(String gender) {
+            return genderCounts.getOrDefault(gender, 0L);
+        }
+
+        /**
+         * 按学校所在国家统计的学生数，无学校或学校不存在时计入“未知”
+         */
+        public Map<String, Long> getOriginCounts() {
+            return originCounts;
+        }
+
+        /**
+         * 按洲统计：continent / countries / schools / students
+         */
+        public List<Map<String, Object>> getContinentDistribution() {
+            return continentDistribution;
+        }
+
+        /**
+         * 指定月份（1~12）新增学生数
+         */
+        public long getMonthlyNew(int month) {
+            return monthlyNew[month - 1];
+        }
+
+        public long getYearlyNew() {
+            return Arrays.stream(monthlyNew).sum();
+        }
+    }
+
+    /**
+     * 学校统计结果（只读，缓存共享）
+     */
+    public static class SchoolSnapshot {
+        private final long totalSchools;
+        private final Map<String, Long> countryCounts;
+        private final Map<String, Long> continentCounts;
+        private final long[] monthlyNew;
+
+        SchoolSnapshot(long totalSchools, Map<String, Long> countryCounts, Map<String, Long> continentCounts,
+                       long[] monthlyNew) {
+            this.totalSchools = totalSchools;
+            this.countryCounts = countryCounts;
+            this.continentCounts = continentCounts;
+            this.monthlyNew = monthlyNew;
+        }
+
+        public long getTotalSchools() {
+            return totalSchools;
+        }
+
+        public Map<String, Long> getCountryCounts() {
+            return countryCounts;
+        }
+
+        public Map<String, Long> getContinentCounts() {
+            return continentCounts;
+        }
+
+        public long getMonthlyNew(int month) {
+            return monthlyNew[month - 1];
+        }
+
+        public long getYearlyNew() {
+            return Arrays.stream(monthlyNew).sum();
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package com.x.pelegant.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.x.pelegant.common.Result;
+import com.x.pelegant.config.ExecutorConfig;
+import com.x.pelegant.dto.StudentExcelImportRequest;
+import com.x.pelegant.dto.StudentImportProgress;
+import com.x.pelegant.entity.School;
+import com.x.pelegant.entity.Student;
+import com.x.pelegant.entity.Teacher;
+import com.x.pelegant.exception.ServiceOverloadException;
+import com.x.pelegant.repository.SchoolRepository;
+import com.x.pelegant.repository.TeacherRepository;
+import com.x.pelegant.util.PasswordUtil;
+import com.x.pelegant.util.ResultCache;
+import com.x.pelegant.util.excel.ExcelRow;
+import com.x.pelegant.util.excel.ExcelRowReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 教师批量导入学生
+ * 上传后立即返回任务ID，导入在 importExecutor 中后台执行，进度保存在 Redis（student-import:{jobId}，保留 24 小时）供轮询：
+ * Excel 流式解析 → 一次查询预取已存在的邮箱 / 学号 → 分批并行哈希初始密码 → 无序 BulkOperations 批量插入 → 初始密码邮件交给邮件线程池发送
+ */
+@Service
+@Slf4j
+public class StudentImportService {
+
+    private static final String JOB_KEY_PREFIX = "student-import:";
+    private static final long JOB_TTL_HOURS = 24;
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+    /** .xls 只能整本载入内存，导入文件限制为 5MB（小于全局上传上限） */
+    private static final long MAX_FILE_SIZE = 5 * 1024 * 1024;
+
+    private static final String EMAIL_EXISTS = "The mailbox already exists.";
+    private static final String STUDENT_ID_EXISTS = "This student number already exists in our school";
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private SchoolRepository schoolRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasswordHashService passwordHashService;
+
+    @Autowired
+    private EmailServices emailServices;
+
+    @Autowired
+    private DashboardCounterService dashboardCounterService;
+
+    @Autowired
+    private ResultCache resultCache;
+
+    @Autowired
+    @Qualifier(ExecutorConfig.IMPORT_EXECUTOR)
+    private ThreadPoolTaskExecutor importExecutor;
+
+    /**
+     * 每批插入的学生数（每批哈希密码、写库、更新一次进度）
+     */
+    @Value("${pelegant.student-import.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 提交导入任务，立即返回任务ID
+     *
+     * @throws ServiceOverloadException 同时进行的导入任务已满
+     */
+    public Result<StudentImportProgress> submit(String teacherId, MultipartFile file) {
+        File tempFile = null;
+        try {
+            log.info("教师批量导入学生Excel: teacherId={}, fileName={}", teacherId, file.getOriginalFilename());
+
+            Optional<Teacher> teacherOpt = teacherRepository.findByTeacherId(teacherId);
+            if (!teacherOpt.isPresent()) {
+                return Result.fail("Teacher information does not exist");
+            }
+            String schoolId = teacherOpt.get().getSchoolId();
+            if (schoolId == null || schoolId.trim().isEmpty()) {
+                return Result.fail("The teacher is not associated with a school. Please contact the administrator");
+            }
+
+            String fileName = file.getOriginalFilename();
+            if (!ExcelRowReader.isExcelFile(fileName)) {
+                return Result.fail("Please upload an Excel file (in .xlsx or .xls format)");
+            }
+            if (file.getSize() > MAX_FILE_SIZE) {
+                return Result.fail("The Excel file size cannot exceed 5MB");
+            }
+
+            // 请求结束后上传的临时文件会被清理，先转存
+            tempFile = Files.createTempFile("student-import-", fileName.substring(fileName.lastIndexOf('.'))).toFile();
+            file.transferTo(tempFile);
+
+            StudentImportProgress progress = new StudentImportProgress();
+            progress.setJobId(UUID.randomUUID().toString());
+            progress.setTeacherId(teacherId);
+            progress.setFileName(fileName);
+            progress.setStatus(StudentImportProgress.STATUS_PENDING);
+            progress.setCreatedAt(LocalDateTime.now());
+            saveProgress(progress);
+
+            // 任务启动后 progress 由导入线程修改，返回提交时的副本
+            StudentImportProgress submitted = objectMapper.convertValue(progress, StudentImportProgress.class);
+            File source = tempFile;
+            importExecutor.execute(() -> runImport(progress, schoolId, source));
+            tempFile = null;
+
+            return Result.success(submitted, "Excel import submitted");
+
+        } catch (TaskRejectedException e) {
+            log.warn("导入线程池已满，拒绝学生导入: teacherId={}", teacherId);
+            throw new ServiceOverloadException("导入任务过多，请稍后重试");
+        } catch (Exception e) {
+            log.error("ExcelImport failed", e);
+            return Result.fail("Excel import failed: " + e.getMessage());
+        } finally {
+            if (tempFile != null) {
+                deleteQuietly(tempFile);
+            }
+        }
+    }
+
+    /**
+     * 查询导入任务进度（只能查询自己提交的任务）
+     */
+    public Result<StudentImportProgress> getProgress(String teacherId, String jobId) {
+        try {
+            String json = redisTemplate.opsForValue().get(JOB_KEY_PREFIX + jobId);
+            if (json == null) {
+                return Result.fail("The import task does not exist or has expired");
+            }
+            StudentImportProgress progress = objectMapper.readValue(json, StudentImportProgress.class);
+            if (!teacherId.equals(progress.getTeacherId())) {
+                return Result.fail("The import task does not exist or has expired");
+            }
+            return Result.success(progress, "Import progress obtained");
+        } catch (Exception e) {
+            log.error("获取学生导入进度失败: jobId={}", jobId, e);
+            return Result.fail("Failed to obtain import progress: " + e.getMessage());
+        }
+    }
+
+    private void runImport(StudentImportProgress progress, String schoolId, File file) {
+        long start = System.currentTimeMillis();
+        try {
+            progress.setStatus(StudentImportProgress.STATUS_PARSING);
+            saveProgress(progress);
+
+            List<StudentExcelImportRequest> rows = new ArrayList<>();
+            // 读取所有工作表，每个工作表的第一行为标题
+            ExcelRowReader.read(file, progress.getFileName(), ExcelRowReader.Options.allSheets(), this::toStudentData,
+                    (row, studentData) -> rows.add(studentData),
+                    error -> progress.addError(error.getRowNumber(), null, null, error.getMessage()));
+            deleteQuietly(file);
+
+            if (rows.isEmpty()) {
+                fail(progress, "There is no valid student data in the Excel file");
+                return;
+            }
+            progress.setTotalRows(rows.size() + progress.getFailureCount());
+            progress.setStatus(StudentImportProgress.STATUS_IMPORTING);
+            saveProgress(progress);
+
+            List<Pending> pending = validate(rows, schoolId, progress);
+            saveProgress(progress);
+
+            String universityName = schoolRepository.findBySchoolId(schoolId)
+                    .map(School::getUniversityName).orElse(null);
+            for (int from = 0; from < pending.size(); from += batchSize) {
+                insertBatch(pending.subList(from, Math.min(from + batchSize, pending.size())), universityName, progress);
+                saveProgress(progress);
+            }
+
+            progress.setStatus(StudentImportProgress.STATUS_COMPLETED);
+            progress.setMessage(progress.getSummary());
+            saveProgress(progress);
+            log.info("Excel导入完成: jobId={}, {}, 耗时 {} ms",
+                    progress.getJobId(), progress.getSummary(), System.currentTimeMillis() - start);
+
+        } catch (Exception e) {
+            log.error("ExcelImport failed: jobId={}", progress.getJobId(), e);
+            fail(progress, "Excel import failed: " + e.getMessage());
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    /**
+     * 逐行校验，并用一次查询找出库中已存在的邮箱 / 学号
+     *
+     * @return 可以插入的学生
+     */
+    private List<Pending> validate(List<StudentExcelImportRequest> rows, String schoolId,
+                                   StudentImportProgress progress) {
+        List<Pending> candidates = new ArrayList<>(rows.size());
+        Set<String> fileEmails = new HashSet<>();
+        Set<String> fileStudentIds = new HashSet<>();
+
+        for (StudentExcelImportRequest studentData : rows) {
+            if (!studentData.isValid()) {
+                progress.addError(studentData.getRowNumber(), studentData.getFullName(), null,
+                        studentData.getValidationError());
+                continue;
+            }
+
+            String rawStudentId = studentData.getStudentId();
+            if (rawStudentId == null || rawStudentId.trim().isEmpty()) {
+                progress.addError(studentData.getRowNumber(), studentData.getFullName(), null,
+                        "The student number cannot be empty");
+                continue;
+            }
+
+            String year = studentData.getGrade();
+            if (year == null || !year.matches("\\d{4}")) {
+                progress.addError(studentData.getRowNumber(), studentData.getFullName(), rawStudentId,
+                        "The year of enrollment is invalid.");
+                continue;
+            }
+
+            String studentType = studentData.getStudentType() != null
+                    ? studentData.getStudentType().toLowerCase().trim() : "";
+            boolean isMaster = isMasterType(studentType);
+            boolean isPhd = !isMaster && isPhdType(studentType);
+            if (!isMaster && !isPhd && !isBachelorType(studentType)) {
+                progress.addError(studentData.getRowNumber(), studentData.getFullName(), rawStudentId,
+                        "Invalid student type: " + studentData.getStudentType());
+                continue;
+            }
+
+            String email = studentData.getEmail().trim();
+            String dbStudentId = schoolId + "_" + rawStudentId.trim();
+
+            // 文件内重复
+            if (!fileEmails.add(email)) {
+                progress.addError(studentData.getRowNumber(), studentData.getFullName(), rawStudentId, EMAIL_EXISTS);
+                continue;
+            }
+            if (!fileStudentIds.add(dbStudentId)) {
+                progress.addError(studentData.getRowNumber(), studentData.getFullName(), rawStudentId,
+                        STUDENT_ID_EXISTS);
+                continue;
+            }
+
+            Student student = new Student();
+            student.setFullName(studentData.getFullName().trim());
+            student.setStudentId(dbStudentId);
+            student.setEmail(email);
+            student.setMajor(studentData.getMajor().trim());
+            student.setEnrollmentYear(Integer.valueOf(year));
+            student.setSchoolId(schoolId);
+            student.setStatus("active");
+            student.setIsMaster(isMaster);
+            student.setIsPhd(isPhd);
+            candidates.add(new Pending(studentData, student));
+        }
+
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+
+        // 邮箱全局唯一、学号（已拼接学校ID）本校唯一，一次查询取出库中已存在的值
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("email").in(fileEmails),
+                Criteria.where("studentId").in(fileStudentIds)));
+        query.fields().include("email").include("studentId");
+        Set<String> existingEmails = new HashSet<>();
+        Set<String> existingStudentIds = new HashSet<>();
+        for (Student existing : mongoTemplate.find(query, Student.class)) {
+            existingEmails.add(existing.getEmail());
+            existingStudentIds.add(existing.getStudentId());
+        }
+
+        List<Pending> pending = new ArrayList<>(candidates.size());
+        for (Pending candidate : candidates) {
+            StudentExcelImportRequest studentData = candidate.row;
+            if (existingEmails.contains(candidate.student.getEmail())) {
+                progress.addError(studentData.getRowNumber(), studentData.getFullName(),
+                        studentData.getStudentId(), EMAIL_EXISTS);
+            } else if (existingStudentIds.contains(candidate.student.getStudentId())) {
+                progress.addError(studentData.getRowNumber(), studentData.getFullName(),
+                        studentData.getStudentId(), STUDENT_ID_EXISTS);
+            } else {
+                pending.add(candidate);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * 哈希初始密码并无序批量插入一批学生，插入成功的学生发送初始密码邮件
+     */
+    private void insertBatch(List<Pending> batch, String universityName, StudentImportProgress progress) {
+        List<String> passwords = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            passwords.add(PasswordUtil.generateRandomPassword(8));
+        }
+        List<String> hashes = passwordHashService.encryptAll(passwords);
+        List<Student> students = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Student student = batch.get(i).student;
+            student.setPassword(hashes.get(i));
+            students.add(student);
+        }
+
+        // 无序插入：个别文档失败（如并发导入造成的唯一索引冲突）不影响其余文档
+        Map<Integer, String> failed = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Student.class).insert(students).execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failed.put(error.getIndex(), error.getCode() == DUPLICATE_KEY_ERROR
+                        ? (error.getMessage().contains("email") ? EMAIL_EXISTS : STUDENT_ID_EXISTS)
+                        : "Import failed: " + error.getMessage());
+            }
+        }
+
+        int inserted = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            StudentExcelImportRequest studentData = batch.get(i).row;
+            String error = failed.get(i);
+            if (error != null) {
+                log.error("导入第{}行学生数据失败: {}", studentData.getRowNumber(), error);
+                progress.addError(studentData.getRowNumber(), studentData.getFullName(),
+                        studentData.getStudentId(), error);
+                continue;
+            }
+            inserted++;
+            Student student = students.get(i);
+            emailServices.sendEmailAsync(student.getEmail(), student.getFullName(), universityName,
+                    passwords.get(i), EmailServices.EmailType.STUDENT_INITIAL_PASSWORD, null, null);
+        }
+        if (universityName == null && inserted > 0) {
+            log.warn("找不到学校信息，初始密码邮件不含学校名称: jobId={}", progress.getJobId());
+        }
+        progress.addSuccess(inserted);
+        dashboardCounterService.increment(DashboardCounterService.STUDENTS, inserted);
+        resultCache.evictByPrefix(ResultCache.STUDENT_PREFIX);
+    }
+
+    private StudentExcelImportRequest toStudentData(ExcelRow row) {
+        // 列顺序：fullname, studentId, email, major, grade, studentType
+        StudentExcelImportRequest studentData = new StudentExcelImportRequest();
+        studentData.setRowNumber(row.getRowNumber());
+        studentData.setFullName(row.getString(0));
+        studentData.setStudentId(row.getString(1));
+        studentData.setEmail(row.getString(2));
+        studentData.setMajor(row.getString(3));
+        studentData.setGrade(row.getString(4));
+        studentData.setStudentType(row.getString(5));
+        return studentData;
+    }
+
+    private boolean isMasterType(String type) {
+        return type.contains("master") || type.contains("msc") || type.contains("ma")
+                || type.contains("graduate") || type.contains("硕士");
+    }
+
+    private boolean isPhdType(String type) {
+        return type.contains("phd") || type.contains("doctor") || type.contains("dphil") || type.contains("博士");
+    }
+
+    private boolean isBachelorType(String type) {
+        return type.isEmpty() || type.contains("bachelor") || type.contains("undergraduate")
+                || type.contains("bsc") || type.contains("ba") || type.contains("本科");
+    }
+
+    private void fail(StudentImportProgress progress, String message) {
+        progress.setStatus(StudentImportProgress.STATUS_FAILED);
+        progress.setMessage(message);
+        saveProgress(progress);
+    }
+
+    private void saveProgress(StudentImportProgress progress) {
+        try {
+            progress.setUpdatedAt(LocalDateTime.now());
+            redisTemplate.opsForValue().set(JOB_KEY_PREFIX + progress.getJobId(),
+                    objectMapper.writeValueAsString(progress), JOB_TTL_HOURS, TimeUnit.HOURS);
+        } catch (Exception e) {
+            log.warn("保存学生导入进度失败: jobId={}, error={}", progress.getJobId(), e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            log.warn("删除导入临时文件失败: {}", file);
+        }
+    }
+
+    private static class Pending {
+        private final StudentExcelImportRequest row;
+        private final Student student;
+
+        private Pending(StudentExcelImportRequest row, Student student) {
+            this.row = row;
+            this.student = student;
+        }
+    }
+}
@@ -11,6 +11,7 @@ package com.x.pelegant.service;
 import com.mongodb.client.MongoDatabase;
 import com.x.pelegant.common.Result;
 import com.x.pelegant.entity.*;
+import com.x.pelegant.exception.ServiceOverloadException;
 import com.x.pelegant.repository.*;
 import com.x.pelegant.dto.StudentProfileUpdateRequest;
 import com.x.pelegant.dto.LoginResponse;
@@ -19,6 +20,7 @@ import com.x.pelegant.util.JwtUtil;
 import com.x.pelegant.config.JwtConfig;
 
 import com.x.pelegant.util.PasswordUtil;
+import com.x.pelegant.util.ResultCache;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.springframework.beans.BeanUtils;
@@ -65,9 +67,6 @@ public class StudentService {
     @Autowired
     private StudentRepository studentRepository;
 
-    @Autowired
-    private StudentActivityRepository activityRepository;
-
     @Autowired
     private JobRepository jobRepository;
     @Autowired
@@ -107,12 +106,24 @@ public class StudentService {
     // 头像api路径，/api/files和文件名之间的部分。
     private String AVATAR_API_PATH = "/uploads/avatars/";
 
-    // 定义正则表达式常量
-    private static final String HONG_KONG_REGEX = "^(HK|香港|Hong\\s?Kong|HongKong|HKSAR|Hong\\s?Kong\\s?SAR|HK\\s?SAR|香港特别行政区|香港岛|Hong\\s?Kong,\\s?Hong\\s?Kong\\s?SAR|[A-Za-z\\s&]+,\\s?HK|[A-Za-z\\s&]+,\\s?Hong\\s?Kong\\s?SAR|Remote,\\s?HK|[A-Za-z\\s&]+,\\s?Hong\\s?Kong)$";
-
     @Autowired
     private CompanyRepository companyRepository;
 
+    @Autowired
+    private ApplicationStatsService applicationStatsService;
+
+    @Autowired
+    private ActivityRecorder activityRecorder;
+
+    @Autowired
+    private PasswordHashService passwordHashService;
+
+    @Autowired
+    private JobSearchService jobSearchService;
+
+    @Autowired
+    private ResultCache resultCache;
+
     @PostConstruct
     public void init() {
         RESUME_UPLOAD_PATH = uploadPath + "resumes/";
@@ -131,8 +142,8 @@ public class StudentService {
 
             // 根据邮箱查找学生
             Optional<Student> studentOpt = studentRepository.findByEmail(email);
-            String storedHash = studentOpt.get().getPassword();
-            boolean result = PasswordUtil.checkPassword(password, storedHash);
+            boolean result = studentOpt.isPresent() && passwordHashService.verifyAndUpgrade(
+                    password, studentOpt.get().getPassword(), Student.class, studentOpt.get().getId());
 
             if (studentOpt.isPresent()) {
                 Student student = studentOpt.get();
@@ -161,11 +172,8 @@ public class StudentService {
                             student.getHasCompletedProfile());
 
 
-                    StudentActivity activity = new StudentActivity();
-                    activity.setStudentId(student.getStudentId());
-                    activity.setActivityType("login");
-                    activity.setCreatedAt(LocalDateTime.now());
-                    activityRepository.save(activity);
+                    // 登录记录异步批量写入，不占用登录请求的数据库往返
+                    activityRecorder.record(student.getStudentId(), student.getSchoolId(), ActivityRecorder.TYPE_LOGIN);
 
                     log.info("学生登录成功: {} - {}", student.getFullName(), student.getStudentId());
                     return Result.success(loginResponse, "登录成功");
@@ -177,6 +185,8 @@ public class StudentService {
                 log.warn("学生登录失败: {} - 邮箱不存在", email);
                 return Result.fail("邮箱不存在");
             }
+        } catch (ServiceOverloadException e) {
+            throw e;
         } catch (Exception e) {
             log.error("学生登录过程中发生错误", e);
             return Result.fail("登录失败: " + e.getMessage());
@@ -243,6 +253,7 @@ public class StudentService {
             String fileUrl = RESUME_API_PATH + studentId + "/" + originalFilename;
             student.setResumePath(fileUrl);
             studentRepository.save(student);
+            activityRecorder.record(student.getStudentId(), student.getSchoolId(), ActivityRecorder.TYPE_RESUME_UPLOAD);
 
             // 异步调用Coze AI解析简历
             try {
@@ -471,6 +482,7 @@ public class StudentService {
 
             // 保存更新
             Student updatedStudent = studentRepository.save(student);
+            resultCache.evictByPrefix(ResultCache.STUDENT_PREFIX);
             updatedStudent.setPassword(null); // 不返回密码
 
             log.info("学生信息更新成功: {} (ID: {})", updatedStudent.getFullName(), studentId);
@@ -674,6 +686,7 @@ public class StudentService {
             // 添加到收藏列表
             student.getBookmarkedJobs().add(jobId);
             studentRepository.save(student);
+            activityRecorder.record(student.getStudentId(), student.getSchoolId(), ActivityRecorder.TYPE_BOOKMARK);
 
             log.info("职位收藏成功: 学生={}, 职位={}", student.getFullName(), jobTitle);
             return Result.success("收藏成功");
@@ -705,46 +718,9 @@ public class StudentService {
             Student student = studentOpt.get();
             List<String> bookmarkedJobIds = student.getBookmarkedJobs();
 
-            List<Job> bookmarkedJobs = new ArrayList<>();
-            Set<String> companyIds = new HashSet<>();
-
-            for (String jobId : bookmarkedJobIds) {
-                Optional<Job> jobOpt = jobRepository.findById(jobId);
-                if (jobOpt.isPresent()) {
-                    Job job = jobOpt.get();
-//                    job.setId(jobId);
-                    bookmarkedJobs.add(job);
-                    if (job.getCompanyId() != null) {
-                        companyIds.add(job.getCompanyId());
-                    }
-                } else {
-                    Optional<RecommendedWork> recommendedWorkOpt = recommendedWorkRepository.findByJobId(jobId);
-                    if (recommendedWorkOpt.isPresent()) {
-                        Job convertedJob = convertRecommendedWorkToJob(recommendedWorkOpt.get());
-//                        convertedJob.setId(jobId);
-                        bookmarkedJobs.add(convertedJob);
-                        if (convertedJob.getCompanyId() != null) {
-                            companyIds.add(convertedJob.getCompanyId());
-                        }
-                    } else {
-                        log.warn("收藏的职位ID不存在: {}", jobId);
-                    }
-                }
-            }
-
-            // 批量查询 company 的 logoImage
-            Query companyQuery = Query.query(Criteria.where("companyId").in(companyIds));
-            List<Company> companyList = mongoTemplate.find(companyQuery, Company.class);
-            Map<String, String> companyLogoMap = new HashMap<>();
-            for (Company company : companyList) {
-                companyLogoMap.put(company.getCompanyId(), company.getLogoImage());
-            }
-
-            // 设置每个 job 的 logoImage
-            for (Job job : bookmarkedJobs) {
-                String logoImage = companyLogoMap.get(job.getCompanyId());
-                job.setLogoImage(logoImage);
-            }
+            // 批量查询职位，职位表中不存在的再到推荐工作中查找，保持收藏顺序
+            List<Job> bookmarkedJobs = findJobsInOrder(bookmarkedJobIds, true);
+            fillCompanyLogos(bookmarkedJobs);
 
             // 按照职位的创建时间（或其他时间字段）进行排序，假设字段名为 createdAt
 //            bookmarkedJobs.sort(Comparator.comparing(Job::getCreatedAt).reversed());
@@ -763,6 +739,72 @@ public class StudentService {
 
 
 
+    /**
+     * 按给定 ID 顺序批量查询职位，每个集合只发一次 $in 查询
+     *
+     * @param ids                职位主键列表
+     * @param includeRecommended 职位表中不存在时是否按 jobId 查找推荐工作
+     */
+    private List<Job> findJobsInOrder(List<String> ids, boolean includeRecommended) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+
+        Map<String, Job> jobMap = new HashMap<>();
+        for (Job job : jobRepository.findByIdIn(distinctIds)) {
+            jobMap.put(job.getId(), job);
+        }
+
+        Map<String, RecommendedWork> recommendedMap = new HashMap<>();
+        if (includeRecommended && jobMap.size() < distinctIds.size()) {
+            List<String> missingIds = distinctIds.stream()
+                    .filter(id -> !jobMap.containsKey(id))
+                    .collect(Collectors.toList());
+            for (RecommendedWork work : recommendedWorkRepository.findByJobIdIn(missingIds)) {
+                recommendedMap.putIfAbsent(work.getJobId(), work);
+            }
+        }
+
+        List<Job> jobs = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Job job = jobMap.get(id);
+            if (job != null) {
+                jobs.add(job);
+                continue;
+            }
+            RecommendedWork work = recommendedMap.get(id);
+            if (work != null) {
+                jobs.add(convertRecommendedWorkToJob(work));
+            } else if (includeRecommended) {
+                log.warn("收藏的职位ID不存在: {}", id);
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * 批量查询企业 logo 并设置到职位上
+     */
+    private void fillCompanyLogos(List<Job> jobs) {
+        Set<String> companyIds = jobs.stream()
+                .map(Job::getCompanyId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (companyIds.isEmpty()) {
+            return;
+        }
+        Query companyQuery = Query.query(Criteria.where("companyId").in(companyIds));
+        companyQuery.fields().include("companyId").include("logoImage");
+        Map<String, String> companyLogoMap = new HashMap<>();
+        for (Company company : mongoTemplate.find(companyQuery, Company.class)) {
+            companyLogoMap.put(company.getCompanyId(), company.getLogoImage());
+        }
+        for (Job job : jobs) {
+            job.setLogoImage(companyLogoMap.get(job.getCompanyId()));
+        }
+    }
+
     /**
      * 将推荐工作转换为Job格式
      */
@@ -893,14 +935,19 @@ public class StudentService {
             if (studentId == null || jobIds == null || jobIds.isEmpty()) {
                 // 返回所有职位都未收藏
                 Map<String, Boolean> emptyMap = new HashMap<>();
-                for (String jobId : jobIds) {
-                    emptyMap.put(jobId, false);
+                if (jobIds != null) {
+                    for (String jobId : jobIds) {
+                        emptyMap.put(jobId, false);
+                    }
                 }
                 return Result.success(emptyMap);
             }
 
-            Optional<Student> studentOpt = studentRepository.findById(studentId);
-            if (!studentOpt.isPresent()) {
+            // 只取收藏列表字段
+            Query studentQuery = new Query(Criteria.where("_id").is(studentId));
+            studentQuery.fields().include("bookmarkedJobs");
+            Student student = mongoTemplate.findOne(studentQuery, Student.class);
+            if (student == null) {
                 // 学生不存在，全部返回false
                 Map<String, Boolean> emptyMap = new HashMap<>();
                 for (String jobId : jobIds) {
@@ -909,10 +956,10 @@ public class StudentService {
                 return Result.success(emptyMap);
             }
 
-            Student student = studentOpt.get();
-
             // 获取收藏的职位集合
-            Set<String> bookmarkedJobs = new HashSet<>(student.getBookmarkedJobs());
+            Set<String> bookmarkedJobs = student.getBookmarkedJobs() != null
+                    ? new HashSet<>(student.getBookmarkedJobs())
+                    : Collections.emptySet();
 
             // 构造返回结果
             Map<String, Boolean> resultMap = new HashMap<>();
@@ -986,6 +1033,8 @@ public class StudentService {
             // 添加到学生的申请列表
             student.getAppliedJobs().add(jobId);
             studentRepository.save(student);
+            applicationStatsService.recordApplication(student, job, 1);
+            activityRecorder.record(student.getStudentId(), student.getSchoolId(), ActivityRecorder.TYPE_APPLY);
 
             log.info("职位申请成功: 学生={}, 职位={}, 企业={}",
                     student.getFullName(), job.getJobTitle(), job.getCompanyName());
@@ -1018,34 +1067,9 @@ public class StudentService {
 
             Student student = studentOpt.get();
 
-            List<Job> appliedJobs = new ArrayList<>();
-            Set<String> companyIds = new HashSet<>();
-
-            for (String jobId : student.getAppliedJobs()) {
-                Optional<Job> jobOpt = jobRepository.findById(jobId);
-                if (jobOpt.isPresent()) {
-                    Job job = jobOpt.get();
-//                    job.setId(jobId); // 显式设置 ID
-                    appliedJobs.add(job);
-                    if (job.getCompanyId() != null) {
-                        companyIds.add(job.getCompanyId());
-                    }
-                }
-            }
-
-            // 批量查询所有 company 的 logoImage
-            Query companyQuery = Query.query(Criteria.where("companyId").in(companyIds));
-            List<Company> companyList = mongoTemplate.find(companyQuery, Company.class);
-            Map<String, String> companyLogoMap = new HashMap<>();
-            for (Company company : companyList) {
-                companyLogoMap.put(company.getCompanyId(), company.getLogoImage());
-            }
-
-            // 设置 job 的 logoImage
-            for (Job job : appliedJobs) {
-                String logoImage = companyLogoMap.get(job.getCompanyId());
-                job.setLogoImage(logoImage);
-            }
+            // 批量查询申请的职位，保持申请顺序
+            List<Job> appliedJobs = findJobsInOrder(student.getAppliedJobs(), false);
+            fillCompanyLogos(appliedJobs);
 
             // 倒序排列应用的职位记录
             Collections.reverse(appliedJobs);  // 将职位申请记录倒序排列
@@ -1458,87 +1482,18 @@ public class StudentService {
     /**
      * 搜索职位
      */
-    public Result<JobSearchResponse> searchJobs(String keyword, String employmentType) {
+    public Result<JobSearchResponse> searchJobs(String keyword, String employmentType, String cursor, Integer size) {
         try {
-            Query query = new Query();
-
-            // 构建搜索条件
-            if (StringUtils.hasText(keyword)) {
-                Criteria keywordCriteria = new Criteria().orOperator(
-                        Criteria.where("jobTitle").regex(keyword, "i"),
-                        Criteria.where("jobDescription").regex(keyword, "i"),
-                        Criteria.where("skillsRequired").regex(keyword, "i"),
-                        Criteria.where("companyName").regex(keyword, "i"));
-                query.addCriteria(keywordCriteria);
-            }
-
-            if (StringUtils.hasText(employmentType) && !"All".equals(employmentType)) {
-                // 根据回传的数字解析为对应的文本
-                List<String> translatedTypes = new ArrayList<>();
-
-                switch (employmentType) {
-                    case "1":
-                        translatedTypes.add("full-time-campus");
-                        break;
-                    case "0":
-                        // 包含 "full-time-campus" 和 "intern" 的合集
-                        translatedTypes.addAll(Arrays.asList("full-time-campus", "intern"));
-                        break;
-                    case "2":
-                        translatedTypes.add("intern");
-                        break;
-                    default:
-                        // 默认包含 "full-time-campus" 和 "intern"
-                        translatedTypes.addAll(Arrays.asList("full-time-campus", "intern"));
-                        break;
-                }
-
-                // 添加查询条件
-                if (!translatedTypes.isEmpty()) {
-                    query.addCriteria(Criteria.where("jobType").in(translatedTypes));
-                }
-            }
-
-            // 只查询状态为"opening"的职位
-            query.addCriteria(Criteria.where("status").is("opening"));
-
-            //只查询地址为香港的职位
-            query.addCriteria(Criteria.where("workLocation").regex(HONG_KONG_REGEX, "i"));
-
-
-            // 排序：按创建时间降序（最新的职位排在前面）
-            query.with(Sort.by(Sort.Order.desc("createdAt")));
-
-            // 执行查询
-            List<Job> jobs = mongoTemplate.find(query, Job.class);
-            long total = mongoTemplate.count(query, Job.class);
-
-            // 预加载所有相关公司数据，避免 N 次查询，提升效率
-            Set<String> companyIds = jobs.stream()
-                    .map(Job::getCompanyId)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toSet());
-
-            Query companyQuery = Query.query(Criteria.where("companyId").in(companyIds));
-            List<Company> companyList = mongoTemplate.find(companyQuery, Company.class);
-
-            // 建立 companyId -> logoImage 映射
-            Map<String, String> companyLogoMap = new HashMap<>();
-            for (Company company : companyList) {
-                companyLogoMap.put(company.getCompanyId(), company.getLogoImage());
-            }
-
-            // 设置 job 的 id 和 logoImage
-            for (Job job : jobs) {
-//                job.setId(job.getJobId()); // 修改id为jobId
-                String logoImage = companyLogoMap.get(job.getCompanyId());
-                job.setLogoImage(logoImage); // 设置 logoImage
-            }
-
-            log.info("搜索职位成功: 关键词={}, 就业类型={}, 结果数量={}", keyword, employmentType, jobs.size());
+            // 全文检索（文本索引 + 相关度排序 + 游标分页），关键词不再作为正则使用
+            JobSearchResponse response = jobSearchService.search(keyword, employmentType, cursor, size);
+            fillCompanyLogos(response.getList());
 
-            JobSearchResponse response = new JobSearchResponse(jobs, total);
+            log.info("搜索职位成功: 关键词={}, 就业类型={}, 结果数量={}, 总数={}",
+                    keyword, employmentType, response.getList().size(), response.getTotal());
             return Result.success(response, "搜索职位成功");
+        } catch (IllegalArgumentException e) {
+            log.warn("搜索职位参数错误: 关键词={}, 游标={}, 错误={}", keyword, cursor, e.getMessage());
+            return Result.fail(e.getMessage());
         } catch (Exception e) {
             log.error("搜索职位失败: 关键词={}, 就业类型={}, 错误={}", keyword, employmentType, e.getMessage());
             return Result.fail("搜索职位失败: " + e.getMessage());
@@ -1557,6 +1512,7 @@ public class StudentService {
                 if (student.getAppliedJobs().contains(jobId)) {
                     student.getAppliedJobs().remove(jobId); // 移除申请记录
                     studentRepository.save(student); // 保存修改
+                    applicationStatsService.recordApplication(student, jobRepository.findById(jobId).orElse(null), -1);
 
                     log.info("取消申请职位成功: 学生ID={}, 职位ID={}", studentId, jobId);
                     return Result.success("取消申请职位成功");
@@ -1581,7 +1537,7 @@ public class StudentService {
             Date now = new Date();
 
             Criteria criteria = Criteria.where("jobType").in("full-time-campus", "intern")
-                    .and("workLocation").regex(HONG_KONG_REGEX, "i")
+                    .and("isHongKong").is(true)
                     .orOperator(
                             Criteria.where("deadline").is(null),
                             Criteria.where("deadline").gt(now)   // ✅ 用 Date 类型
@@ -6,7 +6,9 @@ import com.x.pelegant.entity.Teacher;
 import com.x.pelegant.entity.School;
 import com.x.pelegant.entity.Job;
 import com.x.pelegant.entity.Company;
+import com.x.pelegant.entity.CompanyApplicationStat;
 import com.x.pelegant.entity.TRole;
+import com.x.pelegant.exception.ServiceOverloadException;
 import com.x.pelegant.repository.StudentRepository;
 import com.x.pelegant.repository.TeacherRepository;
 import com.x.pelegant.repository.SchoolRepository;
@@ -18,8 +20,6 @@ import com.x.pelegant.dto.StudentApplicationStatsResponse;
 import com.x.pelegant.dto.CompanyApplicationStatsResponse;
 import com.x.pelegant.dto.UpdateTeacherProfileRequest;
 import com.x.pelegant.dto.ChangePasswordRequest;
-import com.x.pelegant.dto.StudentExcelImportRequest;
-import com.x.pelegant.dto.StudentBatchImportResponse;
 import com.x.pelegant.dto.RoleCreateRequest;
 import com.x.pelegant.dto.RoleUpdateRequest;
 import com.x.pelegant.dto.CreateTeacherRequest;
@@ -28,14 +28,16 @@ import com.x.pelegant.util.EducationSystemCalculator;
 import com.x.pelegant.util.JwtUtil;
 import com.x.pelegant.config.JwtConfig;
 import com.x.pelegant.util.PasswordUtil;
+import com.x.pelegant.util.ResultCache;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -48,12 +50,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.time.Year;
-import java.io.InputStream;
 import java.io.IOException;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -114,10 +112,19 @@ public class TeacherService {
 
     @Autowired
     private StringRedisTemplate redisTemplate;
-    private static final String RESET_KEY_PREFIX = "teacher_reset_token:";
 
-    // 定义正则表达式常量
-    private static final String HONG_KONG_REGEX = "^(HK|香港|Hong\\s?Kong|HongKong|HKSAR|Hong\\s?Kong\\s?SAR|HK\\s?SAR|香港特别行政区|香港岛|Hong\\s?Kong,\\s?Hong\\s?Kong\\s?SAR|[A-Za-z\\s&]+,\\s?HK|[A-Za-z\\s&]+,\\s?Hong\\s?Kong\\s?SAR|Remote,\\s?HK|[A-Za-z\\s&]+,\\s?Hong\\s?Kong)$";
+    @Autowired
+    private DashboardCounterService dashboardCounterService;
+
+    @Autowired
+    private ResultCache resultCache;
+
+    @Autowired
+    private ApplicationStatsService applicationStatsService;
+
+    @Autowired
+    private PasswordHashService passwordHashService;
+    private static final String RESET_KEY_PREFIX = "teacher_reset_token:";
 
 
     @PostConstruct
@@ -137,8 +144,8 @@ public class TeacherService {
             // 根据邮箱查找教师
 
             Optional<Teacher> teacherOpt = teacherRepository.findByEmail(email);
-            String storedHash = teacherOpt.get().getPassword();
-            boolean result = PasswordUtil.checkPassword(password, storedHash);
+            boolean result = teacherOpt.isPresent() && passwordHashService.verifyAndUpgrade(
+                    password, teacherOpt.get().getPassword(), Teacher.class, teacherOpt.get().getId());
 
 
 
@@ -170,6 +177,8 @@ public class TeacherService {
                 log.warn("教师登录失败: {} - 邮箱或密码错误", email);
                 return Result.fail("The email or password is incorrect");
             }
+        } catch (ServiceOverloadException e) {
+            throw e;
         } catch (Exception e) {
             log.error("教师登录过程中发生错误", e);
             return Result.fail("登录失败: " + e.getMessage());
@@ -230,6 +239,8 @@ public class TeacherService {
             student.setIsPhd(request.getIsPhd());
 
             Student savedStudent = studentRepository.save(student);
+            dashboardCounterService.increment(DashboardCounterService.STUDENTS, 1);
+            resultCache.evictByPrefix(ResultCache.STUDENT_PREFIX);
             log.info("学生添加成功: {} - {}", savedStudent.getFullName(), savedStudent.getStudentId());
 
             // 异步发送初始密码邮件
@@ -386,6 +397,7 @@ public class TeacherService {
             student.setIsMaster(request.getIsMaster());
             student.setIsPhd(request.getIsPhd());
             Student updatedStudent = studentRepository.save(student);
+            resultCache.evictByPrefix(ResultCache.STUDENT_PREFIX);
 
             // 清除密码信息
             updatedStudent.setPassword(null);
@@ -430,6 +442,8 @@ public class TeacherService {
 
             // 硬删除：直接从数据库中删除记录
             studentRepository.delete(student);
+            dashboardCounterService.increment(DashboardCounterService.STUDENTS, -1);
+            resultCache.evictByPrefix(ResultCache.STUDENT_PREFIX);
 
             log.info("学生删除成功: {} - {}", student.getFullName(), student.getStudentId());
             return Result.success("The student has successfully deleted.", "The student records have been completely deleted from the system");
@@ -869,74 +883,54 @@ public class TeacherService {
             String schoolId = teacher.getSchoolId();
             log.info("教师 {} 所在学校 ID: {}", teacherId, schoolId);
 
-            List<Student> students = studentRepository.findBySchoolId(schoolId);
-            log.info("找到 {} 个学生", students.size());
+            // 读取物化的申请统计（按企业 × 职位类型）
+            List<CompanyApplicationStat> schoolStats = applicationStatsService.getSchoolStats(schoolId);
+            List<String> companyIds = schoolStats.stream()
+                    .map(CompanyApplicationStat::getCompanyId)
+                    .distinct()
+                    .collect(Collectors.toList());
 
-            List<Job> jobs = jobRepository.findAll();
-            Map<String, Job> jobMap = jobs.stream()
-                    .collect(Collectors.toMap(
-                            Job::getJobId,
-                            Function.identity(),
-                            (existing, duplicate) -> {
-                                log.warn("Duplicate jobId detected: {}, using the first occurrence", existing.getJobId());
-                                return existing;
-                            }
-                    ));
-            log.info("找到 {} 个职位", jobs.size());
+            Map<String, Company> companyMap = companyRepository.findByCompanyIdIn(companyIds).stream()
+                    .collect(Collectors.toMap(Company::getCompanyId, Function.identity(), (a, b) -> a));
+            log.info("本校学生申请涉及 {} 个企业", companyMap.size());
 
-            List<Company> companies = companyRepository.findAll();
-            Map<String, Company> companyMap = companies.stream()
-                    .collect(Collectors.toMap(Company::getCompanyId, Function.identity()));
-            log.info("找到 {} 个企业", companies.size());
+            // 各企业发布的职位数
+            Map<String, Long> jobCountMap = new HashMap<>();
+            if (!companyMap.isEmpty()) {
+                Aggregation jobAgg = Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("companyId").in(companyMap.keySet())),
+                        Aggregation.group("companyId").count().as("count")
+                );
+                for (Document doc : mongoTemplate.aggregate(jobAgg, Job.class, Document.class).getMappedResults()) {
+                    jobCountMap.put(doc.getString("_id"), ((Number) doc.get("count")).longValue());
+                }
+            }
 
             final String TYPE_INTERNSHIP = "intern";
             final String TYPE_FULLTIME_CAMPUS = "full-time-campus";
 
             Map<String, CompanyApplicationStatsResponse.CompanyStats> companyStatsMap = new HashMap<>();
-            for (Company company : companies) {
-                companyStatsMap.put(
-                        company.getCompanyId(),
-                        new CompanyApplicationStatsResponse.CompanyStats(
-                                0, company.getCompanyName(), company.getCompanyId(),
-                                0L, 0L, 0L, 0L
-                        )
-                );
-            }
-
-            for (Job job : jobs) {
-                CompanyApplicationStatsResponse.CompanyStats stats = companyStatsMap.get(job.getCompanyId());
-                if (stats != null) {
-                    stats.setTotalJobs(stats.getTotalJobs() + 1);
-                } else {
-                    log.warn("职位 {} 的公司 {} 不存在于公司表，跳过职位数统计", job.getJobId(), job.getCompanyId());
+            for (CompanyApplicationStat stat : schoolStats) {
+                Company company = companyMap.get(stat.getCompanyId());
+                if (company == null) {
+                    log.warn("申请统计中的公司 {} 不存在于公司表，跳过", stat.getCompanyId());
+                    continue;
                 }
-            }
-
-            for (Student student : students) {
-                List<String> appliedJobs = student.getAppliedJobs();
-                if (appliedJobs == null || appliedJobs.isEmpty()) continue;
-
-                for (String jobId : appliedJobs) {
-                    Job job = jobMap.get(jobId);
-                    if (job == null) {
-                        log.warn("学生 {} 申请的职位 {} 不存在，跳过", student.getId(), jobId);
-                        continue;
-                    }
-
-                    String companyId = job.getCompanyId();
-                    CompanyApplicationStatsResponse.CompanyStats stats = companyStatsMap.get(companyId);
-                    if (stats == null) {
-                        log.warn("职位 {} 对应的公司 {} 不存在，跳过", jobId, companyId);
-                        continue;
-                    }
 
-                    if (TYPE_INTERNSHIP.equals(job.getJobType())) {
-                        stats.setInternshipApplications(stats.getInternshipApplications() + 1);
-                    } else if (TYPE_FULLTIME_CAMPUS.equals(job.getJobType())) {
-                        stats.setFullTimeApplications(stats.getFullTimeApplications() + 1);
-                    }
-                    stats.setTotalApplications(stats.getTotalApplications() + 1);
+                CompanyApplicationStatsResponse.CompanyStats stats = companyStatsMap.computeIfAbsent(
+                        company.getCompanyId(),
+                        k -> new CompanyApplicationStatsResponse.CompanyStats(
+                                0, company.getCompanyName(), company.getCompanyId(),
+                                0L, 0L, 0L, jobCountMap.getOrDefault(company.getCompanyId(), 0L)
+                        ));
+
+                long count = stat.getCount() != null ? stat.getCount() : 0L;
+                if (TYPE_INTERNSHIP.equals(stat.getJobType())) {
+                    stats.setInternshipApplications(stats.getInternshipApplications() + count);
+                } else if (TYPE_FULLTIME_CAMPUS.equals(stat.getJobType())) {
+                    stats.setFullTimeApplications(stats.getFullTimeApplications() + count);
                 }
+                stats.setTotalApplications(stats.getTotalApplications() + count);
             }
 
             List<CompanyApplicationStatsResponse.CompanyStats> companyStatsList = companyStatsMap.values().stream()
@@ -1071,350 +1065,6 @@ public class TeacherService {
         }
     }
 
-    /**
-     * 批量导入学生Excel文件
-     */
-    /**
-     * 批量导入学生Excel文件
-     */
-    public Result<StudentBatchImportResponse> importStudentsFromExcel(String teacherId, MultipartFile file) {
-        try {
-            log.info("教师批量导入学生Excel: teacherId={}, fileName={}", teacherId, file.getOriginalFilename());
-
-            // 验证教师是否存在
-            Optional<Teacher> teacherOpt = teacherRepository.findByTeacherId(teacherId);
-            if (!teacherOpt.isPresent()) {
-                return Result.fail("Teacher information does not exist");
-            }
-
-            Teacher teacher = teacherOpt.get();
-            String schoolId = teacher.getSchoolId();
-
-            if (schoolId == null || schoolId.trim().isEmpty()) {
-                return Result.fail("The teacher is not associated with a school. Please contact the administrator");
-            }
-
-            // 验证文件类型
-            if (!isExcelFile(file)) {
-                return Result.fail("Please upload an Excel file (in .xlsx or .xls format)");
-            }
-
-            // 解析Excel文件
-            List<StudentExcelImportRequest> studentDataList = parseExcelFile(file);
-
-            if (studentDataList.isEmpty()) {
-                return Result.fail("There is no valid student data in the Excel file");
-            }
-
-            // 批量导入学生
-            StudentBatchImportResponse response = batchImportStudents(studentDataList, schoolId);
-
-            log.info("Excel导入完成: {}", response.getSummary());
-
-            // 检查是否有重复学生或其他错误
-            if (response.hasErrors()) {
-                // 检查是否有重复学生的错误
-                boolean hasDuplicateErrors = response.getErrors().stream()
-                        .anyMatch(error -> error.getErrorMessage().contains("already exist"));
-
-                if (hasDuplicateErrors) {
-                    // 构建详细的重复信息
-                    StringBuilder duplicateInfo = new StringBuilder("Import failed: There is duplicate student information。");
-                    response.getErrors().stream()
-                            .filter(error -> error.getErrorMessage().contains("already exist"))
-                            .forEach(error -> duplicateInfo.append(String.format(" Line%d：%s(%s) - %s;",
-                                    error.getRowNumber(), error.getFullName(), error.getStudentId(),
-                                    error.getErrorMessage())));
-
-                    return Result.fail(duplicateInfo.toString());
-                } else {
-                    return Result.fail("Partial import failed：" + response.getSummary());
-                }
-            }
-
-            return Result.success(response, "Excel import completed");
-
-        } catch (Exception e) {
-            log.error("ExcelImport failed", e);
-            return Result.fail("Excel import failed: " + e.getMessage());
-        }
-    }
-
-    /**
-     * 验证是否为Excel文件
-     */
-    private boolean isExcelFile(MultipartFile file) {
-        String fileName = file.getOriginalFilename();
-        return fileName != null && (fileName.endsWith(".xlsx") || fileName.endsWith(".xls"));
-    }
-
-    /**
-     * 解析Excel文件
-     */
-    private List<StudentExcelImportRequest> parseExcelFile(MultipartFile file) throws IOException {
-        List<StudentExcelImportRequest> studentDataList = new ArrayList<>();
-
-        try (InputStream inputStream = file.getInputStream()) {
-            Workbook workbook = null;
-
-            // 根据文件扩展名创建相应的工作簿
-            String fileName = file.getOriginalFilename();
-            if (fileName != null && fileName.endsWith(".xlsx")) {
-                workbook = new XSSFWorkbook(inputStream);
-            } else if (fileName != null && fileName.endsWith(".xls")) {
-                workbook = new HSSFWorkbook(inputStream);
-            }
-
-            if (workbook == null) {
-                throw new IOException("无法解析Excel文件");
-            }
-
-            // 循环所有工作簿（Sheets）
-            for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
-                Sheet sheet = workbook.getSheetAt(sheetIndex);
-
-                // 跳过标题行，从第二行开始读取数据
-                for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                    Row row = sheet.getRow(i);
-                    if (row == null)
-                        continue;
-
-                    StudentExcelImportRequest studentData = parseRowToStudentData(row, i + 1);
-                    if (studentData != null) {
-                        studentDataList.add(studentData);
-                    }
-                }
-            }
-
-            workbook.close();
-        }
-
-        return studentDataList;
-    }
-
-    /**
-     * 解析Excel行数据为学生数据对象
-     */
-    private StudentExcelImportRequest parseRowToStudentData(Row row, int rowNumber) {
-        try {
-            StudentExcelImportRequest studentData = new StudentExcelImportRequest();
-            studentData.setRowNumber(rowNumber);
-
-            // 读取各列数据 (fullname, studentId, email, major, grade, studentType)
-            Cell fullNameCell = row.getCell(0);
-            Cell studentIdCell = row.getCell(1);
-            Cell emailCell = row.getCell(2);
-            Cell majorCell = row.getCell(3);
-            Cell gradeCell = row.getCell(4);
-            Cell studentTypeCell = row.getCell(5);
-
-            studentData.setFullName(getCellStringValue(fullNameCell));
-            studentData.setStudentId(getCellStringValue(studentIdCell));
-            studentData.setEmail(getCellStringValue(emailCell));
-            studentData.setMajor(getCellStringValue(majorCell));
-            studentData.setGrade(getCellStringValue(gradeCell));
-            studentData.setStudentType(getCellStringValue(studentTypeCell));
-
-            return studentData;
-
-        } catch (Exception e) {
-            log.warn("解析第{}行数据失败: {}", rowNumber, e.getMessage());
-            return null;
-        }
-    }
-
-    /**
-     * 获取单元格字符串值
-     */
-    private String getCellStringValue(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue().trim();
-            case NUMERIC:
-                // 如果是数字，转换为字符串
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    // 处理整数，避免小数点
-                    double numericValue = cell.getNumericCellValue();
-                    if (numericValue == (long) numericValue) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
-                    }
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return null;
-        }
-    }
-
-    /**
-     * 批量导入学生数据
-     */
-    private StudentBatchImportResponse batchImportStudents(List<StudentExcelImportRequest> studentDataList,
-                                                           String schoolId) {
-        StudentBatchImportResponse response = new StudentBatchImportResponse();
-        response.setTotalRows(studentDataList.size());
-
-        for (StudentExcelImportRequest studentData : studentDataList) {
-            try {
-                if (!studentData.isValid()) {
-                    response.addError(studentData.getRowNumber(),
-                            studentData.getFullName(),
-                            null,
-                            studentData.getValidationError());
-                    continue;
-                }
-
-                // 邮箱查重（全局唯一）
-                if (studentRepository.findByEmail(studentData.getEmail()).isPresent()) {
-                    response.addError(studentData.getRowNumber(),
-                            studentData.getFullName(),
-                            studentData.getStudentId(),
-                            "The mailbox already exists.");
-                    continue;
-                }
-
-                // Excel 里传入的原始学号
-                String rawStudentId = studentData.getStudentId();
-                if (rawStudentId == null || rawStudentId.trim().isEmpty()) {
-                    response.addError(studentData.getRowNumber(),
-                            studentData.getFullName(),
-                            null,
-                            "The student number cannot be empty");
-                    continue;
-                }
-
-                // 存库用拼接后的学号
-                String dbStudentId = schoolId + "_" + rawStudentId.trim();
-
-                // 查重（本校内唯一）
-                if (studentRepository.findByStudentIdAndSchoolId(dbStudentId, schoolId).isPresent()) {
-                    response.addError(studentData.getRowNumber(),
-                            studentData.getFullName(),
-                            rawStudentId,
-                            "This student number already exists in our school");
-                    continue;
-                }
-
-                // 入学年份校验
-                String year = studentData.getGrade();
-                if (year == null || !year.matches("\\d{4}")) {
-                    response.addError(studentData.getRowNumber(),
-                            studentData.getFullName(),
-                            rawStudentId,
-                            "The year of enrollment is invalid.");
-                    continue;
-                }
-
-                // 处理 studentType
-                String studentType = (studentData.getStudentType() != null) ? studentData.getStudentType().toLowerCase().trim() : "";
-                boolean isMaster = false;
-                boolean isPhd = false;
-
-                if (studentType.contains("master") || studentType.contains("masters") || studentType.contains("msc") || studentType.contains("ma") || studentType.contains("graduate") || studentType.contains("硕士")) {
-                    isMaster = true;
-                } else if (studentType.contains("phd") || studentType.contains("doctor") || studentType.contains("doctoral") || studentType.contains("dphil") || studentType.contains("doctorate") || studentType.contains("博士")) {
-                    isPhd = true;
-                } else if (studentType.contains("bachelor") || studentType.contains("undergraduate") || studentType.contains("bsc") || studentType.contains("ba") || studentType.contains("本科") || studentType.isEmpty()) {
-                    // 默认本科
-                } else {
-                    // 未知类型，可以默认本科或报错
-                    response.addError(studentData.getRowNumber(),
-                            studentData.getFullName(),
-                            rawStudentId,
-                            "Invalid student type: " + studentData.getStudentType());
-                    continue;
-                }
-
-                // 确保不能同时为 master 和 phd
-                if (isMaster && isPhd) {
-                    response.addError(studentData.getRowNumber(),
-                            studentData.getFullName(),
-                            rawStudentId,
-                            "Student type cannot be both Master and PhD");
-                    continue;
-                }
-
-                // 自动生成初始密码
-                String initialPassword = PasswordUtil.generateRandomPassword(8);
-                String passwordHash = PasswordUtil.encryptPassword(initialPassword);
-
-                Student student = new Student();
-                student.setFullName(studentData.getFullName().trim());
-                student.setStudentId(dbStudentId);        // 存拼接后的学号
-//                student.setRawStudentId(rawStudentId);    // 如果你想保留原始学号，需要在表里加字段
-                student.setEmail(studentData.getEmail().trim());
-                student.setMajor(studentData.getMajor().trim());
-                student.setEnrollmentYear(Integer.valueOf(year));
-                student.setPassword(passwordHash);
-                student.setSchoolId(schoolId);
-                student.setStatus("active");
-                student.setIsMaster(isMaster);
-                student.setIsPhd(isPhd);
-
-                studentRepository.save(student);
-                response.incrementSuccess();
-
-                // 异步发送初始密码邮件
-                sendInitialPasswordEmail(student, schoolId, initialPassword);
-
-                log.info("成功导入学生: {} - {}", student.getFullName(), student.getStudentId());
-
-            } catch (Exception e) {
-                log.error("导入第{}行学生数据失败: {}", studentData.getRowNumber(), e.getMessage());
-                response.addError(studentData.getRowNumber(),
-                        studentData.getFullName(),
-                        studentData.getStudentId(),
-                        "Import failed: " + e.getMessage());
-            }
-        }
-
-        return response;
-    }
-
-    /**
-     * 发送学生初始密码邮件
-     */
-    @Async("emailExecutor")
-    public void sendInitialPasswordEmail(Student student, String schoolId, String initialPassword) {
-        try {
-            Optional<School> schoolOpt = schoolRepository.findBySchoolId(schoolId);
-            if (!schoolOpt.isPresent()) {
-                log.warn("发送学生密码邮件失败：找不到学校信息 - schoolId: {}", schoolId);
-                return;
-            }
-
-            School school = schoolOpt.get();
-
-            boolean emailSent = emailServices.sendEmail(
-                    student.getEmail(),
-                    student.getFullName(),
-                    school.getUniversityName(),
-                    initialPassword,
-                    EmailServices.EmailType.STUDENT_INITIAL_PASSWORD,
-                    null,
-                    null
-            );
-
-            if (emailSent) {
-                log.info("学生初始密码邮件发送成功: {} - {}", student.getFullName(), student.getEmail());
-            } else {
-                log.warn("学生初始密码邮件发送失败: {} - {}, 密码: {}",
-                        student.getFullName(), student.getEmail(), initialPassword);
-            }
-        } catch (Exception e) {
-            log.error("发送学生初始密码邮件异常: {} - {}", student.getFullName(), e.getMessage(), e);
-        }
-    }
     // ==================== 角色权限管理方法 ====================
 
     /**
@@ -1801,7 +1451,7 @@ public class TeacherService {
             jobQuery.addCriteria(Criteria.where("jobType").in("full-time-campus", "intern"));
 
             // 添加地区条件
-            jobQuery.addCriteria(Criteria.where("workLocation").regex(HONG_KONG_REGEX, "i"));
+            jobQuery.addCriteria(Criteria.where("isHongKong").is(true));
 
             // 执行查询，获取职位列表
             List<Job> jobs = mongoTemplate.find(jobQuery, Job.class);
@@ -0,0 +1,353 @@
+package com.x.pelegant.service.company;
+
+import com.x.pelegant.entity.Company;
+import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 公司名解析
+ * 爬虫导入共用的公司名 → 公司ID 索引：原始名称与规范化名称的哈希表、按规范化名称排序的前缀索引、
+ * 规范化名称的三元组倒排索引（模糊匹配候选）。单条解析只与名称长度相关，不再遍历全部公司。
+ * 首次使用时从 company 集合加载，各写入公司的入口保存成功后通过 register 增量更新，定时全量重建兜底同步
+ */
+@Component
+public class CompanyNameResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompanyNameResolver.class);
+
+    /** 三元组倒排列表超过该长度视为停用（如 "lim"、"ted"），不参与候选召回 */
+    private static final int MAX_POSTINGS = 2000;
+    /** 按共享三元组数取前 N 个候选计算相似度 */
+    private static final int MAX_FUZZY_CANDIDATES = 32;
+
+    public enum MatchType {
+        /** 原始名称完全一致 */
+        EXACT,
+        /** 规范化名称一致 */
+        NORMALIZED,
+        /** 已有公司的规范化名称以该名称开头 */
+        PREFIX,
+        /** Jaro-Winkler 相似度达到阈值 */
+        FUZZY
+    }
+
+    /**
+     * 解析结果
+     */
+    public static class Match {
+        private final String companyId;
+        private final String companyName;
+        private final MatchType type;
+        /** 置信度 0~1：EXACT / NORMALIZED 为 1，PREFIX 为名称长度占比，FUZZY 为相似度 */
+        private final double confidence;
+
+        public Match(String companyId, String companyName, MatchType type, double confidence) {
+            this.companyId = companyId;
+            this.companyName = companyName;
+            this.type = type;
+            this.confidence = confidence;
+        }
+
+        public String getCompanyId() { return companyId; }
+        public String getCompanyName() { return companyName; }
+        public MatchType getType() { return type; }
+        public double getConfidence() { return confidence; }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /** 模糊匹配的相似度阈值 */
+    @Value("${pelegant.company-resolver.fuzzy-threshold:0.9}")
+    private double fuzzyThreshold;
+
+    private final JaroWinklerSimilarity similarity = new JaroWinklerSimilarity();
+
+    /** 当前索引，首次使用时加载，reload 时整体替换 */
+    private volatile Index index;
+
+    /**
+     * 解析公司名：原始名称 → 规范化名称 → 模糊匹配，均未命中返回 null
+     */
+    public Match resolve(String name) {
+        return resolve(name, false);
+    }
+
+    /**
+     * 解析公司名：原始名称 → 规范化名称 → 前缀匹配（取字典序最靠前的已有公司），均未命中返回 null
+     */
+    public Match resolvePrefix(String name) {
+        return resolve(name, true);
+    }
+
+    /**
+     * 公司保存成功后更新索引：新公司加入，已存在的公司ID名称变化时替换旧名称
+     */
+    public synchronized void register(Company company) {
+        if (company == null || company.getCompanyId() == null || company.getCompanyName() == null) {
+            return;
+        }
+        Index current = index;
+        if (current != null) {
+            current.add(company.getCompanyId(), company.getCompanyName());
+        }
+    }
+
+    public void registerAll(Collection<Company> companies) {
+        for (Company company : companies) {
+            register(company);
+        }
+    }
+
+    /**
+     * 定时全量重建，同步直接写库（未经 register）的公司；尚未使用过时不加载
+     */
+    @Scheduled(fixedDelayString = "${pelegant.company-resolver.refresh-ms:600000}",
+            initialDelayString = "${pelegant.company-resolver.refresh-ms:600000}")
+    public void refresh() {
+        if (index != null) {
+            reload();
+        }
+    }
+
+    /**
+     * 从 company 集合重建索引
+     */
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        Query query = new Query();
+        query.fields().include("companyId").include("companyName");
+        Index rebuilt = new Index();
+        for (Company company : mongoTemplate.find(query, Company.class)) {
+            if (company.getCompanyId() != null && company.getCompanyName() != null) {
+                rebuilt.add(company.getCompanyId(), company.getCompanyName());
+            }
+        }
+        index = rebuilt;
+        logger.info("公司名索引已加载: {} 家公司, 耗时 {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 规范化公司名：转小写，非字母数字字符视为分隔符，ltd / co / corp 统一为全称，"limited company" 合并为 "limited"
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(name.length() + 8);
+        StringBuilder token = new StringBuilder();
+        String previous = null;
+        for (int i = 0, n = name.length(); i <= n; i++) {
+            char c = i < n ? name.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+                continue;
+            }
+            if (token.length() == 0) {
+                continue;
+            }
+            String word = canonicalToken(token.toString());
+            token.setLength(0);
+            if ("company".equals(word) && "limited".equals(previous)) {
+                continue;
+            }
+            if (out.length() > 0) {
+                out.append(' ');
+            }
+            out.append(word);
+            previous = word;
+        }
+        return out.toString();
+    }
+
+    private static String canonicalToken(String token) {
+        switch (token) {
+            case "ltd":
+                return "limited";
+            case "co":
+                return "company";
+            case "corp":
+                return "corporation";
+            default:
+                return token;
+        }
+    }
+
+    private Match resolve(String name, boolean prefix) {
+        if (name == null || name.trim().isEmpty()) {
+            return null;
+        }
+        Index current = index;
+        if (current == null) {
+            synchronized (this) {
+                if (index == null) {
+                    reload();
+                }
+                current = index;
+            }
+        }
+        String trimmed = name.trim();
+        String normalized = normalize(trimmed);
+        return prefix ? current.findPrefix(trimmed, normalized) : current.findFuzzy(trimmed, normalized);
+    }
+
+    private static final class Entry {
+        private final String companyId;
+        private final String companyName;
+        private final String normalizedName;
+
+        private Entry(String companyId, String companyName, String normalizedName) {
+            this.companyId = companyId;
+            this.companyName = companyName;
+            this.normalizedName = normalizedName;
+        }
+    }
+
+    /**
+     * 名称索引：写入（add）由外层 synchronized 串行化，读写之间用读写锁隔离
+     */
+    private final class Index {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Entry> byId = new HashMap<>();
+        private final Map<String, Entry> byName = new HashMap<>();
+        private final Map<String, Entry> byNormalized = new HashMap<>();
+        /** 规范化名称有序表，前缀查询取 ceiling 后检查是否以查询串开头 */
+        private final TreeMap<String, Entry> sorted = new TreeMap<>();
+        private final Map<String, List<Entry>> trigrams = new HashMap<>();
+
+        void add(String companyId, String companyName) {
+            lock.writeLock().lock();
+            try {
+                String trimmed = companyName.trim();
+                Entry previous = byId.get(companyId);
+                if (previous != null) {
+                    if (previous.companyName.equals(trimmed)) {
+                        return;
+                    }
+                    remove(previous);
+                }
+                String normalized = normalize(trimmed);
+                Entry entry = new Entry(companyId, trimmed, normalized);
+                byId.put(companyId, entry);
+                byName.putIfAbsent(trimmed, entry);
+                if (normalized.isEmpty()) {
+                    return;
+                }
+                byNormalized.putIfAbsent(normalized, entry);
+                sorted.putIfAbsent(normalized, entry);
+                for (String gram : trigramsOf(normalized)) {
+                    trigrams.computeIfAbsent(gram, k -> new ArrayList<>(2)).add(entry);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void remove(Entry entry) {
+            byName.remove(entry.companyName, entry);
+            if (entry.normalizedName.isEmpty()) {
+                return;
+            }
+            byNormalized.remove(entry.normalizedName, entry);
+            sorted.remove(entry.normalizedName, entry);
+            for (String gram : trigramsOf(entry.normalizedName)) {
+                List<Entry> postings = trigrams.get(gram);
+                if (postings != null && postings.remove(entry) && postings.isEmpty()) {
+                    trigrams.remove(gram);
+                }
+            }
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        Match findPrefix(String name, String normalized) {
+            lock.readLock().lock();
+            try {
+                Match exact = findExact(name, normalized);
+                if (exact != null || normalized.isEmpty()) {
+                    return exact;
+                }
+                Map.Entry<String, Entry> ceiling = sorted.ceilingEntry(normalized);
+                if (ceiling == null || !ceiling.getKey().startsWith(normalized)) {
+                    return null;
+                }
+                Entry entry = ceiling.getValue();
+                return new Match(entry.companyId, entry.companyName, MatchType.PREFIX,
+                        (double) normalized.length() / entry.normalizedName.length());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Match findFuzzy(String name, String normalized) {
+            lock.readLock().lock();
+            try {
+                Match exact = findExact(name, normalized);
+                if (exact != null || normalized.isEmpty()) {
+                    return exact;
+                }
+                // 按共享三元组数召回候选，只对前 MAX_FUZZY_CANDIDATES 个计算相似度
+                Map<Entry, Integer> shared = new HashMap<>();
+                for (String gram : trigramsOf(normalized)) {
+                    List<Entry> postings = trigrams.get(gram);
+                    if (postings == null || postings.size() > MAX_POSTINGS) {
+                        continue;
+                    }
+                    for (Entry entry : postings) {
+                        shared.merge(entry, 1, Integer::sum);
+                    }
+                }
+                List<Map.Entry<Entry, Integer>> candidates = new ArrayList<>(shared.entrySet());
+                candidates.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+
+                Entry best = null;
+                double bestScore = fuzzyThreshold;
+                for (int i = 0; i < candidates.size() && i < MAX_FUZZY_CANDIDATES; i++) {
+                    Entry entry = candidates.get(i).getKey();
+                    double score = similarity.apply(entry.normalizedName, normalized);
+                    if (score >= bestScore && (best == null || score > bestScore)) {
+                        best = entry;
+                        bestScore = score;
+                    }
+                }
+                return best == null ? null : new Match(best.companyId, best.companyName, MatchType.FUZZY, bestScore);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private Match findExact(String name, String normalized) {
+            Entry entry = byName.get(name);
+            if (entry != null) {
+                return new Match(entry.companyId, entry.companyName, MatchType.EXACT, 1.0);
+            }
+            entry = normalized.isEmpty() ? null : byNormalized.get(normalized);
+            return entry == null ? null : new Match(entry.companyId, entry.companyName, MatchType.NORMALIZED, 1.0);
+        }
+    }
+
+    /**
+     * 首尾补空格后的字符三元组（去重）
+     */
+    private static Set<String> trigramsOf(String normalized) {
+        String padded = " " + normalized + " ";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
@@ -4,17 +4,32 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.x.pelegant.entity.Company;
 import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+/**
+ * 公司行业分类
+ * 按规则顺序取第一条命中的规则：关键词包含于公司名 / 描述，或公司名 / 描述与关键词、sector、industry、subIndustry
+ * 的 Jaro-Winkler 相似度达到阈值。
+ * 规则在加载时一次性归一化并建立索引：关键词按前两个字符建倒排索引，文本扫描一遍即可找到包含的关键词；
+ * 模糊匹配词条按长度分桶，并用字符重合数估算 Jaro 上界，只对可能达到阈值的词条计算相似度。
+ * 公司名的匹配结果按归一化名称缓存，描述只需检查排在公司名结果之前的规则
+ */
 @Component
 public class IndustryClassifier {
 
+    private static final Logger logger = LoggerFactory.getLogger(IndustryClassifier.class);
+
     /* ======================= Model ======================= */
     public static class Rule {
         private String sector;
@@ -54,102 +69,254 @@ public class IndustryClassifier {
         }
     }
 
+    /** 归一化后的关键词或模糊匹配词条，ruleIndex 为包含它的第一条规则 */
+    private static class Term {
+        private final String text;
+        private final char[] sortedChars;
+        private final int ruleIndex;
+
+        private Term(String text, int ruleIndex) {
+            this.text = text;
+            this.sortedChars = sortedChars(text);
+            this.ruleIndex = ruleIndex;
+        }
+    }
+
     /* ======================= Load Rules ======================= */
-    private final List<Rule> rules;
+    private static final String DEFAULT_TAXONOMY = "industry-taxonomy.json";
+    private static final Pattern NORMALIZE_PATTERN = Pattern.compile("[\\p{Punct}\\s]+");
+    private static final double NAME_SIM_THRESHOLD = 0.85;
+    /** Jaro-Winkler 的前缀加分至多为 0.4 × (1 - Jaro)，Jaro 低于 0.75 时相似度不可能达到阈值 */
+    private static final double MIN_JARO = 0.75;
+    /** 与阈值对应的最小长度比：短串长度不足长串的 1/4 时 Jaro 上界低于 0.75 */
+    private static final int MAX_LENGTH_RATIO = 4;
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+    private static final int NAME_CACHE_SIZE = 20000;
+    private static final int BATCH_CHUNK_SIZE = 200;
+    private static final IndustryResult UNKNOWN = new IndustryResult("Unknown", null, null);
+
+    private final List<IndustryResult> ruleResults;
+    /** 关键词前两个字符 → 关键词，单字符关键词单独存放 */
+    private final Map<Integer, List<Term>> keywordIndex = new HashMap<>();
+    private final Map<Character, List<Term>> singleCharKeywords = new HashMap<>();
+    /** 模糊匹配词条长度 → 词条 */
+    private final TreeMap<Integer, List<Term>> fuzzyTermsByLength = new TreeMap<>();
+    /** 归一化公司名 → 命中的第一条规则下标（NO_MATCH 表示未命中） */
+    private final Map<String, Integer> nameCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                    return size() > NAME_CACHE_SIZE;
+                }
+            });
     private final JaroWinklerSimilarity similarity = new JaroWinklerSimilarity();
-    private final double NAME_SIM_THRESHOLD = 0.85;
 
     public static IndustryClassifier defaultClassifier() {
-        return fromClasspathJson("industry-taxonomy.json");
+        return fromClasspathJson(DEFAULT_TAXONOMY);
     }
 
     public static IndustryClassifier fromClasspathJson(String path) {
+        return new IndustryClassifier(loadRules(path));
+    }
+
+    /**
+     * Spring 容器使用的构造器：加载默认行业分类表
+     */
+    public IndustryClassifier() {
+        this(loadRules(DEFAULT_TAXONOMY));
+    }
+
+    public IndustryClassifier(List<Rule> rules) {
+        List<Rule> ruleList = rules == null ? Collections.emptyList() : rules;
+        List<IndustryResult> results = new ArrayList<>(ruleList.size());
+        Map<String, Integer> keywords = new LinkedHashMap<>();
+        Map<String, Integer> fuzzyTerms = new LinkedHashMap<>();
+
+        for (int i = 0; i < ruleList.size(); i++) {
+            Rule r = ruleList.get(i);
+            results.add(new IndustryResult(
+                    blankToNull(r.getSector()),
+                    blankToNull(r.getIndustry()),
+                    blankToNull(r.getSubIndustry())));
+            if (r.getKeywords() != null) {
+                for (String kw : r.getKeywords()) {
+                    putFirst(keywords, kw, i);
+                    putFirst(fuzzyTerms, kw, i);
+                }
+            }
+            putFirst(fuzzyTerms, r.getSector(), i);
+            putFirst(fuzzyTerms, r.getIndustry(), i);
+            putFirst(fuzzyTerms, r.getSubIndustry(), i);
+        }
+        this.ruleResults = results;
+
+        for (Map.Entry<String, Integer> e : keywords.entrySet()) {
+            Term term = new Term(e.getKey(), e.getValue());
+            String text = term.text;
+            if (text.length() == 1) {
+                singleCharKeywords.computeIfAbsent(text.charAt(0), k -> new ArrayList<>()).add(term);
+            } else {
+                keywordIndex.computeIfAbsent(bigram(text, 0), k -> new ArrayList<>()).add(term);
+            }
+        }
+        for (Map.Entry<String, Integer> e : fuzzyTerms.entrySet()) {
+            fuzzyTermsByLength.computeIfAbsent(e.getKey().length(), k -> new ArrayList<>())
+                    .add(new Term(e.getKey(), e.getValue()));
+        }
+        logger.info("行业分类规则加载完成: 规则 {} 条, 关键词 {} 个, 模糊匹配词条 {} 个",
+                ruleList.size(), keywords.size(), fuzzyTerms.size());
+    }
+
+    private static List<Rule> loadRules(String path) {
         try {
             ClassPathResource res = new ClassPathResource(path);
             if (res.exists()) {
                 try (InputStream in = res.getInputStream()) {
                     ObjectMapper mapper = new ObjectMapper();
                     List<Rule> external = mapper.readValue(in, new TypeReference<List<Rule>>() {});
-                    return new IndustryClassifier(external == null ? Collections.emptyList() : external);
+                    return external == null ? Collections.emptyList() : external;
                 }
             }
+            logger.warn("行业分类表不存在: {}", path);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("加载行业分类表失败: {}", path, e);
         }
-        return new IndustryClassifier(Collections.emptyList());
-    }
-
-    public IndustryClassifier(List<Rule> rules) {
-        this.rules = rules == null ? Collections.emptyList() : rules;
+        return Collections.emptyList();
     }
 
     /* ======================= Classification ======================= */
     public IndustryResult classify(Company company) {
-        if (company == null) return new IndustryResult("Unknown", null, null);
-        String name = company.getCompanyName();
-        String description = company.getCompanyDescription();
+        if (company == null) return UNKNOWN;
+        String name = normalizeOrNull(company.getCompanyName());
+        String description = normalizeOrNull(company.getCompanyDescription());
 
-        for (Rule r : rules) {
-            boolean matched = false;
+        int best = NO_MATCH;
+        if (name != null) {
+            Integer cached = nameCache.get(name);
+            if (cached == null) {
+                cached = firstMatchingRule(name, NO_MATCH);
+                nameCache.put(name, cached);
+            }
+            best = cached;
+        }
+        if (description != null && best > 0) {
+            best = firstMatchingRule(description, best);
+        }
+        return best == NO_MATCH ? UNKNOWN : ruleResults.get(best);
+    }
 
-            // 1️⃣ 关键词完全匹配或包含
-            if (r.getKeywords() != null) {
-                for (String kw : r.getKeywords()) {
-                    if (matches(name, kw) || matches(description, kw)) {
-                        matched = true;
-                        break;
-                    }
-                    // ✅ 模糊匹配公司名和关键词
-                    if (!matched && matchesFuzzy(name, kw)) {
-                        matched = true;
-                        break;
-                    }
-                    if (!matched && matchesFuzzy(description, kw)) {
-                        matched = true;
-                        break;
+    /**
+     * 批量分类，按块提交到给定线程池并行处理，结果与输入顺序一致
+     */
+    public List<IndustryResult> classifyAll(List<Company> companies, Executor executor) {
+        if (companies == null || companies.isEmpty()) return Collections.emptyList();
+
+        List<CompletableFuture<List<IndustryResult>>> futures = new ArrayList<>();
+        for (int start = 0; start < companies.size(); start += BATCH_CHUNK_SIZE) {
+            List<Company> chunk = companies.subList(start, Math.min(start + BATCH_CHUNK_SIZE, companies.size()));
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> chunk.stream().map(this::classify).collect(Collectors.toList()), executor));
+        }
+
+        List<IndustryResult> results = new ArrayList<>(companies.size());
+        for (CompletableFuture<List<IndustryResult>> future : futures) {
+            results.addAll(future.join());
+        }
+        return results;
+    }
+
+    /* ======================= Matching ======================= */
+
+    /**
+     * 归一化文本命中的第一条规则下标，只考虑下标小于 limit 的规则
+     */
+    private int firstMatchingRule(String text, int limit) {
+        int best = firstContainedKeyword(text, limit);
+        return firstFuzzyTerm(text, best);
+    }
+
+    private int firstContainedKeyword(String text, int limit) {
+        int best = limit;
+        for (int i = 0; i < text.length(); i++) {
+            List<Term> singles = singleCharKeywords.get(text.charAt(i));
+            if (singles != null) {
+                for (Term term : singles) {
+                    best = Math.min(best, term.ruleIndex);
+                }
+            }
+            if (i + 1 < text.length()) {
+                List<Term> candidates = keywordIndex.get(bigram(text, i));
+                if (candidates != null) {
+                    for (Term term : candidates) {
+                        if (term.ruleIndex < best && text.startsWith(term.text, i)) {
+                            best = term.ruleIndex;
+                        }
                     }
                 }
             }
+        }
+        return best;
+    }
 
-            // 2️⃣ 模糊匹配公司名/描述和 sector/industry/subIndustry
-            if (!matched) {
-                matched = matchesFuzzy(name, r.getSector())
-                        || matchesFuzzy(name, r.getIndustry())
-                        || matchesFuzzy(name, r.getSubIndustry())
-                        || matchesFuzzy(description, r.getSector())
-                        || matchesFuzzy(description, r.getIndustry())
-                        || matchesFuzzy(description, r.getSubIndustry());
+    private int firstFuzzyTerm(String text, int limit) {
+        int length = text.length();
+        int minLength = (length + MAX_LENGTH_RATIO - 1) / MAX_LENGTH_RATIO;
+        long maxLength = (long) length * MAX_LENGTH_RATIO;
+        char[] textChars = null;
+        int best = limit;
+        for (List<Term> bucket : fuzzyTermsByLength
+                .subMap(minLength, true, (int) Math.min(maxLength, Integer.MAX_VALUE), true).values()) {
+            for (Term term : bucket) {
+                if (term.ruleIndex >= best) continue;
+                if (textChars == null) textChars = sortedChars(text);
+                int common = commonChars(textChars, term.sortedChars);
+                double jaroUpperBound = ((double) common / length + (double) common / term.text.length() + 1) / 3;
+                if (jaroUpperBound >= MIN_JARO && similarity.apply(text, term.text) >= NAME_SIM_THRESHOLD) {
+                    best = term.ruleIndex;
+                }
             }
+        }
+        return best;
+    }
 
-            if (matched) {
-                return new IndustryResult(
-                        blankToNull(r.getSector()),
-                        blankToNull(r.getIndustry()),
-                        blankToNull(r.getSubIndustry())
-                );
+    /** 两个有序字符数组的多重集交集大小，即 Jaro 匹配字符数的上界 */
+    private static int commonChars(char[] a, char[] b) {
+        int i = 0, j = 0, common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
             }
         }
+        return common;
+    }
 
-        return new IndustryResult("Unknown", null, null);
+    private static void putFirst(Map<String, Integer> terms, String raw, int ruleIndex) {
+        String normalized = normalizeOrNull(raw);
+        if (normalized != null) {
+            terms.putIfAbsent(normalized, ruleIndex);
+        }
     }
 
-    /* ======================= Matching ======================= */
-    private boolean matches(String value, String keyword) {
-        if (!StringUtils.hasText(value) || !StringUtils.hasText(keyword)) return false;
-        value = normalize(value);
-        keyword = normalize(keyword);
-        return value.contains(keyword);
+    private static int bigram(String text, int index) {
+        return (text.charAt(index) << 16) | text.charAt(index + 1);
     }
 
-    private boolean matchesFuzzy(String value, String term) {
-        if (!StringUtils.hasText(value) || !StringUtils.hasText(term)) return false;
-        value = normalize(value);
-        term = normalize(term);
-        return similarity.apply(value, term) >= NAME_SIM_THRESHOLD;
+    private static char[] sortedChars(String text) {
+        char[] chars = text.toCharArray();
+        Arrays.sort(chars);
+        return chars;
     }
 
-    private String normalize(String s) {
-        return s.replaceAll("[\\p{Punct}\\s]+", "").toLowerCase();
+    private static String normalizeOrNull(String s) {
+        if (!StringUtils.hasText(s)) return null;
+        String normalized = NORMALIZE_PATTERN.matcher(s).replaceAll("").toLowerCase();
+        return normalized.isEmpty() ? null : normalized;
     }
 
     private static String blankToNull(String s) {
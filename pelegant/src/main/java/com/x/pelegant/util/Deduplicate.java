@@ -1,20 +1,29 @@
 package com.x.pelegant.util;
 
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @Component
 public class Deduplicate {
@@ -24,6 +33,13 @@ public class Deduplicate {
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    /** 近似重复清理时每批删除 / 回写的文档数 */
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    /** 近似重复清理时游标每批读取的文档数 */
+    @Value("${pelegant.dedup.batch-size:500}")
+    private int cursorBatchSize;
+
     /**
      * 一键删除 job 和 passjob 的重复数据
      */
@@ -33,6 +49,165 @@ public class Deduplicate {
         return jobResult + "\n" + passJobResult;
     }
 
+    /**
+     * 删除 job 和 passjob 中描述近似重复的职位，需显式调用（项目管理员接口或定时任务），不随一键去重执行
+     */
+    public String cleanupNearDuplicates() {
+        String jobResult = removeNearDuplicates("job", "companyId");
+        String passJobResult = removeNearDuplicates("passjob", "companyName");
+        return jobResult + "\n" + passJobResult;
+    }
+
+    /**
+     * 定时近似重复清理，默认关闭（pelegant.dedup.near-duplicate-cron 为 "-"）
+     */
+    @Scheduled(cron = "${pelegant.dedup.near-duplicate-cron:-}", zone = "Asia/Shanghai")
+    public void sweepNearDuplicates() {
+        cleanupNearDuplicates();
+    }
+
+    /**
+     * 删除描述近似重复的职位：同一公司（companyField）、同一职位名称（忽略空格）、职位类型、发布时间（createdAt）和工作地点下，
+     * 描述指纹按 SimHash.isNearDuplicate 判定为重复的职位只保留 _id 最小的一条（阈值按较新职位的描述长度选择）。
+     * 不同日期或地点重新发布的职位不视为重复。
+     * 游标按公司排序，只读取指纹、描述长度等少量字段，不读取描述全文；逐个公司比较，内存只保留当前公司的职位。
+     * 缺少指纹的旧数据先补算并回写
+     */
+    public String removeNearDuplicates(String collectionName, String companyField) {
+        long start = System.currentTimeMillis();
+        MongoCollection<Document> collection = mongoTemplate.getCollection(collectionName);
+        int backfilled = backfillSignatures(collection);
+
+        List<Document> company = new ArrayList<>();
+        Object currentCompany = null;
+        List<Object> idsToDelete = new ArrayList<>(WRITE_BATCH_SIZE);
+        int totalDeleted = 0;
+
+        Document projection = new Document("jobTitle", 1).append(companyField, 1)
+                .append("jobType", 1).append("createdAt", 1).append("workLocation", 1).append("descriptionSimHash", 1)
+                .append("descriptionLength", new Document("$strLenCP", new Document("$ifNull", Arrays.asList("$jobDescription", ""))));
+        List<Document> pipeline = Arrays.asList(
+                new Document("$match", new Document("descriptionSimHash", new Document("$ne", null))),
+                new Document("$project", projection),
+                new Document("$sort", new Document(companyField, 1)));
+        try (MongoCursor<Document> cursor = collection.aggregate(pipeline)
+                .allowDiskUse(true)
+                .batchSize(cursorBatchSize)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document doc = cursor.next();
+                Object companyValue = doc.get(companyField);
+                if (!company.isEmpty() && !Objects.equals(companyValue, currentCompany)) {
+                    totalDeleted += collectNearDuplicates(collectionName, company, idsToDelete);
+                    company.clear();
+                }
+                currentCompany = companyValue;
+                company.add(doc);
+            }
+        }
+        totalDeleted += collectNearDuplicates(collectionName, company, idsToDelete);
+        totalDeleted += deleteByIds(collectionName, idsToDelete);
+
+        logger.info("已删除 {} 表中近似重复数据 {} 条（补算指纹 {} 条），耗时 {} ms",
+                collectionName, totalDeleted, backfilled, System.currentTimeMillis() - start);
+        return "已删除 " + collectionName + " 表中近似重复数据 " + totalDeleted + " 条";
+    }
+
+    /**
+     * 比较同一公司的职位：按 _id 顺序，与同组（职位名称 + 职位类型 + 发布时间 + 工作地点）已保留的职位比较指纹，重复的加入待删除列表；
+     * 待删除列表满一批时删除，返回本次删除的条数
+     */
+    private int collectNearDuplicates(String collectionName, List<Document> company, List<Object> idsToDelete) {
+        if (company.isEmpty()) {
+            return 0;
+        }
+        company.sort((a, b) -> compareIds(a.get("_id"), b.get("_id")));
+
+        Map<String, List<Document>> kept = new HashMap<>();
+        int deleted = 0;
+        for (Document doc : company) {
+            String groupKey = Objects.toString(doc.getString("jobTitle"), "").replace(" ", "") + "|" + doc.get("jobType")
+                    + "|" + doc.get("createdAt") + "|" + doc.get("workLocation");
+            List<Document> group = kept.computeIfAbsent(groupKey, k -> new ArrayList<>(1));
+            if (isNearDuplicate(group, doc)) {
+                idsToDelete.add(doc.get("_id"));
+                if (idsToDelete.size() >= WRITE_BATCH_SIZE) {
+                    deleted += deleteByIds(collectionName, idsToDelete);
+                }
+                continue;
+            }
+            group.add(doc);
+        }
+        return deleted;
+    }
+
+    private static boolean isNearDuplicate(List<Document> group, Document doc) {
+        long signature = ((Number) doc.get("descriptionSimHash")).longValue();
+        Number length = (Number) doc.get("descriptionLength");
+        double threshold = length != null && length.intValue() < DescriptionSimilarity.SHORT_LENGTH
+                ? DescriptionSimilarity.SHORT_THRESHOLD : DescriptionSimilarity.THRESHOLD;
+        for (Document candidate : group) {
+            if (SimHash.isNearDuplicate(((Number) candidate.get("descriptionSimHash")).longValue(), signature, threshold)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareIds(Object a, Object b) {
+        if (a instanceof Comparable && b != null && a.getClass() == b.getClass()) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return Objects.toString(a, "").compareTo(Objects.toString(b, ""));
+    }
+
+    /**
+     * 为缺少指纹分段键的职位补算描述指纹及分段键，分批回写
+     */
+    private int backfillSignatures(MongoCollection<Document> collection) {
+        Document missing = new Document("simHashBands", new Document("$exists", false))
+                .append("jobDescription", new Document("$nin", Arrays.asList(null, "")));
+        List<WriteModel<Document>> updates = new ArrayList<>(WRITE_BATCH_SIZE);
+        int backfilled = 0;
+        try (MongoCursor<Document> cursor = collection.find(missing)
+                .projection(new Document("jobDescription", 1))
+                .batchSize(cursorBatchSize)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document doc = cursor.next();
+                Long signature = SimHash.of(doc.getString("jobDescription"));
+                Document set = signature != null
+                        ? new Document("descriptionSimHash", signature).append("simHashBands", SimHash.bands(signature))
+                        : new Document("descriptionSimHash", null).append("simHashBands", null);
+                updates.add(new UpdateOneModel<>(new Document("_id", doc.get("_id")), new Document("$set", set)));
+                if (updates.size() >= WRITE_BATCH_SIZE) {
+                    backfilled += flushUpdates(collection, updates);
+                }
+            }
+        }
+        return backfilled + flushUpdates(collection, updates);
+    }
+
+    private static int flushUpdates(MongoCollection<Document> collection, List<WriteModel<Document>> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        int count = updates.size();
+        collection.bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        updates.clear();
+        return count;
+    }
+
+    private int deleteByIds(String collectionName, List<Object> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        long deleted = mongoTemplate.remove(new Query(Criteria.where("_id").in(ids)), collectionName).getDeletedCount();
+        ids.clear();
+        return (int) deleted;
+    }
+
     /**
      * 优化版：根据 jobTitle、companyId、jobDescription、jobType、createdAt 删除重复数据
      */
@@ -0,0 +1,64 @@
+package com.x.pelegant.util;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 职位描述近似重复的判定规则
+ * 词频向量的余弦相似度，新描述少于 200 字符时阈值 0.9，否则 0.8。
+ * 去重时不读取描述全文，由 SimHash 指纹估算该相似度（见 SimHash.isNearDuplicate），这里的精确计算用于校准估算
+ */
+public final class DescriptionSimilarity {
+
+    /** 短描述的长度上限（字符数） */
+    public static final int SHORT_LENGTH = 200;
+    public static final double SHORT_THRESHOLD = 0.9;
+    public static final double THRESHOLD = 0.8;
+
+    private DescriptionSimilarity() {
+    }
+
+    /**
+     * 判定阈值，按新描述的长度选择
+     */
+    public static double threshold(String description) {
+        return description.length() < SHORT_LENGTH ? SHORT_THRESHOLD : THRESHOLD;
+    }
+
+    /**
+     * 按描述全文精确判定
+     */
+    public static boolean isNearDuplicate(String description, String existing) {
+        return cosine(description, existing) >= threshold(description);
+    }
+
+    /**
+     * 词频向量余弦相似度，分词与 SimHash 的特征相同（小写字母数字词，中日韩文字按相邻两字）；
+     * 任一描述没有可用的词时返回 0
+     */
+    public static double cosine(String desc1, String desc2) {
+        if (desc1 == null || desc2 == null || desc1.isEmpty() || desc2.isEmpty()) return 0.0;
+        Map<String, Integer> vec1 = SimHash.features(desc1);
+        Map<String, Integer> vec2 = SimHash.features(desc2);
+        if (vec1.isEmpty() || vec2.isEmpty()) return 0.0;
+
+        Set<String> keys = new HashSet<>(vec1.keySet());
+        keys.addAll(vec2.keySet());
+
+        double dotProduct = 0.0;
+        double norm1 = 0.0;
+        double norm2 = 0.0;
+
+        for (String key : keys) {
+            int v1 = vec1.getOrDefault(key, 0);
+            int v2 = vec2.getOrDefault(key, 0);
+            dotProduct += v1 * v2;
+            norm1 += v1 * v1;
+            norm2 += v2 * v2;
+        }
+
+        if (norm1 == 0 || norm2 == 0) return 0.0;
+        return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
+    }
+}
@@ -1,12 +1,16 @@
 package com.x.pelegant.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.x.pelegant.config.ExecutorConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
@@ -36,14 +40,23 @@ public class EmploymentClassifier {
     private static final int WEIGHT_RAWTYPE = 4;
     private static final int WEIGHT_MANAGER = 3;
 
+    /** 关键词类别位，对应 KeywordAutomaton 的类别掩码 */
+    private static final int KW_INTERN = 1;
+    private static final int KW_CAMPUS = 1 << 1;
+    private static final int KW_PARTTIME = 1 << 2;
+    private static final int KW_NO_EXPERIENCE = 1 << 3;
+    private static final int KW_MANAGER = 1 << 4;
+
     @Value("${pelegant.upload.path}")
     private String documentLocation;
 
     @Value("${pelegant.employment.keywords.config}")
     private String keywordsConfigPath;
 
-    private final ExecutorService reloadExecutor = Executors.newSingleThreadExecutor();
-    private final ForkJoinPool classifyPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    /** 共享工作线程池：关键词加载和批量分类 */
+    @Autowired
+    @Qualifier(ExecutorConfig.WORKER_EXECUTOR)
+    private ThreadPoolTaskExecutor workerExecutor;
 
     private volatile Set<String> internKeywords = new HashSet<>();
     private volatile Set<String> campusKeywords = new HashSet<>();
@@ -55,7 +68,8 @@ public class EmploymentClassifier {
     private volatile Set<String> universityExclusionWords = new HashSet<>();
     private volatile boolean usingDefaultKeywords = true;
 
-    private volatile Map<String, Pattern> keywordPatterns = new HashMap<>();
+    /** 五类关键词编译成的自动机，重新加载时整体替换 */
+    private volatile KeywordAutomaton keywordAutomaton = KeywordAutomaton.builder().build();
     private volatile Pattern universityRecruitmentPattern;
     private volatile Pattern universityExclusionPattern;
 
@@ -109,7 +123,7 @@ public class EmploymentClassifier {
     }
 
     public void loadKeywordsAsync() {
-        reloadExecutor.submit(this::loadKeywordsFromConfig);
+        workerExecutor.execute(this::loadKeywordsFromConfig);
     }
 
     private synchronized void loadKeywordsFromConfig() {
@@ -127,27 +141,28 @@ public class EmploymentClassifier {
             universityRecruitmentWords = new HashSet<>(config.getOrDefault("university_recruitment_words", Collections.emptyList()));
             universityExclusionWords = new HashSet<>(config.getOrDefault("university_exclusion_words", Collections.emptyList()));
 
-            compileKeywordPatterns();
+            compileKeywordAutomaton();
             compileUniversityPatterns();
             usingDefaultKeywords = false;
             log("✅ 成功加载关键词配置: " + getFullConfigPath());
         } catch (IOException e) {
             log("⚠️ 加载失败，使用默认关键词: " + e.getMessage());
             useDefaultKeywords();
-            compileKeywordPatterns();
+            compileKeywordAutomaton();
             compileUniversityPatterns();
             usingDefaultKeywords = true;
         }
     }
 
-    private void compileKeywordPatterns() {
-        Map<String, Pattern> patterns = new HashMap<>();
-        for (String kw : internKeywords) patterns.put(kw, Pattern.compile("\\b" + Pattern.quote(kw) + "\\b", Pattern.CASE_INSENSITIVE));
-        for (String kw : campusKeywords) patterns.put(kw, Pattern.compile("\\b" + Pattern.quote(kw) + "\\b", Pattern.CASE_INSENSITIVE));
-        for (String kw : parttimeKeywords) patterns.put(kw, Pattern.compile("\\b" + Pattern.quote(kw) + "\\b", Pattern.CASE_INSENSITIVE));
-        for (String kw : noExperienceKeywords) patterns.put(kw, Pattern.compile("\\b" + Pattern.quote(kw) + "\\b", Pattern.CASE_INSENSITIVE));
-        for (String kw : managerKeywords) patterns.put(kw, Pattern.compile("\\b" + Pattern.quote(kw) + "\\b", Pattern.CASE_INSENSITIVE));
-        keywordPatterns = patterns;
+    /** 构建完成后一次性替换引用，分类线程不会看到新旧关键词混用的状态 */
+    private void compileKeywordAutomaton() {
+        keywordAutomaton = KeywordAutomaton.builder()
+                .addAll(internKeywords, KW_INTERN)
+                .addAll(campusKeywords, KW_CAMPUS)
+                .addAll(parttimeKeywords, KW_PARTTIME)
+                .addAll(noExperienceKeywords, KW_NO_EXPERIENCE)
+                .addAll(managerKeywords, KW_MANAGER)
+                .build();
     }
 
     private void compileUniversityPatterns() {
@@ -177,30 +192,30 @@ public class EmploymentClassifier {
         universityExclusionWords = new HashSet<>(Arrays.asList("professor", "lecturer", "teacher", "faculty", "staff", "hospital", "medical", "research", "study", "studies", "degree", "diploma", "certificate", "alumni", "academic", "education", "teaching", "lecture"));
     }
 
-    private boolean containsKeywordParallel(String text, Set<String> keywords) {
-        return keywords.parallelStream().anyMatch(kw -> {
-            Pattern p = keywordPatterns.get(kw);
-            return p != null && p.matcher(text).find();
-        });
-    }
-
     /** =================== 分块批量分类 =================== */
     public List<ClassificationResult> classifyBatchChunked(List<JobData> jobs, int chunkSize) {
         if (jobs == null || jobs.isEmpty()) return Collections.emptyList();
 
-        List<ClassificationResult> results = new ArrayList<>();
+        // 每个分块作为一个任务提交到共享线程池，按提交顺序合并结果
+        List<Future<List<ClassificationResult>>> futures = new ArrayList<>();
         int total = jobs.size();
         for (int start = 0; start < total; start += chunkSize) {
             int end = Math.min(start + chunkSize, total);
             List<JobData> subList = jobs.subList(start, end);
+            futures.add(workerExecutor.submit(() -> subList.stream()
+                    .map(this::classifyJob)
+                    .collect(Collectors.toList())));
+        }
+
+        List<ClassificationResult> results = new ArrayList<>();
+        for (Future<List<ClassificationResult>> future : futures) {
             try {
-                List<ClassificationResult> chunkResult = classifyPool.submit(() ->
-                        subList.parallelStream()
-                                .map(this::classifyJob)
-                                .collect(Collectors.toList())
-                ).get();
-                results.addAll(chunkResult);
-            } catch (InterruptedException | ExecutionException e) {
+                results.addAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log("⚠️ 分块处理被中断: " + e.getMessage());
+                break;
+            } catch (ExecutionException e) {
                 log("⚠️ 分块处理异常: " + e.getMessage());
             }
         }
@@ -219,21 +234,26 @@ public class EmploymentClassifier {
         String combined = title + " " + desc;
         String rawType = job.getRawType();
 
+        // 一次扫描得到所有类别的命中情况
+        int hits = keywordAutomaton.match(combined);
+        boolean intern = (hits & KW_INTERN) != 0;
+        boolean parttime = (hits & KW_PARTTIME) != 0;
+
         String classification = null;
         int weight = 0;
 
-        if (containsKeywordParallel(combined, internKeywords)) { classification = TYPE_INTERN; weight = WEIGHT_KEYWORD; }
-        if (containsKeywordParallel(combined, campusKeywords) || containsKeywordParallel(combined, noExperienceKeywords)) {
+        if (intern) { classification = TYPE_INTERN; weight = WEIGHT_KEYWORD; }
+        if ((hits & (KW_CAMPUS | KW_NO_EXPERIENCE)) != 0) {
             if (weight < WEIGHT_KEYWORD || !TYPE_INTERN.equals(classification)) { classification = TYPE_FULL_TIME_CAMPUS; weight = WEIGHT_KEYWORD; }
         }
-        if (containsKeywordParallel(combined, parttimeKeywords)) {
+        if (parttime) {
             if (weight < WEIGHT_KEYWORD || (TYPE_INTERN.equals(classification) || TYPE_FULL_TIME_CAMPUS.equals(classification))) { classification = TYPE_PART_TIME; weight = WEIGHT_KEYWORD; }
         }
 
         Matcher dur = DURATION_PATTERN.matcher(desc);
         if (dur.find()) {
-            if (containsKeywordParallel(combined, internKeywords)) { if (weight < WEIGHT_DURATION) { classification = TYPE_INTERN; weight = WEIGHT_DURATION; } }
-            else if (containsKeywordParallel(combined, parttimeKeywords)) { if (weight < WEIGHT_DURATION) { classification = TYPE_PART_TIME; weight = WEIGHT_DURATION; } }
+            if (intern) { if (weight < WEIGHT_DURATION) { classification = TYPE_INTERN; weight = WEIGHT_DURATION; } }
+            else if (parttime) { if (weight < WEIGHT_DURATION) { classification = TYPE_PART_TIME; weight = WEIGHT_DURATION; } }
         }
 
         int expYears = extractExperienceYears(combined);
@@ -242,7 +262,7 @@ public class EmploymentClassifier {
             else if (weight < WEIGHT_EXPERIENCE) { classification = TYPE_FULL_TIME_CAMPUS; weight = WEIGHT_EXPERIENCE; }
         }
 
-        if (containsKeywordParallel(combined, managerKeywords) && weight < WEIGHT_MANAGER) { classification = TYPE_FULL_TIME_SOCIAL; weight = WEIGHT_MANAGER; }
+        if ((hits & KW_MANAGER) != 0 && weight < WEIGHT_MANAGER) { classification = TYPE_FULL_TIME_SOCIAL; weight = WEIGHT_MANAGER; }
 
         if (rawType != null && weight < WEIGHT_RAWTYPE) {
             String mapped = explicitRawTypeMapping.get(rawType.toLowerCase().trim());
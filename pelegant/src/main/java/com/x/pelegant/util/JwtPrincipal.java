@@ -0,0 +1,49 @@
+package com.x.pelegant.util;
+
+import java.util.Date;
+
+/**
+ * 已验证的JWT身份信息（不可变）
+ * Token只解析并验签一次，后续的过期、角色判断都基于该对象
+ */
+public final class JwtPrincipal {
+
+    private final String userId;
+    private final String username;
+    private final String role;
+    private final long expiresAt;
+
+    public JwtPrincipal(String userId, String username, String role, Date expiration) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.expiresAt = expiration != null ? expiration.getTime() : 0L;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * 是否已过期（没有过期时间的Token视为已过期）
+     */
+    public boolean isExpired() {
+        return expiresAt <= System.currentTimeMillis();
+    }
+
+    public boolean hasRole(String expectedRole) {
+        return expectedRole != null && expectedRole.equals(role);
+    }
+}
@@ -1,5 +1,8 @@
 package com.x.pelegant.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.x.pelegant.config.JwtConfig;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -8,9 +11,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JWT工具类
@@ -22,6 +28,40 @@ public class JwtUtil {
     @Autowired
     private JwtConfig jwtConfig;
 
+    /**
+     * 已验签Token的有界缓存：Token的SHA-256 -> 身份信息，条目在Token过期时自动清除，命中时仍检查是否过期
+     */
+    private Cache<String, JwtPrincipal> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        int cacheSize = jwtConfig.getCacheSize() != null ? jwtConfig.getCacheSize() : 0;
+        if (cacheSize > 0) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(cacheSize)
+                    .expireAfter(new Expiry<String, JwtPrincipal>() {
+                        @Override
+                        public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+                            long remaining = principal.getExpiresAt() - System.currentTimeMillis();
+                            return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0L));
+                        }
+
+                        @Override
+                        public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime,
+                                                      long currentDuration) {
+                            return expireAfterCreate(key, principal, currentTime);
+                        }
+
+                        @Override
+                        public long expireAfterRead(String key, JwtPrincipal principal, long currentTime,
+                                                    long currentDuration) {
+                            return currentDuration;
+                        }
+                    })
+                    .build();
+        }
+    }
+
     /**
      * 生成JWT Token
      *
@@ -74,6 +114,55 @@ public class JwtUtil {
         }
     }
 
+    /**
+     * 解析并验证Token，只验签一次
+     *
+     * @param token JWT Token
+     * @return 身份信息，Token无效或已过期时返回null
+     */
+    public JwtPrincipal parsePrincipal(String token) {
+        String cacheKey = verifiedTokens != null ? hashToken(token) : null;
+        if (cacheKey != null) {
+            JwtPrincipal cached = verifiedTokens.getIfPresent(cacheKey);
+            if (cached != null) {
+                if (!cached.isExpired()) {
+                    return cached;
+                }
+                verifiedTokens.invalidate(cacheKey);
+                return null;
+            }
+        }
+
+        Claims claims = getClaimsFromToken(token);
+        if (claims == null) {
+            return null;
+        }
+        JwtPrincipal principal = new JwtPrincipal(
+                claims.get("userId", String.class),
+                claims.get("username", String.class),
+                claims.get("role", String.class),
+                claims.getExpiration());
+        if (principal.isExpired()) {
+            return null;
+        }
+        if (cacheKey != null) {
+            verifiedTokens.put(cacheKey, principal);
+        }
+        return principal;
+    }
+
+    /**
+     * Token的SHA-256摘要，缓存中不保存Token原文
+     */
+    private String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * 从Token中获取用户ID
      *
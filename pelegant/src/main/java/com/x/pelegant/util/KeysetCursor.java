@@ -0,0 +1,130 @@
+package com.x.pelegant.util;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * 键集分页游标
+ * 记录上一页最后一条记录的排序值和 _id（可附带首页统计的总数），Base64 编码后对前端不透明；
+ * 下一页通过 (排序字段, _id) 比较定位，不再 skip，深翻页耗时与页码无关
+ */
+public class KeysetCursor {
+
+    private final String scope;
+    private final Object sortValue;
+    private final Object id;
+    private final Long total;
+
+    public KeysetCursor(String scope, Object sortValue, Object id, Long total) {
+        this.scope = scope;
+        this.sortValue = sortValue instanceof LocalDateTime
+                ? Date.from(((LocalDateTime) sortValue).atZone(ZoneId.systemDefault()).toInstant())
+                : sortValue;
+        this.id = id instanceof String && ObjectId.isValid((String) id) ? new ObjectId((String) id) : id;
+        this.total = total;
+    }
+
+    public Object getSortValue() {
+        return sortValue;
+    }
+
+    public Object getId() {
+        return id;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    /**
+     * 按 (field 降序, _id 降序) 排序时，位于游标之后的记录条件；field 为 null 时只按 _id 降序
+     * MongoDB 降序排序时空值排在最后，因此排序值非空时也要包含 field 为空的记录
+     */
+    public Criteria afterDescending(String field) {
+        if (field == null) {
+            return Criteria.where("_id").lt(id);
+        }
+        if (sortValue == null) {
+            return new Criteria().andOperator(Criteria.where(field).is(null), Criteria.where("_id").lt(id));
+        }
+        return new Criteria().orOperator(
+                Criteria.where(field).lt(sortValue),
+                new Criteria().andOperator(Criteria.where(field).is(sortValue), Criteria.where("_id").lt(id)),
+                Criteria.where(field).is(null));
+    }
+
+    public String encode() {
+        String raw = scope + "|" + encodeValue(sortValue) + "|" + (total != null ? total : "") + "|" + encodeValue(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标
+     *
+     * @param scope 游标所属的列表，防止不同接口的游标混用
+     * @throws IllegalArgumentException 游标无效
+     */
+    public static KeysetCursor decode(String cursor, String scope) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !parts[0].equals(scope)) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            Object id = decodeValue(parts[3]);
+            if (id == null) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            Long total = parts[2].isEmpty() ? null : Long.parseLong(parts[2]);
+            return new KeysetCursor(scope, decodeValue(parts[1]), id, total);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+
+    /**
+     * 值编码时保留类型（日期、数值、ObjectId、字符串），以便解码后与数据库值直接比较
+     */
+    private static String encodeValue(Object value) {
+        if (value == null) {
+            return "n:";
+        }
+        if (value instanceof Date) {
+            return "d:" + ((Date) value).getTime();
+        }
+        if (value instanceof Number) {
+            return "f:" + ((Number) value).doubleValue();
+        }
+        if (value instanceof ObjectId) {
+            return "o:" + ((ObjectId) value).toHexString();
+        }
+        return "s:" + value;
+    }
+
+    private static Object decodeValue(String value) {
+        if (value.length() < 2 || value.charAt(1) != ':') {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+        String body = value.substring(2);
+        switch (value.charAt(0)) {
+            case 'n':
+                return null;
+            case 'd':
+                return new Date(Long.parseLong(body));
+            case 'f':
+                return Double.parseDouble(body);
+            case 'o':
+                return new ObjectId(body);
+            case 's':
+                return body;
+            default:
+                throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+}
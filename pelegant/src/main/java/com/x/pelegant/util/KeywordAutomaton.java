@@ -0,0 +1,208 @@
+package com.x.pelegant.util;
+
+import java.util.*;
+
+/**
+ * 多关键词匹配自动机（Aho–Corasick）
+ * 所有关键词编译为一个自动机，对文本只扫描一遍即可得到命中的全部类别，
+ * 命中位置按正则 \b 的语义检查单词边界（字母、数字、下划线为单词字符）。
+ * 每个关键词关联一个类别位掩码，match 返回命中类别的按位或；实例构建后只读，可被多线程共享
+ */
+public final class KeywordAutomaton {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final int[] NO_INTS = new int[0];
+
+    /** 每个状态的出边字符（升序）与目标状态 */
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    /** 失配指针 */
+    private final int[] fail;
+    /** 每个状态结束的关键词（含失配链上的后缀关键词）：长度与类别掩码 */
+    private final int[][] outputLengths;
+    private final int[][] outputMasks;
+    /** 所有关键词类别的按位或，全部命中后提前结束扫描 */
+    private final int allMask;
+
+    private KeywordAutomaton(char[][] edgeChars, int[][] edgeTargets, int[] fail,
+                             int[][] outputLengths, int[][] outputMasks, int allMask) {
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.outputLengths = outputLengths;
+        this.outputMasks = outputMasks;
+        this.allMask = allMask;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 扫描文本，返回命中关键词的类别掩码（文本需已转小写）
+     */
+    public int match(String text) {
+        if (text == null || allMask == 0) {
+            return 0;
+        }
+        int hits = 0;
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = transition(state, c)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = next < 0 ? 0 : next;
+
+            int[] lengths = outputLengths[state];
+            int[] masks = outputMasks[state];
+            for (int k = 0; k < lengths.length; k++) {
+                if ((hits & masks[k]) != masks[k] && isBoundary(text, i + 1 - lengths[k]) && isBoundary(text, i + 1)) {
+                    hits |= masks[k];
+                    if (hits == allMask) {
+                        return hits;
+                    }
+                }
+            }
+        }
+        return hits;
+    }
+
+    private int transition(int state, char c) {
+        int index = Arrays.binarySearch(edgeChars[state], c);
+        return index >= 0 ? edgeTargets[state][index] : -1;
+    }
+
+    /**
+     * 与正则 \b 一致：位置两侧恰有一侧是单词字符
+     */
+    private static boolean isBoundary(String text, int position) {
+        boolean before = position > 0 && isWordChar(text.charAt(position - 1));
+        boolean after = position < text.length() && isWordChar(text.charAt(position));
+        return before != after;
+    }
+
+    private static boolean isWordChar(char c) {
+        return c == '_' || Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * 构建器：add 关键词后 build，构建器本身非线程安全
+     */
+    public static final class Builder {
+        private final List<Map<Character, Integer>> children = new ArrayList<>();
+        private final List<Map<Integer, Integer>> terminals = new ArrayList<>();
+
+        private Builder() {
+            newState();
+        }
+
+        /**
+         * 添加关键词（转小写后匹配），同一关键词可属于多个类别
+         */
+        public Builder add(String keyword, int categoryMask) {
+            if (keyword == null || keyword.trim().isEmpty()) {
+                return this;
+            }
+            String word = keyword.trim().toLowerCase(Locale.ROOT);
+            int state = 0;
+            for (int i = 0; i < word.length(); i++) {
+                Integer next = children.get(state).get(word.charAt(i));
+                if (next == null) {
+                    next = newState();
+                    children.get(state).put(word.charAt(i), next);
+                }
+                state = next;
+            }
+            terminals.get(state).merge(word.length(), categoryMask, (a, b) -> a | b);
+            return this;
+        }
+
+        public Builder addAll(Collection<String> keywords, int categoryMask) {
+            if (keywords != null) {
+                for (String keyword : keywords) {
+                    add(keyword, categoryMask);
+                }
+            }
+            return this;
+        }
+
+        public KeywordAutomaton build() {
+            int size = children.size();
+            char[][] edgeChars = new char[size][];
+            int[][] edgeTargets = new int[size][];
+            int[] fail = new int[size];
+            int[][] outputLengths = new int[size][];
+            int[][] outputMasks = new int[size][];
+            int allMask = 0;
+
+            for (int state = 0; state < size; state++) {
+                TreeMap<Character, Integer> edges = new TreeMap<>(children.get(state));
+                char[] chars = edges.isEmpty() ? NO_CHARS : new char[edges.size()];
+                int[] targets = edges.isEmpty() ? NO_INTS : new int[edges.size()];
+                int i = 0;
+                for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                    chars[i] = edge.getKey();
+                    targets[i++] = edge.getValue();
+                }
+                edgeChars[state] = chars;
+                edgeTargets[state] = targets;
+                for (int mask : terminals.get(state).values()) {
+                    allMask |= mask;
+                }
+            }
+
+            // 按 BFS 顺序计算失配指针，并把失配状态的输出并入当前状态
+            Deque<Integer> queue = new ArrayDeque<>();
+            outputLengths[0] = NO_INTS;
+            outputMasks[0] = NO_INTS;
+            for (int child : edgeTargets[0]) {
+                fail[child] = 0;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                Map<Integer, Integer> outputs = new LinkedHashMap<>(terminals.get(state));
+                if (state != 0 && fail[state] != 0) {
+                    int[] lengths = outputLengths[fail[state]];
+                    int[] masks = outputMasks[fail[state]];
+                    for (int k = 0; k < lengths.length; k++) {
+                        outputs.merge(lengths[k], masks[k], (a, b) -> a | b);
+                    }
+                }
+                outputLengths[state] = new int[outputs.size()];
+                outputMasks[state] = new int[outputs.size()];
+                int k = 0;
+                for (Map.Entry<Integer, Integer> output : outputs.entrySet()) {
+                    outputLengths[state][k] = output.getKey();
+                    outputMasks[state][k++] = output.getValue();
+                }
+
+                for (int i = 0; i < edgeChars[state].length; i++) {
+                    char c = edgeChars[state][i];
+                    int child = edgeTargets[state][i];
+                    int f = fail[state];
+                    int target;
+                    while ((target = find(edgeChars[f], edgeTargets[f], c)) < 0 && f != 0) {
+                        f = fail[f];
+                    }
+                    fail[child] = target < 0 || target == child ? 0 : target;
+                    queue.add(child);
+                }
+            }
+            return new KeywordAutomaton(edgeChars, edgeTargets, fail, outputLengths, outputMasks, allMask);
+        }
+
+        private int newState() {
+            children.add(new HashMap<>());
+            terminals.add(new HashMap<>());
+            return children.size() - 1;
+        }
+
+        private static int find(char[] chars, int[] targets, char c) {
+            int index = Arrays.binarySearch(chars, c);
+            return index >= 0 ? targets[index] : -1;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.x.pelegant.util;
+
+import com.x.pelegant.entity.Job;
+
+import java.util.regex.Pattern;
+
+/**
+ * 工作地点标准化工具
+ * 入库时计算一次地区编码和香港标记，查询时直接使用索引字段，避免对 workLocation 做正则全表扫描
+ */
+public class LocationNormalizer {
+
+    /** 香港 */
+    public static final String REGION_HK = "HK";
+    /** 非香港 */
+    public static final String REGION_OTHER = "OTHER";
+    /** 地点为空 */
+    public static final String REGION_UNKNOWN = "UNKNOWN";
+
+    /**
+     * 香港地点规则（合并原各 Service / Controller 中的 HONG_KONG_REGEX）
+     */
+    private static final Pattern HONG_KONG_PATTERN = Pattern.compile(
+            "^(HK|香港|Hong\\s?Kong|HongKong|HKSAR|Hong\\s?Kong\\s?SAR|HK\\s?SAR|香港特别行政区|香港岛" +
+                    "|Hong\\s?Kong,\\s?Hong\\s?Kong\\s?SAR|[A-Za-z\\s&]+,\\s?HK|[A-Za-z\\s&]+,\\s?(HKI|KOW|NT),\\s?HK" +
+                    "|[A-Za-z\\s&]+,\\s?Hong\\s?Kong\\s?SAR|Remote,\\s?HK|[A-Za-z\\s&]+,\\s?Hong\\s?Kong)$",
+            Pattern.CASE_INSENSITIVE);
+
+    private LocationNormalizer() {
+    }
+
+    /**
+     * 计算地区编码
+     */
+    public static String regionCodeOf(String workLocation) {
+        if (workLocation == null || workLocation.trim().isEmpty()) {
+            return REGION_UNKNOWN;
+        }
+        return HONG_KONG_PATTERN.matcher(workLocation.trim()).matches() ? REGION_HK : REGION_OTHER;
+    }
+
+    /**
+     * 判断是否香港地点
+     */
+    public static boolean isHongKong(String workLocation) {
+        return REGION_HK.equals(regionCodeOf(workLocation));
+    }
+
+    /**
+     * 根据职位当前的 workLocation 回填 regionCode / isHongKong
+     */
+    public static void apply(Job job) {
+        if (job == null) {
+            return;
+        }
+        String regionCode = regionCodeOf(job.getWorkLocation());
+        job.setRegionCode(regionCode);
+        job.setIsHongKong(REGION_HK.equals(regionCode));
+    }
+}
@@ -1,25 +1,35 @@
 package com.x.pelegant.util;
 
 import com.mongodb.client.*;
+import com.x.pelegant.util.exporter.ExportStreams;
 import org.bson.Document;
 import org.bson.types.ObjectId;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
 
 @Service
 public class MongoExporter {
 
     private static final Logger logger = LoggerFactory.getLogger(MongoExporter.class);
 
+    /**
+     * 游标每批读取的文档数
+     */
+    private static final int BATCH_SIZE = 500;
+
     /**
      * 导出指定 MongoDB 数据库的结构与数据到 JSON 文件
      * @param connectionString MongoDB 连接字符串
@@ -27,26 +37,10 @@ public class MongoExporter {
      * @param outputFile 导出结果的 JSON 文件路径
      */
     public File exportMongoDBStructureAndData(String connectionString, String databaseName, String outputFile) {
-        try (MongoClient mongoClient = MongoClients.create(connectionString)) {
-            MongoDatabase database = mongoClient.getDatabase(databaseName);
-
-            // 获取所有集合的名称
-            List<String> collectionNames = database.listCollectionNames().into(new ArrayList<>());
-            StringBuilder jsonContent = new StringBuilder();
-
-            // 遍历每个集合
-            for (String collectionName : collectionNames) {
-                MongoCollection<Document> collection = database.getCollection(collectionName);
-                jsonContent.append(generateCollectionData(collectionName, collection));
-            }
-
-            // 将内容写入 JSON 文件，设置 append = false，确保覆盖旧文件
-            try (FileWriter fileWriter = new FileWriter(outputFile, false)) {
-                fileWriter.write(jsonContent.toString());
-            }
-
+        try (MongoClient mongoClient = MongoClients.create(connectionString);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile, false))) {
+            exportMongoDBStructureAndData(mongoClient.getDatabase(databaseName), out, false);
             logger.info("数据已成功导出到 " + outputFile);
-
         } catch (Exception e) {
             logger.error("导出 MongoDB 数据失败", e);
         }
@@ -54,37 +48,53 @@ public class MongoExporter {
     }
 
     /**
-     * 生成集合数据的 JavaScript 格式，每行一个 JSON 对象
+     * 流式导出数据库的结构与数据：逐个集合按批读取游标，每个文档写出后即丢弃，内存占用与数据量无关
+     * @param database 要导出的数据库
+     * @param out 输出流（HTTP 响应或文件），不会被关闭
+     * @param gzip 是否 gzip 压缩
+     * @return 导出的文档数
+     */
+    public long exportMongoDBStructureAndData(MongoDatabase database, OutputStream out, boolean gzip) throws IOException {
+        long start = System.currentTimeMillis();
+        long total = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(ExportStreams.wrap(out, gzip), StandardCharsets.UTF_8))) {
+            for (String collectionName : database.listCollectionNames()) {
+                total += writeCollectionData(collectionName, database.getCollection(collectionName), writer);
+            }
+        }
+        logger.info("数据库导出完成: {} 个文档, gzip={}, 耗时 {} ms", total, gzip, System.currentTimeMillis() - start);
+        return total;
+    }
+
+    /**
+     * 写出集合数据的 JavaScript 格式，每行一个 JSON 对象
      * @param collectionName 集合名称
      * @param collection MongoDB 集合
-     * @return JavaScript 格式的字符串
+     * @return 写出的文档数
      */
-    private static String generateCollectionData(String collectionName, MongoCollection<Document> collection) {
-        StringBuilder jsonContent = new StringBuilder();
-
+    private static long writeCollectionData(String collectionName, MongoCollection<Document> collection, Writer writer)
+            throws IOException {
         // 删除现有集合，并创建新集合
-        jsonContent.append("db.getCollection(\"").append(collectionName).append("\").drop();\n");
-        jsonContent.append("db.createCollection(\"").append(collectionName).append("\");\n");
-
-        // 获取集合中的所有数据
-        List<Document> documents = collection.find().into(new ArrayList<>());
-        jsonContent.append("// ----------------------------\n");
-        jsonContent.append("// Documents of ").append(collectionName).append("\n");
-        jsonContent.append("// ----------------------------\n");
-
-        // 遍历每个文档
-        for (Document document : documents) {
-            // 将 ObjectId 转换为字符串
-            document = convertObjectIdToString(document);
-            // 将日期字段转换为指定格式
-            document = convertDateToCustomFormat(document);
-
-            // 写入 insert 语句
-            jsonContent.append("db.getCollection(\"").append(collectionName).append("\").insert([ ");
-            jsonContent.append(document.toJson()).append(" ]);\n");
+        writer.append("db.getCollection(\"").append(collectionName).append("\").drop();\n");
+        writer.append("db.createCollection(\"").append(collectionName).append("\");\n");
+
+        writer.append("// ----------------------------\n");
+        writer.append("// Documents of ").append(collectionName).append("\n");
+        writer.append("// ----------------------------\n");
+
+        long count = 0;
+        try (MongoCursor<Document> cursor = collection.find().batchSize(BATCH_SIZE).iterator()) {
+            while (cursor.hasNext()) {
+                // 将 ObjectId 转换为字符串，日期字段转换为指定格式
+                Document document = convertDateToCustomFormat(convertObjectIdToString(cursor.next()));
+
+                // 写入 insert 语句
+                writer.append("db.getCollection(\"").append(collectionName).append("\").insert([ ");
+                writer.append(document.toJson()).append(" ]);\n");
+                count++;
+            }
         }
-
-        return jsonContent.toString();
+        return count;
     }
 
     /**
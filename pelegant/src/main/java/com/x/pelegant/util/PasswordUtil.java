@@ -7,6 +7,8 @@ public class PasswordUtil {
 
     private static final String CHAR_POOL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
     private static final SecureRandom random = new SecureRandom();
+    // BCrypt 成本因子，启动时由 PasswordHashService 按配置设置
+    private static volatile int logRounds = 10;
     //随机生成密码
     public static String generateRandomPassword(int length) {
         StringBuilder sb = new StringBuilder(length);
@@ -18,11 +20,32 @@ public class PasswordUtil {
     }
     // 加密密码
     public static String encryptPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+        return BCrypt.hashpw(password, BCrypt.gensalt(logRounds));
     }
 
     // 验证密码
     public static boolean checkPassword(String password, String storedHash) {
         return BCrypt.checkpw(password, storedHash);
     }
+
+    // 设置新密码使用的成本因子
+    public static void setLogRounds(int rounds) {
+        logRounds = rounds;
+    }
+
+    public static int getLogRounds() {
+        return logRounds;
+    }
+
+    // 已存哈希的成本因子与当前配置不一致时需要重新哈希（格式 $2a$10$...）
+    public static boolean needsRehash(String storedHash) {
+        if (storedHash == null || storedHash.length() < 7 || storedHash.charAt(0) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(storedHash.substring(4, 6)) != logRounds;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
 }
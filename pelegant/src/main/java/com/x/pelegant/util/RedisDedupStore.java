@@ -0,0 +1,279 @@
+package com.x.pelegant.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 爬虫职位去重的 Redis 存储
+ * 一批记录的去重检查在一个 pipeline 中完成（SET NX EX 占位 + GET 描述指纹），写指纹和保存后的标记也各用一个 pipeline；
+ * 每个去重键只保存描述的 SimHash 指纹 dedup:sig:{key} 并各自过期。
+ * 旧版的描述全文（dedup:desc:{key} 及 dedup:descriptions 哈希）只读兼容，读取后换算为指纹，自然过期
+ */
+@Component
+public class RedisDedupStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisDedupStore.class);
+
+    private static final String JOB_KEY_PREFIX = "dedup:job:";
+    private static final String SIG_KEY_PREFIX = "dedup:sig:";
+    /** 旧版描述全文，只读 */
+    private static final String DESC_KEY_PREFIX = "dedup:desc:";
+    /** 旧版描述哈希，只读 */
+    private static final String LEGACY_DESC_HASH = "dedup:descriptions";
+
+    private static final long TTL_SECONDS = TimeUnit.DAYS.toSeconds(30);
+    private static final byte[] MARKER = "1".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    private final Counter checkedCounter;
+    private final Counter hitCounter;
+    private final Timer redisTimer;
+
+    public RedisDedupStore(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            checkedCounter = Counter.builder("crawler.dedup.checked").description("去重检查的记录数").register(registry);
+            hitCounter = Counter.builder("crawler.dedup.hits").description("判定为重复的记录数").register(registry);
+            redisTimer = Timer.builder("crawler.dedup.redis").description("去重 Redis pipeline 耗时").register(registry);
+        } else {
+            checkedCounter = null;
+            hitCounter = null;
+            redisTimer = null;
+        }
+    }
+
+    /**
+     * 预取一批去重键的状态：一次 pipeline 内对每个键执行 SET NX EX 占位并读取已保存的指纹
+     */
+    public Batch prefetch(Collection<String> dedupKeys) {
+        Batch batch = new Batch();
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(dedupKeys));
+        if (keys.isEmpty()) {
+            return batch;
+        }
+
+        long start = System.nanoTime();
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.stringCommands().set(bytes(JOB_KEY_PREFIX + key), MARKER,
+                        Expiration.seconds(TTL_SECONDS), RedisStringCommands.SetOption.ifAbsent());
+                connection.stringCommands().get(bytes(SIG_KEY_PREFIX + key));
+                connection.stringCommands().get(bytes(DESC_KEY_PREFIX + key));
+            }
+            byte[][] fields = new byte[keys.size()][];
+            for (int i = 0; i < keys.size(); i++) {
+                fields[i] = bytes(keys.get(i));
+            }
+            connection.hashCommands().hMGet(bytes(LEGACY_DESC_HASH), fields);
+            return null;
+        });
+        batch.addRedisTime(System.nanoTime() - start);
+
+        List<?> legacy = (List<?>) results.get(keys.size() * 3);
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            batch.claimedInRedis.put(key, Boolean.TRUE.equals(results.get(i * 3)));
+            Long signature = parseSignature(results.get(i * 3 + 1));
+            if (signature == null) {
+                Object desc = results.get(i * 3 + 2);
+                if (desc == null && legacy != null) {
+                    desc = legacy.get(i);
+                }
+                signature = desc != null ? SimHash.of(desc.toString()) : null;
+            }
+            if (signature != null) {
+                batch.storedSignatures.put(key, signature);
+            }
+        }
+        return batch;
+    }
+
+    private static Long parseSignature(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 一批记录的去重状态，非线程安全，每批单独创建
+     */
+    public class Batch {
+
+        private final Map<String, Boolean> claimedInRedis = new HashMap<>();
+        private final Map<String, Long> storedSignatures = new HashMap<>();
+        private final Set<String> seen = new HashSet<>();
+        private final Map<String, Long> pendingSignatures = new LinkedHashMap<>();
+        private final Set<String> savedKeys = new HashSet<>();
+        private int checked;
+        private int hits;
+        private long redisNanos;
+
+        /**
+         * 占用去重键：该键此前不存在（本批首次出现且 Redis 中 SET NX 成功）时返回 true
+         */
+        public boolean claim(String dedupKey) {
+            checked++;
+            if (!seen.add(dedupKey)) {
+                return false;
+            }
+            return Boolean.TRUE.equals(claimedInRedis.get(dedupKey));
+        }
+
+        /**
+         * 已保存的描述指纹（优先本批待写入的）
+         */
+        public Long signature(String dedupKey) {
+            Long pending = pendingSignatures.get(dedupKey);
+            return pending != null ? pending : storedSignatures.get(dedupKey);
+        }
+
+        /**
+         * 登记待写入的描述指纹，flush 时批量写入
+         */
+        public void putSignature(String dedupKey, Long signature) {
+            if (signature != null) {
+                pendingSignatures.put(dedupKey, signature);
+            }
+        }
+
+        public void recordHit() {
+            hits++;
+        }
+
+        /**
+         * 一个 pipeline 写入待写指纹（每个键单独过期）
+         */
+        public void flush() {
+            if (pendingSignatures.isEmpty()) {
+                return;
+            }
+            Map<String, Long> toWrite = new LinkedHashMap<>(pendingSignatures);
+            pendingSignatures.clear();
+            toWrite.forEach(storedSignatures::put);
+
+            long start = System.nanoTime();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<String, Long> entry : toWrite.entrySet()) {
+                    connection.stringCommands().set(bytes(SIG_KEY_PREFIX + entry.getKey()), bytes(entry.getValue().toString()),
+                            Expiration.seconds(TTL_SECONDS), RedisStringCommands.SetOption.upsert());
+                }
+                return null;
+            });
+            addRedisTime(System.nanoTime() - start);
+        }
+
+        /**
+         * 记录已入库的职位：一个 pipeline 内刷新去重标记和描述指纹的过期时间
+         *
+         * @param saved 去重键 -> 职位描述指纹（可为 null）
+         */
+        public void markSaved(Map<String, Long> saved) {
+            if (saved.isEmpty()) {
+                return;
+            }
+            savedKeys.addAll(saved.keySet());
+            long start = System.nanoTime();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Map.Entry<String, Long> entry : saved.entrySet()) {
+                    connection.stringCommands().set(bytes(JOB_KEY_PREFIX + entry.getKey()), MARKER,
+                            Expiration.seconds(TTL_SECONDS), RedisStringCommands.SetOption.upsert());
+                    if (entry.getValue() != null) {
+                        connection.stringCommands().set(bytes(SIG_KEY_PREFIX + entry.getKey()), bytes(entry.getValue().toString()),
+                                Expiration.seconds(TTL_SECONDS), RedisStringCommands.SetOption.upsert());
+                    }
+                }
+                return null;
+            });
+            addRedisTime(System.nanoTime() - start);
+        }
+
+        /**
+         * 批次处理失败时释放本批 SET NX 占用、但职位未入库的去重键及其指纹，重新处理时不会被误判为重复
+         */
+        public void release() {
+            pendingSignatures.clear();
+            List<String> unsaved = new ArrayList<>();
+            claimedInRedis.forEach((key, claimed) -> {
+                if (claimed && !savedKeys.contains(key)) {
+                    unsaved.add(key);
+                }
+            });
+            if (unsaved.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String key : unsaved) {
+                    connection.keyCommands().del(bytes(JOB_KEY_PREFIX + key), bytes(SIG_KEY_PREFIX + key));
+                }
+                return null;
+            });
+            addRedisTime(System.nanoTime() - start);
+            logger.info("去重批次失败，已释放 {} 个未入库的去重键", unsaved.size());
+        }
+
+        public int getChecked() {
+            return checked;
+        }
+
+        public int getHits() {
+            return hits;
+        }
+
+        /**
+         * 重复命中率
+         */
+        public double getHitRate() {
+            return checked == 0 ? 0.0 : (double) hits / checked;
+        }
+
+        public long getRedisMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(redisNanos);
+        }
+
+        /**
+         * 批次结束：写出剩余指纹，上报命中率和 Redis 耗时
+         */
+        public void finish() {
+            flush();
+            if (checkedCounter != null) {
+                checkedCounter.increment(checked);
+                hitCounter.increment(hits);
+            }
+            logger.info("去重批次完成: 检查 {} 条，重复 {} 条，命中率 {}，Redis 耗时 {} ms",
+                    checked, hits, String.format("%.2f", getHitRate()), getRedisMillis());
+        }
+
+        private void addRedisTime(long nanos) {
+            redisNanos += nanos;
+            if (redisTimer != null) {
+                redisTimer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
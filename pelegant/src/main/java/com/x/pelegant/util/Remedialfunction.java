@@ -9,11 +9,15 @@ import com.x.pelegant.repository.RecommendedWorkRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -170,5 +174,64 @@ public class Remedialfunction {
         return "推荐工作 JobId 修复完成，共修复 " + updatedCount + " 条记录，删除 " + deletedCount + " 条记录。";
     }
 
+    /**
+     * 启动后自动回填缺少 isHongKong 标记的职位
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillJobLocationOnStartup() {
+        try {
+            backfillJobLocation(false);
+        } catch (Exception e) {
+            logger.error("启动时回填职位地区标记失败", e);
+        }
+    }
+
+    /**
+     * 回填职位的 regionCode / isHongKong
+     *
+     * @param all true 重新计算全部职位，false 只处理缺少 isHongKong 的职位
+     */
+    public String backfillJobLocation(boolean all) {
+        final int batchSize = 1000;
+        int updatedCount = 0;
+        Object lastId = null;
+
+        while (true) {
+            Query query = new Query();
+            if (!all) {
+                query.addCriteria(Criteria.where("isHongKong").exists(false));
+            }
+            // 全量模式按 _id 翻页；增量模式已处理的文档会自动离开筛选范围
+            if (all && lastId != null) {
+                query.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            query.with(Sort.by(Sort.Direction.ASC, "_id"));
+            query.limit(batchSize);
+            query.fields().include("workLocation");
 
-}
\ No newline at end of file
+            List<org.bson.Document> docs = mongoTemplate.find(query, org.bson.Document.class, "job");
+            if (docs.isEmpty()) {
+                break;
+            }
+
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, "job");
+            for (org.bson.Document doc : docs) {
+                String regionCode = LocationNormalizer.regionCodeOf(doc.getString("workLocation"));
+                bulkOps.updateOne(
+                        new Query(Criteria.where("_id").is(doc.get("_id"))),
+                        new Update().set("regionCode", regionCode)
+                                .set("isHongKong", LocationNormalizer.REGION_HK.equals(regionCode)));
+            }
+            int modified = bulkOps.execute().getModifiedCount();
+            updatedCount += modified;
+            if (!all && modified == 0) {
+                break;
+            }
+            lastId = docs.get(docs.size() - 1).get("_id");
+        }
+
+        logger.info("职位地区标记回填完成，共更新 {} 条记录。", updatedCount);
+        return "职位地区标记回填完成，共更新 " + updatedCount + " 条记录。";
+    }
+}
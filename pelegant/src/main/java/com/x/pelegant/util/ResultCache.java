@@ -0,0 +1,110 @@
+package com.x.pelegant.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 统计结果短期缓存
+ * 缓存整页聚合结果，过期或数据变更（如职位导入）时失效；条目数有上限，过期条目由 Caffeine 自动清除
+ */
+@Component
+public class ResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultCache.class);
+
+    /** 职位相关缓存键前缀，职位写入后统一失效 */
+    public static final String JOB_PREFIX = "job:";
+
+    /** 职位概览 */
+    public static final String JOB_OVERVIEW = JOB_PREFIX + "overview";
+
+    /** 企业相关缓存键前缀，企业新增 / 修改后统一失效 */
+    public static final String COMPANY_PREFIX = "company:";
+
+    /** 学生相关缓存键前缀，学生新增 / 修改 / 删除后统一失效 */
+    public static final String STUDENT_PREFIX = "student:";
+
+    /** 学校相关缓存键前缀，学校新增 / 修改 / 删除后统一失效 */
+    public static final String SCHOOL_PREFIX = "school:";
+
+    /** 最多缓存的条目数，超出按最近最少使用淘汰 */
+    @Value("${pelegant.cache.max-entries:10000}")
+    private long maxEntries;
+
+    private Cache<String, Entry> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 读取缓存，不存在或已过期时调用 loader 重新计算
+     * loader 返回 null 时不缓存
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, long ttlMillis, Supplier<T> loader) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null) {
+            return (T) entry.value;
+        }
+        T value = loader.get();
+        if (value != null) {
+            cache.put(key, new Entry(value, TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+        }
+        return value;
+    }
+
+    /**
+     * 使单个缓存失效
+     */
+    public void evict(String key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * 使指定前缀的缓存全部失效
+     */
+    public void evictByPrefix(String prefix) {
+        if (cache.asMap().keySet().removeIf(key -> key.startsWith(prefix))) {
+            logger.debug("缓存已失效: prefix={}", prefix);
+        }
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final long ttlNanos;
+
+        private Entry(Object value, long ttlNanos) {
+            this.value = value;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.x.pelegant.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 职位描述的 64 位 SimHash 指纹
+ * 特征为小写的字母数字词（中日韩文字按相邻两字切分），按词频加权。两条描述指纹的汉明距离 d 约为 64·θ/π
+ * （θ 为两者词频向量的夹角），因此按 cos(π·d/64) 估算 DescriptionSimilarity 的余弦相似度，只凭指纹判定是否近似重复；
+ * 余弦 0.8 附近估算的标准差约 0.1，阈值附近的描述对可能与全文计算的结果不同。
+ * 指纹按 8 位分为 8 段（LSH banding），查找时每段再探测相差 1 位的取值（multi-probe）：
+ * 距离不超过 PROBE_DISTANCE 的两个指纹至少有一段相差不到 2 位，因此一定共享某个探测键
+ */
+public final class SimHash {
+
+    public static final int BANDS = 8;
+    public static final int BAND_BITS = 64 / BANDS;
+    /** 探测键保证召回的最大汉明距离，须不小于判定阈值对应的距离（见 maxDistance） */
+    public static final int PROBE_DISTANCE = 2 * BANDS - 1;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SimHash() {
+    }
+
+    /**
+     * 计算指纹，文本中没有可用的词时返回 null
+     */
+    public static Long of(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        Map<String, Integer> features = features(text);
+        if (features.isEmpty()) {
+            return null;
+        }
+        int[] weights = new int[64];
+        for (Map.Entry<String, Integer> feature : features.entrySet()) {
+            long hash = hash(feature.getKey());
+            int weight = feature.getValue();
+            for (int bit = 0; bit < 64; bit++) {
+                weights[bit] += ((hash >>> bit) & 1L) != 0 ? weight : -weight;
+            }
+        }
+        long signature = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                signature |= 1L << bit;
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * 指纹的分段键：段序号放在高位，不同段的相同取值互不冲突，入库时保存
+     */
+    public static List<Long> bands(long signature) {
+        List<Long> bands = new ArrayList<>(BANDS);
+        for (int i = 0; i < BANDS; i++) {
+            bands.add(bandKey(i, signature >>> (i * BAND_BITS)));
+        }
+        return bands;
+    }
+
+    /**
+     * 查找用的探测键：每段的原值及相差 1 位的取值，共 BANDS·(BAND_BITS + 1) 个
+     */
+    public static List<Long> probes(long signature) {
+        List<Long> probes = new ArrayList<>(BANDS * (BAND_BITS + 1));
+        for (int i = 0; i < BANDS; i++) {
+            long band = signature >>> (i * BAND_BITS);
+            probes.add(bandKey(i, band));
+            for (int bit = 0; bit < BAND_BITS; bit++) {
+                probes.add(bandKey(i, band ^ (1L << bit)));
+            }
+        }
+        return probes;
+    }
+
+    private static long bandKey(int band, long value) {
+        return ((long) band << BAND_BITS) | (value & ((1L << BAND_BITS) - 1));
+    }
+
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * 由指纹距离估算的余弦相似度 cos(π·d/64)
+     */
+    public static double estimateCosine(int distance) {
+        return Math.cos(Math.PI * distance / 64);
+    }
+
+    /**
+     * 估算余弦相似度达到 threshold 的最大距离：0.8 对应 13，0.9 对应 9
+     */
+    public static int maxDistance(double threshold) {
+        return (int) Math.floor(64 * Math.acos(threshold) / Math.PI + 1e-9);
+    }
+
+    /**
+     * 按指纹判定近似重复：估算的余弦相似度不低于 threshold（DescriptionSimilarity.threshold）
+     */
+    public static boolean isNearDuplicate(long a, long b, double threshold) {
+        return distance(a, b) <= maxDistance(threshold);
+    }
+
+    /**
+     * 描述的词频特征，DescriptionSimilarity 的余弦相似度使用同一分词
+     */
+    static Map<String, Integer> features(String text) {
+        Map<String, Integer> features = new HashMap<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0, n = text.length(); i <= n; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c) && !Character.isIdeographic(c)) {
+                word.append(Character.toLowerCase(c));
+                continue;
+            }
+            if (word.length() > 0) {
+                features.merge(word.toString(), 1, Integer::sum);
+                word.setLength(0);
+            }
+            // 中日韩文字没有空格分词，按相邻两字作为特征
+            if (i < n && Character.isIdeographic(c)) {
+                boolean next = i + 1 < n && Character.isIdeographic(text.charAt(i + 1));
+                boolean previous = i > 0 && Character.isIdeographic(text.charAt(i - 1));
+                if (next) {
+                    features.merge(text.substring(i, i + 2), 1, Integer::sum);
+                } else if (!previous) {
+                    features.merge(String.valueOf(c), 1, Integer::sum);
+                }
+            }
+        }
+        return features;
+    }
+
+    /**
+     * FNV-1a 后再做一次 64 位混合，使各位分布均匀
+     */
+    private static long hash(String feature) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < feature.length(); i++) {
+            hash ^= feature.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
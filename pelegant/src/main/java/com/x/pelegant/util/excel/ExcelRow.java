@@ -0,0 +1,61 @@
+package com.x.pelegant.util.excel;
+
+import java.util.List;
+
+/**
+ * Excel 中的一行（单元格已转为去除首尾空白的字符串，空单元格为 null）
+ */
+public class ExcelRow {
+
+    private final int sheetIndex;
+    private final int rowNumber;
+    private final List<String> cells;
+
+    public ExcelRow(int sheetIndex, int rowNumber, List<String> cells) {
+        this.sheetIndex = sheetIndex;
+        this.rowNumber = rowNumber;
+        this.cells = cells;
+    }
+
+    /**
+     * 工作表下标（从 0 开始）
+     */
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    /**
+     * Excel 行号（从 1 开始）
+     */
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * 指定列的值，空单元格返回 null
+     */
+    public String getString(int column) {
+        return column < cells.size() ? cells.get(column) : null;
+    }
+
+    /**
+     * 指定列的值，空单元格返回默认值
+     */
+    public String getString(int column, String defaultValue) {
+        String value = getString(column);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * 必填列的值
+     *
+     * @throws ExcelRowException 单元格为空
+     */
+    public String getRequired(int column, String message) {
+        String value = getString(column);
+        if (value == null) {
+            throw new ExcelRowException(message);
+        }
+        return value;
+    }
+}
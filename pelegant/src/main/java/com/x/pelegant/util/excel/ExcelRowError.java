@@ -0,0 +1,27 @@
+package com.x.pelegant.util.excel;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Excel 行校验错误
+ */
+@Data
+@AllArgsConstructor
+public class ExcelRowError {
+
+    /**
+     * 工作表下标（从 0 开始）
+     */
+    private int sheetIndex;
+
+    /**
+     * Excel 行号（从 1 开始）
+     */
+    private int rowNumber;
+
+    /**
+     * 错误信息
+     */
+    private String message;
+}
@@ -0,0 +1,11 @@
+package com.x.pelegant.util.excel;
+
+/**
+ * Excel 行校验失败，异常信息即返回给用户的错误说明
+ */
+public class ExcelRowException extends RuntimeException {
+
+    public ExcelRowException(String message) {
+        super(message);
+    }
+}
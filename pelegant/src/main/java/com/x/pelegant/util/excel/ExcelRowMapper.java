@@ -0,0 +1,11 @@
+package com.x.pelegant.util.excel;
+
+/**
+ * 把 Excel 行转换为业务对象
+ * 返回 null 表示跳过该行（如说明行），抛出 ExcelRowException 表示该行校验失败
+ */
+@FunctionalInterface
+public interface ExcelRowMapper<T> {
+
+    T map(ExcelRow row);
+}
@@ -0,0 +1,314 @@
+package com.x.pelegant.util.excel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Excel 流式导入
+ * .xlsx 使用 POI 事件模型（XSSFReader + SAX）直接从文件逐行解析，不构建工作簿 DOM，内存与行数无关；
+ * .xls 没有对应的流式格式，仍按工作簿读取（上传大小受限，影响可控）。
+ * 单元格统一转为去除首尾空白的字符串，整数不带小数点，空单元格为 null；全空的行直接跳过。
+ * 业务导入实现 ExcelRowMapper 把行转换为对象，校验失败抛出 ExcelRowException，按行收集为 ExcelRowError
+ */
+@Slf4j
+public final class ExcelRowReader {
+
+    private ExcelRowReader() {
+    }
+
+    /**
+     * 行回调
+     */
+    public interface RowHandler {
+
+        void handle(ExcelRow row);
+    }
+
+    /**
+     * 是否为支持的 Excel 文件名
+     */
+    public static boolean isExcelFile(String fileName) {
+        return fileName != null && (fileName.endsWith(".xlsx") || fileName.endsWith(".xls"));
+    }
+
+    /**
+     * 读取上传的 Excel 并逐行转换（上传内容先转存为临时文件，读取后删除）
+     *
+     * @param onRow   转换成功的行（mapper 返回 null 的行不回调）
+     * @param onError 校验失败的行
+     */
+    public static <T> void read(MultipartFile file, Options options, ExcelRowMapper<T> mapper,
+                                BiConsumer<ExcelRow, T> onRow, Consumer<ExcelRowError> onError) throws IOException {
+        String fileName = file.getOriginalFilename();
+        if (!isExcelFile(fileName)) {
+            throw new IOException("无法解析Excel文件");
+        }
+        File tempFile = Files.createTempFile("excel-import-", fileName.substring(fileName.lastIndexOf('.'))).toFile();
+        try {
+            file.transferTo(tempFile);
+            read(tempFile, fileName, options, mapper, onRow, onError);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * 读取 Excel 文件并逐行转换
+     *
+     * @param fileName 原始文件名（按扩展名区分 .xlsx / .xls）
+     * @param onRow    转换成功的行（mapper 返回 null 的行不回调）
+     * @param onError  校验失败的行
+     */
+    public static <T> void read(File file, String fileName, Options options, ExcelRowMapper<T> mapper,
+                                BiConsumer<ExcelRow, T> onRow, Consumer<ExcelRowError> onError) throws IOException {
+        read(file, fileName, options, row -> {
+            T value;
+            try {
+                value = mapper.map(row);
+            } catch (RuntimeException e) {
+                // 单行转换失败不影响其他行
+                onError.accept(new ExcelRowError(row.getSheetIndex(), row.getRowNumber(), e.getMessage()));
+                return;
+            }
+            if (value != null) {
+                onRow.accept(row, value);
+            }
+        });
+    }
+
+    /**
+     * 按文件扩展名读取选中工作表的非空数据行（已跳过标题行）
+     */
+    public static void read(File file, String fileName, Options options, RowHandler handler) throws IOException {
+        if (fileName != null && fileName.endsWith(".xlsx")) {
+            readXlsx(file, options, handler);
+        } else if (fileName != null && fileName.endsWith(".xls")) {
+            readXls(file, options, handler);
+        } else {
+            throw new IOException("无法解析Excel文件");
+        }
+    }
+
+    private static void readXlsx(File file, Options options, RowHandler handler) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            DataFormatter formatter = new PlainNumberFormatter();
+
+            // 先取工作表名确定要读的表，再逐个流式解析
+            List<String> names = new ArrayList<>();
+            XSSFReader.SheetIterator it = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (it.hasNext()) {
+                it.next().close();
+                names.add(it.getSheetName());
+            }
+            Set<Integer> selected = options.select(names);
+
+            it = (XSSFReader.SheetIterator) reader.getSheetsData();
+            for (int sheetIndex = 0; it.hasNext(); sheetIndex++) {
+                try (InputStream sheet = it.next()) {
+                    if (!selected.contains(sheetIndex)) {
+                        continue;
+                    }
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings,
+                            new RowCollector(sheetIndex, options.headerRows, handler), formatter, false));
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("无法解析Excel文件: " + e.getMessage(), e);
+        }
+    }
+
+    private static void readXls(File file, Options options, RowHandler handler) throws IOException {
+        DataFormatter formatter = new PlainNumberFormatter();
+        try (Workbook workbook = new HSSFWorkbook(new POIFSFileSystem(file, true))) {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                names.add(workbook.getSheetName(i));
+            }
+            for (int sheetIndex : options.select(names)) {
+                Sheet sheet = workbook.getSheetAt(sheetIndex);
+                for (Row row : sheet) {
+                    if (row.getRowNum() < options.headerRows) {
+                        continue;
+                    }
+                    List<String> cells = new ArrayList<>();
+                    for (Cell cell : row) {
+                        String value = cell.getCellType() == CellType.NUMERIC && !DateUtil.isCellDateFormatted(cell)
+                                ? formatter.formatRawCellContents(cell.getNumericCellValue(),
+                                cell.getCellStyle().getDataFormat(), cell.getCellStyle().getDataFormatString())
+                                : formatter.formatCellValue(cell);
+                        setCell(cells, cell.getColumnIndex(), value);
+                    }
+                    if (!isBlank(cells)) {
+                        handler.handle(new ExcelRow(sheetIndex, row.getRowNum() + 1, cells));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void setCell(List<String> cells, int column, String value) {
+        while (cells.size() <= column) {
+            cells.add(null);
+        }
+        String trimmed = value != null ? value.trim() : null;
+        cells.set(column, trimmed == null || trimmed.isEmpty() ? null : trimmed);
+    }
+
+    private static boolean isBlank(List<String> cells) {
+        for (String cell : cells) {
+            if (cell != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取选项：读哪些工作表、每个表跳过几行标题
+     */
+    public static class Options {
+        private final boolean allSheets;
+        private final String sheetName;
+        private int headerRows = 1;
+
+        private Options(boolean allSheets, String sheetName) {
+            this.allSheets = allSheets;
+            this.sheetName = sheetName;
+        }
+
+        /**
+         * 读取所有工作表
+         */
+        public static Options allSheets() {
+            return new Options(true, null);
+        }
+
+        /**
+         * 只读取第一个工作表
+         */
+        public static Options firstSheet() {
+            return new Options(false, null);
+        }
+
+        /**
+         * 读取指定名称的工作表（忽略大小写），不存在时读取第一个
+         */
+        public static Options sheetOrFirst(String sheetName) {
+            return new Options(false, sheetName);
+        }
+
+        /**
+         * 每个工作表开头跳过的标题行数，默认 1
+         */
+        public Options headerRows(int headerRows) {
+            this.headerRows = headerRows;
+            return this;
+        }
+
+        private Set<Integer> select(List<String> names) {
+            Set<Integer> selected = new TreeSet<>();
+            if (allSheets) {
+                for (int i = 0; i < names.size(); i++) {
+                    selected.add(i);
+                }
+                return selected;
+            }
+            if (sheetName != null) {
+                for (int i = 0; i < names.size(); i++) {
+                    if (sheetName.equalsIgnoreCase(names.get(i))) {
+                        selected.add(i);
+                        return selected;
+                    }
+                }
+                log.debug("未找到工作表 {}，读取第一个工作表", sheetName);
+            }
+            if (!names.isEmpty()) {
+                selected.add(0);
+            }
+            return selected;
+        }
+    }
+
+    /**
+     * 把 SAX 单元格事件收集成行
+     */
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final int sheetIndex;
+        private final int headerRows;
+        private final RowHandler handler;
+        private List<String> cells;
+
+        private RowCollector(int sheetIndex, int headerRows, RowHandler handler) {
+            this.sheetIndex = sheetIndex;
+            this.headerRows = headerRows;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells = new ArrayList<>();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum >= headerRows && !isBlank(cells)) {
+                handler.handle(new ExcelRow(sheetIndex, rowNum + 1, cells));
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            setCell(cells, new CellReference(cellReference).getCol(), formattedValue);
+        }
+    }
+
+    /**
+     * 非日期格式的整数按原值输出（学号、年份等不出现小数点或科学计数法）
+     */
+    private static class PlainNumberFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (!DateUtil.isADateFormat(formatIndex, formatString)
+                    && value == Math.rint(value) && Math.abs(value) < 1e15) {
+                return String.valueOf((long) value);
+            }
+            return super.formatRawCellContents(value, formatIndex, formatString, use1904Windowing);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.x.pelegant.util.exporter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * CSV（RFC 4180 转义，UTF-8）
+ */
+class CsvTabularWriter implements TabularWriter {
+
+    private final BufferedWriter writer;
+    private long rowCount;
+
+    CsvTabularWriter(OutputStream out, List<String> columns) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        write(columns);
+    }
+
+    @Override
+    public void writeRow(List<?> values) throws IOException {
+        write(values);
+        rowCount++;
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    private void write(List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(values.get(i)));
+        }
+        writer.newLine();
+    }
+
+    private static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String field = value.toString();
+        if (field.contains(",") || field.contains("\"") || field.contains("\n") || field.contains("\r")) {
+            return "\"" + field.replace("\"", "\"\"") + "\"";
+        }
+        return field;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
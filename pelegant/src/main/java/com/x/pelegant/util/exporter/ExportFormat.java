@@ -0,0 +1,44 @@
+package com.x.pelegant.util.exporter;
+
+/**
+ * 导出文件格式
+ */
+public enum ExportFormat {
+
+    CSV("text/csv", ".csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", ".xlsx"),
+    NDJSON("application/x-ndjson", ".ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * 按名称解析（忽略大小写），为空时默认 CSV
+     *
+     * @throws IllegalArgumentException 不支持的格式
+     */
+    public static ExportFormat of(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return CSV;
+        }
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name.trim())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("不支持的导出格式: " + name);
+    }
+}
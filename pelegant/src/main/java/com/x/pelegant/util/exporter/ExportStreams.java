@@ -0,0 +1,50 @@
+package com.x.pelegant.util.exporter;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 导出输出流包装
+ * 关闭包装流时只结束 gzip 并刷新，不关闭底层流（HTTP 响应流由容器关闭，文件流由调用方关闭）
+ */
+public final class ExportStreams {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ExportStreams() {
+    }
+
+    /**
+     * @param gzip 是否 gzip 压缩
+     */
+    public static OutputStream wrap(OutputStream out, boolean gzip) throws IOException {
+        OutputStream target = new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        return gzip ? new GZIPOutputStream(target, BUFFER_SIZE) : target;
+    }
+
+    /**
+     * 导出文件名（gzip 时追加 .gz）
+     */
+    public static String fileName(String baseName, ExportFormat format, boolean gzip) {
+        return baseName + format.getExtension() + (gzip ? ".gz" : "");
+    }
+
+    /**
+     * 响应的 Content-Type
+     */
+    public static String contentType(ExportFormat format, boolean gzip) {
+        return gzip ? "application/gzip" : format.getContentType();
+    }
+}
@@ -0,0 +1,48 @@
+package com.x.pelegant.util.exporter;
+
+import com.x.pelegant.config.ExecutorConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 流式导出的异步任务
+ * 在导出线程池中直接写响应流，超时时间只作用于导出接口，其他异步请求仍使用容器默认超时
+ */
+@Component
+public class ExportTasks {
+
+    @Autowired
+    @Qualifier(ExecutorConfig.EXPORT_EXECUTOR)
+    private ThreadPoolTaskExecutor exportExecutor;
+
+    /**
+     * 单次导出最长时间（毫秒）
+     */
+    @Value("${pelegant.export.timeout-ms:600000}")
+    private long timeoutMs;
+
+    /**
+     * 设置下载响应头并返回写出任务
+     *
+     * @param fileName    下载文件名
+     * @param contentType 响应的 Content-Type
+     */
+    public WebAsyncTask<Void> stream(HttpServletResponse response, String fileName, String contentType,
+                                     StreamingResponseBody body) {
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+        response.setContentType(contentType);
+        return new WebAsyncTask<>(timeoutMs, exportExecutor, () -> {
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+}
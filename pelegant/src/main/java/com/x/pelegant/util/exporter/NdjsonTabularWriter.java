@@ -0,0 +1,51 @@
+package com.x.pelegant.util.exporter;
+
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * NDJSON：每行一个以列名为键的 JSON 对象
+ */
+class NdjsonTabularWriter implements TabularWriter {
+
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED).build();
+
+    private final BufferedWriter writer;
+    private final List<String> columns;
+    private long rowCount;
+
+    NdjsonTabularWriter(OutputStream out, List<String> columns) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.columns = columns;
+    }
+
+    @Override
+    public void writeRow(List<?> values) throws IOException {
+        Document line = new Document();
+        for (int i = 0; i < columns.size(); i++) {
+            line.append(columns.get(i), i < values.size() ? values.get(i) : null);
+        }
+        writer.write(line.toJson(JSON_SETTINGS));
+        writer.newLine();
+        rowCount++;
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
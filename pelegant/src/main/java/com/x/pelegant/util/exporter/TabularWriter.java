@@ -0,0 +1,40 @@
+package com.x.pelegant.util.exporter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 逐行写出表格数据（CSV / XLSX / NDJSON），写出的行不在内存中保留
+ */
+public interface TabularWriter extends Closeable {
+
+    /**
+     * 写一行，值的顺序与列名一致；null 写为空
+     */
+    void writeRow(List<?> values) throws IOException;
+
+    /**
+     * 已写出的数据行数（不含表头）
+     */
+    long getRowCount();
+
+    /**
+     * 打开写出器并写入表头；关闭写出器时结束文件（不关闭 out）
+     *
+     * @param gzip 是否 gzip 压缩
+     */
+    static TabularWriter open(ExportFormat format, OutputStream out, List<String> columns, boolean gzip)
+            throws IOException {
+        OutputStream target = ExportStreams.wrap(out, gzip);
+        switch (format) {
+            case XLSX:
+                return new XlsxTabularWriter(target, columns);
+            case NDJSON:
+                return new NdjsonTabularWriter(target, columns);
+            default:
+                return new CsvTabularWriter(target, columns);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.x.pelegant.util.exporter;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * XLSX（SXSSF）：内存中只保留最近 ROW_WINDOW 行，其余行压缩写入临时文件，关闭时合并输出
+ */
+class XlsxTabularWriter implements TabularWriter {
+
+    private static final int ROW_WINDOW = 100;
+    private static final int MAX_CELL_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private final SXSSFSheet sheet;
+    private int nextRow;
+
+    XlsxTabularWriter(OutputStream out, List<String> columns) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+        this.sheet = workbook.createSheet();
+        write(columns);
+    }
+
+    @Override
+    public void writeRow(List<?> values) throws IOException {
+        if (nextRow > SpreadsheetVersion.EXCEL2007.getLastRowIndex()) {
+            throw new IOException("超出 XLSX 最大行数，请改用 CSV 或 NDJSON 导出");
+        }
+        write(values);
+    }
+
+    @Override
+    public long getRowCount() {
+        return Math.max(0, nextRow - 1);
+    }
+
+    private void write(List<?> values) {
+        Row row = sheet.createRow(nextRow++);
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value instanceof Number) {
+                row.createCell(i).setCellValue(((Number) value).doubleValue());
+            } else if (value != null) {
+                String text = value.toString();
+                row.createCell(i).setCellValue(text.length() > MAX_CELL_LENGTH ? text.substring(0, MAX_CELL_LENGTH) : text);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.write(out);
+            out.close();
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.x.pelegant.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.x.pelegant.service.NewDataMigrationService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 爬虫记录进入迁移前每条记录的 CPU 开销（ns/条）
+ * jsonRoundTrip 复现改造前的路径：已解析的记录先 writeValueAsString，再由 parseJsonInput 逐个 readTree / convertValue；
+ * typedHandOff 为当前路径：记录直接按批次交给 migrateRawBatch。之后的去重、分类、写库两条路径相同，不在测量范围内。
+ * 附带 GC profiler，gc.alloc.rate.norm 即每条记录额外分配的字节数。
+ * 运行：mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.x.pelegant.benchmark.CrawlerMigrationInputBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(CrawlerMigrationInputBenchmark.RECORDS)
+@State(Scope.Benchmark)
+public class CrawlerMigrationInputBenchmark {
+
+    static final int RECORDS = 10000;
+    private static final int BATCH_SIZE = 1000;
+
+    private ObjectMapper objectMapper;
+    private NewDataMigrationService migrationService;
+    private List<Map<String, Object>> records;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        migrationService = new NewDataMigrationService();
+        ReflectionTestUtils.setField(migrationService, "objectMapper", objectMapper);
+        records = generateRecords(new Random(22));
+    }
+
+    @Benchmark
+    public void jsonRoundTrip(Blackhole blackhole) throws JsonProcessingException {
+        String json = objectMapper.writeValueAsString(records);
+        List<Map<String, Object>> parsed = ReflectionTestUtils.invokeMethod(migrationService, "parseJsonInput", json);
+        drainInBatches(parsed.iterator(), blackhole);
+    }
+
+    @Benchmark
+    public void typedHandOff(Blackhole blackhole) {
+        drainInBatches(records.iterator(), blackhole);
+    }
+
+    /**
+     * 与 migrateInBatches 相同的取批方式，批次交给 Blackhole 代替 migrateRawBatch
+     */
+    private static void drainInBatches(Iterator<Map<String, Object>> iterator, Blackhole blackhole) {
+        while (iterator.hasNext()) {
+            List<Map<String, Object>> batch = new ArrayList<>(BATCH_SIZE);
+            while (iterator.hasNext() && batch.size() < BATCH_SIZE) {
+                batch.add(iterator.next());
+            }
+            blackhole.consume(batch);
+        }
+    }
+
+    /**
+     * 与 PythonController 接收的爬虫记录字段一致，描述约 1.5KB
+     */
+    private static List<Map<String, Object>> generateRecords(Random random) {
+        String[] words = {"java", "developer", "team", "build", "services", "customers", "data", "cloud", "design",
+                "experience", "years", "strong", "skills", "hong", "kong", "finance", "banking", "platform", "agile"};
+        List<Map<String, Object>> list = new ArrayList<>(RECORDS);
+        for (int i = 0; i < RECORDS; i++) {
+            StringBuilder description = new StringBuilder();
+            while (description.length() < 1500) {
+                description.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("id", "JOB-" + i);
+            record.put("title", "Software Engineer " + random.nextInt(500));
+            record.put("company", "Company " + random.nextInt(800) + " Limited");
+            record.put("job_description", description.toString());
+            record.put("experience_range", (1 + random.nextInt(5)) + "-" + (3 + random.nextInt(8)) + " years");
+            record.put("location", "Hong Kong");
+            record.put("salary_min", 20000 + random.nextInt(20000));
+            record.put("salary_max", 40000 + random.nextInt(40000));
+            record.put("currency", "HKD");
+            record.put("education_required", "Bachelor");
+            record.put("job_url", "https://jobs.example.com/" + i);
+            record.put("skills", Arrays.asList("Java", "Spring", "MongoDB"));
+            record.put("job_type", random.nextBoolean() ? "Full Time" : "Internship");
+            record.put("date_posted", "2025-07-" + (10 + random.nextInt(18)));
+            list.add(record);
+        }
+        return list;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CrawlerMigrationInputBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,155 @@
+package com.x.pelegant.benchmark;
+
+import com.x.pelegant.util.EmploymentClassifier;
+import com.x.pelegant.util.KeywordAutomaton;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 职位类型关键词匹配的吞吐量（职位/秒）
+ * legacyRegex 复现改造前的做法：每个关键词一个 \b...\b 正则，按类别 parallelStream 查找；
+ * automaton 为一次扫描的关键词自动机，classify 为包含时长、经验年限判断的完整分类。
+ * 语料为固定种子生成的职位标题和描述，关键词使用分类器的默认关键词表。
+ * 运行：mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.x.pelegant.benchmark.EmploymentKeywordBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(EmploymentKeywordBenchmark.CORPUS_SIZE)
+@State(Scope.Benchmark)
+public class EmploymentKeywordBenchmark {
+
+    static final int CORPUS_SIZE = 1000;
+
+    private static final String[] FILLER = {
+            "we", "are", "looking", "for", "a", "motivated", "engineer", "to", "join", "our", "team", "in", "hong",
+            "kong", "you", "will", "work", "with", "product", "and", "design", "build", "scalable", "services",
+            "java", "spring", "mongodb", "redis", "experience", "years", "of", "strong", "communication", "skills",
+            "internal", "tools", "leading", "clients", "across", "asia", "benefits", "include", "insurance", "bonus",
+            "hybrid", "office", "requirements", "degree", "computer", "science", "finance", "analytics", "sales"
+    };
+
+    private EmploymentClassifier classifier;
+    private KeywordAutomaton keywordAutomaton;
+    private KeywordSets keywords;
+    private List<EmploymentClassifier.JobData> corpus;
+    private List<String> lowercased;
+
+    @Setup
+    public void setUp() {
+        classifier = new EmploymentClassifier();
+        ReflectionTestUtils.invokeMethod(classifier, "useDefaultKeywords");
+        ReflectionTestUtils.invokeMethod(classifier, "compileKeywordAutomaton");
+        keywordAutomaton = (KeywordAutomaton) ReflectionTestUtils.getField(classifier, "keywordAutomaton");
+        keywords = new KeywordSets(classifier);
+        corpus = generateCorpus(keywords, new Random(2024));
+        lowercased = new ArrayList<>(corpus.size());
+        for (EmploymentClassifier.JobData job : corpus) {
+            lowercased.add((job.getTitle() + " " + job.getDescription()).toLowerCase());
+        }
+    }
+
+    @Benchmark
+    public void legacyRegex(Blackhole blackhole) {
+        for (String text : lowercased) {
+            boolean intern = keywords.containsParallel(text, keywords.intern);
+            boolean campus = keywords.containsParallel(text, keywords.campus)
+                    || keywords.containsParallel(text, keywords.noExperience);
+            boolean parttime = keywords.containsParallel(text, keywords.parttime);
+            boolean manager = keywords.containsParallel(text, keywords.manager);
+            blackhole.consume(intern);
+            blackhole.consume(campus);
+            blackhole.consume(parttime);
+            blackhole.consume(manager);
+        }
+    }
+
+    @Benchmark
+    public void automaton(Blackhole blackhole) {
+        for (String text : lowercased) {
+            blackhole.consume(keywordAutomaton.match(text));
+        }
+    }
+
+    @Benchmark
+    public void classify(Blackhole blackhole) {
+        for (EmploymentClassifier.JobData job : corpus) {
+            blackhole.consume(classifier.classify(job));
+        }
+    }
+
+    /**
+     * 职位文本：80~300 个常用词，约一半的职位混入 1~3 个关键词
+     */
+    private static List<EmploymentClassifier.JobData> generateCorpus(KeywordSets keywords, Random random) {
+        List<String> all = keywords.all();
+        List<EmploymentClassifier.JobData> jobs = new ArrayList<>(CORPUS_SIZE);
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            StringBuilder description = new StringBuilder();
+            int words = 80 + random.nextInt(220);
+            for (int w = 0; w < words; w++) {
+                description.append(FILLER[random.nextInt(FILLER.length)]).append(w % 15 == 14 ? ". " : " ");
+            }
+            if (random.nextBoolean()) {
+                for (int k = 1 + random.nextInt(3); k > 0; k--) {
+                    description.append(all.get(random.nextInt(all.size()))).append(' ');
+                }
+            }
+            String title = FILLER[random.nextInt(FILLER.length)] + " " + FILLER[random.nextInt(FILLER.length)];
+            jobs.add(new EmploymentClassifier.JobData(title, description.toString(), null));
+        }
+        return jobs;
+    }
+
+    /**
+     * 改造前的关键词正则
+     */
+    private static final class KeywordSets {
+        private final Set<String> intern;
+        private final Set<String> campus;
+        private final Set<String> parttime;
+        private final Set<String> noExperience;
+        private final Set<String> manager;
+        private final Map<String, Pattern> patterns = new HashMap<>();
+
+        @SuppressWarnings("unchecked")
+        KeywordSets(EmploymentClassifier classifier) {
+            intern = (Set<String>) ReflectionTestUtils.getField(classifier, "internKeywords");
+            campus = (Set<String>) ReflectionTestUtils.getField(classifier, "campusKeywords");
+            parttime = (Set<String>) ReflectionTestUtils.getField(classifier, "parttimeKeywords");
+            noExperience = (Set<String>) ReflectionTestUtils.getField(classifier, "noExperienceKeywords");
+            manager = (Set<String>) ReflectionTestUtils.getField(classifier, "managerKeywords");
+            for (String keyword : all()) {
+                patterns.put(keyword, Pattern.compile("\\b" + Pattern.quote(keyword) + "\\b", Pattern.CASE_INSENSITIVE));
+            }
+        }
+
+        List<String> all() {
+            List<String> all = new ArrayList<>();
+            all.addAll(intern);
+            all.addAll(campus);
+            all.addAll(parttime);
+            all.addAll(noExperience);
+            all.addAll(manager);
+            return all;
+        }
+
+        boolean containsParallel(String text, Set<String> keywords) {
+            return keywords.parallelStream().anyMatch(kw -> patterns.get(kw).matcher(text).find());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmploymentKeywordBenchmark.class.getSimpleName()).build()).run();
+    }
+}
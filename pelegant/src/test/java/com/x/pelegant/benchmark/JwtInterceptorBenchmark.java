@@ -0,0 +1,85 @@
+package com.x.pelegant.benchmark;
+
+import com.x.pelegant.config.JwtConfig;
+import com.x.pelegant.interceptor.JwtInterceptor;
+import com.x.pelegant.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 拦截器单次请求的开销
+ * legacyChecks 复现改造前的流程（startsWith 判断路由，验签 4 次），preHandle 为当前拦截器；
+ * cacheSize=0 时每次请求验签一次，cacheSize>0 时命中已验签缓存。
+ * 运行：mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.x.pelegant.benchmark.JwtInterceptorBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtInterceptorBenchmark {
+
+    @Param({"0", "10000"})
+    public int cacheSize;
+
+    private JwtUtil jwtUtil;
+    private JwtInterceptor interceptor;
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setCacheSize(cacheSize);
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtConfig", jwtConfig);
+        jwtUtil.init();
+        interceptor = new JwtInterceptor();
+        ReflectionTestUtils.setField(interceptor, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(interceptor, "jwtConfig", jwtConfig);
+
+        token = jwtUtil.generateToken("student-1", "alice@example.com", JwtConfig.UserRole.STUDENT.getValue());
+        request = new MockHttpServletRequest("GET", "/api/pelegant/recommended-work/list");
+        request.addHeader(jwtConfig.getStudentHeader(), jwtConfig.getTokenPrefix() + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public boolean preHandle() throws Exception {
+        return interceptor.preHandle(request, response, null);
+    }
+
+    @Benchmark
+    public Object legacyChecks() {
+        String uri = request.getRequestURI();
+        String role = null;
+        if (uri.startsWith("/api/students") || uri.startsWith("/api/pelegant/job-seeker")
+                || uri.startsWith("/api/pelegant/jd") || uri.startsWith("/api/pelegant/recommended-work")) {
+            role = JwtConfig.UserRole.STUDENT.getValue();
+        } else if (uri.startsWith("/api/teachers")) {
+            role = JwtConfig.UserRole.TEACHER.getValue();
+        } else if (uri.startsWith("/api/projects")) {
+            role = JwtConfig.UserRole.PROJECT.getValue();
+        }
+        String raw = jwtUtil.extractToken(request.getHeader("student"));
+        if (!jwtUtil.validateToken(raw) || !jwtUtil.validateTokenRole(raw, role)) {
+            return null;
+        }
+        request.setAttribute("userId", jwtUtil.getUserIdFromToken(raw));
+        request.setAttribute("username", jwtUtil.getUsernameFromToken(raw));
+        return request;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtInterceptorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,58 @@
+package com.x.pelegant.benchmark;
+
+import com.x.pelegant.util.PasswordUtil;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不同 BCrypt 成本因子下单核每秒可完成的登录校验数
+ * 单线程运行，结果（ops/s）即每个核心的登录吞吐量，用于选择 pelegant.password.bcrypt-cost
+ * 与 pelegant.password.threads。
+ * 运行：mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.x.pelegant.benchmark.PasswordHashBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "Pelegant2024!";
+
+    @Param({"8", "10", "12"})
+    public int cost;
+
+    private String storedHash;
+
+    @Setup
+    public void setUp() {
+        storedHash = BCrypt.hashpw(PASSWORD, BCrypt.gensalt(cost));
+    }
+
+    /**
+     * 登录成功路径的校验
+     */
+    @Benchmark
+    public boolean login() {
+        return PasswordUtil.checkPassword(PASSWORD, storedHash);
+    }
+
+    /**
+     * 密码错误时的校验，耗时与成功路径相同
+     */
+    @Benchmark
+    public boolean failedLogin() {
+        return PasswordUtil.checkPassword("wrong-password", storedHash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PasswordHashBenchmark.class.getSimpleName()).build()).run();
+    }
+}
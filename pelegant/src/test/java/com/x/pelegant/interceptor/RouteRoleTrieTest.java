@@ -0,0 +1,134 @@
+package com.x.pelegant.interceptor;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 路径前缀树：结果与原先逐个 startsWith 判断一致
+ */
+class RouteRoleTrieTest {
+
+    /** JwtInterceptor 改造前的判断顺序 */
+    private static final String[][] ROUTES = {
+            {"/api/students", "student"},
+            {"/api/pelegant/job-seeker", "student"},
+            {"/api/pelegant/jd", "student"},
+            {"/api/pelegant/recommended-work", "student"},
+            {"/api/teachers", "teacher"},
+            {"/api/projects", "project"},
+    };
+
+    @Test
+    void resolvesRoutesOfInterceptor() {
+        RouteRoleTrie trie = trieOf(ROUTES);
+
+        assertEquals("student", trie.resolve("/api/students/profile"));
+        assertEquals("student", trie.resolve("/api/studentsX"));
+        assertEquals("student", trie.resolve("/api/pelegant/jd"));
+        assertEquals("student", trie.resolve("/api/pelegant/jd/detail"));
+        assertEquals("teacher", trie.resolve("/api/teachers/1/students"));
+        assertEquals("project", trie.resolve("/api/projects"));
+        assertNull(trie.resolve("/api/pelegant/j"));
+        assertNull(trie.resolve("/api/student"));
+        assertNull(trie.resolve("/api/companies"));
+        assertNull(trie.resolve(""));
+    }
+
+    @Test
+    void longestPrefixWins() {
+        RouteRoleTrie trie = new RouteRoleTrie()
+                .add("/api", "a")
+                .add("/api/projects/admin", "c")
+                .add("/api/projects", "b");
+
+        assertEquals("a", trie.resolve("/api/teachers"));
+        assertEquals("b", trie.resolve("/api/projects/list"));
+        assertEquals("c", trie.resolve("/api/projects/admin/users"));
+        assertEquals("b", trie.resolve("/api/projects/adm"));
+    }
+
+    @Test
+    void matchesStartsWithChainForInterceptorRoutes() {
+        RouteRoleTrie trie = trieOf(ROUTES);
+        Random random = new Random(11);
+        List<String> paths = new ArrayList<>();
+        for (String[] route : ROUTES) {
+            String prefix = route[0];
+            for (int cut = 0; cut <= prefix.length(); cut++) {
+                paths.add(prefix.substring(0, cut));
+                paths.add(prefix.substring(0, cut) + randomSuffix(random));
+            }
+        }
+        for (String path : paths) {
+            assertEquals(startsWithChain(ROUTES, path), trie.resolve(path), path);
+        }
+    }
+
+    /**
+     * 前缀互不包含时（与拦截器的路由表相同），最长前缀匹配与按顺序取第一个 startsWith 等价
+     */
+    @Test
+    void matchesStartsWithChainForRandomPrefixFreeTables() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<String[]> routes = new ArrayList<>();
+            while (routes.size() < 8) {
+                String prefix = "/" + randomWord(random, 1 + random.nextInt(3)) + "/" + randomWord(random, 1 + random.nextInt(3));
+                boolean overlaps = false;
+                for (String[] route : routes) {
+                    overlaps |= route[0].startsWith(prefix) || prefix.startsWith(route[0]);
+                }
+                if (!overlaps) {
+                    routes.add(new String[]{prefix, "role" + random.nextInt(3)});
+                }
+            }
+            String[][] table = routes.toArray(new String[0][]);
+            RouteRoleTrie trie = trieOf(table);
+            for (int i = 0; i < 200; i++) {
+                String path = random.nextBoolean()
+                        ? table[random.nextInt(table.length)][0] + randomSuffix(random)
+                        : "/" + randomWord(random, 1 + random.nextInt(3)) + "/" + randomWord(random, random.nextInt(4));
+                assertEquals(startsWithChain(table, path), trie.resolve(path), path);
+            }
+        }
+    }
+
+    private static RouteRoleTrie trieOf(String[][] routes) {
+        RouteRoleTrie trie = new RouteRoleTrie();
+        for (String[] route : routes) {
+            trie.add(route[0], route[1]);
+        }
+        return trie;
+    }
+
+    private static String startsWithChain(String[][] routes, String path) {
+        for (String[] route : routes) {
+            if (path.startsWith(route[0])) {
+                return route[1];
+            }
+        }
+        return null;
+    }
+
+    private static String randomSuffix(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return "";
+            case 1:
+                return "/" + randomWord(random, 1 + random.nextInt(6));
+            default:
+                return randomWord(random, 1 + random.nextInt(3));
+        }
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,169 @@
+package com.x.pelegant.service;
+
+import com.x.pelegant.common.Result;
+import com.x.pelegant.entity.Company;
+import com.x.pelegant.entity.Job;
+import com.x.pelegant.entity.RecommendedWork;
+import com.x.pelegant.entity.Student;
+import com.x.pelegant.repository.JobRepository;
+import com.x.pelegant.repository.RecommendedWorkRepository;
+import com.x.pelegant.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 收藏 / 申请职位的批量查询
+ * 用 Mock 仓库代替 MongoDB 统计每个请求的数据库往返次数：不论收藏多少职位，每个集合只查询一次
+ */
+class StudentServiceBookmarkTest {
+
+    private static final String STUDENT_ID = "student-1";
+    private static final int BOOKMARKS = 200;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private StudentRepository studentRepository;
+    @Mock
+    private JobRepository jobRepository;
+    @Mock
+    private RecommendedWorkRepository recommendedWorkRepository;
+
+    @InjectMocks
+    private StudentService studentService;
+
+    private AutoCloseable mocks;
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        mocks = MockitoAnnotations.openMocks(this);
+        student = new Student();
+        student.setId(STUDENT_ID);
+        when(studentRepository.findById(STUDENT_ID)).thenReturn(Optional.of(student));
+        when(mongoTemplate.find(any(Query.class), eq(Company.class))).thenReturn(Collections.singletonList(company("c-0")));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        mocks.close();
+    }
+
+    @Test
+    void bookmarkedJobsUseOneQueryPerCollection() {
+        // 偶数下标在职位表中，奇数下标只存在于推荐工作中
+        List<String> ids = new ArrayList<>();
+        List<Job> jobs = new ArrayList<>();
+        List<RecommendedWork> works = new ArrayList<>();
+        for (int i = 0; i < BOOKMARKS; i++) {
+            String id = "job-" + i;
+            ids.add(id);
+            if (i % 2 == 0) {
+                jobs.add(job(id, "c-" + (i % 5)));
+            } else {
+                works.add(recommendedWork(id));
+            }
+        }
+        student.setBookmarkedJobs(ids);
+        // 仓库返回顺序与收藏顺序无关
+        Collections.reverse(jobs);
+        when(jobRepository.findByIdIn(anyList())).thenReturn(jobs);
+        when(recommendedWorkRepository.findByJobIdIn(anyList())).thenReturn(works);
+
+        Result<List<Job>> result = studentService.getBookmarkedJobs(STUDENT_ID);
+
+        assertTrue(result.isSuccess());
+        List<String> expected = new ArrayList<>(ids);
+        Collections.reverse(expected);
+        assertEquals(expected, result.getData().stream().map(Job::getId).collect(Collectors.toList()));
+
+        verify(studentRepository, times(1)).findById(STUDENT_ID);
+        verify(jobRepository, times(1)).findByIdIn(anyList());
+        verify(recommendedWorkRepository, times(1)).findByJobIdIn(argThat(missing -> missing.size() == BOOKMARKS / 2));
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Company.class));
+        verify(jobRepository, never()).findById(anyString());
+        verify(recommendedWorkRepository, never()).findByJobId(anyString());
+    }
+
+    @Test
+    void bookmarkedJobsSkipRecommendedLookupWhenAllFound() {
+        student.setBookmarkedJobs(Arrays.asList("job-1", "job-2", "job-1"));
+        when(jobRepository.findByIdIn(anyList())).thenReturn(Arrays.asList(job("job-2", "c-0"), job("job-1", "c-0")));
+
+        Result<List<Job>> result = studentService.getBookmarkedJobs(STUDENT_ID);
+
+        assertEquals(Arrays.asList("job-1", "job-2", "job-1"),
+                result.getData().stream().map(Job::getId).collect(Collectors.toList()));
+        assertEquals("logo-c-0", result.getData().get(0).getLogoImage());
+        verify(jobRepository, times(1)).findByIdIn(argThat(distinct -> distinct.size() == 2));
+        verify(recommendedWorkRepository, never()).findByJobIdIn(anyList());
+    }
+
+    @Test
+    void jobApplicationsIgnoreRecommendedWorks() {
+        student.setAppliedJobs(Arrays.asList("job-1", "job-2", "missing"));
+        when(jobRepository.findByIdIn(anyList())).thenReturn(Arrays.asList(job("job-1", "c-0"), job("job-2", "c-1")));
+
+        Result<List<Job>> result = studentService.getJobApplications(STUDENT_ID);
+
+        assertEquals(Arrays.asList("job-2", "job-1"),
+                result.getData().stream().map(Job::getId).collect(Collectors.toList()));
+        verify(jobRepository, times(1)).findByIdIn(anyList());
+        verify(recommendedWorkRepository, never()).findByJobIdIn(anyList());
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Company.class));
+    }
+
+    @Test
+    void areJobsBookmarkedReadsStudentOnce() {
+        Student projected = new Student();
+        projected.setBookmarkedJobs(Arrays.asList("job-1", "job-3"));
+        when(mongoTemplate.findOne(any(Query.class), eq(Student.class))).thenReturn(projected);
+
+        Result<Map<String, Boolean>> result = studentService.areJobsBookmarked(STUDENT_ID,
+                Arrays.asList("job-1", "job-2", "job-3"));
+
+        Map<String, Boolean> expected = new HashMap<>();
+        expected.put("job-1", true);
+        expected.put("job-2", false);
+        expected.put("job-3", true);
+        assertEquals(expected, result.getData());
+        verify(mongoTemplate, times(1)).findOne(any(Query.class), eq(Student.class));
+        verifyNoInteractions(jobRepository, recommendedWorkRepository);
+        verify(studentRepository, never()).findById(anyString());
+    }
+
+    private static Job job(String id, String companyId) {
+        Job job = new Job();
+        job.setId(id);
+        job.setCompanyId(companyId);
+        return job;
+    }
+
+    private static RecommendedWork recommendedWork(String jobId) {
+        RecommendedWork work = new RecommendedWork();
+        work.setId(jobId);
+        work.setJobId(jobId);
+        work.setJobTitle("title-" + jobId);
+        return work;
+    }
+
+    private static Company company(String companyId) {
+        Company company = new Company();
+        company.setCompanyId(companyId);
+        company.setLogoImage("logo-" + companyId);
+        return company;
+    }
+}
@@ -0,0 +1,282 @@
+package com.x.pelegant.service.company;
+
+import com.x.pelegant.entity.Company;
+import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 公司名解析：精确、规范化、前缀、模糊匹配，以及与原先逐个比较的前缀 / 模糊匹配的一致性
+ */
+class CompanyNameResolverTest {
+
+    private static final double FUZZY_THRESHOLD = 0.9;
+
+    private static final String[] WORDS = {"pacific", "dragon", "harbour", "golden", "asia", "global", "star", "ocean",
+            "kowloon", "victoria", "summit", "bright", "jade", "phoenix", "lotus", "pearl", "eastern", "prime",
+            "trading", "holdings", "capital", "logistics", "technology", "securities", "properties", "digital"};
+
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void normalizesCompanySuffixes() {
+        assertEquals("hsbc holdings limited", CompanyNameResolver.normalize("  HSBC Holdings Ltd. "));
+        assertEquals("acme limited", CompanyNameResolver.normalize("Acme Limited Company"));
+        assertEquals("acme company limited", CompanyNameResolver.normalize("ACME Co., Ltd"));
+        assertEquals("a b corporation", CompanyNameResolver.normalize("A&B Corp"));
+        assertEquals("", CompanyNameResolver.normalize("  --  "));
+        assertEquals("", CompanyNameResolver.normalize(null));
+    }
+
+    @Test
+    void resolvesExactNormalizedAndFuzzyNames() {
+        CompanyNameResolver resolver = resolverOf(company("c1", "Dragon Harbour Trading Ltd."),
+                company("c2", "Golden Ocean Logistics Limited"));
+
+        CompanyNameResolver.Match exact = resolver.resolve(" Dragon Harbour Trading Ltd. ");
+        assertEquals("c1", exact.getCompanyId());
+        assertEquals(CompanyNameResolver.MatchType.EXACT, exact.getType());
+
+        CompanyNameResolver.Match normalized = resolver.resolve("DRAGON HARBOUR TRADING LIMITED");
+        assertEquals("c1", normalized.getCompanyId());
+        assertEquals(CompanyNameResolver.MatchType.NORMALIZED, normalized.getType());
+        assertEquals(1.0, normalized.getConfidence());
+
+        CompanyNameResolver.Match fuzzy = resolver.resolve("Golden Ocean Logistic Limited");
+        assertEquals("c2", fuzzy.getCompanyId());
+        assertEquals(CompanyNameResolver.MatchType.FUZZY, fuzzy.getType());
+        assertTrue(fuzzy.getConfidence() >= FUZZY_THRESHOLD);
+
+        assertNull(resolver.resolve("Victoria Securities"));
+        assertNull(resolver.resolve("   "));
+        assertNull(resolver.resolve(null));
+    }
+
+    @Test
+    void resolvesPrefixToFirstNameInOrder() {
+        CompanyNameResolver resolver = resolverOf(company("c2", "Pacific Star Holdings"),
+                company("c1", "Pacific Dragon Capital"), company("c3", "Jade"));
+
+        CompanyNameResolver.Match prefix = resolver.resolvePrefix("pacific");
+        assertEquals("c1", prefix.getCompanyId());
+        assertEquals(CompanyNameResolver.MatchType.PREFIX, prefix.getType());
+        assertEquals((double) "pacific".length() / "pacific dragon capital".length(), prefix.getConfidence(), 1e-9);
+
+        assertEquals("c2", resolver.resolvePrefix("Pacific Star").getCompanyId());
+        assertEquals(CompanyNameResolver.MatchType.NORMALIZED, resolver.resolvePrefix("JADE").getType());
+        assertNull(resolver.resolvePrefix("Pacific Ocean"));
+        assertNull(resolver.resolvePrefix("Jade Dragon"));
+    }
+
+    @Test
+    void loadsOnceAndRegistersNewCompanies() {
+        CompanyNameResolver resolver = resolverOf(company("c1", "Lotus Digital"));
+
+        assertNull(resolver.resolve("Phoenix Properties"));
+        resolver.register(company("c2", "Phoenix Properties"));
+        resolver.register(company("c3", null));
+        resolver.register(null);
+        assertEquals("c2", resolver.resolve("Phoenix Properties").getCompanyId());
+        resolver.registerAll(Collections.singletonList(company("c1", "Lotus Digital")));
+        assertEquals("c1", resolver.resolve("Lotus Digital").getCompanyId(), "名称未变的公司ID重复登记不影响索引");
+        resolver.register(company("c1", "Pearl Digital Holdings"));
+        assertEquals("c1", resolver.resolve("PEARL DIGITAL HOLDINGS").getCompanyId(), "已存在的公司ID改名后按新名称解析");
+        assertNull(resolver.resolve("Lotus Digital"), "改名后旧名称移出索引");
+        assertNull(resolver.resolvePrefix("lotus"));
+
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Company.class));
+
+        resolver.reload();
+        assertNull(resolver.resolve("Phoenix Properties"), "全量重建以数据库为准");
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Company.class));
+    }
+
+    @Test
+    void refreshSkipsUnusedIndex() {
+        CompanyNameResolver resolver = resolverOf(company("c1", "Lotus Digital"));
+
+        resolver.refresh();
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    /**
+     * 与 NewDataMigrationService 原先的 matchCompanyId 比较：原始名称精确匹配，否则按遍历顺序取第一个
+     * 规范化名称以查询串开头的公司。名称只含字母和空格、不含 ltd / co / corp 时两者的规范化结果相同；
+     * 多家公司都以查询串开头时原实现取决于 HashMap 顺序，新实现取字典序最前的一家，因此只比较是否命中，
+     * 唯一命中时比较公司ID
+     */
+    @Test
+    void prefixMatchesLegacyLinearScan() {
+        Random random = new Random(24);
+        List<Company> companies = new ArrayList<>();
+        Map<String, String> legacyNameToId = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            String name = randomName(random, 1 + random.nextInt(3));
+            if (legacyNameToId.containsKey(name) || legacyNameToId.keySet().stream().anyMatch(name::equalsIgnoreCase)) {
+                continue;
+            }
+            companies.add(company("c" + i, name));
+            legacyNameToId.put(name, "c" + i);
+        }
+        CompanyNameResolver resolver = resolverOf(companies.toArray(new Company[0]));
+        List<String> names = new ArrayList<>(legacyNameToId.keySet());
+
+        for (int i = 0; i < 2000; i++) {
+            String name = names.get(random.nextInt(names.size()));
+            String query;
+            switch (random.nextInt(4)) {
+                case 0:
+                    query = name;
+                    break;
+                case 1:
+                    query = name.toUpperCase(Locale.ROOT);
+                    break;
+                case 2:
+                    query = name.substring(0, 1 + random.nextInt(name.length())).trim();
+                    break;
+                default:
+                    query = randomName(random, 1 + random.nextInt(2));
+                    break;
+            }
+            if (query.isEmpty()) {
+                continue;
+            }
+
+            List<String> legacyMatches = legacyPrefixMatches(legacyNameToId, query);
+            CompanyNameResolver.Match match = resolver.resolvePrefix(query);
+            assertEquals(!legacyMatches.isEmpty(), match != null, query);
+            if (match != null) {
+                assertTrue(legacyMatches.contains(match.getCompanyId()), query);
+                if (legacyMatches.size() == 1) {
+                    assertEquals(legacyMatches.get(0), match.getCompanyId(), query);
+                }
+            }
+        }
+    }
+
+    /**
+     * 与原先逐个比较全部公司的模糊匹配比较：逐个比较未达阈值时不得命中，命中的相似度必须达到阈值且不超过逐个比较的最高值。
+     * 三元组只召回共享片段最多的候选，共享片段很少但前缀相同的公司可能漏召回，因此只要求召回率不低于 99%
+     */
+    @Test
+    void fuzzyMatchesBruteForceScan() {
+        Random random = new Random(7);
+        List<Company> companies = new ArrayList<>();
+        Set<String> normalizedNames = new HashSet<>();
+        for (int i = 0; companies.size() < 500; i++) {
+            String name = randomName(random, 2 + random.nextInt(2)) + (random.nextBoolean() ? " Limited" : "");
+            if (normalizedNames.add(CompanyNameResolver.normalize(name))) {
+                companies.add(company("c" + i, name));
+            }
+        }
+        CompanyNameResolver resolver = resolverOf(companies.toArray(new Company[0]));
+        JaroWinklerSimilarity similarity = new JaroWinklerSimilarity();
+        int expectedHits = 0;
+        int hits = 0;
+
+        for (int i = 0; i < 1000; i++) {
+            String query = typo(random, companies.get(random.nextInt(companies.size())).getCompanyName());
+            String normalized = CompanyNameResolver.normalize(query);
+            if (normalized.isEmpty() || normalizedNames.contains(normalized)) {
+                continue;
+            }
+            double best = 0;
+            for (String name : normalizedNames) {
+                best = Math.max(best, similarity.apply(name, normalized));
+            }
+
+            CompanyNameResolver.Match match = resolver.resolve(query);
+            if (best < FUZZY_THRESHOLD) {
+                assertNull(match, query);
+                continue;
+            }
+            expectedHits++;
+            if (match != null) {
+                hits++;
+                assertEquals(CompanyNameResolver.MatchType.FUZZY, match.getType(), query);
+                assertEquals(similarity.apply(CompanyNameResolver.normalize(match.getCompanyName()), normalized),
+                        match.getConfidence(), 1e-9, query);
+                assertTrue(match.getConfidence() >= FUZZY_THRESHOLD && match.getConfidence() <= best + 1e-9, query);
+            }
+        }
+        assertTrue(expectedHits > 500, "样本中应有足够多的可命中查询");
+        assertTrue(hits >= expectedHits * 0.99, hits + " / " + expectedHits);
+    }
+
+    private CompanyNameResolver resolverOf(Company... companies) {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(Company.class))).thenReturn(new ArrayList<>(Arrays.asList(companies)));
+        CompanyNameResolver resolver = new CompanyNameResolver();
+        ReflectionTestUtils.setField(resolver, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(resolver, "fuzzyThreshold", FUZZY_THRESHOLD);
+        return resolver;
+    }
+
+    private static List<String> legacyPrefixMatches(Map<String, String> nameToId, String query) {
+        String exact = nameToId.get(query);
+        if (exact != null) {
+            return Collections.singletonList(exact);
+        }
+        String lower = legacyNormalize(query);
+        List<String> matches = new ArrayList<>();
+        for (Map.Entry<String, String> entry : nameToId.entrySet()) {
+            if (legacyNormalize(entry.getKey()).startsWith(lower)) {
+                matches.add(entry.getValue());
+            }
+        }
+        return matches;
+    }
+
+    /** NewDataMigrationService 原先的 normalizeString */
+    private static String legacyNormalize(String input) {
+        return input.toLowerCase().replaceAll("[^a-z0-9\\s]", "").replaceAll("\\s+", " ").trim();
+    }
+
+    private static String randomName(Random random, int words) {
+        StringBuilder name = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (name.length() > 0) {
+                name.append(' ');
+            }
+            name.append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+        }
+        return name.toString();
+    }
+
+    /** 删除、替换或交换一个字符 */
+    private static String typo(Random random, String name) {
+        StringBuilder out = new StringBuilder(name);
+        int at = random.nextInt(out.length() - 1);
+        switch (random.nextInt(3)) {
+            case 0:
+                out.deleteCharAt(at);
+                break;
+            case 1:
+                out.setCharAt(at, (char) ('a' + random.nextInt(26)));
+                break;
+            default:
+                char c = out.charAt(at);
+                out.setCharAt(at, out.charAt(at + 1));
+                out.setCharAt(at + 1, c);
+                break;
+        }
+        return out.toString();
+    }
+
+    private static Company company(String companyId, String companyName) {
+        Company company = new Company();
+        company.setCompanyId(companyId);
+        company.setCompanyName(companyName);
+        return company;
+    }
+}
@@ -0,0 +1,244 @@
+package com.x.pelegant.service.industry;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.x.pelegant.entity.Company;
+import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StringUtils;
+
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 行业分类：索引化实现与原先逐条规则扫描的结果一致
+ */
+class IndustryClassifierTest {
+
+    @Test
+    void classifiesByKeywordAndFuzzyTerms() {
+        IndustryClassifier classifier = new IndustryClassifier(Arrays.asList(
+                rule("Financial", "Banking", "Commercial Bank", "HSBC", "virtual bank"),
+                rule("Technology", "Software", null, "SaaS")));
+
+        assertEquals("Financial - Banking - Commercial Bank", classify(classifier, "HSBC Holdings", null));
+        assertEquals("Financial - Banking - Commercial Bank", classify(classifier, "Acme", "A Virtual-Bank startup"));
+        assertEquals("Technology - Software", classify(classifier, "Softwares", null));
+        assertEquals("Financial - Banking - Commercial Bank", classify(classifier, "Acme saas", "virtual bank"),
+                "描述命中更靠前的规则时以描述为准");
+        assertEquals("Unknown", classify(classifier, "Kowloon Bakery", "bread and cakes"));
+        assertEquals("Unknown", classifier.classify(null).flat());
+    }
+
+    @Test
+    void emptyRulesClassifyAsUnknown() {
+        IndustryClassifier classifier = new IndustryClassifier(null);
+
+        assertEquals("Unknown", classify(classifier, "HSBC", "bank"));
+        assertTrue(classifier.classifyAll(Collections.emptyList(), Runnable::run).isEmpty());
+    }
+
+    @Test
+    void matchesLegacyScanOnRandomRules() {
+        Random random = new Random(20);
+        for (int round = 0; round < 100; round++) {
+            List<IndustryClassifier.Rule> rules = new ArrayList<>();
+            List<String> terms = new ArrayList<>();
+            for (int r = 0, n = 1 + random.nextInt(12); r < n; r++) {
+                List<String> keywords = new ArrayList<>();
+                for (int k = random.nextInt(5); k > 0; k--) {
+                    keywords.add(randomPhrase(random));
+                }
+                IndustryClassifier.Rule rule = rule(randomPhrase(random), random.nextBoolean() ? randomPhrase(random) : null,
+                        random.nextBoolean() ? randomPhrase(random) : " ", keywords.toArray(new String[0]));
+                rules.add(rule);
+                terms.addAll(keywords);
+                terms.add(rule.getSector());
+            }
+            IndustryClassifier classifier = new IndustryClassifier(rules);
+            LegacyIndustryClassifier legacy = new LegacyIndustryClassifier(rules);
+
+            for (int i = 0; i < 100; i++) {
+                Company company = company(randomText(random, terms), random.nextInt(3) == 0 ? null : randomText(random, terms));
+                assertEquals(legacy.classify(company).flat(), classifier.classify(company).flat(),
+                        company.getCompanyName() + " / " + company.getCompanyDescription());
+            }
+        }
+    }
+
+    @Test
+    void matchesLegacyScanOnDefaultTaxonomy() throws Exception {
+        List<IndustryClassifier.Rule> rules;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("industry-taxonomy.json")) {
+            rules = new ObjectMapper().readValue(in, new TypeReference<List<IndustryClassifier.Rule>>() {});
+        }
+        List<String> terms = new ArrayList<>();
+        for (IndustryClassifier.Rule rule : rules) {
+            terms.addAll(rule.getKeywords());
+            terms.add(rule.getIndustry());
+        }
+        terms.addAll(Arrays.asList("Limited", "Holdings", "Group", "Hong Kong", "有限公司", "Trading Co.", "Kowloon"));
+        IndustryClassifier classifier = IndustryClassifier.defaultClassifier();
+        LegacyIndustryClassifier legacy = new LegacyIndustryClassifier(rules);
+
+        Random random = new Random(2020);
+        for (int i = 0; i < 2000; i++) {
+            Company company = company(randomText(random, terms), random.nextBoolean() ? null : randomText(random, terms));
+            assertEquals(legacy.classify(company).flat(), classifier.classify(company).flat(),
+                    company.getCompanyName() + " / " + company.getCompanyDescription());
+        }
+    }
+
+    @Test
+    void classifyAllKeepsInputOrder() {
+        IndustryClassifier classifier = IndustryClassifier.defaultClassifier();
+        Random random = new Random(3);
+        List<String> names = Arrays.asList("HSBC", "Mox Bank", "Kowloon Bakery", "AIA Insurance", "Acme Software", "");
+        List<Company> companies = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            companies.add(company(names.get(random.nextInt(names.size())) + " " + i, null));
+        }
+        List<String> expected = companies.stream().map(c -> classifier.classify(c).flat()).collect(Collectors.toList());
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<String> actual = classifier.classifyAll(companies, executor).stream()
+                    .map(IndustryClassifier.IndustryResult::flat)
+                    .collect(Collectors.toList());
+            assertEquals(expected, actual);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String classify(IndustryClassifier classifier, String name, String description) {
+        return classifier.classify(company(name, description)).flat();
+    }
+
+    private static IndustryClassifier.Rule rule(String sector, String industry, String subIndustry, String... keywords) {
+        IndustryClassifier.Rule rule = new IndustryClassifier.Rule();
+        rule.setSector(sector);
+        rule.setIndustry(industry);
+        rule.setSubIndustry(subIndustry);
+        rule.setKeywords(Arrays.asList(keywords));
+        return rule;
+    }
+
+    private static Company company(String name, String description) {
+        Company company = new Company();
+        company.setCompanyName(name);
+        company.setCompanyDescription(description);
+        return company;
+    }
+
+    /**
+     * 小字母表的随机词组，便于产生包含与近似匹配；至少含一个字母，避免归一化后为空的关键词
+     */
+    private static String randomPhrase(Random random) {
+        StringBuilder phrase = new StringBuilder();
+        for (int w = 1 + random.nextInt(2); w > 0; w--) {
+            if (phrase.length() > 0) {
+                phrase.append(random.nextBoolean() ? " " : "-");
+            }
+            for (int c = 2 + random.nextInt(5); c > 0; c--) {
+                char ch = (char) ('a' + random.nextInt(6));
+                phrase.append(random.nextInt(4) == 0 ? Character.toUpperCase(ch) : ch);
+            }
+        }
+        return phrase.toString();
+    }
+
+    /**
+     * 由已有词条拼接、截断或改动个别字符得到的文本
+     */
+    private static String randomText(Random random, List<String> terms) {
+        StringBuilder text = new StringBuilder();
+        for (int w = 1 + random.nextInt(3); w > 0; w--) {
+            String term = terms.get(random.nextInt(terms.size()));
+            switch (random.nextInt(4)) {
+                case 0:
+                    term = term.substring(0, 1 + random.nextInt(term.length()));
+                    break;
+                case 1:
+                    char[] chars = term.toCharArray();
+                    chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+                    term = new String(chars);
+                    break;
+                default:
+                    break;
+            }
+            if (text.length() > 0) {
+                text.append(random.nextBoolean() ? " " : ", ");
+            }
+            text.append(term);
+        }
+        return text.toString();
+    }
+
+    /**
+     * 改造前的分类实现：按规则顺序逐条检查关键词包含与 Jaro-Winkler 相似度
+     */
+    private static final class LegacyIndustryClassifier {
+        private static final double NAME_SIM_THRESHOLD = 0.85;
+
+        private final List<IndustryClassifier.Rule> rules;
+        private final JaroWinklerSimilarity similarity = new JaroWinklerSimilarity();
+
+        private LegacyIndustryClassifier(List<IndustryClassifier.Rule> rules) {
+            this.rules = rules;
+        }
+
+        IndustryClassifier.IndustryResult classify(Company company) {
+            String name = company.getCompanyName();
+            String description = company.getCompanyDescription();
+            for (IndustryClassifier.Rule r : rules) {
+                boolean matched = false;
+                if (r.getKeywords() != null) {
+                    for (String kw : r.getKeywords()) {
+                        if (matches(name, kw) || matches(description, kw)
+                                || matchesFuzzy(name, kw) || matchesFuzzy(description, kw)) {
+                            matched = true;
+                            break;
+                        }
+                    }
+                }
+                if (!matched) {
+                    matched = matchesFuzzy(name, r.getSector())
+                            || matchesFuzzy(name, r.getIndustry())
+                            || matchesFuzzy(name, r.getSubIndustry())
+                            || matchesFuzzy(description, r.getSector())
+                            || matchesFuzzy(description, r.getIndustry())
+                            || matchesFuzzy(description, r.getSubIndustry());
+                }
+                if (matched) {
+                    return new IndustryClassifier.IndustryResult(
+                            blankToNull(r.getSector()), blankToNull(r.getIndustry()), blankToNull(r.getSubIndustry()));
+                }
+            }
+            return new IndustryClassifier.IndustryResult("Unknown", null, null);
+        }
+
+        private boolean matches(String value, String keyword) {
+            if (!StringUtils.hasText(value) || !StringUtils.hasText(keyword)) return false;
+            return normalize(value).contains(normalize(keyword));
+        }
+
+        private boolean matchesFuzzy(String value, String term) {
+            if (!StringUtils.hasText(value) || !StringUtils.hasText(term)) return false;
+            return similarity.apply(normalize(value), normalize(term)) >= NAME_SIM_THRESHOLD;
+        }
+
+        private static String normalize(String s) {
+            return s.replaceAll("[\\p{Punct}\\s]+", "").toLowerCase();
+        }
+
+        private static String blankToNull(String s) {
+            return (s == null || s.trim().isEmpty()) ? null : s.trim();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.x.pelegant.util;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 键集分页游标的编码、解析与查询条件
+ */
+class KeysetCursorTest {
+
+    private static final String SCOPE = "jobs";
+
+    @Test
+    void roundTripKeepsValueTypes() {
+        ObjectId id = new ObjectId();
+        Date date = new Date(1700000000123L);
+
+        KeysetCursor byDate = KeysetCursor.decode(new KeysetCursor(SCOPE, date, id, 42L).encode(), SCOPE);
+        assertEquals(date, byDate.getSortValue());
+        assertEquals(id, byDate.getId());
+        assertEquals(42L, byDate.getTotal());
+
+        KeysetCursor byNumber = KeysetCursor.decode(new KeysetCursor(SCOPE, 7, id, null).encode(), SCOPE);
+        assertEquals(7.0, byNumber.getSortValue());
+        assertNull(byNumber.getTotal());
+
+        KeysetCursor byNull = KeysetCursor.decode(new KeysetCursor(SCOPE, null, id, 0L).encode(), SCOPE);
+        assertNull(byNull.getSortValue());
+        assertEquals(0L, byNull.getTotal());
+
+        KeysetCursor byString = KeysetCursor.decode(new KeysetCursor(SCOPE, "open", "job-1", null).encode(), SCOPE);
+        assertEquals("open", byString.getSortValue());
+        assertEquals("job-1", byString.getId());
+    }
+
+    @Test
+    void convertsLocalDateTimeAndHexIds() {
+        LocalDateTime time = LocalDateTime.of(2025, 7, 18, 9, 30, 15);
+        String hex = new ObjectId().toHexString();
+
+        KeysetCursor cursor = new KeysetCursor(SCOPE, time, hex, null);
+
+        assertEquals(Date.from(time.atZone(ZoneId.systemDefault()).toInstant()), cursor.getSortValue());
+        assertEquals(new ObjectId(hex), cursor.getId());
+    }
+
+    @Test
+    void rejectsCursorOfAnotherScope() {
+        String cursor = new KeysetCursor("students", new Date(), new ObjectId(), null).encode();
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor, SCOPE));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not base64!", SCOPE));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encodeRaw("jobs|d:1"), SCOPE));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encodeRaw("jobs|d:abc||o:" + new ObjectId()), SCOPE));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encodeRaw("jobs|x:1||o:" + new ObjectId()), SCOPE));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encodeRaw("jobs|d:1|abc|o:" + new ObjectId()), SCOPE));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encodeRaw("jobs|d:1||o:zz"), SCOPE));
+        // _id 不能为空
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encodeRaw("jobs|d:1||n:"), SCOPE));
+    }
+
+    @Test
+    void afterDescendingOnlyById() {
+        ObjectId id = new ObjectId();
+        Document criteria = new KeysetCursor(SCOPE, null, id, null).afterDescending(null).getCriteriaObject();
+
+        assertEquals(new Document("_id", new Document("$lt", id)), criteria);
+    }
+
+    @Test
+    void afterDescendingIncludesTiesAndNulls() {
+        ObjectId id = new ObjectId();
+        Date date = new Date(1700000000000L);
+        Document criteria = new KeysetCursor(SCOPE, date, id, null).afterDescending("createdAt").getCriteriaObject();
+
+        List<?> branches = (List<?>) criteria.get("$or");
+        assertEquals(3, branches.size());
+        assertEquals(new Document("createdAt", new Document("$lt", date)), branches.get(0));
+        List<?> tie = (List<?>) ((Document) branches.get(1)).get("$and");
+        assertEquals(new Document("createdAt", date), tie.get(0));
+        assertEquals(new Document("_id", new Document("$lt", id)), tie.get(1));
+        assertEquals(new Document("createdAt", null), branches.get(2));
+    }
+
+    @Test
+    void afterDescendingWithNullSortValueStaysInNullGroup() {
+        ObjectId id = new ObjectId();
+        Document criteria = new KeysetCursor(SCOPE, null, id, null).afterDescending("createdAt").getCriteriaObject();
+
+        List<?> and = (List<?>) criteria.get("$and");
+        assertEquals(new Document("createdAt", null), and.get(0));
+        assertEquals(new Document("_id", new Document("$lt", id)), and.get(1));
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
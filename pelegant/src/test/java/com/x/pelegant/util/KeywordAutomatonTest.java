@@ -0,0 +1,177 @@
+package com.x.pelegant.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多关键词自动机：命中结果与原先逐个关键词的 \b...\b 正则一致
+ */
+class KeywordAutomatonTest {
+
+    private static final int INTERN = 1;
+    private static final int PART_TIME = 1 << 1;
+    private static final int MANAGER = 1 << 2;
+
+    @Test
+    void matchesWholeWordsOnly() {
+        KeywordAutomaton automaton = KeywordAutomaton.builder()
+                .add("intern", INTERN)
+                .add("part-time", PART_TIME)
+                .add("head of", MANAGER)
+                .build();
+
+        assertEquals(INTERN, automaton.match("summer intern wanted"));
+        assertEquals(0, automaton.match("internal tools engineer"));
+        assertEquals(0, automaton.match("international_intern"));
+        assertEquals(PART_TIME, automaton.match("part-time, 20h/week"));
+        assertEquals(MANAGER | INTERN, automaton.match("intern reporting to the head of sales"));
+        assertEquals(0, automaton.match("ahead of schedule"));
+        assertEquals(0, automaton.match(""));
+        assertEquals(0, automaton.match(null));
+    }
+
+    @Test
+    void keywordsAreCaseInsensitiveAndTrimmed() {
+        KeywordAutomaton automaton = KeywordAutomaton.builder()
+                .add("  Vice President ", MANAGER)
+                .add(" ", INTERN)
+                .add(null, INTERN)
+                .build();
+
+        assertEquals(MANAGER, automaton.match("vice president of engineering"));
+        assertEquals(0, automaton.match("intern"));
+    }
+
+    @Test
+    void sameKeywordInSeveralCategories() {
+        KeywordAutomaton automaton = KeywordAutomaton.builder()
+                .add("entry level", INTERN)
+                .addAll(Arrays.asList("entry level", "fresher"), PART_TIME)
+                .addAll(null, MANAGER)
+                .build();
+
+        assertEquals(INTERN | PART_TIME, automaton.match("entry level role"));
+        assertEquals(PART_TIME, automaton.match("fresher"));
+    }
+
+    @Test
+    void overlappingKeywordsAreAllFound() {
+        KeywordAutomaton automaton = KeywordAutomaton.builder()
+                .add("senior", MANAGER)
+                .add("senior manager", PART_TIME)
+                .add("manager", INTERN)
+                .build();
+
+        assertEquals(MANAGER | PART_TIME | INTERN, automaton.match("senior manager"));
+        assertEquals(MANAGER | INTERN, automaton.match("senior product manager"));
+        assertEquals(INTERN, automaton.match("seniormanager manager"));
+    }
+
+    @Test
+    void emptyAutomatonMatchesNothing() {
+        assertEquals(0, KeywordAutomaton.builder().build().match("anything"));
+    }
+
+    /**
+     * 随机关键词表和文本（小字母表，包含空格、连字符、下划线和数字以制造大量重叠与边界情况）
+     */
+    @Test
+    void equivalentToRegexOnRandomInput() {
+        Random random = new Random(19);
+        String alphabet = "abcAB _-1";
+        for (int round = 0; round < 300; round++) {
+            Map<String, Integer> keywords = new LinkedHashMap<>();
+            int count = 1 + random.nextInt(12);
+            while (keywords.size() < count) {
+                String keyword = randomString(random, alphabet, 1 + random.nextInt(4)).trim();
+                if (!keyword.isEmpty()) {
+                    keywords.merge(keyword, 1 << random.nextInt(5), (a, b) -> a | b);
+                }
+            }
+            KeywordAutomaton automaton = automatonOf(keywords);
+            Map<Pattern, Integer> patterns = regexOf(keywords);
+            for (int i = 0; i < 50; i++) {
+                String text = randomString(random, alphabet, random.nextInt(30)).toLowerCase(Locale.ROOT);
+                assertEquals(regexMatch(patterns, text), automaton.match(text), keywords.keySet() + " / '" + text + "'");
+            }
+        }
+    }
+
+    /**
+     * 分类器的默认关键词表在合成的职位文本上
+     */
+    @Test
+    void equivalentToRegexOnDefaultKeywords() {
+        Map<String, Integer> keywords = new LinkedHashMap<>();
+        String[][] sets = {
+                {"intern", "internship", "summer analyst", "co-op", "coop", "placement", "off-cycle", "trainee", "apprentice", "student worker"},
+                {"graduate program", "new grad", "campus hire", "entry level", "management trainee", "graduate", "early career", "junior"},
+                {"part-time", "part time", "temporary", "contract", "freelance", "flexible", "hourly", "on-call", "casual"},
+                {"no experience", "fresh graduate", "new graduate", "entry level", "0 years", "fresher", "recent graduate"},
+                {"manager", "director", "vp", "vice president", "head of", "chief", "lead", "supervisor", "senior", "principal"},
+        };
+        List<String> vocabulary = new ArrayList<>(Arrays.asList("software", "engineer", "team", "leader", "leading",
+                "internal", "graduates", "contractor", "years", "experience", "sales", "developer", "program", "time",
+                "part", "of", "head", "new", "0", "1", "co", "op", "-", ",", ".", "/", "(", ")"));
+        for (int category = 0; category < sets.length; category++) {
+            for (String keyword : sets[category]) {
+                keywords.merge(keyword, 1 << category, (a, b) -> a | b);
+                vocabulary.add(keyword);
+            }
+        }
+        KeywordAutomaton automaton = automatonOf(keywords);
+        Map<Pattern, Integer> patterns = regexOf(keywords);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder text = new StringBuilder();
+            int words = random.nextInt(40);
+            for (int w = 0; w < words; w++) {
+                String word = vocabulary.get(random.nextInt(vocabulary.size()));
+                text.append(word);
+                // 偶尔不加空格，让关键词粘连到相邻的词上
+                if (random.nextInt(5) != 0) {
+                    text.append(' ');
+                }
+            }
+            String lower = text.toString().toLowerCase(Locale.ROOT);
+            assertEquals(regexMatch(patterns, lower), automaton.match(lower), lower);
+        }
+    }
+
+    private static KeywordAutomaton automatonOf(Map<String, Integer> keywords) {
+        KeywordAutomaton.Builder builder = KeywordAutomaton.builder();
+        keywords.forEach(builder::add);
+        return builder.build();
+    }
+
+    /** EmploymentClassifier 改造前为每个关键词编译的正则 */
+    private static Map<Pattern, Integer> regexOf(Map<String, Integer> keywords) {
+        Map<Pattern, Integer> patterns = new LinkedHashMap<>();
+        keywords.forEach((keyword, mask) ->
+                patterns.put(Pattern.compile("\\b" + Pattern.quote(keyword) + "\\b", Pattern.CASE_INSENSITIVE), mask));
+        return patterns;
+    }
+
+    private static int regexMatch(Map<Pattern, Integer> patterns, String text) {
+        int hits = 0;
+        for (Map.Entry<Pattern, Integer> entry : patterns.entrySet()) {
+            if (entry.getKey().matcher(text).find()) {
+                hits |= entry.getValue();
+            }
+        }
+        return hits;
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            out.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return out.toString();
+    }
+}
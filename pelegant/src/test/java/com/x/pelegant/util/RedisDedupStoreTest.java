@@ -0,0 +1,199 @@
+package com.x.pelegant.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 爬虫去重存储：一批记录的检查、指纹写入和入库标记各只占一次 Redis 往返
+ */
+class RedisDedupStoreTest {
+
+    private static final String LEGACY_DESCRIPTION = "Java backend developer building crawler pipelines";
+    private static final String OLD_DESCRIPTION = "Frontend engineer working on dashboards";
+
+    private RedisTemplate<String, String> redisTemplate;
+    private SimpleMeterRegistry registry;
+    private RedisDedupStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        registry = new SimpleMeterRegistry();
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(registry);
+        store = new RedisDedupStore(provider);
+        ReflectionTestUtils.setField(store, "redisTemplate", redisTemplate);
+    }
+
+    @Test
+    void prefetchChecksWholeBatchInOnePipeline() {
+        // 每个键依次为 SET NX 结果、指纹、旧版描述，最后是旧版描述哈希的 HMGET
+        stubPipeline(Arrays.asList(
+                true, "123", null,
+                false, null, null,
+                true, null, OLD_DESCRIPTION,
+                Arrays.asList(null, LEGACY_DESCRIPTION, null)));
+
+        RedisDedupStore.Batch batch = store.prefetch(Arrays.asList("a", "b", "a", "c"));
+
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        assertTrue(batch.claim("a"));
+        assertFalse(batch.claim("a"), "同一批内重复出现的键只能占用一次");
+        assertFalse(batch.claim("b"));
+        assertTrue(batch.claim("c"));
+        assertFalse(batch.claim("unknown"));
+
+        assertEquals(123L, batch.signature("a"));
+        assertEquals(SimHash.of(LEGACY_DESCRIPTION), batch.signature("b"));
+        assertEquals(SimHash.of(OLD_DESCRIPTION), batch.signature("c"));
+        assertNull(batch.signature("unknown"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void prefetchIssuesSetNxAndReadsPerKey() {
+        stubPipeline(Arrays.asList(true, null, null, true, null, null, Arrays.asList(null, null)));
+        store.prefetch(Arrays.asList("a", "b"));
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate).executePipelined(callback.capture());
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands strings = mock(RedisStringCommands.class);
+        RedisHashCommands hashes = mock(RedisHashCommands.class);
+        when(connection.stringCommands()).thenReturn(strings);
+        when(connection.hashCommands()).thenReturn(hashes);
+
+        callback.getValue().doInRedis(connection);
+
+        verify(strings, times(2)).set(any(byte[].class), any(byte[].class), any(Expiration.class),
+                eq(RedisStringCommands.SetOption.ifAbsent()));
+        verify(strings, times(4)).get(any(byte[].class));
+        verify(hashes, times(1)).hMGet(any(byte[].class), any());
+    }
+
+    @Test
+    void emptyBatchSkipsRedis() {
+        RedisDedupStore.Batch batch = store.prefetch(Collections.emptyList());
+
+        assertFalse(batch.claim("a"));
+        batch.finish();
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void pendingSignaturesAreVisibleAndFlushedOnce() {
+        stubPipeline(Arrays.asList(true, null, null, Collections.singletonList(null)));
+        RedisDedupStore.Batch batch = store.prefetch(Collections.singletonList("a"));
+
+        batch.putSignature("a", 42L);
+        batch.putSignature("b", 7L);
+        batch.putSignature("c", null);
+        assertEquals(42L, batch.signature("a"));
+        assertEquals(7L, batch.signature("b"));
+        assertNull(batch.signature("c"));
+
+        batch.flush();
+        batch.flush();
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+        assertEquals(42L, batch.signature("a"));
+    }
+
+    @Test
+    void markSavedUsesOnePipeline() {
+        stubPipeline(Arrays.asList(true, null, null, Collections.singletonList(null)));
+        RedisDedupStore.Batch batch = store.prefetch(Collections.singletonList("a"));
+
+        batch.markSaved(Collections.emptyMap());
+        Map<String, Long> saved = new LinkedHashMap<>();
+        saved.put("a", 1L);
+        saved.put("b", null);
+        batch.markSaved(saved);
+
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void releaseDeletesOnlyUnsavedClaims() {
+        // a、c 由本批占用，b 已被其他批次占用
+        stubPipeline(Arrays.asList(true, null, null, false, null, null, true, null, null, Arrays.asList(null, null, null)));
+        RedisDedupStore.Batch batch = store.prefetch(Arrays.asList("a", "b", "c"));
+        batch.putSignature("c", 9L);
+        batch.markSaved(Collections.singletonMap("a", 1L));
+
+        batch.release();
+
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate, times(3)).executePipelined(callback.capture());
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisKeyCommands keys = mock(RedisKeyCommands.class);
+        when(connection.keyCommands()).thenReturn(keys);
+        callback.getValue().doInRedis(connection);
+
+        ArgumentCaptor<byte[]> deleted = ArgumentCaptor.forClass(byte[].class);
+        verify(keys, times(1)).del(deleted.capture());
+        List<String> deletedKeys = new ArrayList<>();
+        for (byte[] key : deleted.getAllValues()) {
+            deletedKeys.add(new String(key, StandardCharsets.UTF_8));
+        }
+        assertEquals(Arrays.asList("dedup:job:c", "dedup:sig:c"), deletedKeys);
+
+        batch.finish();
+        verify(redisTemplate, times(3)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void releaseWithoutUnsavedClaimsSkipsRedis() {
+        stubPipeline(Arrays.asList(false, null, null, Collections.singletonList(null)));
+        RedisDedupStore.Batch batch = store.prefetch(Collections.singletonList("a"));
+
+        batch.release();
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void finishReportsHitRateAndRedisTime() {
+        stubPipeline(Arrays.asList(true, null, null, false, null, null, Arrays.asList(null, null)));
+        RedisDedupStore.Batch batch = store.prefetch(Arrays.asList("a", "b"));
+
+        batch.claim("a");
+        if (!batch.claim("b")) {
+            batch.recordHit();
+        }
+        batch.claim("a");
+        batch.recordHit();
+        batch.finish();
+
+        assertEquals(3, batch.getChecked());
+        assertEquals(2, batch.getHits());
+        assertEquals(2.0 / 3, batch.getHitRate(), 1e-9);
+        assertEquals(3.0, registry.get("crawler.dedup.checked").counter().count());
+        assertEquals(2.0, registry.get("crawler.dedup.hits").counter().count());
+        assertEquals(1L, registry.get("crawler.dedup.redis").timer().count());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubPipeline(List<Object> results) {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(results);
+    }
+}
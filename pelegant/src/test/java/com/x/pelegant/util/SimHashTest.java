@@ -0,0 +1,217 @@
+package com.x.pelegant.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SimHash 指纹：探测键的召回保证，以及只凭指纹的判定与 DescriptionSimilarity 全文余弦规则的一致程度
+ */
+class SimHashTest {
+
+    @Test
+    void identicalTextHasZeroDistance() {
+        String text = "We are hiring a Java developer to build payment services in Hong Kong.";
+
+        assertEquals(0, SimHash.distance(SimHash.of(text), SimHash.of(text)));
+        assertEquals(SimHash.of(text), SimHash.of(text.toUpperCase(Locale.ROOT).replace(" ", "  ")),
+                "大小写和空白不影响特征");
+        assertTrue(SimHash.isNearDuplicate(SimHash.of(text), SimHash.of(text), DescriptionSimilarity.SHORT_THRESHOLD));
+    }
+
+    @Test
+    void textWithoutWordsHasNoFingerprint() {
+        assertNull(SimHash.of(null));
+        assertNull(SimHash.of(""));
+        assertNull(SimHash.of("  --- !!! "));
+        assertNotNull(SimHash.of("a"));
+    }
+
+    @Test
+    void cjkTextUsesCharacterBigrams() {
+        long original = SimHash.of("负责后端服务开发，熟悉分布式系统和数据库优化");
+        long reordered = SimHash.of("熟悉分布式系统和数据库优化，负责后端服务开发");
+        long unrelated = SimHash.of("门店销售顾问，负责客户接待与商品陈列");
+
+        assertEquals(0, SimHash.distance(original, reordered), "标点切开的片段顺序不影响两字特征");
+        assertFalse(SimHash.isNearDuplicate(original, unrelated, DescriptionSimilarity.THRESHOLD));
+        assertNotNull(SimHash.of("中"));
+    }
+
+    @Test
+    void estimatedCosineDecreasesWithDistance() {
+        assertEquals(1.0, SimHash.estimateCosine(0), 1e-9);
+        assertEquals(0.0, SimHash.estimateCosine(32), 1e-9);
+        assertEquals(-1.0, SimHash.estimateCosine(64), 1e-9);
+        for (int d = 1; d <= 64; d++) {
+            assertTrue(SimHash.estimateCosine(d) < SimHash.estimateCosine(d - 1));
+        }
+    }
+
+    @Test
+    void thresholdDependsOnDescriptionLength() {
+        char[] shortText = new char[DescriptionSimilarity.SHORT_LENGTH - 1];
+        char[] longText = new char[DescriptionSimilarity.SHORT_LENGTH];
+        Arrays.fill(shortText, 'a');
+        Arrays.fill(longText, 'a');
+
+        assertEquals(DescriptionSimilarity.SHORT_THRESHOLD, DescriptionSimilarity.threshold(new String(shortText)));
+        assertEquals(DescriptionSimilarity.THRESHOLD, DescriptionSimilarity.threshold(new String(longText)));
+        assertEquals(0.0, DescriptionSimilarity.cosine(null, "java"));
+        assertEquals(1.0, DescriptionSimilarity.cosine("Java, Spring!", "java spring"), 1e-9);
+    }
+
+    @Test
+    void cosineComparesCjkBigrams() {
+        String backend = "负责后端服务开发，熟悉分布式系统";
+
+        assertEquals(1.0, DescriptionSimilarity.cosine(backend, "熟悉分布式系统，负责后端服务开发"), 1e-9);
+        assertTrue(DescriptionSimilarity.cosine(backend, "门店销售顾问，负责客户接待") < 0.2, "不同的中文描述不再都归一为空词");
+        assertTrue(DescriptionSimilarity.cosine("Python 数据分析师，负责报表", "Python 门店销售，负责陈列") < 0.5,
+                "中英混合的描述不只比较英文词");
+        assertEquals(0.0, DescriptionSimilarity.cosine("!!! ---", "!!! ---"));
+        assertFalse(DescriptionSimilarity.isNearDuplicate("——", "……"));
+    }
+
+    @Test
+    void maxDistanceMatchesEstimatedCosine() {
+        assertEquals(13, SimHash.maxDistance(DescriptionSimilarity.THRESHOLD));
+        assertEquals(9, SimHash.maxDistance(DescriptionSimilarity.SHORT_THRESHOLD));
+        assertEquals(0, SimHash.maxDistance(1.0));
+        for (double threshold : new double[]{DescriptionSimilarity.THRESHOLD, DescriptionSimilarity.SHORT_THRESHOLD}) {
+            int max = SimHash.maxDistance(threshold);
+            assertTrue(SimHash.estimateCosine(max) >= threshold);
+            assertTrue(SimHash.estimateCosine(max + 1) < threshold);
+            assertTrue(max <= SimHash.PROBE_DISTANCE, "判定距离须在探测键的召回范围内");
+        }
+    }
+
+    /**
+     * 距离不超过 PROBE_DISTANCE 的指纹一定共享某个探测键
+     */
+    @Test
+    void probesFindEverySignatureWithinProbeDistance() {
+        Random random = new Random(8);
+        for (int i = 0; i < 20000; i++) {
+            long signature = random.nextLong();
+            long other = signature;
+            int flips = random.nextInt(SimHash.PROBE_DISTANCE + 1);
+            while (SimHash.distance(signature, other) < flips) {
+                other ^= 1L << random.nextInt(64);
+            }
+            Set<Long> probes = new HashSet<>(SimHash.probes(signature));
+            assertEquals(SimHash.BANDS * (SimHash.BAND_BITS + 1), probes.size());
+            assertTrue(SimHash.bands(other).stream().anyMatch(probes::contains), Long.toHexString(signature ^ other));
+        }
+
+        // 每段恰好相差 2 位时距离为 16，探测键不再覆盖
+        long signature = random.nextLong();
+        long other = signature ^ 0x0303030303030303L;
+        assertEquals(SimHash.PROBE_DISTANCE + 1, SimHash.distance(signature, other));
+        assertTrue(SimHash.bands(other).stream().noneMatch(new HashSet<>(SimHash.probes(signature))::contains));
+    }
+
+    /**
+     * 原描述随机替换、删除、插入 0~50% 的词，与全文余弦规则比较：余弦高于阈值 0.1 以上的至少 98% 判为重复，
+     * 低于阈值 0.2 以上的至多 1% 判为重复；64 位指纹估算的标准差约 0.1，分歧集中在阈值附近
+     */
+    @Test
+    void signatureDecisionAgreesWithCosineRule() {
+        Random random = new Random(25);
+        String[] vocabulary = vocabulary(random);
+        int clearDuplicates = 0, detected = 0, clearDistinct = 0, flagged = 0, agreed = 0, pairs = 20000;
+        for (int i = 0; i < pairs; i++) {
+            List<String> original = description(random, vocabulary, true);
+            List<String> edited = new ArrayList<>(original);
+            double rate = random.nextDouble() * 0.5;
+            for (int w = 0; w < edited.size(); w++) {
+                if (random.nextDouble() >= rate) {
+                    continue;
+                }
+                int op = random.nextInt(3);
+                if (op == 0) {
+                    edited.set(w, vocabulary[random.nextInt(vocabulary.length)]);
+                } else if (op == 1 && edited.size() > 2) {
+                    edited.remove(w);
+                } else {
+                    edited.add(w, vocabulary[random.nextInt(vocabulary.length)]);
+                }
+            }
+            String existing = String.join(" ", original);
+            String description = String.join(" ", edited);
+            double threshold = DescriptionSimilarity.threshold(description);
+            double cosine = DescriptionSimilarity.cosine(description, existing);
+            boolean duplicate = SimHash.isNearDuplicate(SimHash.of(description), SimHash.of(existing), threshold);
+            if (duplicate == cosine >= threshold) {
+                agreed++;
+            }
+            if (cosine >= threshold + 0.1) {
+                clearDuplicates++;
+                detected += duplicate ? 1 : 0;
+            } else if (cosine < threshold - 0.2) {
+                clearDistinct++;
+                flagged += duplicate ? 1 : 0;
+            }
+        }
+        assertTrue(clearDuplicates > 1000 && clearDistinct > 500, "样本中两类描述对都应足够多");
+        assertTrue(detected >= clearDuplicates * 0.98, detected + " / " + clearDuplicates);
+        assertTrue(flagged <= clearDistinct * 0.01, flagged + " / " + clearDistinct);
+        assertTrue(agreed >= pairs * 0.8, agreed + " / " + pairs);
+    }
+
+    /**
+     * 互不相关的描述（均匀取词，只共享偶然相同的词）：平均距离接近 32，几乎不会判为重复
+     */
+    @Test
+    void unrelatedDescriptionsAreNotNearDuplicates() {
+        Random random = new Random(52);
+        String[] vocabulary = vocabulary(random);
+        int pairs = 5000;
+        long totalDistance = 0;
+        int duplicates = 0;
+        for (int i = 0; i < pairs; i++) {
+            String a = String.join(" ", description(random, vocabulary, false));
+            String b = String.join(" ", description(random, vocabulary, false));
+            long signatureA = SimHash.of(a);
+            long signatureB = SimHash.of(b);
+            totalDistance += SimHash.distance(signatureA, signatureB);
+            if (SimHash.isNearDuplicate(signatureA, signatureB, DescriptionSimilarity.threshold(a))) {
+                duplicates++;
+            }
+        }
+        assertEquals(32.0, (double) totalDistance / pairs, 2.0);
+        assertTrue(duplicates <= pairs / 1000, duplicates + " / " + pairs);
+    }
+
+    /**
+     * 3000 个 2~9 个字母的随机词
+     */
+    private static String[] vocabulary(Random random) {
+        String[] vocabulary = new String[3000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int c = 2 + random.nextInt(8); c > 0; c--) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            vocabulary[i] = word.toString();
+        }
+        return vocabulary;
+    }
+
+    /**
+     * 30% 为 8~32 词的短描述，其余 40~439 词；skewed 时常用词出现得更频繁，否则均匀取词
+     */
+    private static List<String> description(Random random, String[] vocabulary, boolean skewed) {
+        int words = random.nextInt(10) < 3 ? 8 + random.nextInt(25) : 40 + random.nextInt(400);
+        List<String> description = new ArrayList<>(words);
+        for (int w = 0; w < words; w++) {
+            int rank = skewed
+                    ? (int) Math.min(vocabulary.length - 1, Math.abs(random.nextGaussian()) * 300 * (1 + random.nextInt(3)))
+                    : random.nextInt(vocabulary.length);
+            description.add(vocabulary[rank]);
+        }
+        return description;
+    }
+}